@@ -130,25 +130,27 @@
 </xsl:template>
 
 <xsl:template match="build">
+  <!-- the StreamingXmlLogger writes the attributes to a nested finished element -->
+  <xsl:variable name="error" select="@error | finished/@error"/>
   <!-- build status -->
   <table width="100%">
     <xsl:attribute name="class">
-      <xsl:if test="@error">failed</xsl:if>
-      <xsl:if test="not(@error)">complete</xsl:if>
+      <xsl:if test="$error">failed</xsl:if>
+      <xsl:if test="not($error)">complete</xsl:if>
     </xsl:attribute>
     <tr>
-      <xsl:if test="@error">
+      <xsl:if test="$error">
         <td nowrap="yes">Build Failed</td> 
       </xsl:if>
-      <xsl:if test="not(@error)">
+      <xsl:if test="not($error)">
         <td nowrap="yes">Build Complete</td>
       </xsl:if>
-        <td style="text-align:right" nowrap="yes">Total Time: <xsl:value-of select="@time"/></td>
+        <td style="text-align:right" nowrap="yes">Total Time: <xsl:value-of select="@time | finished/@time"/></td>
     </tr>
     <tr>
       <td colspan="2">
-        <xsl:if test="@error">
-          <tt><xsl:value-of select="@error"/></tt><br/>
+        <xsl:if test="$error">
+          <tt><xsl:value-of select="$error"/></tt><br/>
           <i style="font-size:80%">See the <a href="#stacktrace" alt="Click for details">stacktrace</a>.</i>
         </xsl:if>
       </td>
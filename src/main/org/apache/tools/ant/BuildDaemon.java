@@ -0,0 +1,298 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Properties;
+
+import org.apache.tools.ant.launch.AntMain;
+import org.apache.tools.ant.launch.DaemonClient;
+
+/**
+ * A long-lived Ant JVM that runs builds on behalf of
+ * {@link DaemonClient}s.
+ *
+ * <p>Keeping the JVM alive means Ant's own classes, the code compiled
+ * by the JIT and the component definitions cached by {@link
+ * ComponentHelper} are reused by all builds. Each build still gets a
+ * fresh {@link Project} created by {@link Main}, builds are run one
+ * at a time with System.out and System.err redirected to the client
+ * and the system properties are restored after each build.</p>
+ *
+ * <p>The daemon terminates once it hasn't received a request for the
+ * number of seconds given by the <code>ant.daemon.idletimeout</code>
+ * system property, three hours by default.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public class BuildDaemon implements AntMain {
+
+    /**
+     * System property holding the idle timeout in seconds.
+     * {@value}
+     */
+    public static final String IDLE_TIMEOUT_PROPERTY = "ant.daemon.idletimeout";
+
+    private static final int DEFAULT_IDLE_TIMEOUT = 3 * 60 * 60;
+
+    /** Longest idle timeout in seconds the socket timeout can express. */
+    private static final int MAX_IDLE_TIMEOUT = Integer.MAX_VALUE / 1000;
+
+    private File daemonFile;
+    private int idleTimeout;
+    private String token;
+    private ServerSocket serverSocket;
+
+    /**
+     * Start the daemon.
+     * @param args the single argument is the file port and token are
+     * written to
+     * @param additionalUserProperties not used
+     * @param coreLoader passed to each build
+     */
+    public void startAnt(final String[] args, final Properties additionalUserProperties,
+                         final ClassLoader coreLoader) {
+        int exitCode = 0;
+        try {
+            if (args.length != 1) {
+                throw new BuildException("Expected the daemon file as single argument");
+            }
+            listen(new File(args[0]), Integer.getInteger(IDLE_TIMEOUT_PROPERTY,
+                                                          DEFAULT_IDLE_TIMEOUT));
+            serve(coreLoader);
+        } catch (final IOException | BuildException ex) {
+            System.err.println("Ant daemon failed: " + ex.getMessage());
+            exitCode = 1;
+        }
+        // builds may have left non-daemon threads behind
+        System.exit(exitCode);
+    }
+
+    /**
+     * Bind to a loopback port and publish port and token in the
+     * daemon file.
+     * @param daemonFile the file to write
+     * @param idleTimeout seconds to wait for a request before
+     * shutting down
+     * @throws IOException if the socket or file cannot be created
+     * @throws BuildException if the timeout is out of range
+     */
+    void listen(final File daemonFile, final int idleTimeout) throws IOException {
+        if (idleTimeout <= 0 || idleTimeout > MAX_IDLE_TIMEOUT) {
+            throw new BuildException("Invalid idle timeout %d, %s must be between 1 and %d seconds",
+                                     idleTimeout, IDLE_TIMEOUT_PROPERTY, MAX_IDLE_TIMEOUT);
+        }
+        this.daemonFile = daemonFile;
+        this.idleTimeout = idleTimeout;
+        final byte[] random = new byte[16];
+        new SecureRandom().nextBytes(random);
+        final StringBuilder sb = new StringBuilder();
+        for (byte b : random) {
+            sb.append(String.format("%02x", b & 0xff));
+        }
+        token = sb.toString();
+
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        serverSocket.setSoTimeout(idleTimeout * 1000);
+
+        final Properties props = new Properties();
+        props.setProperty(DaemonClient.PORT_KEY,
+                          String.valueOf(serverSocket.getLocalPort()));
+        props.setProperty(DaemonClient.TOKEN_KEY, token);
+        final File dir = daemonFile.getAbsoluteFile().getParentFile();
+        final Path tmp = dir.toPath().resolve(daemonFile.getName() + ".tmp");
+        // nobody but the owner may ever read the token, so directory
+        // and file are created with restricted permissions right away
+        if (tmp.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(dir.toPath(), PosixFilePermissions
+                .asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            Files.deleteIfExists(tmp);
+            Files.createFile(tmp, PosixFilePermissions
+                .asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createDirectories(dir.toPath());
+        }
+        try (OutputStream os = Files.newOutputStream(tmp)) {
+            props.store(os, "Ant daemon");
+        }
+        Files.move(tmp, daemonFile.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Serve requests until no request has been received for the idle
+     * timeout.
+     * @param coreLoader passed to each build
+     * @throws IOException if accepting connections fails
+     */
+    void serve(final ClassLoader coreLoader) throws IOException {
+        try {
+            while (true) {
+                final Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (final SocketTimeoutException ex) {
+                    System.out.println("No request for " + idleTimeout
+                                       + " seconds, shutting down.");
+                    return;
+                }
+                try (Socket s = socket) {
+                    handle(s, coreLoader);
+                } catch (final IOException ex) {
+                    System.err.println("Failed to serve request: " + ex.getMessage());
+                }
+            }
+        } finally {
+            serverSocket.close();
+            daemonFile.delete();
+        }
+    }
+
+    private void handle(final Socket socket, final ClassLoader coreLoader)
+        throws IOException {
+        final DataInputStream in = new DataInputStream(
+            new BufferedInputStream(socket.getInputStream()));
+        // don't tell how much of the token was right by the time it takes
+        if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                                   in.readUTF().getBytes(StandardCharsets.UTF_8))) {
+            System.err.println("Rejected request with invalid token");
+            return;
+        }
+        final String workingDir = in.readUTF();
+        final String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readUTF();
+        }
+
+        final DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(socket.getOutputStream()));
+        final PrintStream buildOut =
+            new PrintStream(new FrameOutputStream(out, DaemonClient.STDOUT), true);
+        final PrintStream buildErr =
+            new PrintStream(new FrameOutputStream(out, DaemonClient.STDERR), true);
+        final int exitCode;
+        if (!new File(workingDir).getAbsoluteFile()
+            .equals(new File(".").getAbsoluteFile().getParentFile())) {
+            buildErr.println("The Ant daemon serves " + System.getProperty("user.dir")
+                             + " and can't run a build in " + workingDir);
+            exitCode = 1;
+        } else {
+            exitCode = runBuild(args, coreLoader, buildOut, buildErr);
+        }
+        buildOut.flush();
+        buildErr.flush();
+        synchronized (out) {
+            out.writeByte(DaemonClient.EXIT);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+
+    /**
+     * Run a single build in isolation.
+     * @return the exit code
+     */
+    private int runBuild(final String[] args, final ClassLoader coreLoader,
+                         final PrintStream buildOut, final PrintStream buildErr) {
+        final PrintStream savedOut = System.out;
+        final PrintStream savedErr = System.err;
+        final InputStream savedIn = System.in;
+        final Properties savedProperties = (Properties) System.getProperties().clone();
+        final int[] exitCode = new int[] {0};
+        // there is no way to forward the client's console input
+        final String[] buildArgs = new String[args.length + 1];
+        buildArgs[0] = "-noinput";
+        System.arraycopy(args, 0, buildArgs, 1, args.length);
+        try {
+            System.setOut(buildOut);
+            System.setErr(buildErr);
+            System.setIn(new ByteArrayInputStream(new byte[0]));
+            new Main() {
+                @Override
+                protected void exit(final int code) {
+                    exitCode[0] = code;
+                }
+            }.startAnt(buildArgs, null, coreLoader);
+        } catch (final RuntimeException | Error ex) {
+            ex.printStackTrace(); //NOSONAR
+            exitCode[0] = 1;
+        } finally {
+            System.setOut(savedOut);
+            System.setErr(savedErr);
+            System.setIn(savedIn);
+            System.setProperties(savedProperties);
+        }
+        return exitCode[0];
+    }
+
+    /**
+     * Wraps everything written into frames of the given type.
+     */
+    private static class FrameOutputStream extends OutputStream {
+        private final DataOutputStream out;
+        private final int type;
+
+        FrameOutputStream(final DataOutputStream out, final int type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len)
+            throws IOException {
+            synchronized (out) {
+                out.writeByte(type);
+                out.writeInt(len);
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+    }
+}
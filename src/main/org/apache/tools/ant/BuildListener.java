@@ -107,4 +107,22 @@ public interface BuildListener extends EventListener {
      * @see BuildEvent#getPriority()
      */
     void messageLogged(BuildEvent event);
+
+    /**
+     * The most verbose message priority this listener is interested in.
+     *
+     * <p>Messages of a higher priority - like {@link
+     * Project#MSG_DEBUG MSG_DEBUG} messages when this method returns
+     * {@link Project#MSG_INFO MSG_INFO} - may never be passed to
+     * {@link #messageLogged messageLogged} if no other listener is
+     * interested in them either. Listeners that want to see all
+     * messages must not override this method.</p>
+     *
+     * @return the most verbose message priority this listener wants
+     * to receive, {@link Project#MSG_DEBUG MSG_DEBUG} by default.
+     * @since Ant 1.10.11
+     */
+    default int getMessageOutputLevel() {
+        return Project.MSG_DEBUG;
+    }
 }
@@ -0,0 +1,385 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.tools.ant.types.selectors.SelectorUtils;
+
+/**
+ * Executes targets again whenever files they have consumed change.
+ *
+ * <p>While the targets are executed this listener records the base
+ * directories of all filesets and dirsets that have been scanned -
+ * together with the target of the project that has been executing
+ * at that time. Once the targets have finished, the directories are
+ * watched using a {@link WatchService} and the targets that depend
+ * on a target whose directories have changed are executed again,
+ * using the same project. Changes made while the targets are
+ * executing and changes to files matched by the default excludes are
+ * ignored.</p>
+ *
+ * <p>Build events are fired for each execution as if it was a
+ * separate build. As the project is reused properties set by an
+ * earlier execution keep their values.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public final class ContinuousBuild implements BuildListener {
+
+    /** Milliseconds to wait for further changes once a change has been seen. */
+    private static final long QUIET_PERIOD = 200;
+
+    /** Directories recorded outside of any target of the project. */
+    private static final String NO_TARGET = "";
+
+    private final Project project;
+    private final Vector<String> targets;
+    private final Map<Thread, Deque<Target>> executing = new ConcurrentHashMap<>();
+    private final Map<File, Set<String>> scanned = new ConcurrentHashMap<>();
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+    private final Set<Path> registered = new HashSet<>();
+    private final String[] defaultExcludes;
+    private WatchService watchService;
+    private volatile boolean stopped;
+
+    /**
+     * @param project the configured project
+     * @param targets the names of the targets to execute
+     */
+    ContinuousBuild(final Project project, final Vector<String> targets) {
+        this.project = project;
+        this.targets = targets;
+        defaultExcludes = Stream.of(DirectoryScanner.getDefaultExcludes())
+            .map(p -> p.replace('/', File.separatorChar).replace('\\', File.separatorChar))
+            .toArray(String[]::new);
+    }
+
+    /**
+     * Record that a fileset or dirset has been scanned.
+     *
+     * <p>Does nothing unless a continuous build is executing the
+     * project's targets.</p>
+     *
+     * @param project the project the scan has been performed for
+     * @param dir the base directory of the fileset
+     */
+    public static void recordScan(final Project project, final File dir) {
+        for (final BuildListener l : project.getBuildListeners()) {
+            if (l instanceof ContinuousBuild) {
+                ((ContinuousBuild) l).record(dir);
+            }
+        }
+    }
+
+    /**
+     * Execute the targets and execute them again after changes until
+     * {@link #stop} is called.
+     *
+     * <p>The caller is responsible for firing the build events of the
+     * first execution's start and the last execution's end.</p>
+     *
+     * @throws BuildException if the last execution has failed
+     */
+    void run() {
+        project.addBuildListener(this);
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (final IOException ex) {
+            throw new BuildException("Unable to watch for changes", ex);
+        }
+        try {
+            Vector<String> toExecute = targets;
+            while (true) {
+                RuntimeException error = null;
+                scanned.clear();
+                try {
+                    project.executeTargets(toExecute);
+                } catch (final RuntimeException ex) {
+                    error = ex;
+                }
+                registerScannedDirectories();
+                if (registered.isEmpty() || stopped) {
+                    if (error != null) {
+                        throw error;
+                    }
+                    return;
+                }
+                project.log("Watching " + registered.size()
+                            + " directories for changes.", Project.MSG_INFO);
+                project.fireBuildFinished(error);
+                // changes made by the build itself
+                discardEvents();
+                toExecute = awaitChanges();
+                if (toExecute == null) {
+                    project.fireBuildStarted();
+                    return;
+                }
+                project.fireBuildStarted();
+                project.log("Files have changed, executing "
+                            + String.join(", ", toExecute) + " again.",
+                            Project.MSG_INFO);
+            }
+        } finally {
+            project.removeBuildListener(this);
+            try {
+                watchService.close();
+            } catch (final IOException ex) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Make {@link #run} return as soon as it is waiting for changes.
+     */
+    void stop() {
+        stopped = true;
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+        } catch (final IOException ex) {
+            // ignore
+        }
+    }
+
+    private void record(final File dir) {
+        final Deque<Target> stack = executing.get(Thread.currentThread());
+        String target = NO_TARGET;
+        if (stack != null) {
+            // the outermost target of our project, targets of
+            // subprojects are executed on behalf of it
+            for (final Target t : (Iterable<Target>) stack::descendingIterator) {
+                if (t.getProject() == project) {
+                    target = t.getName();
+                    break;
+                }
+            }
+        }
+        scanned.computeIfAbsent(dir.getAbsoluteFile(), d -> ConcurrentHashMap.newKeySet())
+            .add(target);
+    }
+
+    private void registerScannedDirectories() {
+        for (final File dir : scanned.keySet()) {
+            if (dir.isDirectory()) {
+                register(dir.toPath());
+            }
+        }
+    }
+
+    private void register(final Path root) {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(final Path dir,
+                                                         final BasicFileAttributes attrs)
+                    throws IOException {
+                    if (!dir.equals(root) && isDefaultExcluded(root.relativize(dir))) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    if (registered.add(dir)) {
+                        keys.put(dir.register(watchService,
+                                              StandardWatchEventKinds.ENTRY_CREATE,
+                                              StandardWatchEventKinds.ENTRY_DELETE,
+                                              StandardWatchEventKinds.ENTRY_MODIFY), dir);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (final IOException ex) {
+            project.log("Unable to watch " + root + ": " + ex.getMessage(),
+                        Project.MSG_WARN);
+        }
+    }
+
+    private boolean isDefaultExcluded(final Path relative) {
+        final String name = relative.toString();
+        return Stream.of(defaultExcludes).anyMatch(p -> SelectorUtils.matchPath(p, name));
+    }
+
+    private void discardEvents() {
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            key.pollEvents();
+            reset(key);
+        }
+    }
+
+    /**
+     * Wait for changes.
+     * @return the targets to execute or null if stopped
+     */
+    private Vector<String> awaitChanges() {
+        try {
+            while (true) {
+                final Set<Path> changed = new LinkedHashSet<>();
+                WatchKey key = watchService.take();
+                while (key != null) {
+                    collect(key, changed);
+                    key = watchService.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS);
+                }
+                final Vector<String> affected = affectedTargets(changed);
+                if (!affected.isEmpty()) {
+                    return affected;
+                }
+            }
+        } catch (final ClosedWatchServiceException ex) {
+            return null;
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void collect(final WatchKey key, final Set<Path> changed) {
+        final Path dir = keys.get(key);
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // we don't know what has changed
+                changed.add(null);
+                continue;
+            }
+            final Path child = dir.resolve((Path) event.context());
+            changed.add(child);
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                && Files.isDirectory(child)) {
+                for (final File root : scanned.keySet()) {
+                    if (child.startsWith(root.toPath())) {
+                        register(child);
+                        break;
+                    }
+                }
+            }
+        }
+        reset(key);
+    }
+
+    private void reset(final WatchKey key) {
+        if (!key.reset()) {
+            registered.remove(keys.remove(key));
+        }
+    }
+
+    /**
+     * The targets that depend on a target that has scanned one of
+     * the changed files, in the original order.
+     */
+    private Vector<String> affectedTargets(final Set<Path> changed) {
+        final Set<String> changedTargets = new HashSet<>();
+        for (final Map.Entry<File, Set<String>> e : scanned.entrySet()) {
+            final Path root = e.getKey().toPath();
+            for (final Path p : changed) {
+                if (p == null || (p.startsWith(root)
+                                  && !isDefaultExcluded(root.relativize(p)))) {
+                    changedTargets.addAll(e.getValue());
+                    break;
+                }
+            }
+        }
+        final Vector<String> affected = new Vector<>();
+        if (changedTargets.contains(NO_TARGET)) {
+            affected.addAll(targets);
+            return affected;
+        }
+        for (final String target : targets) {
+            final Set<String> executed = project.topoSort(target, project.getTargets(), false)
+                .stream().map(Target::getName).collect(Collectors.toSet());
+            if (executed.stream().anyMatch(changedTargets::contains)) {
+                affected.add(target);
+            }
+        }
+        return affected;
+    }
+
+    @Override
+    public void buildStarted(final BuildEvent event) {
+    }
+
+    @Override
+    public void buildFinished(final BuildEvent event) {
+    }
+
+    @Override
+    public void targetStarted(final BuildEvent event) {
+        executing.computeIfAbsent(Thread.currentThread(), t -> new ArrayDeque<>())
+            .push(event.getTarget());
+    }
+
+    @Override
+    public void targetFinished(final BuildEvent event) {
+        final Deque<Target> stack = executing.get(Thread.currentThread());
+        if (stack != null) {
+            stack.pop();
+            if (stack.isEmpty()) {
+                executing.remove(Thread.currentThread());
+            }
+        }
+    }
+
+    @Override
+    public void taskStarted(final BuildEvent event) {
+    }
+
+    @Override
+    public void taskFinished(final BuildEvent event) {
+    }
+
+    @Override
+    public void messageLogged(final BuildEvent event) {
+    }
+
+    /**
+     * Not interested in any message, so it doesn't make log
+     * messages get created that nobody else wants.
+     */
+    @Override
+    public int getMessageOutputLevel() {
+        return -1;
+    }
+}
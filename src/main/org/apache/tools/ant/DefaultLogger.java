@@ -93,6 +93,22 @@ public class DefaultLogger implements BuildLogger {
         this.msgOutputLevel = level;
     }
 
+    /**
+     * The most verbose message priority this logger writes to its
+     * output.
+     *
+     * <p>Subclasses that need to see messages of higher priority
+     * inside of {@link #messageLogged messageLogged} must override
+     * this method.</p>
+     *
+     * @return the logging level set by {@link #setMessageOutputLevel}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public int getMessageOutputLevel() {
+        return msgOutputLevel;
+    }
+
     /**
      * Sets the output stream to which this logger is to send its output.
      *
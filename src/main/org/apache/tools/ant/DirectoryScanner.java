@@ -21,31 +21,41 @@ package org.apache.tools.ant;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.Vector;
-import java.util.function.Predicate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.stream.Stream;
 
 import org.apache.tools.ant.taskdefs.condition.Os;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceFactory;
 import org.apache.tools.ant.types.resources.FileResource;
+import org.apache.tools.ant.types.resources.SharedFileContent;
 import org.apache.tools.ant.types.selectors.FileSelector;
+import org.apache.tools.ant.types.selectors.MultiPatternMatcher;
 import org.apache.tools.ant.types.selectors.SelectorScanner;
 import org.apache.tools.ant.types.selectors.SelectorUtils;
 import org.apache.tools.ant.types.selectors.TokenizedPath;
 import org.apache.tools.ant.types.selectors.TokenizedPattern;
+import org.apache.tools.ant.util.DirectoryListingCache;
+import org.apache.tools.ant.util.DirectoryListingCache.Listing;
 import org.apache.tools.ant.util.FileUtils;
 import org.apache.tools.ant.util.VectorSet;
 
@@ -381,6 +391,30 @@ public class DirectoryScanner
      */
     private TokenizedPattern[] excludePatterns;
 
+    /**
+     * All include patterns compiled into a single matcher, include
+     * patterns without wildcards only take part in {@link
+     * #couldHoldIncluded}.
+     *
+     * <p>Initialized and cleared together with includePatterns.</p>
+     */
+    private MultiPatternMatcher includeMatcher;
+
+    /**
+     * All exclude patterns with wildcards compiled into a single
+     * matcher.
+     *
+     * <p>Initialized and cleared together with excludePatterns.</p>
+     */
+    private MultiPatternMatcher excludeMatcher;
+
+    /**
+     * String representations of all exclude patterns with wildcards.
+     *
+     * <p>Initialized and cleared together with excludePatterns.</p>
+     */
+    private Set<String> excludePatternStrings;
+
     /**
      * Have the non-pattern sets and pattern arrays for in- and
      * excludes been initialized?
@@ -432,6 +466,43 @@ public class DirectoryScanner
      */
     private int maxLevelsOfSymlinks = MAX_LEVELS_OF_SYMLINKS;
 
+    /**
+     * Whether directories are read by a pool of threads.
+     *
+     * @since Ant 1.10.11
+     */
+    private boolean parallel = false;
+
+    /**
+     * Whether thread-safe selectors are evaluated by a pool of threads.
+     *
+     * @since Ant 1.10.11
+     */
+    private boolean parallelSelection = false;
+
+    /**
+     * Whether all selectors have reported to be thread-safe after
+     * they have been used for the first file, null before that.
+     *
+     * @since Ant 1.10.11
+     */
+    private Boolean selectInParallel;
+
+    /**
+     * Selections evaluated ahead of the scan, by file.
+     *
+     * @since Ant 1.10.11
+     */
+    private final Map<File, CompletableFuture<Boolean>> pendingSelections =
+        new HashMap<>();
+
+    /**
+     * Listings shared with other scanners, if any.
+     *
+     * @since Ant 1.10.11
+     */
+    private DirectoryListingCache listingCache;
+
 
     /**
      * Absolute paths of all symlinks that haven't been followed but
@@ -721,6 +792,89 @@ public class DirectoryScanner
         maxLevelsOfSymlinks = max;
     }
 
+    /**
+     * Set whether directories should be read by a pool of threads.
+     *
+     * <p>When enabled, directories are listed and their entries
+     * stat'ed by the threads of a shared {@link ForkJoinPool} ahead
+     * of the scan. The results and their order are the same as the
+     * ones of a sequential scan - entries are reported in the order
+     * the file system lists them - only the time needed to obtain them
+     * changes, which pays off for big trees and slow file
+     * systems.</p>
+     *
+     * @param parallel whether directories should be read in parallel.
+     * @since Ant 1.10.11
+     */
+    public synchronized void setParallel(final boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Get whether directories are read by a pool of threads.
+     *
+     * @return whether directories are read in parallel.
+     * @since Ant 1.10.11
+     */
+    public synchronized boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Set whether selectors should be evaluated by a pool of threads.
+     *
+     * <p>When enabled and all selectors report to be {@link
+     * FileSelector#isThreadSafe thread-safe} after they have been
+     * used for the first file, the selectors are evaluated for the
+     * files of a directory by the threads of a shared {@link
+     * ForkJoinPool}, which means {@link #isSelected(String, File)}
+     * gets invoked concurrently. Results and their order are the
+     * same as the ones of a sequential scan.</p>
+     *
+     * @param parallelSelection whether selectors should be evaluated
+     * in parallel.
+     * @since Ant 1.10.11
+     */
+    public synchronized void setParallelSelection(final boolean parallelSelection) {
+        this.parallelSelection = parallelSelection;
+        selectInParallel = null;
+    }
+
+    /**
+     * Get whether selectors are evaluated by a pool of threads.
+     *
+     * @return whether selectors are evaluated in parallel.
+     * @since Ant 1.10.11
+     */
+    public synchronized boolean isParallelSelection() {
+        return parallelSelection;
+    }
+
+    /**
+     * Set the cache of directory listings to use.
+     *
+     * <p>Scanners sharing a cache only list a directory and determine
+     * the types of its entries once as long as the directory isn't
+     * modified.</p>
+     *
+     * @param listingCache the cache, may be <code>null</code> in
+     * which case directories are always read.
+     * @since Ant 1.10.11
+     */
+    public synchronized void setListingCache(final DirectoryListingCache listingCache) {
+        this.listingCache = listingCache;
+    }
+
+    /**
+     * Get the cache of directory listings used.
+     *
+     * @return the cache or <code>null</code> if no cache is used.
+     * @since Ant 1.10.11
+     */
+    public synchronized DirectoryListingCache getListingCache() {
+        return listingCache;
+    }
+
     /**
      * Set the list of include patterns to use. All '/' and '\' characters
      * are replaced by <code>File.separatorChar</code>, so the separator used
@@ -817,6 +971,7 @@ public class DirectoryScanner
     @Override
     public synchronized void setSelectors(final FileSelector[] selectors) {
         this.selectors = selectors;
+        selectInParallel = null;
     }
 
     /**
@@ -1181,8 +1336,41 @@ public class DirectoryScanner
         if (dir == null) {
             throw new BuildException("dir must not be null.");
         }
+        try {
+            if (parallel) {
+                final ParallelScan parallelScan = new ParallelScan(fast);
+                try {
+                    scandir(dir, path, fast,
+                            checkListing(dir, parallelScan.read(dir, path)),
+                            new LinkedList<>());
+                } finally {
+                    parallelScan.finish();
+                }
+            } else {
+                scandir(dir, path, fast, list(dir), new LinkedList<>());
+            }
+        } finally {
+            pendingSelections.clear();
+        }
+    }
+
+    /**
+     * Reads a directory without the help of a {@link ParallelScan}.
+     */
+    private DirectoryListing list(final File dir) {
+        if (listingCache != null) {
+            final Listing entries = listingCache.list(dir);
+            return checkListing(dir, entries == null ? null
+                                : new CachedListing(listingCache, entries));
+        }
         final String[] newfiles = dir.list();
-        if (newfiles == null) {
+        return checkListing(dir, newfiles == null ? null
+                            : new FileListing(dir, newfiles));
+    }
+
+    private static DirectoryListing checkListing(final File dir,
+                                                 final DirectoryListing listing) {
+        if (listing == null) {
             if (!dir.exists()) {
                 throw new BuildException(dir + DOES_NOT_EXIST_POSTFIX);
             } else if (!dir.isDirectory()) {
@@ -1192,11 +1380,12 @@ public class DirectoryScanner
                     dir.getAbsolutePath());
             }
         }
-        scandir(dir, path, fast, newfiles, new LinkedList<>());
+        return listing;
     }
 
     private void scandir(final File dir, final TokenizedPath path, final boolean fast,
-                         String[] newFiles, final Deque<String> directoryNamesFollowed) {
+                         final DirectoryListing listing,
+                         final Deque<FollowedDirectory> directoryNamesFollowed) {
         String vpath = path.toString();
         if (!vpath.isEmpty() && !vpath.endsWith(File.separator)) {
             vpath += File.separator;
@@ -1206,46 +1395,50 @@ public class DirectoryScanner
         if (fast && hasBeenScanned(vpath)) {
             return;
         }
+        final String[] newFiles = listing.getNames();
+        boolean[] isLink = null;
         if (!followSymlinks) {
-            final ArrayList<String> noLinks = new ArrayList<>();
-            for (final String newFile : newFiles) {
-                final Path filePath;
-                if (dir == null) {
-                    filePath = Paths.get(newFile);
-                } else {
-                    filePath = Paths.get(dir.toPath().toString(), newFile);
-                }
-                if (Files.isSymbolicLink(filePath)) {
-                    final String name = vpath + newFile;
-                    final File file = new File(dir, newFile);
-                    if (file.isDirectory()) {
+            isLink = new boolean[newFiles.length];
+            for (int i = 0; i < newFiles.length; i++) {
+                if (listing.isSymbolicLink(i)) {
+                    isLink[i] = true;
+                    final String name = vpath + newFiles[i];
+                    final File file = new File(dir, newFiles[i]);
+                    if (listing.isDirectory(i)) {
                         dirsExcluded.addElement(name);
-                    } else if (file.isFile()) {
+                    } else if (listing.isFile(i)) {
                         filesExcluded.addElement(name);
                     }
                     accountForNotFollowedSymlink(name, file);
-                } else {
-                    noLinks.add(newFile);
                 }
             }
-            newFiles = noLinks.toArray(new String[noLinks.size()]);
         } else {
-            directoryNamesFollowed.addFirst(dir.getName());
+            directoryNamesFollowed.addFirst(new FollowedDirectory(dir));
+        }
+
+        if (parallelSelection && selectors != null && selectors.length > 0
+            && !Boolean.FALSE.equals(selectInParallel)) {
+            selectAhead(dir, path, vpath, listing, isLink);
         }
 
-        for (String newFile : newFiles) {
+        for (int i = 0; i < newFiles.length; i++) {
+            if (isLink != null && isLink[i]) {
+                continue;
+            }
+            final String newFile = newFiles[i];
             final String name = vpath + newFile;
             final TokenizedPath newPath = new TokenizedPath(path, newFile);
             final File file = new File(dir, newFile);
-            final String[] children = file.list();
-            if (children == null || (children.length == 0 && file.isFile())) {
+            final DirectoryListing children = listing.getChild(i);
+            if (children == null
+                || (children.getNames().length == 0 && listing.isFile(i))) {
                 if (isIncluded(newPath)) {
                     accountForIncludedFile(newPath, file);
                 } else {
                     everythingIncluded = false;
                     filesNotIncluded.addElement(name);
                 }
-            } else if (file.isDirectory()) { // dir
+            } else if (listing.isDirectory(i)) { // dir
 
                 if (followSymlinks
                         && causesIllegalSymlinkLoop(newFile, dir, directoryNamesFollowed)) {
@@ -1279,6 +1472,73 @@ public class DirectoryScanner
         }
     }
 
+    /**
+     * Starts evaluating the selectors for the files of a directory
+     * that are going to be included by the scan on the threads of
+     * the {@link ScanPool}. {@link #processIncluded} picks up the
+     * results in the order of the scan.
+     *
+     * <p>The selectors are evaluated for the first file in the
+     * scanning thread, only once they have been used they are asked
+     * whether they are thread-safe.</p>
+     */
+    private void selectAhead(final File dir, final TokenizedPath path, final String vpath,
+                             final DirectoryListing listing, final boolean[] isLink) {
+        final String[] names = listing.getNames();
+        for (int i = 0; i < names.length; i++) {
+            // only plain files, using the type the listing already
+            // knows rather than listing the entry
+            if ((isLink != null && isLink[i]) || !listing.isFile(i)) {
+                continue;
+            }
+            final TokenizedPath newPath = new TokenizedPath(path, names[i]);
+            if (!isIncluded(newPath) || isExcluded(newPath)) {
+                continue;
+            }
+            final String name = vpath + names[i];
+            final File file = new File(dir, names[i]);
+            if (selectInParallel == null) {
+                final CompletableFuture<Boolean> first = new CompletableFuture<>();
+                try {
+                    first.complete(isSelected(name, file));
+                    selectInParallel = Stream.of(selectors)
+                        .allMatch(FileSelector::isThreadSafe);
+                } catch (final RuntimeException ex) {
+                    first.completeExceptionally(ex);
+                    selectInParallel = Boolean.FALSE;
+                }
+                pendingSelections.put(file, first);
+            } else if (selectInParallel) {
+                pendingSelections.put(file, CompletableFuture
+                    .supplyAsync(() -> isSelected(name, file), ScanPool.INSTANCE));
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Obtains the result of a selection evaluated ahead of the scan,
+     * or evaluates it now.
+     */
+    private boolean isSelectedAhead(final String name, final File file) {
+        final CompletableFuture<Boolean> pending = pendingSelections.remove(file);
+        if (pending == null) {
+            return isSelected(name, file);
+        }
+        try {
+            return pending.join();
+        } catch (final CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
     /**
      * Process included file.
      * @param name  path of the file relative to the directory of the FileSet.
@@ -1306,8 +1566,8 @@ public class DirectoryScanner
 
     private void accountForIncludedDir(final TokenizedPath name,
                                        final File file, final boolean fast,
-                                       final String[] children,
-                                       final Deque<String> directoryNamesFollowed) {
+                                       final DirectoryListing children,
+                                       final Deque<FollowedDirectory> directoryNamesFollowed) {
         processIncluded(name, file, dirsIncluded, dirsExcluded, dirsDeselected);
         if (fast && couldHoldIncluded(name) && !contentsExcluded(name)) {
             scandir(file, name, fast, children, directoryNamesFollowed);
@@ -1335,7 +1595,7 @@ public class DirectoryScanner
         boolean included = false;
         if (isExcluded(path)) {
             exc.add(name);
-        } else if (isSelected(name, file)) {
+        } else if (isSelectedAhead(name, file)) {
             included = true;
             inc.add(name);
         } else {
@@ -1372,7 +1632,7 @@ public class DirectoryScanner
             toMatch = toMatch.toUpperCase();
         }
         return includeNonPatterns.containsKey(toMatch)
-            || Stream.of(includePatterns).anyMatch(p -> p.matchPath(path, isCaseSensitive()));
+            || includeMatcher.matchPath(path);
     }
 
     /**
@@ -1396,37 +1656,11 @@ public class DirectoryScanner
      *         least one include pattern, or <code>false</code> otherwise.
      */
     private boolean couldHoldIncluded(final TokenizedPath tokenizedName) {
-        return Stream.concat(Stream.of(includePatterns),
-                includeNonPatterns.values().stream().map(TokenizedPath::toPattern))
-                .anyMatch(pat -> couldHoldIncluded(tokenizedName, pat));
-    }
-
-    /**
-     * Test whether or not a name matches the start of the given
-     * include pattern.
-     *
-     * @param tokenizedName The name to match. Must not be <code>null</code>.
-     * @return <code>true</code> when the name matches against the start of the
-     *         include pattern, or <code>false</code> otherwise.
-     */
-    private boolean couldHoldIncluded(final TokenizedPath tokenizedName,
-                                      final TokenizedPattern tokenizedInclude) {
-        return tokenizedInclude.matchStartOf(tokenizedName, isCaseSensitive())
-            && isMorePowerfulThanExcludes(tokenizedName.toString())
-            && isDeeper(tokenizedInclude, tokenizedName);
-    }
-
-    /**
-     * Verify that a pattern specifies files deeper
-     * than the level of the specified file.
-     * @param pattern the pattern to check.
-     * @param name the name to check.
-     * @return whether the pattern is deeper than the name.
-     * @since Ant 1.6.3
-     */
-    private boolean isDeeper(final TokenizedPattern pattern, final TokenizedPath name) {
-        return pattern.containsPattern(SelectorUtils.DEEP_TREE_MATCH)
-            || pattern.depth() > name.depth();
+        // an include pattern could match below the name if it
+        // matches the start of the name and either contains ** or is
+        // deeper than the name
+        return includeMatcher.couldMatchBelow(tokenizedName)
+            && isMorePowerfulThanExcludes(tokenizedName.toString());
     }
 
     /**
@@ -1447,8 +1681,7 @@ public class DirectoryScanner
      */
     private boolean isMorePowerfulThanExcludes(final String name) {
         final String soughtexclude = name + File.separatorChar + SelectorUtils.DEEP_TREE_MATCH;
-        return Stream.of(excludePatterns).map(Object::toString)
-            .noneMatch(Predicate.isEqual(soughtexclude));
+        return !excludePatternStrings.contains(soughtexclude);
     }
 
     /**
@@ -1457,10 +1690,7 @@ public class DirectoryScanner
      * @return whether all the specified directory's contents are excluded.
      */
     /* package */ boolean contentsExcluded(final TokenizedPath path) {
-        return Stream.of(excludePatterns)
-            .filter(p -> p.endsWith(SelectorUtils.DEEP_TREE_MATCH))
-            .map(TokenizedPattern::withoutLastToken)
-            .anyMatch(wlt -> wlt.matchPath(path, isCaseSensitive()));
+        return excludeMatcher.matchesEverythingBelow(path);
     }
 
     /**
@@ -1491,12 +1721,15 @@ public class DirectoryScanner
             toMatch = toMatch.toUpperCase();
         }
         return excludeNonPatterns.containsKey(toMatch)
-            || Stream.of(excludePatterns).anyMatch(p -> p.matchPath(name, isCaseSensitive()));
+            || excludeMatcher.matchPath(name);
     }
 
     /**
      * Test whether a file should be selected.
      *
+     * <p>All selectors evaluated for the file share a single read
+     * of its content, see {@link SharedFileContent}.</p>
+     *
      * @param name the filename to check for selecting.
      * @param file the java.io.File object for this filename.
      * @return <code>false</code> when the selectors says that the file
@@ -1504,7 +1737,8 @@ public class DirectoryScanner
      */
     protected boolean isSelected(final String name, final File file) {
         return selectors == null
-                || Stream.of(selectors).allMatch(sel -> sel.isSelected(basedir, name, file));
+            || SharedFileContent.select(file, () -> Stream.of(selectors)
+                .allMatch(sel -> sel.isSelected(basedir, name, file)));
     }
 
     /**
@@ -1528,6 +1762,61 @@ public class DirectoryScanner
         return files;
     }
 
+    /**
+     * Scan the base directory for files which match at least one
+     * include pattern and don't match any exclude pattern, without
+     * storing any of the results.
+     *
+     * <p>Unlike {@link #scan} this reads directories as the returned
+     * iterator is advanced and keeps only the directories between the
+     * base directory and the current file in memory. It returns the
+     * same names in the same order as {@link #getIncludedFiles} after
+     * {@link #scan}, but changes made to the directory tree during the
+     * iteration may or may not be seen. There is no need to call
+     * {@link #scan} first and none of the other results of this
+     * scanner are affected.</p>
+     *
+     * <p>The {@link #setParallel parallel} setting is ignored. If no
+     * base directory has been set this performs a complete scan.</p>
+     *
+     * @return the names of the included files relative to the base
+     * directory
+     * @exception IllegalStateException if the base directory was set
+     *            incorrectly (i.e. if it doesn't exist or isn't a directory).
+     * @since Ant 1.10.11
+     */
+    public synchronized Iterator<String> scanIncludedFiles()
+        throws IllegalStateException {
+        if (basedir == null) {
+            // absolute include patterns need the full scan
+            scan();
+            return Arrays.asList(getIncludedFiles()).iterator();
+        }
+        if (!followSymlinks && Files.isSymbolicLink(basedir.toPath())) {
+            return Collections.emptyIterator();
+        }
+        if (!basedir.exists()) {
+            if (errorOnMissingDir) {
+                throw new IllegalStateException("basedir " + basedir
+                                                + DOES_NOT_EXIST_POSTFIX);
+            }
+            return Collections.emptyIterator();
+        }
+        if (!basedir.isDirectory()) {
+            throw new IllegalStateException("basedir " + basedir
+                                            + " is not a directory.");
+        }
+        final String[] savedIncludes = includes;
+        final String[] savedExcludes = excludes;
+        clearCaches();
+        includes = includes == null ? new String[] {SelectorUtils.DEEP_TREE_MATCH} : includes;
+        excludes = excludes == null ? new String[0] : excludes;
+        ensureNonPatternSetsReady();
+        includes = savedIncludes;
+        excludes = savedExcludes;
+        return new IncludedFilesIterator(basedir);
+    }
+
     /**
      * Return the count of included files.
      * @return <code>int</code>.
@@ -1747,6 +2036,9 @@ public class DirectoryScanner
         excludeNonPatterns.clear();
         includePatterns = null;
         excludePatterns = null;
+        includeMatcher = null;
+        excludeMatcher = null;
+        excludePatternStrings = null;
         areNonPatternSetsReady = false;
     }
 
@@ -1760,6 +2052,19 @@ public class DirectoryScanner
         if (!areNonPatternSetsReady) {
             includePatterns = fillNonPatternSet(includeNonPatterns, includes);
             excludePatterns = fillNonPatternSet(excludeNonPatterns, excludes);
+            includeMatcher = new MultiPatternMatcher(isCaseSensitive());
+            for (TokenizedPattern p : includePatterns) {
+                includeMatcher.add(p);
+            }
+            for (TokenizedPath p : includeNonPatterns.values()) {
+                includeMatcher.addPrefix(p.toPattern());
+            }
+            excludeMatcher = new MultiPatternMatcher(isCaseSensitive());
+            excludePatternStrings = new HashSet<>();
+            for (TokenizedPattern p : excludePatterns) {
+                excludeMatcher.add(p);
+                excludePatternStrings.add(p.toString());
+            }
             areNonPatternSetsReady = true;
         }
     }
@@ -1795,37 +2100,30 @@ public class DirectoryScanner
      * a symbolic link and enough other occurrences of the same name
      * higher up are symbolic links that point to the same place.</p>
      *
+     * <p>Directories are compared by their file keys, so the check
+     * needs a single stat for each directory involved rather than
+     * resolving canonical paths.</p>
+     *
      * @since Ant 1.8.0
      */
     private boolean causesIllegalSymlinkLoop(final String dirName, final File parent,
-                                             final Deque<String> directoryNamesFollowed) {
+                                             final Deque<FollowedDirectory> directoryNamesFollowed) {
+        if (directoryNamesFollowed.size() < maxLevelsOfSymlinks
+            || directoryNamesFollowed.stream().filter(d -> d.name.equals(dirName))
+                .count() < maxLevelsOfSymlinks) {
+            return false;
+        }
+        final File dir = new File(parent, dirName);
+        if (!Files.isSymbolicLink(dir.toPath())) {
+            return false;
+        }
         try {
-            final Path dirPath;
-            if (parent == null) {
-                dirPath = Paths.get(dirName);
-            } else {
-                dirPath = Paths.get(parent.toPath().toString(), dirName);
-            }
-            if (directoryNamesFollowed.size() >= maxLevelsOfSymlinks
-                && Collections.frequency(directoryNamesFollowed, dirName) >= maxLevelsOfSymlinks
-                && Files.isSymbolicLink(dirPath)) {
-
-                final List<String> files = new ArrayList<>();
-                File f = FILE_UTILS.resolveFile(parent, dirName);
-                final String target = f.getCanonicalPath();
-                files.add(target);
-
-                StringBuilder relPath = new StringBuilder();
-                for (final String dir : directoryNamesFollowed) {
-                    relPath.append("../");
-                    if (dirName.equals(dir)) {
-                        f = FILE_UTILS.resolveFile(parent, relPath + dir);
-                        files.add(f.getCanonicalPath());
-                        if (files.size() > maxLevelsOfSymlinks
-                            && Collections.frequency(files, target) > maxLevelsOfSymlinks) {
-                            return true;
-                        }
-                    }
+            final Object target = fileKey(dir);
+            int seen = 1;
+            for (final FollowedDirectory d : directoryNamesFollowed) {
+                if (d.name.equals(dirName) && target.equals(d.getKey())
+                    && ++seen > maxLevelsOfSymlinks) {
+                    return true;
                 }
             }
             return false;
@@ -1835,4 +2133,482 @@ public class DirectoryScanner
         }
     }
 
+    /**
+     * Identifies the directory a path points to.
+     *
+     * @return the file key of the directory or its canonical path if
+     * the file system doesn't provide file keys.
+     */
+    private static Object fileKey(final File dir) throws IOException {
+        final Object key = Files.readAttributes(dir.toPath(), BasicFileAttributes.class)
+            .fileKey();
+        return key != null ? key : dir.getCanonicalPath();
+    }
+
+    /**
+     * A directory that has been entered during the current scan.
+     */
+    private static final class FollowedDirectory {
+        private final File dir;
+        private final String name;
+        private Object key;
+
+        FollowedDirectory(final File dir) {
+            this.dir = dir;
+            this.name = dir.getName();
+        }
+
+        /**
+         * Only determined once a loop is suspected.
+         */
+        Object getKey() throws IOException {
+            if (key == null) {
+                key = fileKey(dir);
+            }
+            return key;
+        }
+    }
+
+    /**
+     * Walks the directory tree depth first and only keeps the
+     * directories leading to the current file.
+     *
+     * <p>A sorted list of all paths visits the entries of a
+     * directory in the order of their names - if a separator is
+     * appended to the names of directories - so sorting the entries
+     * of each directory is enough to produce the sorted list.</p>
+     */
+    private final class IncludedFilesIterator implements Iterator<String> {
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        private final Deque<FollowedDirectory> directoryNamesFollowed = new LinkedList<>();
+        private String next;
+
+        IncludedFilesIterator(final File basedir) {
+            enter(basedir, TokenizedPath.EMPTY_PATH, list(basedir));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !frames.isEmpty()) {
+                final Frame frame = frames.peek();
+                if (frame.pos == frame.order.length) {
+                    frames.pop();
+                    if (followSymlinks) {
+                        directoryNamesFollowed.removeFirst();
+                    }
+                    if (frames.isEmpty()) {
+                        clearCaches();
+                    }
+                } else {
+                    process(frame, frame.order[frame.pos++]);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final String result = next;
+            next = null;
+            return result;
+        }
+
+        private void enter(final File dir, final TokenizedPath path,
+                           final DirectoryListing listing) {
+            frames.push(new Frame(dir, path, listing, followSymlinks));
+            if (followSymlinks) {
+                directoryNamesFollowed.addFirst(new FollowedDirectory(dir));
+            }
+        }
+
+        private void process(final Frame frame, final int i) {
+            final String newFile = frame.names[i];
+            final TokenizedPath newPath = new TokenizedPath(frame.path, newFile);
+            final File file = new File(frame.dir, newFile);
+            final DirectoryListing children = frame.children[i];
+            frame.children[i] = null;
+            if (children == null) {
+                final String name = frame.vpath + newFile;
+                if (isIncluded(newPath) && !isExcluded(newPath)
+                    && isSelected(name, file)) {
+                    next = name;
+                }
+            } else if (followSymlinks
+                       && causesIllegalSymlinkLoop(newFile, frame.dir,
+                                                   directoryNamesFollowed)) {
+                // will be caught and redirected to Ant's logging system
+                System.err.println("skipping symbolic link "
+                                   + file.getAbsolutePath()
+                                   + " -- too many levels of symbolic"
+                                   + " links.");
+            } else if (couldHoldIncluded(newPath) && !contentsExcluded(newPath)) {
+                enter(file, newPath, children);
+            }
+        }
+    }
+
+    /**
+     * A directory being walked by {@link IncludedFilesIterator}.
+     */
+    private static final class Frame {
+        private final File dir;
+        private final TokenizedPath path;
+        private final String vpath;
+        private final String[] names;
+        /** The listings of subdirectories, null for files. */
+        private final DirectoryListing[] children;
+        private final int[] order;
+        private int pos;
+
+        Frame(final File dir, final TokenizedPath path,
+              final DirectoryListing listing, final boolean followSymlinks) {
+            this.dir = dir;
+            this.path = path;
+            final String p = path.toString();
+            vpath = p.isEmpty() || p.endsWith(File.separator) ? p : p + File.separator;
+            names = listing.getNames();
+            children = new DirectoryListing[names.length];
+            final String[] keys = new String[names.length];
+            final List<Integer> indices = new ArrayList<>(names.length);
+            for (int i = 0; i < names.length; i++) {
+                if (!followSymlinks && listing.isSymbolicLink(i)) {
+                    continue;
+                }
+                // same classification as scandir
+                final DirectoryListing c = listing.getChild(i);
+                if (c == null || (c.getNames().length == 0 && listing.isFile(i))) {
+                    keys[i] = names[i];
+                } else if (listing.isDirectory(i)) {
+                    children[i] = c;
+                    keys[i] = names[i] + File.separator;
+                } else {
+                    continue;
+                }
+                indices.add(i);
+            }
+            indices.sort((a, b) -> keys[a].compareTo(keys[b]));
+            order = indices.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * The entries of a directory being scanned.
+     */
+    private interface DirectoryListing {
+        /**
+         * @return the names of all entries
+         */
+        String[] getNames();
+
+        /**
+         * @param i index of the entry
+         * @return whether the entry is a symbolic link
+         */
+        boolean isSymbolicLink(int i);
+
+        /**
+         * @param i index of the entry
+         * @return whether the entry is - or links to - a file
+         */
+        boolean isFile(int i);
+
+        /**
+         * @param i index of the entry
+         * @return whether the entry is - or links to - a directory
+         */
+        boolean isDirectory(int i);
+
+        /**
+         * @param i index of the entry
+         * @return the listing of the entry or null if it isn't a
+         * directory that can be read
+         */
+        DirectoryListing getChild(int i);
+    }
+
+    /**
+     * Listing of a sequential scan, asks the file system whenever
+     * needed.
+     */
+    private static final class FileListing implements DirectoryListing {
+        private final File dir;
+        private final String[] names;
+
+        FileListing(final File dir, final String[] names) {
+            this.dir = dir;
+            this.names = names;
+        }
+
+        @Override
+        public String[] getNames() {
+            return names;
+        }
+
+        @Override
+        public boolean isSymbolicLink(final int i) {
+            return Files.isSymbolicLink(Paths.get(dir.toPath().toString(), names[i]));
+        }
+
+        @Override
+        public boolean isFile(final int i) {
+            return new File(dir, names[i]).isFile();
+        }
+
+        @Override
+        public boolean isDirectory(final int i) {
+            return new File(dir, names[i]).isDirectory();
+        }
+
+        @Override
+        public DirectoryListing getChild(final int i) {
+            final File child = new File(dir, names[i]);
+            final String[] children = child.list();
+            return children == null ? null : new FileListing(child, children);
+        }
+    }
+
+    /**
+     * Listing of a sequential scan using the listings of a {@link
+     * DirectoryListingCache}.
+     */
+    private static final class CachedListing implements DirectoryListing {
+        private final DirectoryListingCache cache;
+        private final Listing entries;
+
+        CachedListing(final DirectoryListingCache cache, final Listing entries) {
+            this.cache = cache;
+            this.entries = entries;
+        }
+
+        @Override
+        public String[] getNames() {
+            return entries.getNames();
+        }
+
+        @Override
+        public boolean isSymbolicLink(final int i) {
+            return entries.isSymbolicLink(i);
+        }
+
+        @Override
+        public boolean isFile(final int i) {
+            return entries.isFile(i);
+        }
+
+        @Override
+        public boolean isDirectory(final int i) {
+            return entries.isDirectory(i);
+        }
+
+        @Override
+        public DirectoryListing getChild(final int i) {
+            if (!entries.isDirectory(i)) {
+                return null;
+            }
+            final Listing children =
+                cache.list(new File(entries.getDirectory(), entries.getNames()[i]));
+            return children == null ? null : new CachedListing(cache, children);
+        }
+    }
+
+    /**
+     * Holds the pool reading directories during parallel scans, the
+     * threads are only created once a parallel scan starts.
+     */
+    private static final class ScanPool {
+        private static final ForkJoinPool INSTANCE =
+            new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Reads directories in parallel ahead of a scan.
+     *
+     * <p>Each directory is read by a task that stats every entry once
+     * and then starts tasks for the subdirectories the scan is going
+     * to descend into. Of directories the scan isn't going to descend
+     * into only the names are read as a scan treats a directory that
+     * cannot be read like a file. Directories reached via symbolic
+     * links are only read completely once the scan asks for them, so
+     * symbolic links can't make the tasks loop.</p>
+     *
+     * <p>The scanning thread still processes the entries in the order
+     * a sequential scan would, so the results don't depend on the
+     * timing of the tasks.</p>
+     */
+    private final class ParallelScan {
+        private final boolean fast;
+        private final boolean follow = followSymlinks;
+        private final DirectoryListingCache cache = listingCache;
+        private volatile boolean finished;
+        private int pending;
+
+        ParallelScan(final boolean fast) {
+            this.fast = fast;
+        }
+
+        /**
+         * Reads the directory a scan starts with.
+         * @param dir the directory
+         * @param path its path relative to the base directory
+         * @return its listing or null if it cannot be read
+         */
+        DirectoryListing read(final File dir, final TokenizedPath path) {
+            return start(dir, path, true).join();
+        }
+
+        /**
+         * Waits for all running tasks and prevents new ones from
+         * being started.
+         *
+         * <p>The tasks evaluate the patterns of the scanner, they must
+         * be done before the scan clears its caches.</p>
+         */
+        void finish() {
+            boolean interrupted = false;
+            synchronized (this) {
+                finished = true;
+                while (pending > 0) {
+                    try {
+                        wait();
+                    } catch (final InterruptedException ex) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private ReadDirectory start(final File dir, final TokenizedPath path,
+                                    final boolean readEntries) {
+            synchronized (this) {
+                pending++;
+            }
+            final ReadDirectory task = new ReadDirectory(dir, path, readEntries);
+            ScanPool.INSTANCE.execute(task);
+            return task;
+        }
+
+        private synchronized void taskDone() {
+            if (--pending == 0) {
+                notifyAll();
+            }
+        }
+
+        private boolean willDescendInto(final TokenizedPath path) {
+            return !fast || (couldHoldIncluded(path) && !contentsExcluded(path));
+        }
+
+        /**
+         * Lists a directory and optionally reads its entries.
+         */
+        private final class ReadDirectory extends RecursiveTask<PrefetchedListing> {
+            private static final long serialVersionUID = 1L;
+
+            private final File dir;
+            private final TokenizedPath path;
+            private final boolean readEntries;
+
+            ReadDirectory(final File dir, final TokenizedPath path,
+                          final boolean readEntries) {
+                this.dir = dir;
+                this.path = path;
+                this.readEntries = readEntries;
+            }
+
+            @Override
+            protected PrefetchedListing compute() {
+                try {
+                    if (finished) {
+                        return null;
+                    }
+                    final Listing entries = cache != null
+                        ? cache.list(dir) : Listing.read(dir);
+                    if (entries == null) {
+                        return null;
+                    }
+                    final PrefetchedListing listing = new PrefetchedListing(path, entries);
+                    if (readEntries) {
+                        listing.readEntries();
+                    }
+                    return listing;
+                } finally {
+                    taskDone();
+                }
+            }
+        }
+
+        /**
+         * Listing of a parallel scan, the entries are read at most
+         * once.
+         */
+        private final class PrefetchedListing implements DirectoryListing {
+            private final TokenizedPath path;
+            private final Listing entries;
+            private ReadDirectory[] children;
+
+            PrefetchedListing(final TokenizedPath path, final Listing entries) {
+                this.path = path;
+                this.entries = entries;
+            }
+
+            /**
+             * Stats all entries and starts reading the subdirectories.
+             */
+            void readEntries() {
+                final File dir = entries.getDirectory();
+                final String[] names = entries.getNames();
+                final ReadDirectory[] c = new ReadDirectory[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    final boolean isLink = entries.isSymbolicLink(i);
+                    if (entries.isDirectory(i) && (follow || !isLink)) {
+                        final TokenizedPath childPath = new TokenizedPath(path, names[i]);
+                        c[i] = start(new File(dir, names[i]), childPath,
+                                     !isLink && willDescendInto(childPath));
+                    }
+                }
+                children = c;
+            }
+
+            private void ensureEntriesRead() {
+                if (children == null) {
+                    // only the names have been read so far
+                    readEntries();
+                }
+            }
+
+            @Override
+            public String[] getNames() {
+                return entries.getNames();
+            }
+
+            @Override
+            public boolean isSymbolicLink(final int i) {
+                ensureEntriesRead();
+                return entries.isSymbolicLink(i);
+            }
+
+            @Override
+            public boolean isFile(final int i) {
+                ensureEntriesRead();
+                return entries.isFile(i);
+            }
+
+            @Override
+            public boolean isDirectory(final int i) {
+                ensureEntriesRead();
+                return entries.isDirectory(i);
+            }
+
+            @Override
+            public DirectoryListing getChild(final int i) {
+                ensureEntriesRead();
+                return children[i] == null ? null : children[i].join();
+            }
+        }
+    }
 }
@@ -18,10 +18,15 @@
 package org.apache.tools.ant;
 
 import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -29,6 +34,7 @@ import java.util.Hashtable;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.tools.ant.taskdefs.PreSetDef;
 import org.apache.tools.ant.types.EnumeratedAttribute;
@@ -85,6 +91,18 @@ public final class IntrospectionHelper {
         }
     }
 
+    /**
+     * Types whose instances created from String attribute values can
+     * be shared between all elements.
+     */
+    private static final List<Class<?>> IMMUTABLE_TYPES = Arrays.asList(
+        Byte.class, Short.class, Integer.class, Float.class, Double.class);
+
+    /**
+     * Maximum number of converted values cached for a single attribute.
+     */
+    private static final int MAX_CONVERTED_VALUES = 256;
+
     private static final int MAX_REPORT_NESTED_TEXT = 20;
     private static final String ELLIPSIS = "...";
 
@@ -122,6 +140,11 @@ public final class IntrospectionHelper {
      */
     private final Method addText;
 
+    /**
+     * Invoker for {@link #addText}.
+     */
+    private final MethodInvoker addTextInvoker;
+
     /**
      * The class introspected by this instance.
      */
@@ -296,6 +319,7 @@ public final class IntrospectionHelper {
             }
         }
         addText = addTextMethod;
+        addTextInvoker = addTextMethod == null ? null : new MethodInvoker(addTextMethod);
     }
 
     /**
@@ -467,7 +491,7 @@ public final class IntrospectionHelper {
                     + " doesn't support nested text data (\"" + condenseText(text) + "\").");
         }
         try {
-            addText.invoke(element, text);
+            addTextInvoker.invoke(element, text);
         } catch (final IllegalAccessException ie) {
             // impossible as getMethods should only return public methods
             throw new BuildException(ie);
@@ -1041,7 +1065,7 @@ public final class IntrospectionHelper {
                 @Override
                 public void set(final Project p, final Object parent, final String value)
                         throws InvocationTargetException, IllegalAccessException {
-                    m.invoke(parent, (Object[]) new String[] {value});
+                    invoke(parent, value);
                 }
             };
         }
@@ -1055,7 +1079,7 @@ public final class IntrospectionHelper {
                         throw new BuildException("The value \"\" is not a "
                                 + "legal value for attribute \"" + attrName + "\"");
                     }
-                    m.invoke(parent, (Object[]) new Character[] {value.charAt(0)});
+                    invoke(parent, value.charAt(0));
                 }
             };
         }
@@ -1065,8 +1089,7 @@ public final class IntrospectionHelper {
                 @Override
                 public void set(final Project p, final Object parent, final String value)
                         throws InvocationTargetException, IllegalAccessException {
-                    m.invoke(parent, (Object[]) new Boolean[] {
-                            Project.toBoolean(value) ? Boolean.TRUE : Boolean.FALSE });
+                    invoke(parent, Project.toBoolean(value) ? Boolean.TRUE : Boolean.FALSE);
                 }
             };
         }
@@ -1077,7 +1100,7 @@ public final class IntrospectionHelper {
                 public void set(final Project p, final Object parent, final String value)
                         throws InvocationTargetException, IllegalAccessException, BuildException {
                     try {
-                        m.invoke(parent, Class.forName(value));
+                        invoke(parent, Class.forName(value));
                     } catch (final ClassNotFoundException ce) {
                         throw new BuildException(ce);
                     }
@@ -1090,7 +1113,7 @@ public final class IntrospectionHelper {
                 @Override
                 public void set(final Project p, final Object parent, final String value)
                         throws InvocationTargetException, IllegalAccessException {
-                    m.invoke(parent, p.resolveFile(value));
+                    invoke(parent, p.resolveFile(value));
                 }
             };
         }
@@ -1100,7 +1123,7 @@ public final class IntrospectionHelper {
                 @Override
                 public void set(final Project p, final Object parent, final String value)
                         throws InvocationTargetException, IllegalAccessException {
-                    m.invoke(parent, p.resolveFile(value).toPath());
+                    invoke(parent, p.resolveFile(value).toPath());
                 }
             };
         }
@@ -1111,7 +1134,7 @@ public final class IntrospectionHelper {
                 @Override
                 void set(final Project p, final Object parent, final String value)
                         throws InvocationTargetException, IllegalAccessException, BuildException {
-                    m.invoke(parent, new FileResource(p, p.resolveFile(value)));
+                    invoke(parent, new FileResource(p, p.resolveFile(value)));
                 }
             };
         }
@@ -1125,7 +1148,7 @@ public final class IntrospectionHelper {
                         final EnumeratedAttribute ea =
                                 (EnumeratedAttribute) reflectedArg.getDeclaredConstructor().newInstance();
                         ea.setValue(value);
-                        m.invoke(parent, ea);
+                        invoke(parent, ea);
                     } catch (final InstantiationException | NoSuchMethodException ie) {
                         throw new BuildException(ie);
                     }
@@ -1144,7 +1167,7 @@ public final class IntrospectionHelper {
                 public void set(final Project p, final Object parent, final String value)
                         throws InvocationTargetException, IllegalAccessException, BuildException {
                     try {
-                        m.invoke(parent, StringUtils.parseHumanSizes(value));
+                        invoke(parent, StringUtils.parseHumanSizes(value));
                     } catch (final NumberFormatException e) {
                         throw new BuildException("Can't assign non-numeric"
                                                  + " value '" + value + "' to"
@@ -1178,21 +1201,34 @@ public final class IntrospectionHelper {
             }
         }
         final boolean finalIncludeProject = includeProject;
-        final Constructor<?> finalConstructor = c;
+        final ConstructorInvoker finalConstructor = new ConstructorInvoker(c);
+        // only bother setting the project on objects that may use it
+        final boolean setProject = ProjectComponent.class.isAssignableFrom(reflectedArg)
+            || hasSetProjectMethod(reflectedArg);
+        // values of these types don't depend on the project and
+        // are immutable, so conversions can be shared
+        final Map<String, Object> converted = IMMUTABLE_TYPES.contains(reflectedArg)
+            ? new ConcurrentHashMap<>() : null;
 
         return new AttributeSetter(m, arg) {
             @Override
             public void set(final Project p, final Object parent, final String value)
                     throws InvocationTargetException, IllegalAccessException, BuildException {
                 try {
-                    final Object[] args = finalIncludeProject
+                    Object attribute = converted == null ? null : converted.get(value);
+                    if (attribute == null) {
+                        final Object[] args = finalIncludeProject
                             ? new Object[] {p, value} : new Object[] {value};
 
-                    final Object attribute = finalConstructor.newInstance(args);
-                    if (p != null) {
-                        p.setProjectReference(attribute);
+                        attribute = finalConstructor.newInstance(args);
+                        if (p != null && setProject) {
+                            p.setProjectReference(attribute);
+                        }
+                        if (converted != null && converted.size() < MAX_CONVERTED_VALUES) {
+                            converted.put(value, attribute);
+                        }
                     }
-                    m.invoke(parent, attribute);
+                    invoke(parent, attribute);
                 } catch (final InvocationTargetException e) {
                     final Throwable cause = e.getCause();
                     if (cause instanceof IllegalArgumentException) {
@@ -1231,7 +1267,7 @@ public final class IntrospectionHelper {
                         throw new BuildException("'" + value + "' is not a permitted value for "
                                 + reflectedArg.getName());
                     }
-                    m.invoke(parent, setValue);
+                    invoke(parent, setValue);
                 }
             };
         }
@@ -1376,13 +1412,23 @@ public final class IntrospectionHelper {
      */
     private abstract static class NestedCreator {
         private final Method method; // the method called to add/create the nested element
+        private final MethodInvoker invoker;
 
         protected NestedCreator(final Method m) {
             method = m;
+            invoker = new MethodInvoker(m);
         }
         Method getMethod() {
             return method;
         }
+        Object invoke(final Object parent)
+                throws InvocationTargetException, IllegalAccessException {
+            return invoker.invoke(parent);
+        }
+        void invoke(final Object parent, final Object child)
+                throws InvocationTargetException, IllegalAccessException {
+            invoker.invoke(parent, child);
+        }
         boolean isPolyMorphic() {
             return false;
         }
@@ -1406,7 +1452,7 @@ public final class IntrospectionHelper {
         @Override
         Object create(final Project project, final Object parent, final Object ignore)
                 throws InvocationTargetException, IllegalAccessException {
-            return getMethod().invoke(parent);
+            return invoke(parent);
         }
     }
 
@@ -1416,12 +1462,14 @@ public final class IntrospectionHelper {
         static final int ADD = 1;
         static final int ADD_CONFIGURED = 2;
 
-        private final Constructor<?> constructor;
+        private final ConstructorInvoker constructor;
+        private final boolean withProject;
         private final int behavior; // ADD or ADD_CONFIGURED
 
         AddNestedCreator(final Method m, final Constructor<?> c, final int behavior) {
             super(m);
-            this.constructor = c;
+            this.constructor = new ConstructorInvoker(c);
+            this.withProject = c.getParameterTypes().length != 0;
             this.behavior = behavior;
         }
 
@@ -1435,8 +1483,7 @@ public final class IntrospectionHelper {
                 throws InvocationTargetException, IllegalAccessException, InstantiationException {
             if (child == null) {
                 child = constructor.newInstance(
-                        constructor.getParameterTypes().length == 0
-                                ? new Object[] {} : new Object[] {project});
+                        withProject ? new Object[] {project} : new Object[] {});
             }
             if (child instanceof PreSetDef.PreSetDefinition) {
                 child = ((PreSetDef.PreSetDefinition) child).createObject(project);
@@ -1457,7 +1504,7 @@ public final class IntrospectionHelper {
 
         private void istore(final Object parent, final Object child)
                 throws InvocationTargetException, IllegalAccessException {
-            getMethod().invoke(parent, child);
+            invoke(parent, child);
         }
     }
 
@@ -1467,11 +1514,17 @@ public final class IntrospectionHelper {
      */
     private abstract static class AttributeSetter {
         private final Method method; // the method called to set the attribute
+        private final MethodInvoker invoker;
         private final Class<?> type;
         protected AttributeSetter(final Method m, final Class<?> type) {
             method = m;
+            invoker = new MethodInvoker(m);
             this.type = type;
         }
+        void invoke(final Object parent, final Object value)
+                throws InvocationTargetException, IllegalAccessException {
+            invoker.invoke(parent, value);
+        }
         void setObject(final Project p, final Object parent, final Object value)
                 throws InvocationTargetException, IllegalAccessException, BuildException {
             if (type != null) {
@@ -1486,7 +1539,7 @@ public final class IntrospectionHelper {
                     useType = PRIMITIVE_TYPE_MAP.get(type);
                 }
                 if (value == null || useType.isInstance(value)) {
-                    method.invoke(parent, value);
+                    invoke(parent, value);
                     return;
                 }
             }
@@ -1547,7 +1600,7 @@ public final class IntrospectionHelper {
             Object create(final Project project, final Object parent, final Object ignore)
                     throws InvocationTargetException, IllegalAccessException {
                 if (!getMethod().getName().endsWith("Configured")) {
-                    getMethod().invoke(parent, realObject);
+                    invoke(parent, realObject);
                 }
                 return nestedObject;
             }
@@ -1561,7 +1614,7 @@ public final class IntrospectionHelper {
             void store(final Object parent, final Object child) throws InvocationTargetException,
                     IllegalAccessException, InstantiationException {
                 if (getMethod().getName().endsWith("Configured")) {
-                    getMethod().invoke(parent, realObject);
+                    invoke(parent, realObject);
                 }
             }
         };
@@ -1632,6 +1685,149 @@ public final class IntrospectionHelper {
     }
 
 
+    /**
+     * Whether instances of the given class may need a project.
+     */
+    private static boolean hasSetProjectMethod(final Class<?> c) {
+        try {
+            c.getMethod("setProject", Project.class);
+            return true;
+        } catch (final NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Invokes a method taking at most one argument through a {@link
+     * MethodHandle} that is looked up on first use, which avoids the
+     * access checks and argument arrays of {@link Method#invoke} on
+     * each call. Reflection is used if the method cannot be obtained
+     * from a public lookup. Exceptions are reported the same way
+     * {@link Method#invoke} does.
+     */
+    private static final class MethodInvoker {
+        private static final MethodType NO_ARG =
+            MethodType.methodType(Object.class, Object.class);
+        private static final MethodType ONE_ARG =
+            MethodType.methodType(Object.class, Object.class, Object.class);
+
+        private final Method method;
+        private final Class<?> argType;
+        private final boolean primitiveArg;
+        private volatile MethodHandle handle;
+        private volatile boolean reflective;
+
+        MethodInvoker(final Method method) {
+            this.method = method;
+            final Class<?>[] params = method.getParameterTypes();
+            argType = params.length == 0 ? null
+                : PRIMITIVE_TYPE_MAP.getOrDefault(params[0], params[0]);
+            primitiveArg = params.length != 0 && params[0].isPrimitive();
+            reflective = Modifier.isStatic(method.getModifiers()) || params.length > 1;
+        }
+
+        private MethodHandle getHandle() {
+            MethodHandle h = handle;
+            if (h == null && !reflective) {
+                try {
+                    h = MethodHandles.publicLookup().unreflect(method).asFixedArity()
+                        .asType(argType == null ? NO_ARG : ONE_ARG);
+                    handle = h;
+                } catch (final IllegalAccessException | RuntimeException e) {
+                    // let Method.invoke deal with it
+                    reflective = true;
+                }
+            }
+            return h;
+        }
+
+        Object invoke(final Object target)
+                throws InvocationTargetException, IllegalAccessException {
+            final MethodHandle h = getHandle();
+            if (h == null) {
+                return method.invoke(target);
+            }
+            checkTarget(target);
+            try {
+                return (Object) h.invokeExact(target);
+            } catch (final Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        Object invoke(final Object target, final Object arg)
+                throws InvocationTargetException, IllegalAccessException {
+            final MethodHandle h = getHandle();
+            if (h == null) {
+                return method.invoke(target, arg);
+            }
+            checkTarget(target);
+            if (arg == null ? primitiveArg : !argType.isInstance(arg)) {
+                throw new IllegalArgumentException("argument type mismatch");
+            }
+            try {
+                return (Object) h.invokeExact(target, arg);
+            } catch (final Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        private void checkTarget(final Object target) {
+            if (!method.getDeclaringClass().isInstance(target)) {
+                throw new IllegalArgumentException(
+                    "object is not an instance of declaring class");
+            }
+        }
+    }
+
+    /**
+     * Counterpart of {@link MethodInvoker} for constructors.
+     */
+    private static final class ConstructorInvoker {
+        private final Constructor<?> constructor;
+        private volatile MethodHandle handle;
+        private volatile boolean reflective;
+
+        ConstructorInvoker(final Constructor<?> constructor) {
+            this.constructor = constructor;
+        }
+
+        private MethodHandle getHandle() {
+            MethodHandle h = handle;
+            if (h == null && !reflective) {
+                try {
+                    final int count = constructor.getParameterTypes().length;
+                    h = MethodHandles.publicLookup().unreflectConstructor(constructor)
+                        .asFixedArity().asSpreader(Object[].class, count)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+                    handle = h;
+                } catch (final IllegalAccessException | RuntimeException e) {
+                    reflective = true;
+                }
+            }
+            return h;
+        }
+
+        Object newInstance(final Object[] args) throws InvocationTargetException,
+                IllegalAccessException, InstantiationException {
+            final MethodHandle h = getHandle();
+            if (h == null) {
+                return constructor.newInstance(args);
+            }
+            final Class<?>[] params = constructor.getParameterTypes();
+            for (int i = 0; i < params.length; i++) {
+                if (args[i] != null && !params[i].isInstance(args[i])) {
+                    throw new IllegalArgumentException("argument type mismatch");
+                }
+            }
+            try {
+                return (Object) h.invokeExact(args);
+            } catch (final Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+
     private static class MethodAndObject {
         private final Method method;
         private final Object object;
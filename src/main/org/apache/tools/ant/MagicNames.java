@@ -107,6 +107,73 @@ public final class MagicNames {
      */
     public static final String ANT_EXECUTOR_CLASSNAME = "ant.executor.class";
 
+    /**
+     * Property defining the number of threads used by executors that
+     * run targets concurrently.
+     * Value: {@value}
+     * @since Ant 1.10.11
+     */
+    public static final String ANT_EXECUTOR_THREADS = "ant.executor.threads";
+
+    /**
+     * Property defining the maximum number of build events waiting
+     * to be passed to the listeners when running with
+     * -async-logging.
+     * Value: {@value}
+     * @since Ant 1.10.11
+     */
+    public static final String ASYNC_LOGGING_CAPACITY = "ant.logging.async.capacity";
+
+    /**
+     * Property that can be set to true in order to drop verbose and
+     * debug messages rather than waiting for the listeners when
+     * running with -async-logging.
+     * Value: {@value}
+     * @since Ant 1.10.11
+     */
+    public static final String ASYNC_LOGGING_DROP_VERBOSE = "ant.logging.async.dropverbose";
+
+    /**
+     * Property that can be set to false in order to disable the cache
+     * of parsed build files.
+     * Value: {@value}
+     * @since Ant 1.10.11
+     */
+    public static final String PARSER_CACHE = "ant.parser.cache";
+
+    /**
+     * Property that can be set to true in order to make filesets and
+     * dirsets read their directories in parallel.
+     * Value: {@value}
+     * @since Ant 1.10.11
+     */
+    public static final String PARALLEL_SCAN = "ant.scanner.parallel";
+
+    /**
+     * Property that can be set to true in order to make filesets,
+     * dirsets and restrict evaluate thread-safe selectors in parallel.
+     * Value: {@value}
+     * @since Ant 1.10.11
+     */
+    public static final String PARALLEL_SELECTION = "ant.selectors.parallel";
+
+    /**
+     * Property that can be set to false in order to disable the cache
+     * of directory listings shared by all filesets of a project.
+     * Value: {@value}
+     * @since Ant 1.10.11
+     */
+    public static final String SCANNER_CACHE = "ant.scanner.cache";
+
+    /**
+     * Property that can be set to false in order to disable the
+     * per-task cache of file attributes used by file resources and
+     * selectors.
+     * Value: {@value}
+     * @since Ant 1.10.11
+     */
+    public static final String FILE_ATTRIBUTES_CACHE = "ant.fileattributes.cache";
+
     /**
      * property name for basedir of the project.
      * Value: {@value}
@@ -207,6 +274,20 @@ public final class MagicNames {
      */
     public static final String REFID_LOCAL_PROPERTIES = "ant.LocalProperties";
 
+    /**
+     * Reference used to store the cache of directory listings.
+     * Value: {@value}
+     * @since Ant 1.10.11
+     */
+    public static final String REFID_DIRECTORY_LISTING_CACHE = "ant.DirectoryListingCache";
+
+    /**
+     * Reference used to store the cache of file attributes.
+     * Value: {@value}
+     * @since Ant 1.10.11
+     */
+    public static final String REFID_FILE_ATTRIBUTES_CACHE = "ant.FileAttributesCache";
+
     /**
      * Name of Ant core package
      * Value: {@value}
@@ -38,9 +38,11 @@ import java.util.Set;
 import java.util.Vector;
 import java.util.stream.Collectors;
 
+import org.apache.tools.ant.helper.ParallelExecutor;
 import org.apache.tools.ant.input.DefaultInputHandler;
 import org.apache.tools.ant.input.InputHandler;
 import org.apache.tools.ant.launch.AntMain;
+import org.apache.tools.ant.listener.AsyncBuildListener;
 import org.apache.tools.ant.listener.SilentLogger;
 import org.apache.tools.ant.property.GetProperty;
 import org.apache.tools.ant.property.ResolvePropertyMap;
@@ -68,7 +70,7 @@ public class Main implements AntMain {
      */
     private static final Set<String> LAUNCH_COMMANDS = Collections
             .unmodifiableSet(new HashSet<>(Arrays.asList("-lib", "-cp", "-noclasspath",
-                    "--noclasspath", "-nouserlib", "-main")));
+                    "--noclasspath", "-nouserlib", "-main", "-daemon")));
 
     /** The default build file name. {@value} */
     public static final String DEFAULT_BUILD_FILENAME = "build.xml";
@@ -103,6 +105,18 @@ public class Main implements AntMain {
     /** keep going mode */
     private boolean keepGoingMode = false;
 
+    /**
+     * number of threads used to execute independent targets
+     * concurrently, null if targets are executed sequentially
+     */
+    private Integer parallelThreads = null;
+
+    /** whether build events are passed to the listeners asynchronously */
+    private boolean asyncLogging = false;
+
+    /** whether targets are executed again when their inputs change */
+    private boolean watch = false;
+
     /**
      * The Ant logger class. There may be only one logger. It will have
      * the right to use the 'out' PrintStream. The class must implements the
@@ -385,6 +399,12 @@ public class Main implements AntMain {
                 keepGoingMode = true;
             } else if (arg.equals("-nice")) {
                 i = handleArgNice(args, i);
+            } else if (arg.equals("-parallel") || arg.equals("-j")) {
+                i = handleArgParallel(args, i);
+            } else if (arg.equals("-async-logging")) {
+                asyncLogging = true;
+            } else if (arg.equals("-watch")) {
+                watch = true;
             } else if (LAUNCH_COMMANDS.contains(arg)) {
                 //catch script/ant mismatch with a meaningful message
                 //we could ignore it, but there are likely to be other
@@ -626,6 +646,26 @@ public class Main implements AntMain {
         return pos;
     }
 
+    /** Handle the -parallel, -j argument. */
+    private int handleArgParallel(final String[] args, int pos) {
+        try {
+            parallelThreads = Integer.decode(args[++pos]);
+        } catch (final ArrayIndexOutOfBoundsException aioobe) {
+            throw new BuildException(
+                "You must supply the number of threads"
+                + " after the -parallel option");
+        } catch (final NumberFormatException e) {
+            throw new BuildException("Unrecognized number of threads: "
+                                     + args[pos]);
+        }
+
+        if (parallelThreads < 1) {
+            throw new BuildException(
+                "The number of threads must be a positive number");
+        }
+        return pos;
+    }
+
     // --------------------------------------------------------
     //    other methods
     // --------------------------------------------------------
@@ -786,6 +826,9 @@ public class Main implements AntMain {
                 setProperties(project);
 
                 project.setKeepGoingMode(keepGoingMode);
+                if (parallelThreads != null) {
+                    project.setExecutor(new ParallelExecutor(parallelThreads));
+                }
                 if (proxy) {
                     //proxy setup if enabled
                     final ProxySetup proxySetup = new ProxySetup(project);
@@ -824,7 +867,11 @@ public class Main implements AntMain {
                     }
                 }
 
-                project.executeTargets(targets);
+                if (watch) {
+                    new ContinuousBuild(project, targets).run();
+                } else {
+                    project.executeTargets(targets);
+                }
             } finally {
                 // put back the original security manager
                 //The following will never eval to true. (PD)
@@ -856,8 +903,14 @@ public class Main implements AntMain {
                     }
                     throw new BuildException(t); //NOSONAR
                 }
-            } else if (error != null) {
-                project.log(error.toString(), Project.MSG_ERR);
+            } else {
+                if (error != null) {
+                    project.log(error.toString(), Project.MSG_ERR);
+                }
+                // there is no buildFinished event that would do it
+                project.getBuildListeners().stream()
+                    .filter(AsyncBuildListener.class::isInstance)
+                    .forEach(l -> ((AsyncBuildListener) l).flush());
             }
         }
     }
@@ -905,8 +958,15 @@ public class Main implements AntMain {
      */
     protected void addBuildListeners(final Project project) {
 
+        final AsyncBuildListener async = asyncLogging ? createAsyncListener() : null;
+
         // Add the default listener
-        project.addBuildListener(createLogger());
+        final BuildLogger logger = createLogger();
+        if (async != null) {
+            async.addBuildListener(logger);
+        } else {
+            project.addBuildListener(logger);
+        }
 
         final int count = listeners.size();
         for (int i = 0; i < count; i++) {
@@ -916,8 +976,36 @@ public class Main implements AntMain {
                             Main.class.getClassLoader(), BuildListener.class);
             project.setProjectReference(listener);
 
-            project.addBuildListener(listener);
+            if (async != null) {
+                async.addBuildListener(listener);
+            } else {
+                project.addBuildListener(listener);
+            }
+        }
+
+        if (async != null) {
+            project.addBuildListener(async);
+        }
+    }
+
+    /**
+     * Creates the listener dispatching events asynchronously,
+     * configured by the properties specified on the command line.
+     */
+    private AsyncBuildListener createAsyncListener() {
+        int capacity = AsyncBuildListener.DEFAULT_CAPACITY;
+        final String capacityValue =
+            definedProps.getProperty(MagicNames.ASYNC_LOGGING_CAPACITY);
+        if (capacityValue != null) {
+            try {
+                capacity = Integer.parseInt(capacityValue);
+            } catch (final NumberFormatException e) {
+                throw new BuildException("Invalid value for "
+                    + MagicNames.ASYNC_LOGGING_CAPACITY + ": " + capacityValue);
+            }
         }
+        return new AsyncBuildListener(capacity, Project.toBoolean(
+            definedProps.getProperty(MagicNames.ASYNC_LOGGING_DROP_VERBOSE)));
     }
 
     /**
@@ -1004,6 +1092,12 @@ public class Main implements AntMain {
         System.out.println("  -D<property>=<value>   use value for given property");
         System.out.println("  -keep-going, -k        execute all targets that do not depend");
         System.out.println("                         on failed target(s)");
+        System.out.println("  -parallel <threads>    execute independent targets concurrently");
+        System.out.println("    -j      <threads>    using the given number of threads");
+        System.out.println("  -async-logging         pass build events to the logger and listeners");
+        System.out.println("                         on a separate thread");
+        System.out.println("  -watch                 execute the targets again whenever files");
+        System.out.println("                         of the filesets they use change");
         System.out.println("  -propertyfile <name>   load all properties from file with -D");
         System.out.println("                         properties taking precedence");
         System.out.println("  -inputhandler <class>  the class which will handle input requests");
@@ -1016,6 +1110,8 @@ public class Main implements AntMain {
         System.out.println("  -noclasspath           Run ant without using CLASSPATH");
         System.out.println("  -autoproxy             Java1.5+: use the OS proxy settings");
         System.out.println("  -main <class>          override Ant's normal entry point");
+        System.out.println("  -daemon                run the build inside a background JVM that is");
+        System.out.println("                         kept alive for subsequent builds");
         for (final ArgumentProcessor processor : ArgumentProcessorRegistry.getInstance().getProcessors()) {
             processor.printUsage(System.out);
         }
@@ -34,6 +34,7 @@ import java.util.Set;
 import java.util.Stack;
 import java.util.Vector;
 import java.util.WeakHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.apache.tools.ant.helper.DefaultExecutor;
@@ -460,6 +461,44 @@ public class Project implements ResourceFactory {
         log(message, null, msgLevel);
     }
 
+    /**
+     * Write a project level message to the log with the given log
+     * level if any listener is interested in messages of this level.
+     *
+     * <p>The message is only created if it is going to be logged.</p>
+     * @param message Creates the text to log. Must not be <code>null</code>.
+     * @param msgLevel The log priority level to use.
+     * @since Ant 1.10.11
+     */
+    public void log(final Supplier<String> message, final int msgLevel) {
+        if (isLogEnabled(msgLevel)) {
+            log(message.get(), msgLevel);
+        }
+    }
+
+    /**
+     * Whether any of the registered build listeners is interested in
+     * messages of the given priority.
+     *
+     * <p>Use this method to avoid creating log messages that would
+     * get discarded by all listeners anyway.</p>
+     * @param msgLevel The log priority level to check.
+     * @return true if at least one listener wants to receive messages
+     * of the given priority.
+     * @see BuildListener#getMessageOutputLevel
+     * @since Ant 1.10.11
+     */
+    public boolean isLogEnabled(final int msgLevel) {
+        // not cached as the levels of listeners may change after
+        // they've been added
+        for (final BuildListener listener : listeners) {
+            if (listener.getMessageOutputLevel() >= msgLevel) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Write a project level message to the log with the given log level.
      * @param message The text to log. Should not be <code>null</code>.
@@ -17,6 +17,8 @@
  */
 package org.apache.tools.ant;
 
+import java.util.function.Supplier;
+
 /**
  * Base class for components of a project, including tasks and data types.
  * Provides common facilities.
@@ -157,6 +159,41 @@ public abstract class ProjectComponent implements Cloneable {
         }
     }
 
+    /**
+     * Logs a message with the given priority if anybody is
+     * interested in messages of this priority.
+     *
+     * <p>The message is only created if it is going to be logged,
+     * use this method if building the message is expensive.</p>
+     *
+     * @param msg Creates the message to be logged. Must not be
+     *            <code>null</code>.
+     * @param msgLevel the message priority at which this message is
+     *                 to be logged.
+     * @since Ant 1.10.11
+     */
+    public void log(Supplier<String> msg, int msgLevel) {
+        if (isLogEnabled(msgLevel)) {
+            log(msg.get(), msgLevel);
+        }
+    }
+
+    /**
+     * Whether messages of the given priority would be logged.
+     *
+     * @param msgLevel the message priority to check.
+     * @return true if messages of this priority would be logged.
+     * @see Project#isLogEnabled
+     * @since Ant 1.10.11
+     */
+    public boolean isLogEnabled(int msgLevel) {
+        if (getProject() != null) {
+            return getProject().isLogEnabled(msgLevel);
+        }
+        // see log(String, int)
+        return msgLevel <= Project.MSG_INFO;
+    }
+
     /**
      * @since Ant 1.7
      * @return a shallow copy of this projectcomponent.
@@ -20,17 +20,22 @@ package org.apache.tools.ant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.tools.ant.property.GetProperty;
 import org.apache.tools.ant.property.NullReturn;
 import org.apache.tools.ant.property.ParseProperties;
 import org.apache.tools.ant.property.PropertyExpander;
+import org.apache.tools.ant.property.PropertyTemplate;
+import org.apache.tools.ant.util.ConcurrentHashtable;
+import org.apache.tools.ant.util.CopyOnWriteHashtable;
 
 /* ISSUES:
  - ns param. It could be used to provide "namespaces" for properties, which
@@ -245,26 +250,56 @@ public class PropertyHelper implements GetProperty {
         }
     };
 
+    /**
+     * Maximum number of compiled values cached per helper.
+     */
+    private static final int MAX_TEMPLATES = 10000;
+
+    /**
+     * Marks values that can't be compiled.
+     */
+    private static final Object NOT_COMPILABLE = new Object();
+
     private Project project;
     private PropertyHelper next;
-    private final Hashtable<Class<? extends Delegate>, List<Delegate>> delegates = new Hashtable<>();
+
+    /**
+     * Compiled values for the current set of expanders.
+     */
+    private volatile TemplateCache templates;
+
+    /**
+     * Delegates by interface, replaced as a whole whenever a delegate
+     * is added so lookups don't need any locking.
+     */
+    private volatile Map<Class<? extends Delegate>, List<Delegate>> delegates =
+        Collections.emptyMap();
 
     /** Project properties map (usually String to String). */
-    private final Hashtable<String, Object> properties = new Hashtable<>();
+    private final ConcurrentHashtable<String, Object> properties = new ConcurrentHashtable<>();
 
     /**
      * Map of "user" properties (as created in the Ant task, for example).
      * Note that these key/value pairs are also always put into the
      * project properties, so only the project properties need to be queried.
      */
-    private final Hashtable<String, Object> userProperties = new Hashtable<>();
+    private final ConcurrentHashtable<String, Object> userProperties =
+        new ConcurrentHashtable<>();
 
     /**
      * Map of inherited "user" properties - that are those "user"
      * properties that have been created by tasks and not been set
      * from the command line or a GUI tool.
      */
-    private final Hashtable<String, Object> inheritedProperties = new Hashtable<>();
+    private final ConcurrentHashtable<String, Object> inheritedProperties =
+        new ConcurrentHashtable<>();
+
+    /**
+     * The properties passed on to other projects by {@link
+     * #copyProperties copyProperties} and the snapshot of the project
+     * properties they have been created from.
+     */
+    private volatile InheritableProperties inheritable;
 
     /**
      * Default constructor.
@@ -585,8 +620,13 @@ public class PropertyHelper implements GetProperty {
      *         <code>null</code> if the original string is <code>null</code>.
      */
     public Object parseProperties(String value) throws BuildException {
-        return new ParseProperties(getProject(), getExpanders(), this)
-            .parseProperties(value);
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        final Collection<PropertyExpander> expanders = getExpanders();
+        final PropertyTemplate template = getTemplate(value, expanders);
+        return template != null ? template.expand(getProject(), this)
+            : new ParseProperties(getProject(), expanders, this).parseProperties(value);
     }
 
     /**
@@ -595,8 +635,40 @@ public class PropertyHelper implements GetProperty {
      * @return <code>true</code> if <code>value</code> contains property notation.
      */
     public boolean containsProperties(String value) {
-        return new ParseProperties(getProject(), getExpanders(), this)
-            .containsProperties(value);
+        if (value == null) {
+            return false;
+        }
+        final Collection<PropertyExpander> expanders = getExpanders();
+        final PropertyTemplate template = getTemplate(value, expanders);
+        return template != null ? template.containsProperties()
+            : new ParseProperties(getProject(), expanders, this).containsProperties(value);
+    }
+
+    /**
+     * Looks up the compiled form of a value, compiling it if
+     * necessary.
+     * @param value the value
+     * @param expanders the expanders to use
+     * @return null if the value cannot be compiled
+     */
+    private PropertyTemplate getTemplate(String value,
+                                         Collection<PropertyExpander> expanders) {
+        TemplateCache cache = templates;
+        if (cache == null || cache.expanders != expanders) {
+            cache = new TemplateCache(expanders);
+            templates = cache;
+        }
+        final Object cached = cache.templates.get(value);
+        if (cached != null) {
+            return cached == NOT_COMPILABLE ? null : (PropertyTemplate) cached;
+        }
+        final PropertyTemplate template = PropertyTemplate.compile(value, expanders,
+            new ParseProperties(getProject(), expanders, this));
+        if (cache.templates.size() >= MAX_TEMPLATES) {
+            cache.templates.clear();
+        }
+        cache.templates.put(value, template == null ? NOT_COMPILABLE : template);
+        return template;
     }
 
     // -------------------- Default implementation  --------------------
@@ -698,20 +770,22 @@ public class PropertyHelper implements GetProperty {
                 return;
             }
         }
-        synchronized (this) {
-            if (project != null && properties.containsKey(name)) {
-                project.log("Override ignored for property \"" + name
-                            + "\"", Project.MSG_VERBOSE);
-                return;
-            }
-            if (project != null) {
-                project.log("Setting project property: " + name
-                            + " -> " + value, Project.MSG_DEBUG);
-            }
+        if (project == null) {
             if (name != null && value != null) {
                 properties.put(name, value);
             }
+            return;
         }
+        // the first writer wins
+        if (properties.containsKey(name)
+            || (name != null && value != null
+                && properties.putIfAbsent(name, value) != null)) {
+            project.log("Override ignored for property \"" + name
+                        + "\"", Project.MSG_VERBOSE);
+            return;
+        }
+        project.log("Setting project property: " + name
+                    + " -> " + value, Project.MSG_DEBUG);
     }
 
     /**
@@ -916,10 +990,8 @@ public class PropertyHelper implements GetProperty {
      * @return a hashtable containing all properties (including user properties).
      */
     public Hashtable<String, Object> getProperties() {
-        //avoid concurrent modification:
-        synchronized (properties) {
-            return new Hashtable<>(properties);
-        }
+        // shares the content with all other callers until modified
+        return new CopyOnWriteHashtable<>(properties.snapshot());
         // There is a better way to save the context. This shouldn't
         // delegate to next, it's for backward compatibility only.
     }
@@ -933,10 +1005,7 @@ public class PropertyHelper implements GetProperty {
      * @return a hashtable containing just the user properties
      */
     public Hashtable<String, Object> getUserProperties() {
-        //avoid concurrent modification:
-        synchronized (userProperties) {
-            return new Hashtable<>(userProperties);
-        }
+        return new CopyOnWriteHashtable<>(userProperties.snapshot());
     }
 
     /**
@@ -948,10 +1017,7 @@ public class PropertyHelper implements GetProperty {
      * @return a hashtable containing just the inherited properties
      */
     public Hashtable<String, Object> getInheritedProperties() {
-        //avoid concurrent modification:
-        synchronized (inheritedProperties) {
-            return new Hashtable<>(inheritedProperties);
-        }
+        return new CopyOnWriteHashtable<>(inheritedProperties.snapshot());
     }
 
     /**
@@ -996,15 +1062,11 @@ public class PropertyHelper implements GetProperty {
      * @since Ant 1.6
      */
     public void copyInheritedProperties(Project other) {
-        //avoid concurrent modification:
-        synchronized (inheritedProperties) {
-            for (Map.Entry<String, Object> entry : inheritedProperties.entrySet()) {
-                String arg = entry.getKey();
-                if (other.getUserProperty(arg) == null) {
-                    other.setInheritedProperty(arg, entry.getValue().toString());
-                }
+        inheritedProperties.snapshot().forEach((arg, value) -> {
+            if (other.getUserProperty(arg) == null) {
+                other.setInheritedProperty(arg, value.toString());
             }
-        }
+        });
     }
 
     /**
@@ -1023,14 +1085,64 @@ public class PropertyHelper implements GetProperty {
      * @since Ant 1.6
      */
     public void copyUserProperties(Project other) {
-        //avoid concurrent modification:
-        synchronized (userProperties) {
-            for (Map.Entry<String, Object> entry : userProperties.entrySet()) {
-                String arg = entry.getKey();
-                if (!inheritedProperties.containsKey(arg)) {
-                    other.setUserProperty(arg, entry.getValue().toString());
-                }
+        userProperties.snapshot().forEach((arg, value) -> {
+            if (!inheritedProperties.containsKey(arg)) {
+                other.setUserProperty(arg, value.toString());
             }
+        });
+    }
+
+    /**
+     * Makes all properties of this instance - except for
+     * <code>basedir</code> and <code>ant.file</code> - visible as
+     * plain properties of the Project instance given as the argument
+     * unless that project already has a property of the same name.
+     *
+     * <p>This has the same effect as setting each property via
+     * {@link #setNewProperty(String, Object) setNewProperty} - with
+     * the value converted to a String - but the properties are not
+     * copied unless the other project needs all of them at once, so
+     * the cost doesn't depend on the number of properties. Properties
+     * set in this instance afterwards are not visible in the other
+     * project.</p>
+     *
+     * <p>Does not copy properties held by implementations of
+     * delegates (like local properties).</p>
+     *
+     * @param other the project to copy the properties to.  Must not be null.
+     *
+     * @since Ant 1.10.11
+     */
+    public void copyProperties(Project other) {
+        getPropertyHelper(other).properties.layerOver(getInheritableProperties());
+    }
+
+    private Map<String, Object> getInheritableProperties() {
+        final Map<String, Object> current = properties.snapshot();
+        InheritableProperties i = inheritable;
+        if (i == null || i.source != current) {
+            final Map<String, Object> m = new HashMap<>(current.size());
+            current.forEach((k, v) -> {
+                // basedir and ant.file get special treatment by <ant>
+                if (!MagicNames.PROJECT_BASEDIR.equals(k)
+                    && !MagicNames.ANT_FILE.equals(k)) {
+                    m.put(k, v.toString());
+                }
+            });
+            i = new InheritableProperties(current, Collections.unmodifiableMap(m));
+            inheritable = i;
+        }
+        return i.properties;
+    }
+
+    private static final class InheritableProperties {
+        private final Map<String, Object> source;
+        private final Map<String, Object> properties;
+
+        private InheritableProperties(Map<String, Object> source,
+                                      Map<String, Object> properties) {
+            this.source = source;
+            this.properties = properties;
         }
     }
 
@@ -1102,21 +1214,23 @@ public class PropertyHelper implements GetProperty {
      * @param delegate the delegate to add.
      * @since Ant 1.8.0
      */
-    public void add(Delegate delegate) {
-        synchronized (delegates) {
-            for (Class<? extends Delegate> key : getDelegateInterfaces(delegate)) {
-                List<Delegate> list = delegates.get(key);
-                if (list == null) {
-                    list = new ArrayList<>();
-                } else {
-                    //copy on write, top priority
-                    list = new ArrayList<>(list);
-                    list.remove(delegate);
-                }
-                list.add(0, delegate);
-                delegates.put(key, Collections.unmodifiableList(list));
+    public synchronized void add(Delegate delegate) {
+        //copy on write, readers never lock
+        final Map<Class<? extends Delegate>, List<Delegate>> newDelegates =
+            new HashMap<>(delegates);
+        for (Class<? extends Delegate> key : getDelegateInterfaces(delegate)) {
+            List<Delegate> list = newDelegates.get(key);
+            if (list == null) {
+                list = new ArrayList<>();
+            } else {
+                //top priority
+                list = new ArrayList<>(list);
+                list.remove(delegate);
             }
+            list.add(0, delegate);
+            newDelegates.put(key, Collections.unmodifiableList(list));
         }
+        delegates = newDelegates;
     }
 
     /**
@@ -1231,4 +1345,17 @@ public class PropertyHelper implements GetProperty {
     public boolean testUnlessCondition(Object value) {
         return nullOrEmpty(value) || !evalAsBooleanOrPropertyName(value);
     }
+
+    /**
+     * Compiled values, only valid for a given collection of
+     * expanders.
+     */
+    private static final class TemplateCache {
+        private final Collection<PropertyExpander> expanders;
+        private final Map<String, Object> templates = new ConcurrentHashMap<>();
+
+        TemplateCache(Collection<PropertyExpander> expanders) {
+            this.expanders = expanders;
+        }
+    }
 }
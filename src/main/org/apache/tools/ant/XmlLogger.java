@@ -432,6 +432,17 @@ public class XmlLogger implements BuildLogger {
         msgOutputLevel = level;
     }
 
+    /**
+     * The logging level when using this as a Logger.
+     *
+     * @return the logging level, {@link Project#MSG_DEBUG} by default
+     * @since Ant 1.10.11
+     */
+    @Override
+    public int getMessageOutputLevel() {
+        return msgOutputLevel;
+    }
+
     /**
      * Set the output stream to which logging output is sent when operating
      * as a logger.
@@ -68,6 +68,11 @@ public abstract class BaseFilterReader extends FilterReader {
      * until some input is available, an I/O error occurs, or the end of the
      * stream is reached.
      *
+     * <p>This implementation calls {@link #read()} for every single
+     * character. Filters that can produce blocks of characters more
+     * efficiently may override it, {@link #read()} and this method
+     * must read from the same stream of characters, though.</p>
+     *
      * @param      cbuf  Destination buffer to write characters to.
      *                   Must not be <code>null</code>.
      * @param      off   Offset at which to start storing characters.
@@ -78,8 +83,8 @@ public abstract class BaseFilterReader extends FilterReader {
      *
      * @exception  IOException  If an I/O error occurs
      */
-    public final int read(final char[] cbuf, final int off,
-                          final int len) throws IOException {
+    public int read(final char[] cbuf, final int off,
+                    final int len) throws IOException {
         for (int i = 0; i < len; i++) {
             final int ch = read();
             if (ch == -1) {
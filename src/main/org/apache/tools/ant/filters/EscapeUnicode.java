@@ -41,8 +41,9 @@ public class EscapeUnicode
     extends BaseParamFilterReader
     implements ChainableReader {
     //this field will hold unnnn right after reading a non latin character
-    //afterwards it will be truncated of one char every call to read
-    private StringBuffer unicodeBuf;
+    //afterwards unicodeBufPos points to the next char to return
+    private String unicodeBuf = "";
+    private int unicodeBufPos = 0;
 
     /**
      * Constructor for "dummy" instances.
@@ -51,7 +52,6 @@ public class EscapeUnicode
      */
     public EscapeUnicode() {
         super();
-        unicodeBuf = new StringBuffer();
     }
 
     /**
@@ -62,7 +62,6 @@ public class EscapeUnicode
      */
     public EscapeUnicode(final Reader in) {
         super(in);
-        unicodeBuf = new StringBuffer();
     }
 
     /**
@@ -81,20 +80,59 @@ public class EscapeUnicode
             setInitialized(true);
         }
 
-        int ch = -1;
-        if (unicodeBuf.length() > 0) {
-            ch = (int) unicodeBuf.charAt(0);
-            unicodeBuf.deleteCharAt(0);
-        } else {
-            ch = in.read();
-            if (ch != -1) {
-                char achar = (char) ch;
-                if (achar >= '\u0080') {
-                    unicodeBuf = UnicodeUtil.EscapeUnicode(achar);
-                    ch = '\\';
+        if (unicodeBufPos < unicodeBuf.length()) {
+            return unicodeBuf.charAt(unicodeBufPos++);
+        }
+        return escape(in.read());
+    }
+
+    /**
+     * Reads characters into a portion of an array, converting non
+     * latin characters to unicode escapes.
+     *
+     * @param cbuf destination buffer
+     * @param off offset at which to start storing characters
+     * @param len maximum number of characters to read
+     * @return the number of characters read, or -1 if the end of the
+     * resulting stream has been reached
+     *
+     * @exception IOException if the underlying stream throws
+     * an IOException during reading
+     * @since Ant 1.10.11
+     */
+    @Override
+    public final int read(final char[] cbuf, final int off, final int len)
+        throws IOException {
+        if (!getInitialized()) {
+            initialize();
+            setInitialized(true);
+        }
+
+        int n = 0;
+        while (n < len) {
+            if (unicodeBufPos < unicodeBuf.length()) {
+                cbuf[off + n++] = unicodeBuf.charAt(unicodeBufPos++);
+            } else {
+                final int ch = escape(in.read());
+                if (ch == -1) {
+                    break;
                 }
+                cbuf[off + n++] = (char) ch;
             }
         }
+        return n == 0 && len > 0 ? -1 : n;
+    }
+
+    /**
+     * Replaces a non latin character by a backslash and queues the
+     * rest of its escape.
+     */
+    private int escape(final int ch) {
+        if (ch >= '\u0080') {
+            unicodeBuf = UnicodeUtil.EscapeUnicode((char) ch).toString();
+            unicodeBufPos = 0;
+            return '\\';
+        }
         return ch;
     }
 
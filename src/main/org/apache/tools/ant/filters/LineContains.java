@@ -72,11 +72,10 @@ public final class LineContains
     private Vector<String> contains = new Vector<>();
 
     /**
-     * Remaining line to be read from this filter, or <code>null</code> if
-     * the next call to <code>read()</code> should read the original stream
-     * to find the next matching line.
+     * Remaining part of the matching line that is being read from
+     * this filter.
      */
-    private String line = null;
+    private final PendingText line = new PendingText(this::nextMatchingLine);
 
     private boolean negate = false;
 
@@ -116,49 +115,67 @@ public final class LineContains
             initialize();
             setInitialized(true);
         }
+        return line.read();
+    }
 
-        int ch = -1;
+    /**
+     * Reads characters into a portion of an array, copying whole
+     * chunks of the current line at once.
+     *
+     * @param cbuf destination buffer
+     * @param off offset at which to start storing characters
+     * @param len maximum number of characters to read
+     * @return the number of characters read, or -1 if the end of the
+     * resulting stream has been reached
+     *
+     * @exception IOException if the underlying stream throws an IOException
+     * during reading
+     * @since Ant 1.10.11
+     */
+    @Override
+    public int read(final char[] cbuf, final int off, final int len)
+        throws IOException {
+        if (!getInitialized()) {
+            initialize();
+            setInitialized(true);
+        }
+        return line.read(cbuf, off, len);
+    }
 
-        if (line != null) {
-            ch = line.charAt(0);
-            if (line.length() == 1) {
-                line = null;
-            } else {
-                line = line.substring(1);
-            }
-        } else {
-            final int containsSize = contains.size();
+    /**
+     * Reads lines from the original stream until one matches.
+     * @return the matching line or null at the end of the stream
+     */
+    private String nextMatchingLine() throws IOException {
+        final int containsSize = contains.size();
 
-            for (line = readLine(); line != null; line = readLine()) {
-                boolean matches = true;
-                for (int i = 0; i < containsSize; i++) {
-                    final String containsStr = contains.elementAt(i);
-                    matches = line.contains(containsStr);
-                    if (!matches) {
-                        if (this.matchAny) {
-                            // this one didn't match, but we are expected to have
-                            // any one of them match. so try next
-                            continue;
-                        } else {
-                            // all were expected to match, but this one didn't.
-                            // so no point checking the rest
-                            break;
-                        }
-                    } else if (this.matchAny) {
-                        // we were expected to match any of the contains
-                        // and this one did. so no more checks needed
+        String line;
+        for (line = readLine(); line != null; line = readLine()) {
+            boolean matches = true;
+            for (int i = 0; i < containsSize; i++) {
+                final String containsStr = contains.elementAt(i);
+                matches = line.contains(containsStr);
+                if (!matches) {
+                    if (this.matchAny) {
+                        // this one didn't match, but we are expected to have
+                        // any one of them match. so try next
+                        continue;
+                    } else {
+                        // all were expected to match, but this one didn't.
+                        // so no point checking the rest
                         break;
                     }
-                }
-                if (matches ^ isNegated()) {
+                } else if (this.matchAny) {
+                    // we were expected to match any of the contains
+                    // and this one did. so no more checks needed
                     break;
                 }
             }
-            if (line != null) {
-                return read();
+            if (matches ^ isNegated()) {
+                break;
             }
         }
-        return ch;
+        return line;
     }
 
     /**
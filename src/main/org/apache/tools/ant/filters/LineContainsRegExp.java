@@ -61,11 +61,10 @@ public final class LineContainsRegExp
     private Vector<RegularExpression> regexps = new Vector<>();
 
     /**
-     * Remaining line to be read from this filter, or <code>null</code> if
-     * the next call to <code>read()</code> should read the original stream
-     * to find the next matching line.
+     * Remaining part of the matching line that is being read from
+     * this filter.
      */
-    private String line = null;
+    private final PendingText line = new PendingText(this::nextMatchingLine);
 
     private boolean negate = false;
     private int regexpOptions = Regexp.MATCH_DEFAULT;
@@ -105,34 +104,52 @@ public final class LineContainsRegExp
             initialize();
             setInitialized(true);
         }
+        return line.read();
+    }
 
-        int ch = -1;
+    /**
+     * Reads characters into a portion of an array, copying whole
+     * chunks of the current line at once.
+     *
+     * @param cbuf destination buffer
+     * @param off offset at which to start storing characters
+     * @param len maximum number of characters to read
+     * @return the number of characters read, or -1 if the end of the
+     * resulting stream has been reached
+     *
+     * @exception IOException if the underlying stream throws an IOException
+     * during reading
+     * @since Ant 1.10.11
+     */
+    @Override
+    public int read(final char[] cbuf, final int off, final int len)
+        throws IOException {
+        if (!getInitialized()) {
+            initialize();
+            setInitialized(true);
+        }
+        return line.read(cbuf, off, len);
+    }
 
-        if (line != null) {
-            ch = line.charAt(0);
-            if (line.length() == 1) {
-                line = null;
-            } else {
-                line = line.substring(1);
-            }
-        } else {
-            for (line = readLine(); line != null; line = readLine()) {
-                boolean matches = true;
-                for (RegularExpression regexp : regexps) {
-                    if (!regexp.getRegexp(getProject()).matches(line, regexpOptions)) {
-                        matches = false;
-                        break;
-                    }
-                }
-                if (matches ^ isNegated()) {
+    /**
+     * Reads lines from the original stream until one matches.
+     * @return the matching line or null at the end of the stream
+     */
+    private String nextMatchingLine() throws IOException {
+        String line;
+        for (line = readLine(); line != null; line = readLine()) {
+            boolean matches = true;
+            for (RegularExpression regexp : regexps) {
+                if (!regexp.getRegexp(getProject()).matches(line, regexpOptions)) {
+                    matches = false;
                     break;
                 }
             }
-            if (line != null) {
-                return read();
+            if (matches ^ isNegated()) {
+                break;
             }
         }
-        return ch;
+        return line;
     }
 
     /**
@@ -0,0 +1,101 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.filters;
+
+import java.io.IOException;
+
+/**
+ * Output of a filter that is produced a chunk - usually a line - at
+ * a time.
+ *
+ * <p>Hands out the characters of the current chunk by index rather
+ * than creating a new string for every character read and copies
+ * them in blocks for {@link java.io.Reader#read(char[], int, int)
+ * read(char[], int, int)}.</p>
+ *
+ * @since Ant 1.10.11
+ */
+final class PendingText {
+
+    /**
+     * Produces the chunks of output.
+     */
+    interface Source {
+        /**
+         * Produces the next chunk of output.
+         * @return the next chunk or null at the end of the output
+         * @throws IOException if the underlying stream throws one
+         */
+        String next() throws IOException;
+    }
+
+    private final Source source;
+    private String text = null;
+    private int pos = 0;
+
+    /**
+     * @param source produces the chunks of output
+     */
+    PendingText(final Source source) {
+        this.source = source;
+    }
+
+    /**
+     * Reads the next character.
+     * @return the next character or -1 at the end of the output
+     * @throws IOException if the source throws one
+     */
+    int read() throws IOException {
+        return fill() ? text.charAt(pos++) : -1;
+    }
+
+    /**
+     * Reads characters into a portion of an array.
+     * @param cbuf destination buffer
+     * @param off offset at which to start storing characters
+     * @param len maximum number of characters to read
+     * @return the number of characters read or -1 at the end of the
+     * output
+     * @throws IOException if the source throws one
+     */
+    int read(final char[] cbuf, final int off, final int len) throws IOException {
+        int n = 0;
+        while (n < len && fill()) {
+            final int count = Math.min(len - n, text.length() - pos);
+            text.getChars(pos, pos + count, cbuf, off + n);
+            pos += count;
+            n += count;
+        }
+        return n == 0 && len > 0 ? -1 : n;
+    }
+
+    /**
+     * Makes sure there are unread characters.
+     * @return false at the end of the output
+     */
+    private boolean fill() throws IOException {
+        while (text == null || pos >= text.length()) {
+            text = source.next();
+            pos = 0;
+            if (text == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
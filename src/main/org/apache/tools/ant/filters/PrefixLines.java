@@ -44,8 +44,8 @@ public final class PrefixLines
     /** The prefix to be used. */
     private String prefix = null;
 
-    /** Data that must be read from, if not null. */
-    private String queuedData = null;
+    /** The current line with the prefix that is being read. */
+    private final PendingText queuedData = new PendingText(this::nextLine);
 
     /**
      * Constructor for "dummy" instances.
@@ -83,31 +83,36 @@ public final class PrefixLines
             initialize();
             setInitialized(true);
         }
+        return queuedData.read();
+    }
 
-        int ch = -1;
-
-        if (queuedData != null && queuedData.isEmpty()) {
-            queuedData = null;
+    /**
+     * Reads characters into a portion of an array, copying whole
+     * chunks of the current line at once.
+     *
+     * @param cbuf destination buffer
+     * @param off offset at which to start storing characters
+     * @param len maximum number of characters to read
+     * @return the number of characters read, or -1 if the end of the
+     * resulting stream has been reached
+     *
+     * @exception IOException if the underlying stream throws an IOException
+     * during reading
+     * @since Ant 1.10.11
+     */
+    @Override
+    public int read(final char[] cbuf, final int off, final int len)
+        throws IOException {
+        if (!getInitialized()) {
+            initialize();
+            setInitialized(true);
         }
+        return queuedData.read(cbuf, off, len);
+    }
 
-        if (queuedData != null) {
-            ch = queuedData.charAt(0);
-            queuedData = queuedData.substring(1);
-            if (queuedData.isEmpty()) {
-                queuedData = null;
-            }
-        } else {
-            queuedData = readLine();
-            if (queuedData == null) {
-                ch = -1;
-            } else {
-                if (prefix != null) {
-                    queuedData = prefix + queuedData;
-                }
-                return read();
-            }
-        }
-        return ch;
+    private String nextLine() throws IOException {
+        final String line = readLine();
+        return line == null || prefix == null ? line : prefix + line;
     }
 
     /**
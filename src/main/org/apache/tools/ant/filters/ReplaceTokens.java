@@ -21,17 +21,18 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Map;
 import java.util.Properties;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.function.Function;
 
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.types.Parameter;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.resources.FileResource;
 import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.MultiStringReplacer;
 
 /**
  * Replaces tokens in the original input with user-supplied values.
@@ -63,17 +64,12 @@ public final class ReplaceTokens
     /** Hashtable to holds the original replacee-replacer pairs (String to String). */
     private Hashtable<String, String> hash = new Hashtable<>();
 
-    /** This map holds the "resolved" tokens (begin- and end-tokens are added to make searching simpler) */
-    private final TreeMap<String, String> resolvedTokens = new TreeMap<>();
-    private boolean resolvedTokensBuilt = false;
-    /** Used for comparisons and lookup into the resolvedTokens map. */
-    private String readBuffer = "";
-
-    /** replacement test from a token */
-    private String replaceData = null;
-
-    /** Index into replacement data */
-    private int replaceIndex = -1;
+    /**
+     * Reads from the original stream and replaces all resolved
+     * tokens (begin- and end-tokens are added to the keys) in a
+     * single pass.
+     */
+    private Reader replacingReader = null;
 
     /** Character marking the beginning of a token. */
     private String beginToken = DEFAULT_BEGIN_TOKEN;
@@ -114,67 +110,43 @@ public final class ReplaceTokens
             initialize();
             setInitialized(true);
         }
-
-        if (!resolvedTokensBuilt) {
-            // build the resolved tokens tree map.
-            for (Map.Entry<String, String> entry : hash.entrySet()) {
-                resolvedTokens.put(beginToken + entry.getKey() + endToken, entry.getValue());
-            }
-            resolvedTokensBuilt = true;
-        }
-
-        // are we currently serving replace data?
-        if (replaceData != null) {
-            if (replaceIndex < replaceData.length()) {
-                return replaceData.charAt(replaceIndex++);
-            } else {
-                replaceData = null;
-            }
-        }
-
-        // is the read buffer empty?
-        if (readBuffer.isEmpty()) {
-            int next = in.read();
-            if (next == -1) {
-                return next; // end of stream. all buffers empty.
-            }
-            readBuffer += (char) next;
-        }
-
-        for (;;) {
-            // get the closest tokens
-            SortedMap<String, String> possibleTokens = resolvedTokens.tailMap(readBuffer);
-            if (possibleTokens.isEmpty() || !possibleTokens.firstKey().startsWith(readBuffer)) { // if there is none, then deliver the first char from the buffer.
-                return getFirstCharacterFromReadBuffer();
-            } else if (readBuffer.equals(possibleTokens.firstKey())) { // there exists a nearest token - is it an exact match?
-                // we have found a token. prepare the replaceData buffer.
-                replaceData = resolvedTokens.get(readBuffer);
-                replaceIndex = 0;
-                readBuffer = ""; // destroy the readBuffer - it's contents are being replaced entirely.
-                // get the first character via recursive call.
-                return read();
-            } else { // nearest token is not matching exactly - read one character more.
-                int next = in.read();
-                if (next != -1) {
-                    readBuffer += (char) next;
-                } else {
-                    return getFirstCharacterFromReadBuffer(); // end of stream. deliver remaining characters from buffer.
-                }
-            }
-        }
+        return getReplacingReader().read();
     }
 
     /**
-     * @return the first character from the read buffer or -1 if read buffer is empty.
+     * Reads characters into a portion of an array, replacing tokens
+     * from the original stream.
+     *
+     * @param cbuf destination buffer
+     * @param off offset at which to start storing characters
+     * @param len maximum number of characters to read
+     * @return the number of characters read, or -1 if the end of the
+     * resulting stream has been reached
+     *
+     * @exception IOException if the underlying stream throws an IOException
+     * during reading
+     * @since Ant 1.10.11
      */
-    private int getFirstCharacterFromReadBuffer() {
-        if (readBuffer.isEmpty()) {
-            return -1;
+    @Override
+    public int read(final char[] cbuf, final int off, final int len)
+        throws IOException {
+        if (!getInitialized()) {
+            initialize();
+            setInitialized(true);
         }
+        return getReplacingReader().read(cbuf, off, len);
+    }
 
-        int chr = readBuffer.charAt(0);
-        readBuffer = readBuffer.substring(1);
-        return chr;
+    private Reader getReplacingReader() {
+        if (replacingReader == null) {
+            final Map<String, String> resolvedTokens = new HashMap<>();
+            for (Map.Entry<String, String> entry : hash.entrySet()) {
+                resolvedTokens.put(beginToken + entry.getKey() + endToken, entry.getValue());
+            }
+            replacingReader = new MultiStringReplacer(resolvedTokens)
+                .filter(in, Function.identity());
+        }
+        return replacingReader;
     }
 
     /**
@@ -232,7 +204,6 @@ public final class ReplaceTokens
      */
     public void addConfiguredToken(final Token token) {
         hash.put(token.getKey(), token.getValue());
-        resolvedTokensBuilt = false; // invalidate to build them again if they have been built already.
     }
 
     /**
@@ -58,7 +58,7 @@ public final class StripLineComments
     private Vector<String> comments = new Vector<>();
 
     /** The line that has been read ahead. */
-    private String line = null;
+    private final PendingText line = new PendingText(this::nextLine);
 
     /**
      * Constructor for "dummy" instances.
@@ -95,43 +95,59 @@ public final class StripLineComments
             initialize();
             setInitialized(true);
         }
+        return line.read();
+    }
 
-        int ch = -1;
-
-        if (line != null) {
-            ch = line.charAt(0);
-            if (line.length() == 1) {
-                line = null;
-            } else {
-                line = line.substring(1);
-            }
-        } else {
-            line = readLine();
-            final int commentsSize = comments.size();
-
-            while (line != null) {
-                for (int i = 0; i < commentsSize; i++) {
-                    String comment = comments.elementAt(i);
-                    if (line.startsWith(comment)) {
-                        line = null;
-                        break;
-                    }
-                }
+    /**
+     * Reads characters into a portion of an array, copying whole
+     * chunks of the current line at once.
+     *
+     * @param cbuf destination buffer
+     * @param off offset at which to start storing characters
+     * @param len maximum number of characters to read
+     * @return the number of characters read, or -1 if the end of the
+     * resulting stream has been reached
+     *
+     * @exception IOException if the underlying stream throws an IOException
+     * during reading
+     * @since Ant 1.10.11
+     */
+    @Override
+    public int read(final char[] cbuf, final int off, final int len)
+        throws IOException {
+        if (!getInitialized()) {
+            initialize();
+            setInitialized(true);
+        }
+        return line.read(cbuf, off, len);
+    }
 
-                if (line == null) {
-                    // line started with comment
-                    line = readLine();
-                } else {
+    /**
+     * Reads lines from the original stream until one doesn't start
+     * with a comment.
+     * @return the line or null at the end of the stream
+     */
+    private String nextLine() throws IOException {
+        String line = readLine();
+        final int commentsSize = comments.size();
+
+        while (line != null) {
+            for (int i = 0; i < commentsSize; i++) {
+                String comment = comments.elementAt(i);
+                if (line.startsWith(comment)) {
+                    line = null;
                     break;
                 }
             }
 
-            if (line != null) {
-                return read();
+            if (line == null) {
+                // line started with comment
+                line = readLine();
+            } else {
+                break;
             }
         }
-
-        return ch;
+        return line;
     }
 
     /**
@@ -45,8 +45,8 @@ public final class SuffixLines
     /** The suffix to be used. */
     private String suffix = null;
 
-    /** Data that must be read from, if not null. */
-    private String queuedData = null;
+    /** The current line with the suffix that is being read. */
+    private final PendingText queuedData = new PendingText(this::nextLine);
 
     /**
      * Constructor for "dummy" instances.
@@ -84,40 +84,45 @@ public final class SuffixLines
             initialize();
             setInitialized(true);
         }
+        return queuedData.read();
+    }
 
-        int ch = -1;
-
-        if (queuedData != null && queuedData.isEmpty()) {
-            queuedData = null;
+    /**
+     * Reads characters into a portion of an array, copying whole
+     * chunks of the current line at once.
+     *
+     * @param cbuf destination buffer
+     * @param off offset at which to start storing characters
+     * @param len maximum number of characters to read
+     * @return the number of characters read, or -1 if the end of the
+     * resulting stream has been reached
+     *
+     * @exception IOException if the underlying stream throws an IOException
+     * during reading
+     * @since Ant 1.10.11
+     */
+    @Override
+    public int read(final char[] cbuf, final int off, final int len)
+        throws IOException {
+        if (!getInitialized()) {
+            initialize();
+            setInitialized(true);
         }
+        return queuedData.read(cbuf, off, len);
+    }
 
-        if (queuedData == null) {
-            queuedData = readLine();
-            if (queuedData == null) {
-                ch = -1;
-            } else {
-                if (suffix != null) {
-                    String lf = "";
-                    if (queuedData.endsWith("\r\n")) {
-                        lf = "\r\n";
-                    } else if (queuedData.endsWith("\n")) {
-                        lf = "\n";
-                    }
-                    queuedData =
-                        queuedData.substring(0,
-                                             queuedData.length() - lf.length())
-                        + suffix + lf;
-                }
-                return read();
-            }
-        } else {
-            ch = queuedData.charAt(0);
-            queuedData = queuedData.substring(1);
-            if (queuedData.isEmpty()) {
-                queuedData = null;
-            }
+    private String nextLine() throws IOException {
+        final String line = readLine();
+        if (line == null || suffix == null) {
+            return line;
+        }
+        String lf = "";
+        if (line.endsWith("\r\n")) {
+            lf = "\r\n";
+        } else if (line.endsWith("\n")) {
+            lf = "\n";
         }
-        return ch;
+        return line.substring(0, line.length() - lf.length()) + suffix + lf;
     }
 
     /**
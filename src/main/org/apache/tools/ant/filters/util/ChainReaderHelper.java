@@ -17,6 +17,7 @@
  */
 package org.apache.tools.ant.filters.util;
 
+import java.io.BufferedReader;
 import java.io.FilterReader;
 import java.io.IOException;
 import java.io.Reader;
@@ -79,6 +80,72 @@ public final class ChainReaderHelper {
         }
     }
 
+    /**
+     * Buffer between two stages of the chain.
+     *
+     * <p>Unlike {@link BufferedReader} it doesn't synchronize, the
+     * chain is read by a single thread.</p>
+     */
+    private static final class StageBuffer extends Reader {
+        private final Reader in;
+        private final char[] buf;
+        private int pos = 0;
+        private int count = 0;
+
+        private StageBuffer(Reader in, int size) {
+            this.in = in;
+            this.buf = new char[size > 0 ? size : DEFAULT_BUFFER_SIZE];
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (pos >= count && !fill()) {
+                return -1;
+            }
+            return buf[pos++];
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (pos >= count) {
+                if (len >= buf.length) {
+                    // no point in copying the data twice
+                    return in.read(cbuf, off, len);
+                }
+                if (!fill()) {
+                    return -1;
+                }
+            }
+            final int n = Math.min(len, count - pos);
+            System.arraycopy(buf, pos, cbuf, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public boolean ready() throws IOException {
+            return pos < count || in.ready();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private boolean fill() throws IOException {
+            int n;
+            do {
+                n = in.read(buf, 0, buf.length);
+            } while (n == 0);
+            pos = 0;
+            count = Math.max(n, 0);
+            return n > 0;
+        }
+    }
+
     // default buffer size
     private static final int DEFAULT_BUFFER_SIZE = 8192;
     // CheckStyle:VisibilityModifier OFF - bc
@@ -244,10 +311,10 @@ public final class ChainReaderHelper {
                     if (o instanceof AntFilterReader) {
                         instream =
                             expandReader((AntFilterReader) o,
-                                         instream, classLoadersToCleanUp);
+                                         buffered(instream), classLoadersToCleanUp);
                     } else if (o instanceof ChainableReader) {
                         setProjectOnObject(o);
-                        instream = ((ChainableReader) o).chain(instream);
+                        instream = ((ChainableReader) o).chain(buffered(instream));
                         setProjectOnObject(instream);
                     }
                 }
@@ -261,6 +328,20 @@ public final class ChainReaderHelper {
         return new ChainReader(instream, classLoadersToCleanUp);
     }
 
+    /**
+     * Puts a buffer in front of the input of a filter.
+     *
+     * <p>Most filters read their input a single character at a time,
+     * the buffer lets them pull blocks of characters from the filter
+     * before them - or the primary reader - instead.</p>
+     */
+    private Reader buffered(Reader r) {
+        if (r instanceof BufferedReader || r instanceof StageBuffer) {
+            return r;
+        }
+        return new StageBuffer(r, bufferSize);
+    }
+
     /**
      * helper method to set the project on an object.
      * the reflection setProject does not work for anonymous/protected/private
@@ -0,0 +1,283 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.helper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Executor;
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+
+/**
+ * Target executor that runs independent targets concurrently.
+ *
+ * <p>Like {@link SingleCheckExecutor} the dependencies of all
+ * requested targets are computed together, so shared dependencies run
+ * only once. Rather than walking the sorted sequence one target at a
+ * time, each target is handed to a pool of worker threads as soon as
+ * all of its dependencies have succeeded.</p>
+ *
+ * <p>If a target fails and the project is not in keep-going mode no
+ * further targets are started, the targets already running are
+ * allowed to finish and the first failure is rethrown. In keep-going
+ * mode all targets that don't depend on a failed target are
+ * executed.</p>
+ *
+ * <p>The number of threads can be passed to the constructor or
+ * specified via the <code>ant.executor.threads</code> property; it
+ * defaults to the number of available processors. With a single
+ * thread the targets are executed in exactly the same order as by
+ * {@link SingleCheckExecutor}.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public class ParallelExecutor implements Executor {
+
+    private static final SingleCheckExecutor SUB_EXECUTOR = new SingleCheckExecutor();
+
+    private final int threadCount;
+
+    /**
+     * Creates an executor that obtains its number of threads from the
+     * <code>ant.executor.threads</code> property.
+     */
+    public ParallelExecutor() {
+        this(0);
+    }
+
+    /**
+     * Creates an executor using the given number of threads.
+     * @param threadCount the maximum number of targets to run at the
+     * same time, a value less than one means the number of threads is
+     * obtained from the <code>ant.executor.threads</code> property.
+     */
+    public ParallelExecutor(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    /** {@inheritDoc}. */
+    public void executeTargets(Project project, String[] targetNames)
+        throws BuildException {
+        Vector<Target> sortedTargets =
+            project.topoSort(targetNames, project.getTargets(), false);
+        int threads = getThreadCount(project);
+        if (threads <= 1 || sortedTargets.size() <= 1) {
+            project.executeSortedTargets(sortedTargets);
+            return;
+        }
+        project.log("Executing " + sortedTargets.size() + " targets using "
+                    + threads + " threads", Project.MSG_VERBOSE);
+        new Schedule(project, sortedTargets).run(threads);
+    }
+
+    /** {@inheritDoc}. */
+    public Executor getSubProjectExecutor() {
+        return SUB_EXECUTOR;
+    }
+
+    /**
+     * The number of threads to use for the given project.
+     * @param project the project to execute
+     * @return the number of threads
+     */
+    protected int getThreadCount(Project project) {
+        if (threadCount > 0) {
+            return threadCount;
+        }
+        String value = project.getProperty(MagicNames.ANT_EXECUTOR_THREADS);
+        if (value != null) {
+            try {
+                int count = Integer.parseInt(value.trim());
+                if (count > 0) {
+                    return count;
+                }
+            } catch (NumberFormatException ex) {
+                // reported below
+            }
+            throw new BuildException("Invalid value for "
+                                     + MagicNames.ANT_EXECUTOR_THREADS
+                                     + ": " + value);
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Bookkeeping for a single invocation of executeTargets.
+     *
+     * <p>All state is guarded by the monitor of the Schedule
+     * instance, the main thread waits on it while workers run
+     * targets.</p>
+     */
+    private static class Schedule {
+        private final Project project;
+        private final boolean keepGoing;
+        /** position of each target in the topological order */
+        private final Map<String, Integer> order = new HashMap<>();
+        /** number of dependencies not yet finished */
+        private final Map<String, Integer> pending = new HashMap<>();
+        /** targets that have to wait for a given target */
+        private final Map<String, List<Target>> dependents = new HashMap<>();
+        private final Set<String> succeeded = new HashSet<>();
+        private final PriorityQueue<Target> ready;
+        private int running = 0;
+        /** first failure, unwrapped unless in keep-going mode */
+        private Throwable failure = null;
+
+        Schedule(Project project, Vector<Target> sortedTargets) {
+            this.project = project;
+            this.keepGoing = project.isKeepGoingMode();
+            ready = new PriorityQueue<>(sortedTargets.size(),
+                (t1, t2) -> order.get(t1.getName()) - order.get(t2.getName()));
+            for (Target t : sortedTargets) {
+                order.put(t.getName(), order.size());
+            }
+            for (Target t : sortedTargets) {
+                int count = 0;
+                for (String dependency : Collections.list(t.getDependencies())) {
+                    dependents.computeIfAbsent(dependency, k -> new ArrayList<>())
+                        .add(t);
+                    count++;
+                }
+                pending.put(t.getName(), count);
+                if (count == 0) {
+                    ready.add(t);
+                }
+            }
+        }
+
+        void run(int threads) {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "ant-target-" + threadNumber.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            try {
+                synchronized (this) {
+                    while (true) {
+                        if (failure == null || keepGoing) {
+                            while (!ready.isEmpty()) {
+                                final Target target = ready.poll();
+                                running++;
+                                pool.execute(() -> execute(target));
+                            }
+                        }
+                        if (running == 0) {
+                            break;
+                        }
+                        try {
+                            wait();
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                            throw new BuildException("Interrupted while"
+                                                     + " waiting for targets",
+                                                     ex);
+                        }
+                    }
+                }
+            } finally {
+                pool.shutdown();
+            }
+            if (failure instanceof RuntimeException) {
+                // like Project.executeSortedTargets in fail-fast mode
+                throw (RuntimeException) failure;
+            }
+            if (failure != null) {
+                throw new BuildException(failure);
+            }
+        }
+
+        private void execute(Target target) {
+            Throwable thrownException = null;
+            try {
+                target.performTasks();
+            } catch (Throwable ex) {
+                thrownException = ex;
+            }
+            finished(target, thrownException);
+        }
+
+        private synchronized void finished(Target target, Throwable thrownException) {
+            running--;
+            if (thrownException == null) {
+                succeeded.add(target.getName());
+            } else {
+                if (keepGoing) {
+                    project.log(target, "Target '" + target.getName()
+                                + "' failed with message '"
+                                + thrownException.getMessage() + "'.",
+                                Project.MSG_ERR);
+                }
+                if (keepGoing && !(thrownException instanceof BuildException)) {
+                    thrownException.printStackTrace(System.err); //NOSONAR
+                    thrownException = new BuildException(thrownException);
+                }
+                // only the first failure is reported
+                if (failure == null) {
+                    failure = thrownException;
+                }
+            }
+            done(target);
+            notifyAll();
+        }
+
+        /**
+         * Marks the target as done and updates all targets waiting for it.
+         */
+        private void done(Target target) {
+            for (Target dependent : dependents.getOrDefault(target.getName(),
+                                                           Collections.emptyList())) {
+                int count = pending.merge(dependent.getName(), -1, Integer::sum);
+                if (count == 0) {
+                    String failedDependency = null;
+                    for (String dependency
+                             : Collections.list(dependent.getDependencies())) {
+                        if (!succeeded.contains(dependency)) {
+                            failedDependency = dependency;
+                            break;
+                        }
+                    }
+                    if (failedDependency == null) {
+                        ready.add(dependent);
+                    } else if (keepGoing) {
+                        project.log(dependent, "Cannot execute '"
+                                    + dependent.getName() + "' - '"
+                                    + failedDependency
+                                    + "' failed or was not executed.",
+                                    Project.MSG_ERR);
+                        done(dependent);
+                    }
+                }
+            }
+        }
+    }
+}
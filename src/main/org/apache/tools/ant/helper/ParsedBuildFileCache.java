@@ -0,0 +1,389 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.helper;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * In-memory cache of parsed build files used by {@link ProjectHelper2}.
+ *
+ * <p>Rather than the objects created while parsing - which belong to
+ * a single project - the cache holds the SAX events the parser has
+ * produced for a file, together with the locations they have been
+ * reported for. Replaying them into a new {@link
+ * ProjectHelper2.RootHandler RootHandler} creates exactly the same
+ * targets and {@link org.apache.tools.ant.UnknownElement
+ * UnknownElement}s without running the XML parser again. As
+ * <code>&lt;import&gt;</code> and <code>&lt;include&gt;</code> are
+ * processed while the events are handled, every imported file is
+ * looked up separately.</p>
+ *
+ * <p>Entries are keyed by URI and a digest of the file's content, so
+ * a modified file is always parsed again. For local files the
+ * timestamp and size seen when the content was read are recorded as
+ * well; as long as both are unchanged the file is not even read
+ * again. Files that use external entities are never cached as their
+ * content depends on other files.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public final class ParsedBuildFileCache {
+
+    private static final int MAX_ENTRIES = 1000;
+
+    /**
+     * Timestamps of files modified less than this many milliseconds
+     * before they have been read are not trusted as a later
+     * modification may not change the timestamp.
+     */
+    private static final long TIMESTAMP_GRANULARITY = 2000;
+
+    /** Marks a timestamp as unknown. */
+    private static final long UNKNOWN = -1;
+
+    private static final ParsedBuildFileCache INSTANCE = new ParsedBuildFileCache();
+
+    private final Map<String, CacheEntry> entries =
+        new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+
+    private ParsedBuildFileCache() {
+    }
+
+    /**
+     * The singleton instance.
+     * @return the cache
+     */
+    public static ParsedBuildFileCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Computes the digest a file's content is keyed by.
+     * @param content the content of a build file
+     * @return the digest
+     */
+    static byte[] digest(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException ex) {
+            // every JVM is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Looks up the events recorded for a file.
+     * @param uri the URI of the file
+     * @param digest the digest of the file's current content
+     * @return the recording or null if the file hasn't been parsed
+     * or has been modified since
+     */
+    synchronized Recording get(String uri, byte[] digest) {
+        CacheEntry e = entries.get(uri);
+        return e != null && Arrays.equals(e.digest, digest) ? e.recording : null;
+    }
+
+    /**
+     * Looks up the events recorded for a local file without reading it.
+     * @param uri the URI of the file
+     * @param lastModified the file's current timestamp
+     * @param length the file's current size
+     * @return the recording or null if the file hasn't been parsed or
+     * timestamp or size don't match the ones seen when it was read
+     */
+    synchronized Recording get(String uri, long lastModified, long length) {
+        CacheEntry e = entries.get(uri);
+        return e != null && e.lastModified != UNKNOWN
+            && e.lastModified == lastModified && e.length == length
+            ? e.recording : null;
+    }
+
+    /**
+     * Stores the events recorded for a file.
+     * @param uri the URI of the file
+     * @param digest the digest of the file's content
+     * @param lastModified a local file's timestamp before it has
+     * been read, -1 if unknown
+     * @param length a local file's size before it has been read
+     * @param recording the events
+     */
+    synchronized void put(String uri, byte[] digest, long lastModified,
+                          long length, Recording recording) {
+        boolean trusted = lastModified != UNKNOWN
+            && System.currentTimeMillis() - lastModified >= TIMESTAMP_GRANULARITY;
+        entries.put(uri, new CacheEntry(digest, trusted ? lastModified : UNKNOWN,
+                                        length, recording));
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * The number of files currently cached.
+     * @return number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static class CacheEntry {
+        private final byte[] digest;
+        private final long lastModified;
+        private final long length;
+        private final Recording recording;
+
+        CacheEntry(byte[] digest, long lastModified, long length,
+                   Recording recording) {
+            this.digest = digest;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.recording = recording;
+        }
+    }
+
+    /**
+     * A single SAX event.
+     */
+    private interface Event {
+        void replay(DefaultHandler handler) throws SAXException;
+    }
+
+    /**
+     * The recorded events of a single file.
+     */
+    static final class Recording {
+        private final List<Event> events = new ArrayList<>();
+        private final List<int[]> positions = new ArrayList<>();
+        private final String publicId;
+        private final String systemId;
+
+        private Recording(String publicId, String systemId) {
+            this.publicId = publicId;
+            this.systemId = systemId;
+        }
+
+        private void add(Locator locator, Event event) {
+            events.add(event);
+            positions.add(locator == null ? new int[] {-1, -1}
+                          : new int[] {locator.getLineNumber(),
+                                       locator.getColumnNumber()});
+        }
+
+        /**
+         * Feed the recorded events into the given handler.
+         * @param handler the handler
+         * @throws SAXException if the handler signals an error
+         */
+        void replay(DefaultHandler handler) throws SAXException {
+            ReplayLocator locator = new ReplayLocator();
+            handler.setDocumentLocator(locator);
+            handler.startDocument();
+            for (int i = 0; i < events.size(); i++) {
+                locator.position = positions.get(i);
+                events.get(i).replay(handler);
+            }
+            handler.endDocument();
+        }
+
+        private class ReplayLocator implements Locator {
+            private int[] position = new int[] {-1, -1};
+
+            public String getPublicId() {
+                return publicId;
+            }
+
+            public String getSystemId() {
+                return systemId;
+            }
+
+            public int getLineNumber() {
+                return position[0];
+            }
+
+            public int getColumnNumber() {
+                return position[1];
+            }
+        }
+    }
+
+    /**
+     * Passes all events on to the handler doing the real work and
+     * records the content events.
+     */
+    static final class RecordingHandler extends DefaultHandler {
+        private final DefaultHandler delegate;
+        private final String systemId;
+        private Locator locator;
+        private Recording recording;
+        private boolean cacheable = true;
+
+        /**
+         * @param delegate the handler receiving all events
+         * @param systemId the URI of the file being parsed
+         */
+        RecordingHandler(DefaultHandler delegate, String systemId) {
+            this.delegate = delegate;
+            this.systemId = systemId;
+        }
+
+        /**
+         * The recorded events.
+         * @return null if the events can't be replayed
+         */
+        Recording getRecording() {
+            return cacheable ? recording : null;
+        }
+
+        private Recording recording() {
+            if (recording == null) {
+                recording = new Recording(locator == null ? null : locator.getPublicId(),
+                                          systemId);
+            }
+            return recording;
+        }
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+            delegate.setDocumentLocator(locator);
+        }
+
+        @Override
+        public InputSource resolveEntity(String publicId, String entitySystemId)
+            throws IOException, SAXException {
+            // the content now depends on a second file
+            cacheable = false;
+            return delegate.resolveEntity(publicId, entitySystemId);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName,
+                                 Attributes attributes) throws SAXException {
+            final Attributes copy = new AttributesImpl(attributes);
+            recording().add(locator,
+                            h -> h.startElement(uri, localName, qName, copy));
+            delegate.startElement(uri, localName, qName, attributes);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName)
+            throws SAXException {
+            recording().add(locator, h -> h.endElement(uri, localName, qName));
+            delegate.endElement(uri, localName, qName);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length)
+            throws SAXException {
+            final char[] copy = Arrays.copyOfRange(ch, start, start + length);
+            recording().add(locator, h -> h.characters(copy, 0, copy.length));
+            delegate.characters(ch, start, length);
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length)
+            throws SAXException {
+            final char[] copy = Arrays.copyOfRange(ch, start, start + length);
+            recording().add(locator,
+                            h -> h.ignorableWhitespace(copy, 0, copy.length));
+            delegate.ignorableWhitespace(ch, start, length);
+        }
+
+        @Override
+        public void processingInstruction(String target, String data)
+            throws SAXException {
+            recording().add(locator, h -> h.processingInstruction(target, data));
+            delegate.processingInstruction(target, data);
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri)
+            throws SAXException {
+            recording().add(locator, h -> h.startPrefixMapping(prefix, uri));
+            delegate.startPrefixMapping(prefix, uri);
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) throws SAXException {
+            recording().add(locator, h -> h.endPrefixMapping(prefix));
+            delegate.endPrefixMapping(prefix);
+        }
+
+        @Override
+        public void skippedEntity(String name) throws SAXException {
+            cacheable = false;
+            delegate.skippedEntity(name);
+        }
+
+        @Override
+        public void notationDecl(String name, String publicId, String entitySystemId)
+            throws SAXException {
+            delegate.notationDecl(name, publicId, entitySystemId);
+        }
+
+        @Override
+        public void unparsedEntityDecl(String name, String publicId,
+                                       String entitySystemId, String notationName)
+            throws SAXException {
+            delegate.unparsedEntityDecl(name, publicId, entitySystemId, notationName);
+        }
+
+        @Override
+        public void warning(SAXParseException e) throws SAXException {
+            delegate.warning(e);
+        }
+
+        @Override
+        public void error(SAXParseException e) throws SAXException {
+            cacheable = false;
+            delegate.error(e);
+        }
+
+        @Override
+        public void fatalError(SAXParseException e) throws SAXException {
+            cacheable = false;
+            delegate.fatalError(e);
+        }
+    }
+}
@@ -17,6 +17,8 @@
  */
 package org.apache.tools.ant.helper;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -246,9 +248,25 @@ public class ProjectHelper2 extends ProjectHelper {
              */
             XMLReader parser = JAXPUtils.getNamespaceXMLReader();
 
+            String useCache = project.getProperty(MagicNames.PARSER_CACHE);
+            boolean cache = useCache == null || Project.toBoolean(useCache);
             String uri = null;
+            long lastModified = -1;
+            long length = -1;
             if (buildFile != null) {
                 uri = FILE_UTILS.toURI(buildFile.getAbsolutePath());
+                if (cache) {
+                    lastModified = buildFile.lastModified();
+                    length = buildFile.length();
+                    ParsedBuildFileCache.Recording recording =
+                        ParsedBuildFileCache.getInstance().get(uri, lastModified, length);
+                    if (recording != null) {
+                        project.log("reusing parsed buildfile " + buildFileName
+                                    + " with URI = " + uri, Project.MSG_VERBOSE);
+                        recording.replay(handler);
+                        return;
+                    }
+                }
                 inputStream = Files.newInputStream(buildFile.toPath());
             } else {
                 uri = url.toString();
@@ -265,6 +283,32 @@ public class ProjectHelper2 extends ProjectHelper {
                 }
             }
 
+            DefaultHandler saxHandler = handler;
+            ParsedBuildFileCache.RecordingHandler recorder = null;
+            byte[] digest = null;
+            if (cache) {
+                byte[] content;
+                try (InputStream original = inputStream) {
+                    inputStream = null;
+                    content = readContent(original);
+                }
+                digest = ParsedBuildFileCache.digest(content);
+                ParsedBuildFileCache.Recording recording =
+                    ParsedBuildFileCache.getInstance().get(uri, digest);
+                if (recording != null) {
+                    // the timestamp may have changed without the content
+                    ParsedBuildFileCache.getInstance()
+                        .put(uri, digest, lastModified, length, recording);
+                    project.log("reusing parsed buildfile " + buildFileName
+                                + " with URI = " + uri, Project.MSG_VERBOSE);
+                    recording.replay(handler);
+                    return;
+                }
+                inputStream = new ByteArrayInputStream(content);
+                saxHandler = recorder =
+                    new ParsedBuildFileCache.RecordingHandler(handler, uri);
+            }
+
             inputSource = new InputSource(inputStream);
             if (uri != null) {
                 inputSource.setSystemId(uri);
@@ -273,11 +317,16 @@ public class ProjectHelper2 extends ProjectHelper {
                         + uri + (zf != null ? " from a zip file" : ""),
                         Project.MSG_VERBOSE);
 
-            parser.setContentHandler(handler);
-            parser.setEntityResolver(handler);
-            parser.setErrorHandler(handler);
-            parser.setDTDHandler(handler);
+            parser.setContentHandler(saxHandler);
+            parser.setEntityResolver(saxHandler);
+            parser.setErrorHandler(saxHandler);
+            parser.setDTDHandler(saxHandler);
             parser.parse(inputSource);
+
+            if (recorder != null && recorder.getRecording() != null) {
+                ParsedBuildFileCache.getInstance()
+                    .put(uri, digest, lastModified, length, recorder.getRecording());
+            }
         } catch (SAXParseException exc) {
             Location location = new Location(exc.getSystemId(), exc.getLineNumber(), exc
                                              .getColumnNumber());
@@ -311,6 +360,20 @@ public class ProjectHelper2 extends ProjectHelper {
         }
     }
 
+    /**
+     * Reads the whole build file into memory so it can be digested
+     * before it is parsed.
+     */
+    private static byte[] readContent(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+
     /**
      * Returns main handler
      * @return main handler
@@ -0,0 +1,276 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.launch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Client side of Ant's build daemon.
+ *
+ * <p>Connects to a long-lived Ant JVM listening on a loopback socket,
+ * passes it the command line arguments and copies the build output to
+ * the local streams. If no daemon is running for the current working
+ * directory and Ant classpath one is started in the background.</p>
+ *
+ * <p>The daemon writes its port and a secret token to a properties
+ * file inside <code>${user.home}/.ant/daemon</code>; the client has to
+ * present the token before the daemon accepts any arguments.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public class DaemonClient {
+
+    /**
+     * The classname of the daemon's entry point.
+     * {@value}
+     */
+    public static final String DAEMON_CLASS = "org.apache.tools.ant.BuildDaemon";
+
+    /**
+     * The directory holding the files of all daemons, relative to
+     * the per-user ant directory.
+     * {@value}
+     */
+    public static final String DAEMON_DIR = "daemon";
+
+    /** Key of the port in the daemon file. {@value} */
+    public static final String PORT_KEY = "port";
+
+    /** Key of the token in the daemon file. {@value} */
+    public static final String TOKEN_KEY = "token";
+
+    /** Frame type of data written to standard output. */
+    public static final int STDOUT = 1;
+
+    /** Frame type of data written to standard error. */
+    public static final int STDERR = 2;
+
+    /** Frame type of the final frame holding the exit code. */
+    public static final int EXIT = 3;
+
+    private static final int START_TIMEOUT = 30000;
+    private static final int POLL_INTERVAL = 100;
+
+    private final File daemonFile;
+    private final PrintStream out;
+    private final PrintStream err;
+
+    /**
+     * Creates a client for the daemon described by the given file.
+     * @param daemonFile the properties file holding port and token
+     * @param out stream receiving the standard output of the build
+     * @param err stream receiving the standard error of the build
+     */
+    public DaemonClient(File daemonFile, PrintStream out, PrintStream err) {
+        this.daemonFile = daemonFile;
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * Computes the file a daemon for the given environment uses.
+     *
+     * <p>Daemons are shared between invocations using the same
+     * working directory, Ant classpath and Java installation.</p>
+     *
+     * @param baseDir the per-user ant directory
+     * @param workingDir the current working directory
+     * @param classPath Ant's classpath
+     * @return the daemon file
+     */
+    public static File getDaemonFile(File baseDir, File workingDir,
+                                     String classPath) {
+        String key = workingDir.getAbsolutePath() + File.pathSeparator
+            + classPath + File.pathSeparator + System.getProperty("java.home");
+        return new File(new File(baseDir, DAEMON_DIR), digest(key) + ".properties");
+    }
+
+    /**
+     * Runs a build inside the daemon, starting the daemon if none is
+     * running.
+     * @param args the arguments for Ant's main class
+     * @param daemonCommand command line used to start a new daemon
+     * @return the exit code of the build
+     * @throws LaunchException if the daemon cannot be started or
+     * reached
+     */
+    public int run(String[] args, List<String> daemonCommand)
+        throws LaunchException {
+        try {
+            Socket socket = connect();
+            if (socket == null) {
+                startDaemon(daemonCommand);
+                socket = connect();
+                if (socket == null) {
+                    throw new LaunchException("Unable to connect to the Ant daemon"
+                                              + " described by " + daemonFile);
+                }
+            }
+            try {
+                return runBuild(socket, args);
+            } finally {
+                socket.close();
+            }
+        } catch (IOException ex) {
+            throw new LaunchException("Lost connection to the Ant daemon: "
+                                      + ex.getMessage());
+        }
+    }
+
+    /**
+     * Connects to the daemon if it is running.
+     * @return the connected socket or null if there is no daemon.
+     */
+    private Socket connect() {
+        if (!daemonFile.isFile()) {
+            return null;
+        }
+        Properties props = readDaemonFile();
+        try {
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(),
+                                       Integer.parseInt(props.getProperty(PORT_KEY)));
+            DataOutputStream dos = new DataOutputStream(socket.getOutputStream());
+            dos.writeUTF(props.getProperty(TOKEN_KEY));
+            return socket;
+        } catch (IOException | RuntimeException ex) {
+            // stale file of a daemon that has died
+            daemonFile.delete();
+            return null;
+        }
+    }
+
+    private Properties readDaemonFile() {
+        Properties props = new Properties();
+        try (InputStream is = Files.newInputStream(daemonFile.toPath())) {
+            props.load(is);
+        } catch (IOException ex) {
+            // treated as missing port below
+        }
+        return props;
+    }
+
+    private int runBuild(Socket socket, String[] args) throws IOException {
+        DataOutputStream dos = new DataOutputStream(
+            new BufferedOutputStream(socket.getOutputStream()));
+        dos.writeUTF(new File(".").getAbsoluteFile().getParent());
+        dos.writeInt(args.length);
+        for (String arg : args) {
+            dos.writeUTF(arg);
+        }
+        dos.flush();
+
+        DataInputStream dis = new DataInputStream(
+            new BufferedInputStream(socket.getInputStream()));
+        byte[] buffer = new byte[8192];
+        while (true) {
+            int type = dis.readByte();
+            if (type == EXIT) {
+                return dis.readInt();
+            }
+            int length = dis.readInt();
+            if (buffer.length < length) {
+                buffer = new byte[length];
+            }
+            dis.readFully(buffer, 0, length);
+            PrintStream target = type == STDERR ? err : out;
+            target.write(buffer, 0, length);
+            target.flush();
+        }
+    }
+
+    private void startDaemon(List<String> daemonCommand) throws LaunchException {
+        File dir = daemonFile.getParentFile();
+        try {
+            // the daemon file holding the token is created in here
+            if (dir.toPath().getFileSystem().supportedFileAttributeViews()
+                .contains("posix")) {
+                Files.createDirectories(dir.toPath(), PosixFilePermissions
+                    .asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } else {
+                Files.createDirectories(dir.toPath());
+            }
+        } catch (IOException ex) {
+            throw new LaunchException("Unable to create " + dir + ": " + ex.getMessage());
+        }
+        String name = daemonFile.getName();
+        File logFile = new File(dir, name.substring(0, name.lastIndexOf('.')) + ".log");
+        List<String> command = new ArrayList<>(daemonCommand);
+        command.add(daemonFile.getAbsolutePath());
+        Process process;
+        try {
+            process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(logFile))
+                .start();
+        } catch (IOException ex) {
+            throw new LaunchException("Unable to start the Ant daemon: "
+                                      + ex.getMessage());
+        }
+        long deadline = System.currentTimeMillis() + START_TIMEOUT;
+        while (!daemonFile.isFile()) {
+            if (!process.isAlive()) {
+                throw new LaunchException("The Ant daemon terminated during startup,"
+                                          + " see " + logFile);
+            }
+            if (System.currentTimeMillis() > deadline) {
+                process.destroy();
+                throw new LaunchException("Timed out waiting for the Ant daemon"
+                                          + " to start, see " + logFile);
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new LaunchException("Interrupted while waiting for the"
+                                          + " Ant daemon to start");
+            }
+        }
+    }
+
+    private static String digest(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                .digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                sb.append(String.format("%02x", hash[i] & 0xff));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            // every JVM is required to support SHA-256
+            return Integer.toHexString(key.hashCode());
+        }
+    }
+}
@@ -18,6 +18,7 @@
 package org.apache.tools.ant.launch;
 
 import java.io.File;
+import java.lang.management.ManagementFactory;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -200,6 +201,10 @@ public class Launcher {
         String[] newArgs;
         boolean  noUserLib = false;
         boolean  noClassPath = false;
+        boolean  useDaemon = false;
+        boolean  customMain = false;
+        // launcher options a daemon has to be started with
+        final List<String> daemonArgs = new ArrayList<>();
 
         for (int i = 0; i < args.length; ++i) {
             if ("-lib".equals(args[i])) {
@@ -208,6 +213,8 @@ public class Launcher {
                         "The -lib argument must be followed by a library location");
                 }
                 libPaths.add(args[++i]);
+                daemonArgs.add(args[i - 1]);
+                daemonArgs.add(args[i]);
             } else if ("-cp".equals(args[i])) {
                 if (i == args.length - 1) {
                     throw new LaunchException(
@@ -218,23 +225,35 @@ public class Launcher {
                         "The -cp argument must not be repeated");
                 }
                 cpString = args[++i];
+                daemonArgs.add(args[i - 1]);
+                daemonArgs.add(args[i]);
             } else if ("--nouserlib".equals(args[i]) || "-nouserlib".equals(args[i])) {
                 noUserLib = true;
+                daemonArgs.add(args[i]);
             } else if ("--launchdiag".equals(args[i])) {
                 launchDiag = true;
             } else if ("--noclasspath".equals(args[i]) || "-noclasspath".equals(args[i])) {
                 noClassPath = true;
+                daemonArgs.add(args[i]);
+            } else if ("-daemon".equals(args[i])) {
+                useDaemon = true;
             } else if ("-main".equals(args[i])) {
                 if (i == args.length - 1) {
                     throw new LaunchException(
                         "The -main argument must be followed by a library location");
                 }
                 mainClassname = args[++i];
+                customMain = true;
             } else {
                 argList.add(args[i]);
             }
         }
 
+        if (useDaemon && customMain) {
+            throw new LaunchException(
+                "The -main argument cannot be combined with -daemon");
+        }
+
         logPath("Launcher JAR", sourceJar);
         logPath("Launcher JAR directory", sourceJar.getParentFile());
         logPath("java.home", new File(System.getProperty("java.home")));
@@ -259,8 +278,9 @@ public class Launcher {
             libURLs, userURLs, systemURLs, toolsJAR);
 
         // now update the class.path property
+        final String launcherClassPath = System.getProperty(JAVA_CLASS_PATH);
         final StringBuilder baseClassPath
-            = new StringBuilder(System.getProperty(JAVA_CLASS_PATH));
+            = new StringBuilder(launcherClassPath);
         if (baseClassPath.charAt(baseClassPath.length() - 1)
                 == File.pathSeparatorChar) {
             baseClassPath.setLength(baseClassPath.length() - 1);
@@ -271,6 +291,15 @@ public class Launcher {
             baseClassPath.append(Locator.fromURI(jar.toString()));
         }
 
+        if (useDaemon) {
+            final File daemonFile = DaemonClient.getDaemonFile(
+                new File(System.getProperty(USER_HOMEDIR), ANT_PRIVATEDIR),
+                new File(System.getProperty("user.dir")), baseClassPath.toString());
+            logPath("Daemon file", daemonFile);
+            return new DaemonClient(daemonFile, System.out, System.err)
+                .run(newArgs, getDaemonCommand(launcherClassPath, daemonArgs));
+        }
+
         setProperty(JAVA_CLASS_PATH, baseClassPath.toString());
 
         final URLClassLoader loader = new URLClassLoader(jars, Launcher.class.getClassLoader());
@@ -307,6 +336,30 @@ public class Launcher {
         return exitCode;
     }
 
+    /**
+     * Assemble the command line starting a build daemon, it runs this
+     * launcher in a new JVM with the same JVM options and
+     * classpath-related launcher options.
+     * The daemon file has to be appended as last argument.
+     * @param launcherClassPath the classpath of this launcher
+     * @param daemonArgs the launcher options to pass on
+     * @return the command line
+     */
+    private List<String> getDaemonCommand(final String launcherClassPath,
+                                          final List<String> daemonArgs) {
+        final List<String> command = new ArrayList<>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"),
+                             "java").getAbsolutePath());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(launcherClassPath);
+        command.add(Launcher.class.getName());
+        command.addAll(daemonArgs);
+        command.add("-main");
+        command.add(DaemonClient.DAEMON_CLASS);
+        return command;
+    }
+
     /**
      * Get the list of -lib entries and -cp entry into
      * a URL array.
@@ -0,0 +1,331 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.listener;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.SubBuildListener;
+
+/**
+ * Forwards build events to other listeners on a separate thread so
+ * that slow listeners don't hold up the build.
+ *
+ * <p>Events are put into a bounded queue and delivered by a single
+ * dispatcher thread in the order they have been fired, so events
+ * fired by the same thread are always seen in order. When the queue
+ * is full the firing thread blocks until there is space again. If
+ * dropping of verbose messages has been enabled, messages of
+ * priority {@link Project#MSG_VERBOSE MSG_VERBOSE} or {@link
+ * Project#MSG_DEBUG MSG_DEBUG} are discarded instead and a warning
+ * with the number of discarded messages is logged at the end of the
+ * build.</p>
+ *
+ * <p>{@link #buildFinished buildFinished} doesn't return before all
+ * events have been delivered. An exception thrown by one of the
+ * listeners is rethrown from there.</p>
+ *
+ * <p>Listeners see all events on the dispatcher thread, so this
+ * class is not suitable for listeners that need to know the thread
+ * that has fired an event. Messages logged by the listeners
+ * themselves (for example by writing to System.out) are
+ * swallowed.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public class AsyncBuildListener implements SubBuildListener {
+
+    /** The default capacity of the queue. */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /** Seconds the dispatcher thread lives without any events. */
+    private static final int IDLE_TIMEOUT = 10;
+
+    private final List<BuildListener> listeners = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<Consumer<BuildListener>> queue;
+    private final boolean dropVerboseMessages;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Object lock = new Object();
+    private volatile Thread dispatcher;
+    private Throwable failure;
+
+    /**
+     * Creates a listener with the default capacity that never drops
+     * any messages.
+     */
+    public AsyncBuildListener() {
+        this(DEFAULT_CAPACITY, false);
+    }
+
+    /**
+     * @param capacity the maximum number of pending events
+     * @param dropVerboseMessages whether verbose and debug messages
+     * are discarded rather than waiting for the queue to drain
+     */
+    public AsyncBuildListener(int capacity, boolean dropVerboseMessages) {
+        if (capacity < 1) {
+            throw new BuildException("The queue capacity must be positive");
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+        this.dropVerboseMessages = dropVerboseMessages;
+    }
+
+    /**
+     * Adds a listener that receives events from this one.
+     * @param listener the listener
+     */
+    public void addBuildListener(BuildListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * The listeners events are forwarded to.
+     * @return an unmodifiable list
+     */
+    public List<BuildListener> getBuildListeners() {
+        return Collections.unmodifiableList(listeners);
+    }
+
+    /**
+     * The number of messages that have been dropped so far.
+     * @return number of messages
+     */
+    public long getDroppedMessageCount() {
+        return dropped.get();
+    }
+
+    /**
+     * The most verbose level any of the listeners events are
+     * forwarded to is interested in.
+     * @return message priority
+     */
+    @Override
+    public int getMessageOutputLevel() {
+        int level = Project.MSG_ERR;
+        for (BuildListener l : listeners) {
+            level = Math.max(level, l.getMessageOutputLevel());
+        }
+        return level;
+    }
+
+    @Override
+    public void buildStarted(BuildEvent event) {
+        enqueue(l -> l.buildStarted(event));
+    }
+
+    /**
+     * Forwards the event and waits until all events have been
+     * delivered.
+     * @param event the event
+     */
+    @Override
+    public void buildFinished(BuildEvent event) {
+        final long count = dropped.getAndSet(0);
+        if (count > 0) {
+            final BuildEvent warning = new BuildEvent(event.getProject());
+            warning.setMessage(count + " verbose or debug messages have been dropped"
+                               + " because listeners couldn't keep up",
+                               Project.MSG_WARN);
+            enqueue(l -> l.messageLogged(warning));
+        }
+        enqueue(l -> l.buildFinished(event));
+        flush();
+    }
+
+    @Override
+    public void subBuildStarted(BuildEvent event) {
+        enqueue(l -> {
+            if (l instanceof SubBuildListener) {
+                ((SubBuildListener) l).subBuildStarted(event);
+            }
+        });
+    }
+
+    @Override
+    public void subBuildFinished(BuildEvent event) {
+        enqueue(l -> {
+            if (l instanceof SubBuildListener) {
+                ((SubBuildListener) l).subBuildFinished(event);
+            }
+        });
+    }
+
+    @Override
+    public void targetStarted(BuildEvent event) {
+        enqueue(l -> l.targetStarted(event));
+    }
+
+    @Override
+    public void targetFinished(BuildEvent event) {
+        enqueue(l -> l.targetFinished(event));
+    }
+
+    @Override
+    public void taskStarted(BuildEvent event) {
+        enqueue(l -> l.taskStarted(event));
+    }
+
+    @Override
+    public void taskFinished(BuildEvent event) {
+        enqueue(l -> l.taskFinished(event));
+    }
+
+    @Override
+    public void messageLogged(BuildEvent event) {
+        if (Thread.currentThread() == dispatcher) {
+            // logged by one of our listeners, see Project#fireMessageLogged
+            return;
+        }
+        if (event.getPriority() > getMessageOutputLevel()) {
+            // nobody is going to write it
+            return;
+        }
+        final Consumer<BuildListener> e = l -> l.messageLogged(event);
+        if (dropVerboseMessages && event.getPriority() >= Project.MSG_VERBOSE) {
+            if (!queue.offer(e)) {
+                dropped.incrementAndGet();
+                return;
+            }
+            ensureDispatcher();
+        } else {
+            enqueue(e);
+        }
+    }
+
+    /**
+     * Waits until all pending events have been delivered.
+     * @throws BuildException if a listener has failed or the current
+     * thread is interrupted
+     */
+    public void flush() {
+        if (Thread.currentThread() != dispatcher) {
+            final CountDownLatch latch = new CountDownLatch(1);
+            enqueue(new Marker(latch));
+            try {
+                latch.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new BuildException("Interrupted while waiting for build listeners", ex);
+            }
+        }
+        final Throwable t;
+        synchronized (lock) {
+            t = failure;
+            failure = null;
+        }
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        if (t != null) {
+            throw new BuildException(t);
+        }
+    }
+
+    private void enqueue(Consumer<BuildListener> event) {
+        try {
+            queue.put(event);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("Interrupted while passing an event to build listeners",
+                                     ex);
+        }
+        ensureDispatcher();
+    }
+
+    /**
+     * Starts the dispatcher thread unless it is running.
+     *
+     * <p>Must be invoked after an event has been added to the queue:
+     * the dispatcher only terminates if the queue is empty, and both
+     * happen while holding the lock.</p>
+     */
+    private void ensureDispatcher() {
+        synchronized (lock) {
+            if (dispatcher == null) {
+                dispatcher = new Thread(this::dispatch, "ant-listener-dispatcher");
+                dispatcher.setDaemon(true);
+                dispatcher.start();
+            }
+        }
+    }
+
+    private void dispatch() {
+        while (true) {
+            final Consumer<BuildListener> event;
+            try {
+                event = queue.poll(IDLE_TIMEOUT, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                // only terminate if there is nothing left to do
+                continue;
+            }
+            if (event == null) {
+                synchronized (lock) {
+                    if (queue.isEmpty()) {
+                        dispatcher = null;
+                        return;
+                    }
+                }
+                continue;
+            }
+            if (event instanceof Marker) {
+                ((Marker) event).latch.countDown();
+                continue;
+            }
+            for (BuildListener l : listeners) {
+                try {
+                    event.accept(l);
+                } catch (RuntimeException | Error ex) {
+                    synchronized (lock) {
+                        if (failure == null) {
+                            failure = ex;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Signals that all events queued before have been delivered.
+     */
+    private static final class Marker implements Consumer<BuildListener> {
+        private final CountDownLatch latch;
+
+        Marker(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void accept(BuildListener l) {
+        }
+    }
+}
@@ -0,0 +1,691 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.listener;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildLogger;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.UnknownElement;
+import org.apache.tools.ant.util.DOMElementWriter;
+import org.apache.tools.ant.util.DateUtils;
+import org.apache.tools.ant.util.StringUtils;
+
+/**
+ * Writes the same XML description of a build as {@link
+ * org.apache.tools.ant.XmlLogger XmlLogger} but writes it while the
+ * build is running rather than keeping it in memory until the build
+ * has finished.
+ *
+ * <p>Only the targets and tasks that are currently running are kept
+ * in memory and the output is flushed at least once a second, even
+ * while a task runs without logging anything, so the file can be
+ * watched while the build is running.</p>
+ *
+ * <p>As the attributes of an element have to be written before its
+ * content, the <code>time</code> attribute - and the
+ * <code>error</code> attribute of the build element - can't be
+ * written to the build, target and task elements themselves. Instead
+ * each of these elements ends with an empty <code>finished</code>
+ * element carrying them. Elements for tasks that run in parallel to
+ * other tasks may be split into several elements of the same name,
+ * only the last of which contains the <code>finished</code>
+ * element.</p>
+ *
+ * <p>When used as a listener the file to write to is determined by
+ * the <code>XmlLogger.file</code> property when the first target
+ * starts, events happening before that are kept in memory.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public class StreamingXmlLogger implements BuildLogger {
+
+    /** XML element name for a build. */
+    private static final String BUILD_TAG = "build";
+
+    /** XML element name for a target. */
+    private static final String TARGET_TAG = "target";
+
+    /** XML element name for a task. */
+    private static final String TASK_TAG = "task";
+
+    /** XML element name for a message. */
+    private static final String MESSAGE_TAG = "message";
+
+    /** XML attribute name for a name. */
+    private static final String NAME_ATTR = "name";
+
+    /** XML attribute name for a time. */
+    private static final String TIME_ATTR = "time";
+
+    /** XML attribute name for a message priority. */
+    private static final String PRIORITY_ATTR = "priority";
+
+    /** XML attribute name for a file location. */
+    private static final String LOCATION_ATTR = "location";
+
+    /** XML attribute name for an error description. */
+    private static final String ERROR_ATTR = "error";
+
+    /** XML element name for the time taken and the error, if any. */
+    private static final String FINISHED_TAG = "finished";
+
+    /** XML element name for a stack trace. */
+    private static final String STACKTRACE_TAG = "stacktrace";
+
+    /** Milliseconds between two flushes of the output. */
+    private static final long FLUSH_INTERVAL = 1000;
+
+    private static final DOMElementWriter DOM_WRITER = new DOMElementWriter();
+
+    private int msgOutputLevel = Project.MSG_DEBUG;
+    private PrintStream outStream;
+
+    private Project project;
+    private XMLStreamWriter writer;
+    private Writer out;
+    private BuildException failure;
+    private long lastFlush;
+    /** Whether output has been written since the last flush. */
+    private boolean unflushed;
+    /** Flushes the output while no events arrive. */
+    private Thread flusher;
+    /** Whether the properties determining the output have been set. */
+    private boolean outputKnown;
+
+    /** Writes that have to wait until the output is known. */
+    private final List<Write> pending = new ArrayList<>();
+
+    /** Elements whose start tags have been written but not their end tags. */
+    private final List<TimedElement> open = new ArrayList<>();
+
+    /** Mapping for when tasks started (Task to TimedElement). */
+    private final Map<Task, TimedElement> tasks = new Hashtable<>();
+
+    /** Mapping for when targets started (Target to TimedElement). */
+    private final Map<Target, TimedElement> targets = new Hashtable<>();
+
+    /**
+     * Mapping of threads to stacks of elements
+     * (Thread to Stack of TimedElement).
+     */
+    private final Map<Thread, Stack<TimedElement>> threadStacks = new Hashtable<>();
+
+    /**
+     * When the build started.
+     */
+    private TimedElement buildElement = null;
+
+    /** An element that has started but not finished, yet. */
+    private static class TimedElement {
+        private final String tag;
+        private final String name;
+        private final String location;
+        private final TimedElement parent;
+        /**
+         * Start time in milliseconds
+         * (as returned by <code>System.currentTimeMillis()</code>).
+         */
+        private final long startTime = System.currentTimeMillis();
+
+        TimedElement(String tag, String name, String location, TimedElement parent) {
+            this.tag = tag;
+            this.name = name;
+            this.location = location;
+            this.parent = parent;
+        }
+
+        @Override
+        public String toString() {
+            return tag + ":" + name;
+        }
+    }
+
+    /** A write operation that may need to be deferred. */
+    private interface Write {
+        void run() throws XMLStreamException;
+    }
+
+    /**
+     * Fired when the build starts, this creates the top-level element
+     * and remembers the time of the start of the build.
+     *
+     * @param event An event with any relevant extra information.
+     *              Will not be <code>null</code>.
+     */
+    @Override
+    public synchronized void buildStarted(BuildEvent event) {
+        project = event.getProject();
+        buildElement = new TimedElement(BUILD_TAG, null, null, null);
+    }
+
+    /**
+     * Fired when the build finishes, this writes the time taken and
+     * any error stacktrace and closes the document.
+     *
+     * @param event An event with any relevant extra information.
+     *              Will not be <code>null</code>.
+     */
+    @Override
+    public synchronized void buildFinished(BuildEvent event) {
+        final TimedElement build = buildElement;
+        if (build == null) {
+            return;
+        }
+        outputKnown = true;
+        final String time =
+            DateUtils.formatElapsedTime(System.currentTimeMillis() - build.startTime);
+        final Throwable t = event.getException();
+        write(() -> {
+            enter(build);
+            if (t != null) {
+                // print the stacktrace in the build file it is always useful...
+                // better have too much info than not enough.
+                writeStackTrace(t);
+            }
+            writeFinished(time, t);
+            while (!open.isEmpty()) {
+                endElement();
+            }
+            writer.writeCharacters("\n");
+            writer.writeEndDocument();
+        }, true);
+        try {
+            if (writer != null) {
+                writer.close();
+                out.close();
+            }
+        } catch (IOException | XMLStreamException exc) {
+            fail(exc);
+        } finally {
+            writer = null;
+            flusher = null;
+            // let the flusher terminate
+            notifyAll();
+            buildElement = null;
+            project = null;
+            outputKnown = false;
+        }
+        if (failure != null) {
+            final BuildException f = failure;
+            failure = null;
+            throw f;
+        }
+    }
+
+    /**
+     * Returns the stack of timed elements for the current thread.
+     * @return the stack of timed elements for the current thread
+     */
+    private Stack<TimedElement> getStack() {
+        return threadStacks.computeIfAbsent(Thread.currentThread(), k -> new Stack<>());
+    }
+
+    /**
+     * Fired when a target starts building, this pushes a timed element
+     * for the target onto the stack of elements for the current thread,
+     * remembering the current time and the name of the target.
+     *
+     * @param event An event with any relevant extra information.
+     *              Will not be <code>null</code>.
+     */
+    @Override
+    public synchronized void targetStarted(BuildEvent event) {
+        outputKnown = true;
+        Target target = event.getTarget();
+        Stack<TimedElement> threadStack = getStack();
+        TimedElement parent = threadStack.empty() ? buildElement : threadStack.peek();
+        TimedElement targetElement =
+            new TimedElement(TARGET_TAG, target.getName(), null, parent);
+        targets.put(target, targetElement);
+        threadStack.push(targetElement);
+    }
+
+    /**
+     * Fired when a target finishes building, this writes the end of
+     * the target element.
+     *
+     * @param event An event with any relevant extra information.
+     *              Will not be <code>null</code>.
+     */
+    @Override
+    public synchronized void targetFinished(BuildEvent event) {
+        Target target = event.getTarget();
+        TimedElement targetElement = targets.remove(target);
+        if (targetElement != null) {
+            Stack<TimedElement> threadStack = getStack();
+            if (!threadStack.empty()) {
+                TimedElement poppedStack = threadStack.pop();
+                if (poppedStack != targetElement) {
+                    throw new RuntimeException("Mismatch - popped element = " + poppedStack //NOSONAR
+                            + " finished target element = " + targetElement);
+                }
+            }
+            finish(targetElement);
+        }
+    }
+
+    /**
+     * Fired when a task starts building, this pushes a timed element
+     * for the task onto the stack of elements for the current thread,
+     * remembering the current time and the name of the task.
+     *
+     * @param event An event with any relevant extra information.
+     *              Will not be <code>null</code>.
+     */
+    @Override
+    public synchronized void taskStarted(BuildEvent event) {
+        Task task = event.getTask();
+        String name = task.getTaskName();
+        if (name == null) {
+            name = "";
+        }
+        TimedElement parent = null;
+        Target target = task.getOwningTarget();
+        if (target != null) {
+            parent = targets.get(target);
+        }
+        TimedElement taskElement =
+            new TimedElement(TASK_TAG, name, task.getLocation().toString(),
+                             parent == null ? buildElement : parent);
+        tasks.put(task, taskElement);
+        getStack().push(taskElement);
+    }
+
+    /**
+     * Fired when a task finishes building, this writes the end of
+     * the task element.
+     *
+     * @param event An event with any relevant extra information.
+     *              Will not be <code>null</code>.
+     */
+    @Override
+    public synchronized void taskFinished(BuildEvent event) {
+        Task task = event.getTask();
+        TimedElement taskElement = tasks.remove(task);
+        if (taskElement == null) {
+            throw new RuntimeException("Unknown task " + task + " not in " + tasks); //NOSONAR
+        }
+        Stack<TimedElement> threadStack = getStack();
+        if (!threadStack.empty()) {
+            TimedElement poppedStack = threadStack.pop();
+            if (poppedStack != taskElement) {
+                throw new RuntimeException("Mismatch - popped element = " + poppedStack //NOSONAR
+                        + " finished task element = " + taskElement);
+            }
+        }
+        finish(taskElement);
+    }
+
+    /**
+     * Get the TimedElement associated with a task.
+     *
+     * Where the task is not found directly, search for unknown elements which
+     * may be hiding the real task
+     */
+    private TimedElement getTaskElement(Task task) {
+        TimedElement element = tasks.get(task);
+        if (element != null) {
+            return element;
+        }
+        final Set<Task> knownTasks = new HashSet<>(tasks.keySet());
+        for (final Task t : knownTasks) {
+            if (t instanceof UnknownElement && ((UnknownElement) t).getTask() == task) {
+                return tasks.get(t);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fired when a message is logged, this writes a message element
+     * inside the most appropriate parent element (task, target or
+     * build).
+     *
+     * @param event An event with any relevant extra information.
+     *              Will not be <code>null</code>.
+     */
+    @Override
+    public synchronized void messageLogged(BuildEvent event) {
+        int priority = event.getPriority();
+        if (priority > msgOutputLevel || buildElement == null) {
+            return;
+        }
+        final String name;
+        switch (priority) {
+            case Project.MSG_ERR:
+                name = "error";
+                break;
+            case Project.MSG_WARN:
+                name = "warn";
+                break;
+            case Project.MSG_INFO:
+                name = "info";
+                break;
+            default:
+                name = "debug";
+                break;
+        }
+
+        TimedElement parentElement = null;
+        Task task = event.getTask();
+        Target target = event.getTarget();
+        if (task != null) {
+            parentElement = getTaskElement(task);
+        }
+        if (parentElement == null && target != null) {
+            parentElement = targets.get(target);
+        }
+        final TimedElement parent =
+            parentElement == null ? buildElement : parentElement;
+        final String message = event.getMessage();
+        final Throwable ex =
+            Project.MSG_DEBUG <= msgOutputLevel ? event.getException() : null;
+        write(() -> {
+            enter(parent);
+            indent();
+            writer.writeStartElement(MESSAGE_TAG);
+            writer.writeAttribute(PRIORITY_ATTR, name);
+            writeCData(message);
+            writer.writeEndElement();
+            if (ex != null) {
+                writeStackTrace(ex);
+            }
+        }, false);
+    }
+
+    /**
+     * Writes the time an element took and the end of the element.
+     */
+    private void finish(final TimedElement element) {
+        final String time =
+            DateUtils.formatElapsedTime(System.currentTimeMillis() - element.startTime);
+        write(() -> {
+            enter(element);
+            writeFinished(time, null);
+            endElement();
+        }, true);
+    }
+
+    /**
+     * Makes sure the given element is the innermost open element,
+     * closing elements that are not among its ancestors and starting
+     * the ones that are not open.
+     */
+    private void enter(TimedElement element) throws XMLStreamException {
+        final List<TimedElement> path = new ArrayList<>();
+        for (TimedElement e = element; e != null; e = e.parent) {
+            path.add(0, e);
+        }
+        int common = 0;
+        while (common < open.size() && common < path.size()
+               && open.get(common) == path.get(common)) {
+            common++;
+        }
+        while (open.size() > common) {
+            endElement();
+        }
+        for (int i = common; i < path.size(); i++) {
+            startElement(path.get(i));
+            open.add(path.get(i));
+        }
+    }
+
+    private void startElement(TimedElement element) throws XMLStreamException {
+        if (!open.isEmpty()) {
+            indent();
+        }
+        writer.writeStartElement(element.tag);
+        if (element.name != null) {
+            writer.writeAttribute(NAME_ATTR, element.name);
+        }
+        if (element.location != null) {
+            writer.writeAttribute(LOCATION_ATTR, element.location);
+        }
+    }
+
+    private void writeFinished(String time, Throwable t) throws XMLStreamException {
+        indent();
+        writer.writeEmptyElement(FINISHED_TAG);
+        writer.writeAttribute(TIME_ATTR, time);
+        if (t != null) {
+            writer.writeAttribute(ERROR_ATTR, t.toString());
+        }
+    }
+
+    private void endElement() throws XMLStreamException {
+        open.remove(open.size() - 1);
+        indent();
+        writer.writeEndElement();
+    }
+
+    private void writeStackTrace(Throwable t) throws XMLStreamException {
+        indent();
+        writer.writeStartElement(STACKTRACE_TAG);
+        writeCData(StringUtils.getStackTrace(t));
+        writer.writeEndElement();
+    }
+
+    /**
+     * Writes the text as CDATA section(s), dropping characters that
+     * are illegal in XML documents.
+     */
+    private void writeCData(String text) throws XMLStreamException {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (DOM_WRITER.isLegalCharacter(c)) {
+                sb.append(c);
+            }
+        }
+        String data = sb.toString();
+        int end = data.indexOf("]]>");
+        while (end >= 0) {
+            // split the marker into two sections
+            writer.writeCData(data.substring(0, end + 2));
+            data = data.substring(end + 2);
+            end = data.indexOf("]]>");
+        }
+        writer.writeCData(data);
+    }
+
+    private void indent() throws XMLStreamException {
+        StringBuilder sb = new StringBuilder("\n");
+        for (int i = 0; i < open.size(); i++) {
+            sb.append('\t');
+        }
+        writer.writeCharacters(sb.toString());
+    }
+
+    /**
+     * Performs the write operation or keeps it until the output is
+     * known.
+     * @param w the operation
+     * @param flush whether to flush the output afterwards
+     */
+    private void write(Write w, boolean flush) {
+        if (failure != null) {
+            return;
+        }
+        pending.add(w);
+        try {
+            if (writer == null && !openOutput()) {
+                return;
+            }
+            for (Write p : pending) {
+                p.run();
+            }
+            pending.clear();
+            if (flush || System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL) {
+                flushOutput();
+            } else {
+                unflushed = true;
+            }
+        } catch (IOException | XMLStreamException exc) {
+            fail(exc);
+        }
+    }
+
+    private void flushOutput() throws IOException, XMLStreamException {
+        writer.flush();
+        out.flush();
+        lastFlush = System.currentTimeMillis();
+        unflushed = false;
+    }
+
+    /**
+     * Flushes output that has been written since the last flush once
+     * a second until the build has finished.
+     */
+    private synchronized void flushPeriodically() {
+        while (Thread.currentThread() == flusher) {
+            try {
+                wait(FLUSH_INTERVAL);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            if (Thread.currentThread() == flusher && unflushed && failure == null) {
+                try {
+                    flushOutput();
+                } catch (IOException | XMLStreamException exc) {
+                    fail(exc);
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens the output unless it depends on properties that may not
+     * have been set, yet.
+     * @return whether the output has been opened
+     */
+    private boolean openOutput() throws IOException, XMLStreamException {
+        if (outStream == null && !outputKnown) {
+            return false;
+        }
+        String outFilename = getProperty("XmlLogger.file", "log.xml");
+        String xslUri = getProperty("ant.XmlLogger.stylesheet.uri", "log.xsl");
+        OutputStream stream =
+            outStream == null ? Files.newOutputStream(Paths.get(outFilename)) : outStream;
+        out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+        writer.writeStartDocument("UTF-8", "1.0");
+        writer.writeCharacters("\n");
+        if (!xslUri.isEmpty()) {
+            writer.writeProcessingInstruction("xml-stylesheet",
+                "type=\"text/xsl\" href=\"" + xslUri + "\"");
+            writer.writeCharacters("\n\n");
+        }
+        lastFlush = System.currentTimeMillis();
+        flusher = new Thread(this::flushPeriodically, "ant-xml-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        return true;
+    }
+
+    private String getProperty(String propertyName, String defaultValue) {
+        String rv = project == null ? null : project.getProperty(propertyName);
+        return rv == null ? defaultValue : rv;
+    }
+
+    private void fail(Exception exc) {
+        if (failure == null) {
+            failure = new BuildException("Unable to write log file", exc);
+        }
+        pending.clear();
+    }
+
+    // -------------------------------------------------- BuildLogger interface
+
+    /**
+     * Set the logging level when using this as a Logger
+     *
+     * @param level the logging level -
+     *        see {@link org.apache.tools.ant.Project#MSG_ERR Project}
+     *        class for level definitions
+     */
+    @Override
+    public void setMessageOutputLevel(int level) {
+        msgOutputLevel = level;
+    }
+
+    /**
+     * The logging level when using this as a Logger.
+     *
+     * @return the logging level, {@link Project#MSG_DEBUG} by default
+     */
+    @Override
+    public int getMessageOutputLevel() {
+        return msgOutputLevel;
+    }
+
+    /**
+     * Set the output stream to which logging output is sent when operating
+     * as a logger.
+     *
+     * @param output the output PrintStream.
+     */
+    @Override
+    public void setOutputPrintStream(PrintStream output) {
+        this.outStream = new PrintStream(output, true);
+    }
+
+    /**
+     * Ignore emacs mode, as it has no meaning in XML format
+     *
+     * @param emacsMode true if logger should produce emacs compatible
+     *        output
+     */
+    @Override
+    public void setEmacsMode(boolean emacsMode) {
+    }
+
+    /**
+     * Ignore error print stream. All output will be written to
+     * either the XML log file or the PrintStream provided to
+     * setOutputPrintStream
+     *
+     * @param err the stream we are going to ignore.
+     */
+    @Override
+    public void setErrorPrintStream(PrintStream err) {
+    }
+}
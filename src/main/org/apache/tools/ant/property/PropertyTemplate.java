@@ -0,0 +1,195 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.property;
+
+import java.text.ParsePosition;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.tools.ant.Project;
+
+/**
+ * A String that has been split into literal text and property
+ * references once so it can be expanded repeatedly without scanning
+ * it again.
+ *
+ * <p>Expanding a template yields the same result as {@link
+ * ParseProperties#parseProperties ParseProperties.parseProperties}
+ * with the expanders the template has been compiled with.</p>
+ *
+ * <p>Templates can only be compiled for values whose property
+ * references can be located without knowing the values of any
+ * properties. If an expander consults the {@link ParseNextProperty}
+ * while the value is compiled - in order to support nested
+ * references, for example - {@link #compile compile} returns
+ * null.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public final class PropertyTemplate {
+
+    private final String value;
+    /** Literal Strings and property references, adjacent literals are merged. */
+    private final Object[] segments;
+
+    private PropertyTemplate(String value, Object[] segments) {
+        this.value = value;
+        this.segments = segments;
+    }
+
+    /**
+     * Compile a value.
+     * @param value the value to compile, must not be null
+     * @param expanders the expanders locating property references
+     * @param parseNextProperty passed to the expanders
+     * @return the template or null if the value depends on property
+     * values
+     * @throws org.apache.tools.ant.BuildException if an expander
+     * detects a syntax error
+     */
+    public static PropertyTemplate compile(String value,
+                                           Collection<PropertyExpander> expanders,
+                                           ParseNextProperty parseNextProperty) {
+        final Recorder recorder = new Recorder(parseNextProperty);
+        final List<Object> segments = new ArrayList<>();
+        final StringBuilder literal = new StringBuilder();
+        final int len = value.length();
+        final ParsePosition pos = new ParsePosition(0);
+        while (pos.getIndex() < len) {
+            final int start = pos.getIndex();
+            String name = null;
+            for (PropertyExpander xp : expanders) {
+                name = xp.parsePropertyName(value, pos, recorder);
+                if (name != null) {
+                    break;
+                }
+            }
+            if (recorder.used) {
+                return null;
+            }
+            if (name == null) {
+                literal.append(value.charAt(pos.getIndex()));
+                pos.setIndex(pos.getIndex() + 1);
+            } else {
+                if (literal.length() > 0) {
+                    segments.add(literal.toString());
+                    literal.setLength(0);
+                }
+                segments.add(new Reference(name, value.substring(start, pos.getIndex())));
+            }
+        }
+        if (literal.length() > 0) {
+            segments.add(literal.toString());
+        }
+        return new PropertyTemplate(value, segments.toArray());
+    }
+
+    /**
+     * Whether the value contains any property references.
+     * @return true if there is at least one reference
+     */
+    public boolean containsProperties() {
+        for (Object segment : segments) {
+            if (segment instanceof Reference) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Expand the property references.
+     *
+     * <p>If the entire value is a single property reference the
+     * looked up value is returned as is, otherwise the literal
+     * segments and the string values of the properties are
+     * concatenated. References to properties that are not set are
+     * left alone.</p>
+     *
+     * @param project used for logging, may be null
+     * @param getProperty resolves property names
+     * @return the expanded value
+     */
+    public Object expand(Project project, GetProperty getProperty) {
+        if (segments.length == 0) {
+            return value;
+        }
+        if (segments.length == 1) {
+            final Object segment = segments[0];
+            return segment instanceof Reference
+                ? ((Reference) segment).resolve(project, getProperty) : segment;
+        }
+        final StringBuilder sb = new StringBuilder(value.length() * 2);
+        for (Object segment : segments) {
+            if (segment instanceof Reference) {
+                sb.append(((Reference) segment).resolve(project, getProperty));
+            } else {
+                sb.append((String) segment);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static final class Reference {
+        private final String name;
+        /** The text of the reference, used if the property is not set. */
+        private final String text;
+
+        Reference(String name, String text) {
+            this.name = name;
+            this.text = text;
+        }
+
+        Object resolve(Project project, GetProperty getProperty) {
+            final Object result = getProperty.getProperty(name);
+            if (result != null) {
+                return result;
+            }
+            if (project != null) {
+                project.log("Property \"" + name + "\" has not been set",
+                            Project.MSG_VERBOSE);
+            }
+            return text;
+        }
+    }
+
+    /**
+     * Detects expanders that look up property values while locating
+     * references.
+     */
+    private static final class Recorder implements ParseNextProperty {
+        private final ParseNextProperty delegate;
+        private boolean used;
+
+        Recorder(ParseNextProperty delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Project getProject() {
+            return delegate.getProject();
+        }
+
+        @Override
+        public Object parseNextProperty(String value, ParsePosition pos) {
+            used = true;
+            return delegate.parseNextProperty(value, pos);
+        }
+    }
+}
@@ -38,6 +38,7 @@ import org.apache.tools.ant.Main;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.ProjectComponent;
 import org.apache.tools.ant.ProjectHelper;
+import org.apache.tools.ant.PropertyHelper;
 import org.apache.tools.ant.Target;
 import org.apache.tools.ant.Task;
 import org.apache.tools.ant.types.PropertySet;
@@ -228,8 +229,9 @@ public class Ant extends Task {
            newProject.initProperties();
 
         } else {
-            // set all properties from calling project
-            addAlmostAll(getProject().getProperties(), PropertyType.PLAIN);
+            // set all properties from calling project, shared until
+            // the new project modifies them
+            PropertyHelper.getPropertyHelper(getProject()).copyProperties(newProject);
         }
 
         for (PropertySet ps : propertySets) {
@@ -21,10 +21,11 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
-import java.security.DigestInputStream;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
@@ -48,6 +49,7 @@ import org.apache.tools.ant.types.resources.Restrict;
 import org.apache.tools.ant.types.resources.Union;
 import org.apache.tools.ant.types.resources.selectors.Type;
 import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.XxHash64;
 
 /**
  * Used to create or verify file checksums.
@@ -178,6 +180,7 @@ public class Checksum extends MatchingTask implements Condition {
     /**
      * Specifies the algorithm to be used to compute the checksum.
      * Defaults to "MD5". Other popular algorithms like "SHA" may be used as well.
+     * "XXH64" uses the fast non-cryptographic xxHash64 unless a provider is set.
      * @param algorithm a <code>String</code> value
      */
     public void setAlgorithm(String algorithm) {
@@ -367,7 +370,9 @@ public class Checksum extends MatchingTask implements Condition {
                 "ForceOverwrite cannot be used when conditions are being used.");
         }
         messageDigest = null;
-        if (provider != null) {
+        if (provider == null && XxHash64.ALGORITHM.equalsIgnoreCase(algorithm)) {
+            messageDigest = XxHash64.newMessageDigest();
+        } else if (provider != null) {
             try {
                 messageDigest = MessageDigest.getInstance(algorithm, provider);
             } catch (NoSuchAlgorithmException | NoSuchProviderException noalgo) {
@@ -469,9 +474,8 @@ public class Checksum extends MatchingTask implements Condition {
      */
     private boolean generateChecksums() throws BuildException {
         boolean checksumMatches = true;
-        InputStream fis = null;
         OutputStream fos = null;
-        byte[] buf = new byte[readBufferSize];
+        ByteBuffer buf = ByteBuffer.allocateDirect(readBufferSize);
         try {
             for (Map.Entry<File, Object> e : includeFileMap.entrySet()) {
                 messageDigest.reset();
@@ -479,15 +483,15 @@ public class Checksum extends MatchingTask implements Condition {
                 if (!isCondition) {
                     log("Calculating " + algorithm + " checksum for " + src, Project.MSG_VERBOSE);
                 }
-                fis = Files.newInputStream(src.toPath());
-                DigestInputStream dis = new DigestInputStream(fis,
-                                                              messageDigest);
-                while (dis.read(buf, 0, readBufferSize) != -1) {
-                    // Empty statement
+                try (FileChannel channel = FileChannel.open(src.toPath(),
+                                                            StandardOpenOption.READ)) {
+                    buf.clear();
+                    while (channel.read(buf) != -1) {
+                        buf.flip();
+                        messageDigest.update(buf);
+                        buf.clear();
+                    }
                 }
-                dis.close();
-                fis.close();
-                fis = null;
                 byte[] fileDigest = messageDigest.digest();
                 if (totalproperty != null) {
                     allDigests.put(src, fileDigest);
@@ -567,7 +571,6 @@ public class Checksum extends MatchingTask implements Condition {
         } catch (Exception e) {
             throw new BuildException(e, getLocation());
         } finally {
-            FileUtils.close(fis);
             FileUtils.close(fos);
         }
         return checksumMatches;
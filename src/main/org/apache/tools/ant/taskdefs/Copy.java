@@ -29,6 +29,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DirectoryScanner;
@@ -43,6 +50,8 @@ import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceCollection;
 import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.FileResource;
+import org.apache.tools.ant.util.DirectoryListingCache;
+import org.apache.tools.ant.util.FileAttributesCache;
 import org.apache.tools.ant.util.FileNameMapper;
 import org.apache.tools.ant.util.FileUtils;
 import org.apache.tools.ant.util.FlatFileNameMapper;
@@ -105,6 +114,22 @@ public class Copy extends Task {
     private long granularity = 0;
     private boolean force = false;
     private boolean quiet = false;
+    private int threads = 1;
+    private ResourceUtils.LinkMode linkMode = ResourceUtils.LinkMode.none;
+    private File fingerprintFile = null;
+    private FileFingerprints fingerprints = null;
+
+    /** Number of files copied and linked by the current operation. */
+    private final AtomicInteger copiedFiles = new AtomicInteger();
+    private final AtomicInteger linkedFiles = new AtomicInteger();
+    /** Number of files skipped as their content is up to date. */
+    private final AtomicInteger identicalFiles = new AtomicInteger();
+
+    /**
+     * Collects the messages logged by operations performed by the
+     * pool of threads.
+     */
+    private final ThreadLocal<DeferredLog> deferredLog = new ThreadLocal<>();
 
     // used to store the single non-file resource to copy when the
     // tofile attribute has been used
@@ -429,6 +454,88 @@ public class Copy extends Task {
         this.granularity = granularity;
     }
 
+    /**
+     * Set the number of threads copying files.
+     *
+     * <p>With more than one thread files are copied in parallel
+     * unless filtering is enabled, the same file is written more than
+     * once or a file that is written is read as well. Messages are
+     * logged in the same order as if the files had been copied one
+     * by one. Default is 1.</p>
+     *
+     * @param threads the number of threads, must be positive.
+     * @since Ant 1.10.11
+     */
+    public void setThreads(final int threads) {
+        if (threads < 1) {
+            throw new BuildException("threads must be a positive number");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Get the number of threads copying files.
+     *
+     * @return the number of threads.
+     * @since Ant 1.10.11
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set whether files are copied or created as hard links to or
+     * clones of the source files.
+     *
+     * <p>Only applies to files that are copied without any filtering
+     * or transcoding. If a link or clone can't be created, the file
+     * is copied instead. Default is {@link
+     * ResourceUtils.LinkMode#none none}.</p>
+     *
+     * @param linkMode how to create the destination files.
+     * @since Ant 1.10.11
+     */
+    public void setLinkMode(final ResourceUtils.LinkMode linkMode) {
+        this.linkMode = linkMode;
+    }
+
+    /**
+     * Get whether files are copied or created as hard links or clones.
+     *
+     * @return the link mode.
+     * @since Ant 1.10.11
+     */
+    public ResourceUtils.LinkMode getLinkMode() {
+        return linkMode;
+    }
+
+    /**
+     * Set the file to store hashes of the copied files in.
+     *
+     * <p>If set, files are not copied if the destination already has
+     * the same content as the source - even if the source is newer
+     * than the destination. Hashes are only computed again for files
+     * whose size or timestamp has changed since they have been
+     * stored. Only applies to files that are copied without any
+     * filtering or transcoding.</p>
+     *
+     * @param fingerprintFile the file to store the hashes in.
+     * @since Ant 1.10.11
+     */
+    public void setFingerprintFile(final File fingerprintFile) {
+        this.fingerprintFile = fingerprintFile;
+    }
+
+    /**
+     * Get the file hashes of the copied files are stored in.
+     *
+     * @return the file or null if content isn't compared.
+     * @since Ant 1.10.11
+     */
+    public File getFingerprintFile() {
+        return fingerprintFile;
+    }
+
     /**
      * Perform the copy operation.
      * @exception BuildException if an error occurs.
@@ -459,6 +566,10 @@ public class Copy extends Task {
                 }
             }
 
+            if (fingerprintFile != null) {
+                fingerprints = new FileFingerprints(fingerprintFile);
+            }
+
             // deal with the single file
             copySingleFile();
 
@@ -597,6 +708,12 @@ public class Copy extends Task {
                 }
             }
         } finally {
+            if (fingerprints != null) {
+                fingerprints.save();
+                fingerprints = null;
+            }
+            DirectoryListingCache.invalidateTree(getProject(), destDir);
+            FileAttributesCache.invalidateTree(getProject(), destDir);
             // clean up again, so this instance can be used a second
             // time
             singleResource = null;
@@ -859,49 +976,23 @@ public class Copy extends Task {
                 + " file" + (fileCopyMap.size() == 1 ? "" : "s")
                 + " to " + destDir.getAbsolutePath());
 
+            final List<FileOperation> copies = new ArrayList<>();
             for (final Map.Entry<String, String[]> e : fileCopyMap.entrySet()) {
                 final String fromFile = e.getKey();
 
                 for (final String toFile : e.getValue()) {
                     if (fromFile.equals(toFile)) {
-                        log("Skipping self-copy of " + fromFile, verbosity);
+                        copies.add(new FileOperation(new File(fromFile), new File[0],
+                            () -> log(() -> "Skipping self-copy of " + fromFile,
+                                      verbosity)));
                         continue;
                     }
-                    try {
-                        log("Copying " + fromFile + " to " + toFile, verbosity);
-
-                        final FilterSetCollection executionFilters =
-                            new FilterSetCollection();
-                        if (filtering) {
-                            executionFilters
-                                .addFilterSet(getProject().getGlobalFilterSet());
-                        }
-                        for (final FilterSet filterSet : filterSets) {
-                            executionFilters.addFilterSet(filterSet);
-                        }
-                        fileUtils.copyFile(new File(fromFile), new File(toFile),
-                                           executionFilters,
-                                           filterChains, forceOverwrite,
-                                           preserveLastModified,
-                                           /* append: */ false, inputEncoding,
-                                           outputEncoding, getProject(),
-                                           getForce());
-                    } catch (final IOException ioe) {
-                        String msg = "Failed to copy " + fromFile + " to " + toFile
-                            + " due to " + getDueTo(ioe);
-                        final File targetFile = new File(toFile);
-                        if (!(ioe instanceof
-                              ResourceUtils.ReadOnlyTargetFileException)
-                            && targetFile.exists() && !targetFile.delete()) {
-                            msg += " and I couldn't delete the corrupt " + toFile;
-                        }
-                        if (failonerror) {
-                            throw new BuildException(msg, ioe, getLocation());
-                        }
-                        log(msg, Project.MSG_ERR);
-                    }
+                    copies.add(new FileOperation(new File(fromFile),
+                        new File[] {new File(toFile)}, () -> copyFile(fromFile, toFile)));
                 }
             }
+            performFileOperations(copies);
+            logCopyStatistics();
         }
         if (includeEmpty) {
             int createCount = 0;
@@ -942,51 +1033,353 @@ public class Copy extends Task {
                 + " resource" + (map.size() == 1 ? "" : "s")
                 + " to " + destDir.getAbsolutePath());
 
+            final List<FileOperation> copies = new ArrayList<>();
             for (final Map.Entry<Resource, String[]> e : map.entrySet()) {
                 final Resource fromResource = e.getKey();
+                final File source = fromResource.asOptional(FileProvider.class)
+                    .map(FileProvider::getFile).orElse(null);
                 for (final String toFile : e.getValue()) {
-                    try {
-                        log("Copying " + fromResource + " to " + toFile,
-                            verbosity);
+                    copies.add(new FileOperation(source,
+                        new File[] {new FileResource(destDir, toFile).getFile()},
+                        () -> copyResource(fromResource, toFile)));
+                }
+            }
+            performFileOperations(copies);
+            logCopyStatistics();
+        }
+    }
 
-                        final FilterSetCollection executionFilters = new FilterSetCollection();
-                        if (filtering) {
-                            executionFilters
-                                .addFilterSet(getProject().getGlobalFilterSet());
-                        }
-                        for (final FilterSet filterSet : filterSets) {
-                            executionFilters.addFilterSet(filterSet);
-                        }
-                        ResourceUtils.copyResource(fromResource,
-                                                   new FileResource(destDir,
-                                                                    toFile),
-                                                   executionFilters,
-                                                   filterChains,
-                                                   forceOverwrite,
-                                                   preserveLastModified,
-                                                   /* append: */ false,
-                                                   inputEncoding,
-                                                   outputEncoding,
-                                                   getProject(),
-                                                   getForce());
-                    } catch (final IOException ioe) {
-                        String msg = "Failed to copy " + fromResource
-                            + " to " + toFile
-                            + " due to " + getDueTo(ioe);
-                        final File targetFile = new File(toFile);
-                        if (!(ioe instanceof
-                              ResourceUtils.ReadOnlyTargetFileException)
-                            && targetFile.exists() && !targetFile.delete()) {
-                            msg += " and I couldn't delete the corrupt " + toFile;
-                        }
-                        if (failonerror) {
-                            throw new BuildException(msg, ioe, getLocation());
-                        }
-                        log(msg, Project.MSG_ERR);
-                    }
+    /**
+     * Whether the content of a file is copied without any
+     * modifications.
+     */
+    private boolean isPlainCopy() {
+        return !filtering && filterSets.isEmpty() && filterChains.isEmpty()
+            && (inputEncoding == null ? outputEncoding == null
+                : inputEncoding.equals(outputEncoding));
+    }
+
+    /**
+     * Whether the destination already has the same content as the
+     * source so the file doesn't need to be copied.
+     */
+    private boolean hasSameContent(final File source, final File dest) {
+        if (fingerprints == null || !isPlainCopy()) {
+            return false;
+        }
+        try {
+            if (fingerprints.haveSameContent(source, dest)) {
+                log(() -> "Not copying " + source + " as " + dest
+                    + " has the same content", verbosity);
+                identicalFiles.incrementAndGet();
+                return true;
+            }
+        } catch (final IOException ex) {
+            log("Could not compare the content of " + source + " and "
+                + dest + " due to " + getDueTo(ex), Project.MSG_VERBOSE);
+        }
+        return false;
+    }
+
+    /**
+     * Stores the hash of a file that has just been copied.
+     */
+    private void recordCopy(final File source, final File dest) {
+        if (fingerprints != null && isPlainCopy()) {
+            try {
+                fingerprints.copied(source, dest);
+            } catch (final IOException ex) {
+                log("Could not store the hash of " + dest + " due to "
+                    + getDueTo(ex), Project.MSG_VERBOSE);
+            }
+        }
+    }
+
+    /**
+     * Records how a file has been created.
+     */
+    private void count(final ResourceUtils.LinkMode used) {
+        if (used == ResourceUtils.LinkMode.none) {
+            copiedFiles.incrementAndGet();
+        } else {
+            linkedFiles.incrementAndGet();
+        }
+    }
+
+    /**
+     * Reports how many files have been skipped as their content was
+     * up to date and how many files have been linked rather than
+     * copied if a link mode has been set.
+     */
+    private void logCopyStatistics() {
+        final int identical = identicalFiles.getAndSet(0);
+        if (identical > 0) {
+            log(identical + " file" + (identical == 1 ? " has" : "s have")
+                + " not been copied as the destination already had the"
+                + " same content");
+        }
+        final int linked = linkedFiles.getAndSet(0);
+        final int copied = copiedFiles.getAndSet(0);
+        if (linkMode == null || linkMode == ResourceUtils.LinkMode.none
+            || linked + copied == 0) {
+            return;
+        }
+        final StringBuilder msg = new StringBuilder();
+        if (linkMode == ResourceUtils.LinkMode.hard) {
+            msg.append("Created ").append(linked).append(" hard link")
+                .append(linked == 1 ? "" : "s");
+        } else {
+            msg.append("Cloned ").append(linked).append(" file")
+                .append(linked == 1 ? "" : "s");
+        }
+        if (copied > 0) {
+            msg.append(", copied ").append(copied).append(" file")
+                .append(copied == 1 ? "" : "s");
+        }
+        log(msg.toString());
+    }
+
+    /**
+     * Copies a single file.
+     */
+    private void copyFile(final String fromFile, final String toFile) {
+        if (hasSameContent(new File(fromFile), new File(toFile))) {
+            return;
+        }
+        try {
+            log(() -> "Copying " + fromFile + " to " + toFile, verbosity);
+
+            final FilterSetCollection executionFilters =
+                new FilterSetCollection();
+            if (filtering) {
+                executionFilters
+                    .addFilterSet(getProject().getGlobalFilterSet());
+            }
+            for (final FilterSet filterSet : filterSets) {
+                executionFilters.addFilterSet(filterSet);
+            }
+            count(fileUtils.copyFile(new File(fromFile), new File(toFile),
+                                     executionFilters,
+                                     filterChains, forceOverwrite,
+                                     preserveLastModified,
+                                     /* append: */ false, inputEncoding,
+                                     outputEncoding, this,
+                                     getForce(), linkMode));
+            recordCopy(new File(fromFile), new File(toFile));
+        } catch (final IOException ioe) {
+            String msg = "Failed to copy " + fromFile + " to " + toFile
+                + " due to " + getDueTo(ioe);
+            final File targetFile = new File(toFile);
+            if (!(ioe instanceof
+                  ResourceUtils.ReadOnlyTargetFileException)
+                && targetFile.exists() && !targetFile.delete()) {
+                msg += " and I couldn't delete the corrupt " + toFile;
+            }
+            if (failonerror) {
+                throw new BuildException(msg, ioe, getLocation());
+            }
+            log(msg, Project.MSG_ERR);
+        }
+    }
+
+    /**
+     * Copies a single resource.
+     */
+    private void copyResource(final Resource fromResource, final String toFile) {
+        final File source = fromResource.asOptional(FileProvider.class)
+            .map(FileProvider::getFile).orElse(null);
+        final File dest = new FileResource(destDir, toFile).getFile();
+        if (source != null && hasSameContent(source, dest)) {
+            return;
+        }
+        try {
+            log(() -> "Copying " + fromResource + " to " + toFile,
+                verbosity);
+
+            final FilterSetCollection executionFilters = new FilterSetCollection();
+            if (filtering) {
+                executionFilters
+                    .addFilterSet(getProject().getGlobalFilterSet());
+            }
+            for (final FilterSet filterSet : filterSets) {
+                executionFilters.addFilterSet(filterSet);
+            }
+            count(ResourceUtils.copyResource(fromResource,
+                                             new FileResource(destDir,
+                                                              toFile),
+                                             executionFilters,
+                                             filterChains,
+                                             forceOverwrite,
+                                             preserveLastModified,
+                                             /* append: */ false,
+                                             inputEncoding,
+                                             outputEncoding,
+                                             this,
+                                             getForce(), linkMode));
+            if (source != null) {
+                recordCopy(source, dest);
+            }
+        } catch (final IOException ioe) {
+            String msg = "Failed to copy " + fromResource
+                + " to " + toFile
+                + " due to " + getDueTo(ioe);
+            final File targetFile = new File(toFile);
+            if (!(ioe instanceof
+                  ResourceUtils.ReadOnlyTargetFileException)
+                && targetFile.exists() && !targetFile.delete()) {
+                msg += " and I couldn't delete the corrupt " + toFile;
+            }
+            if (failonerror) {
+                throw new BuildException(msg, ioe, getLocation());
+            }
+            log(msg, Project.MSG_ERR);
+        }
+    }
+
+    /**
+     * Performs file operations in order or - if more than one {@link
+     * #setThreads thread} has been configured and the operations
+     * don't depend on each other - on a pool of threads.
+     *
+     * <p>When performed in parallel the parent directories of all
+     * destinations are created first, in order. The messages logged
+     * by the operations are passed on in the order of the operations
+     * and the first failure in that order is rethrown once the
+     * operations preceding it have been reported. Operations that
+     * haven't been started when an operation fails are skipped.</p>
+     *
+     * @param operations the operations to perform.
+     * @since Ant 1.10.11
+     */
+    protected void performFileOperations(final List<FileOperation> operations) {
+        if (threads == 1 || operations.size() < 2 || !canPerformInParallel(operations)) {
+            operations.forEach(o -> o.action.run());
+            return;
+        }
+        final Set<File> parents = new HashSet<>();
+        for (final FileOperation o : operations) {
+            for (final File f : o.destinations) {
+                final File parent = f.getParentFile();
+                if (parent != null && parents.add(parent) && !parent.isDirectory()) {
+                    // failures are reported by the operations themselves
+                    parent.mkdirs();
                 }
             }
         }
+
+        final ExecutorService pool =
+            Executors.newFixedThreadPool(Math.min(threads, operations.size()), r -> {
+                final Thread t = new Thread(r, getTaskName());
+                t.setDaemon(true);
+                return t;
+            });
+        final AtomicBoolean failed = new AtomicBoolean();
+        try {
+            final List<Future<DeferredLog>> results = new ArrayList<>(operations.size());
+            for (final FileOperation o : operations) {
+                results.add(pool.submit(() -> perform(o, failed)));
+            }
+            for (final Future<DeferredLog> result : results) {
+                result.get().replay();
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("interrupted while copying files", ex, getLocation());
+        } catch (final ExecutionException ex) {
+            throw new BuildException(ex.getCause(), getLocation());
+        } finally {
+            failed.set(true);
+            pool.shutdown();
+            try {
+                // no file must be written once the task has finished
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Filter sets are not thread-safe and operations must not write
+     * a file another operation reads or writes.
+     */
+    private boolean canPerformInParallel(final List<FileOperation> operations) {
+        if (filtering || !filterSets.isEmpty() || !filterChains.isEmpty()) {
+            return false;
+        }
+        final Set<String> sources = new HashSet<>();
+        for (final FileOperation o : operations) {
+            if (o.source != null) {
+                sources.add(fileUtils.normalize(o.source.getAbsolutePath()).getPath());
+            }
+        }
+        final Set<String> destinations = new HashSet<>();
+        for (final FileOperation o : operations) {
+            for (final File f : o.destinations) {
+                final String dest = fileUtils.normalize(f.getAbsolutePath()).getPath();
+                if (!destinations.add(dest) || sources.contains(dest)) {
+                    log("Copying files one by one as " + dest
+                        + " is written more than once or read", Project.MSG_VERBOSE);
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Performs an operation in one of the threads of the pool.
+     */
+    private DeferredLog perform(final FileOperation operation, final AtomicBoolean failed) {
+        final DeferredLog log = new DeferredLog(operation);
+        if (failed.get()) {
+            return log;
+        }
+        deferredLog.set(log);
+        try {
+            operation.action.run();
+            log.performed = true;
+        } catch (final RuntimeException | Error ex) { //NOSONAR
+            failed.set(true);
+            log.failure = ex;
+        } finally {
+            deferredLog.remove();
+        }
+        return log;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Messages logged while an operation is performed by the pool
+     * of threads are deferred until they can be passed on in
+     * order.</p>
+     */
+    @Override
+    public void log(final String msg, final int msgLevel) {
+        final DeferredLog log = deferredLog.get();
+        if (log == null) {
+            super.log(msg, msgLevel);
+        } else {
+            log.add(msg, null, msgLevel);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Messages logged while an operation is performed by the pool
+     * of threads are deferred until they can be passed on in
+     * order.</p>
+     */
+    @Override
+    public void log(final String msg, final Throwable t, final int msgLevel) {
+        final DeferredLog log = deferredLog.get();
+        if (log == null) {
+            super.log(msg, t, msgLevel);
+        } else {
+            log.add(msg, t, msgLevel);
+        }
     }
 
     /**
@@ -1089,4 +1482,68 @@ public class Copy extends Task {
         }
         return message.toString();
     }
+
+    /**
+     * A file operation that may be performed by one of the {@link
+     * #setThreads threads} of the task.
+     *
+     * @since Ant 1.10.11
+     */
+    protected static final class FileOperation {
+        private final File source;
+        private final File[] destinations;
+        private final Runnable action;
+
+        /**
+         * @param source the file read by the operation, null if it
+         * doesn't read a file
+         * @param destinations the files written by the operation
+         * @param action performs the operation, failures are signalled
+         * by throwing a BuildException
+         */
+        public FileOperation(final File source, final File[] destinations,
+                             final Runnable action) {
+            this.source = source;
+            this.destinations = destinations;
+            this.action = action;
+        }
+    }
+
+    /**
+     * Messages logged by an operation performed by the pool of threads.
+     */
+    private final class DeferredLog {
+        private final FileOperation operation;
+        private final List<Object[]> messages = new ArrayList<>();
+        private boolean performed;
+        private Throwable failure;
+
+        private DeferredLog(final FileOperation operation) {
+            this.operation = operation;
+        }
+
+        private void add(final String msg, final Throwable t, final int msgLevel) {
+            messages.add(new Object[] {msg, t, msgLevel});
+        }
+
+        /**
+         * Passes the messages on and rethrows the failure, if any.
+         */
+        private void replay() {
+            if (!performed && failure == null) {
+                // skipped, can't happen before a failure has been replayed
+                operation.action.run();
+                return;
+            }
+            for (final Object[] m : messages) {
+                Copy.this.log((String) m[0], (Throwable) m[1], (Integer) m[2]);
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                throw (RuntimeException) failure;
+            }
+        }
+    }
 }
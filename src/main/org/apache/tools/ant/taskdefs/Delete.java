@@ -62,6 +62,8 @@ import org.apache.tools.ant.types.selectors.PresentSelector;
 import org.apache.tools.ant.types.selectors.SelectSelector;
 import org.apache.tools.ant.types.selectors.SizeSelector;
 import org.apache.tools.ant.types.selectors.modifiedselector.ModifiedSelector;
+import org.apache.tools.ant.util.DirectoryListingCache;
+import org.apache.tools.ant.util.FileAttributesCache;
 import org.apache.tools.ant.util.FileUtils;
 
 /**
@@ -788,7 +790,10 @@ public class Delete extends MatchingTask {
      * wait a little and try again.
      */
     private boolean delete(File f) {
-        if (!FILE_UTILS.tryHardToDelete(f, performGc)) {
+        final boolean deleted = FILE_UTILS.tryHardToDelete(f, performGc);
+        DirectoryListingCache.invalidate(getProject(), f);
+        FileAttributesCache.invalidate(getProject(), f);
+        if (!deleted) {
             if (deleteOnExit) {
                 int level = quiet ? Project.MSG_VERBOSE : Project.MSG_INFO;
                 log("Failed to delete " + f + ", calling deleteOnExit."
@@ -817,7 +822,8 @@ public class Delete extends MatchingTask {
             if (f.isDirectory()) {
                 removeDir(f);
             } else {
-                log("Deleting " + f.getAbsolutePath(), quiet ? Project.MSG_VERBOSE : verbosity);
+                log(() -> "Deleting " + f.getAbsolutePath(),
+                    quiet ? Project.MSG_VERBOSE : verbosity);
                 if (!delete(f)) {
                     handle("Unable to delete file " + f.getAbsolutePath());
                 }
@@ -842,7 +848,7 @@ public class Delete extends MatchingTask {
                 + d.getAbsolutePath(), quiet ? Project.MSG_VERBOSE : verbosity);
             for (String filename : files) {
                 File f = new File(d, filename);
-                log("Deleting " + f.getAbsolutePath(),
+                log(() -> "Deleting " + f.getAbsolutePath(),
                         quiet ? Project.MSG_VERBOSE : verbosity);
                 if (!delete(f)) {
                     handle("Unable to delete file " + f.getAbsolutePath());
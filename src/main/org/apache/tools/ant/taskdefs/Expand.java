@@ -42,6 +42,8 @@ import org.apache.tools.ant.types.ResourceCollection;
 import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.Union;
 import org.apache.tools.ant.types.selectors.SelectorUtils;
+import org.apache.tools.ant.util.DirectoryListingCache;
+import org.apache.tools.ant.util.FileAttributesCache;
 import org.apache.tools.ant.util.FileNameMapper;
 import org.apache.tools.ant.util.FileUtils;
 import org.apache.tools.ant.util.IdentityMapper;
@@ -143,31 +145,36 @@ public class Expand extends Task {
             throw new BuildException("Dest must be a directory.", getLocation());
         }
 
-        if (source != null) {
-            if (source.isDirectory()) {
-                throw new BuildException("Src must not be a directory."
-                    + " Use nested filesets instead.", getLocation());
-            }
-            if (!source.exists()) {
-                throw new BuildException("src '" + source + "' doesn't exist.");
-            }
-            if (!source.canRead()) {
-                throw new BuildException("src '" + source + "' cannot be read.");
-            }
-            expandFile(FILE_UTILS, source, dest);
-        }
-        for (Resource r : resources) {
-            if (!r.isExists()) {
-                log("Skipping '" + r.getName() + "' because it doesn't exist.");
-                continue;
+        try {
+            if (source != null) {
+                if (source.isDirectory()) {
+                    throw new BuildException("Src must not be a directory."
+                        + " Use nested filesets instead.", getLocation());
+                }
+                if (!source.exists()) {
+                    throw new BuildException("src '" + source + "' doesn't exist.");
+                }
+                if (!source.canRead()) {
+                    throw new BuildException("src '" + source + "' cannot be read.");
+                }
+                expandFile(FILE_UTILS, source, dest);
             }
+            for (Resource r : resources) {
+                if (!r.isExists()) {
+                    log("Skipping '" + r.getName() + "' because it doesn't exist.");
+                    continue;
+                }
 
-            FileProvider fp = r.as(FileProvider.class);
-            if (fp != null) {
-                expandFile(FILE_UTILS, fp.getFile(), dest);
-            } else {
-                expandResource(r, dest);
+                FileProvider fp = r.as(FileProvider.class);
+                if (fp != null) {
+                    expandFile(FILE_UTILS, fp.getFile(), dest);
+                } else {
+                    expandResource(r, dest);
+                }
             }
+        } finally {
+            DirectoryListingCache.invalidateTree(getProject(), dest);
+            FileAttributesCache.invalidateTree(getProject(), dest);
         }
     }
 
@@ -0,0 +1,154 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.taskdefs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.tools.ant.types.selectors.modifiedselector.BinaryfileCache;
+import org.apache.tools.ant.util.XxHash64;
+
+/**
+ * Persistent store of content hashes used by {@link Copy} to skip
+ * files whose destination already has the same content as the
+ * source.
+ *
+ * <p>Hashes are stored together with the size and timestamp of the
+ * file they have been computed for and are only computed again if
+ * either of them has changed. Timestamps of files modified less than
+ * two seconds before they have been hashed are not trusted, the
+ * hashes of those files are not stored. The only exception are the
+ * copies written by the task itself, their hashes are kept in memory
+ * and stored when the hashes are saved, provided size and timestamp
+ * haven't changed since the copy has been made.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @since Ant 1.10.11
+ */
+final class FileFingerprints {
+
+    private static final long TIMESTAMP_GRANULARITY = 2000;
+    private static final char SEPARATOR = ':';
+
+    private final BinaryfileCache cache;
+    /** Fingerprints of fresh copies, keyed by absolute path. */
+    private final Map<String, String> copies = new HashMap<>();
+
+    /**
+     * @param cachefile the file to store the hashes in
+     */
+    FileFingerprints(File cachefile) {
+        cache = new BinaryfileCache(cachefile);
+        cache.load();
+    }
+
+    /**
+     * Whether both files exist and have the same content.
+     * @param source a file
+     * @param dest another file
+     * @return true if the content of both files is the same
+     * @throws IOException if one of the files cannot be read
+     */
+    boolean haveSameContent(File source, File dest) throws IOException {
+        return source.isFile() && dest.isFile()
+            && source.length() == dest.length()
+            && hash(source) == hash(dest);
+    }
+
+    /**
+     * Records that a file has been written as a copy of another one.
+     * @param source the file that has been copied
+     * @param dest the copy
+     * @throws IOException if the source cannot be read
+     */
+    void copied(File source, File dest) throws IOException {
+        if (source.isFile() && dest.isFile()) {
+            final long hash = hash(source);
+            synchronized (this) {
+                copies.put(dest.getAbsolutePath(),
+                           fingerprint(dest.length(), dest.lastModified(), hash));
+            }
+        }
+    }
+
+    /**
+     * Writes the stored hashes to disk.
+     */
+    synchronized void save() {
+        for (Map.Entry<String, String> e : copies.entrySet()) {
+            final File f = new File(e.getKey());
+            final String value = e.getValue();
+            // the copy hasn't been modified since it has been made
+            if (value.startsWith(sizeAndTimestamp(f.length(), f.lastModified()))) {
+                cache.put(e.getKey(), value);
+            }
+        }
+        copies.clear();
+        cache.save();
+    }
+
+    private long hash(File f) throws IOException {
+        // read size and timestamp first so a modification while
+        // hashing is detected the next time
+        final long length = f.length();
+        final long lastModified = f.lastModified();
+        final String key = f.getAbsolutePath();
+        Object stored;
+        synchronized (this) {
+            stored = copies.get(key);
+            if (stored == null) {
+                stored = cache.get(key);
+            }
+        }
+        if (stored != null) {
+            final String[] parts = stored.toString().split(String.valueOf(SEPARATOR));
+            if (parts.length == 3 && parts[0].equals(String.valueOf(length))
+                && parts[1].equals(String.valueOf(lastModified))) {
+                try {
+                    return Long.parseUnsignedLong(parts[2], 16);
+                } catch (NumberFormatException ex) {
+                    // compute it again
+                }
+            }
+        }
+        final long hash = XxHash64.hash(f.toPath());
+        store(f, length, lastModified, hash);
+        return hash;
+    }
+
+    private void store(File f, long length, long lastModified, long hash) {
+        if (System.currentTimeMillis() - lastModified < TIMESTAMP_GRANULARITY) {
+            return;
+        }
+        final String value = fingerprint(length, lastModified, hash);
+        synchronized (this) {
+            cache.put(f.getAbsolutePath(), value);
+        }
+    }
+
+    private static String fingerprint(long length, long lastModified, long hash) {
+        return sizeAndTimestamp(length, lastModified) + Long.toHexString(hash);
+    }
+
+    private static String sizeAndTimestamp(long length, long lastModified) {
+        return String.valueOf(length) + SEPARATOR + lastModified + SEPARATOR;
+    }
+}
@@ -23,6 +23,8 @@ import java.io.File;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.Task;
+import org.apache.tools.ant.util.DirectoryListingCache;
+import org.apache.tools.ant.util.FileAttributesCache;
 
 /**
  * Creates a given directory.
@@ -60,6 +62,8 @@ public class Mkdir extends Task {
 
         if (!dir.exists()) {
             boolean result = mkdirs(dir);
+            DirectoryListingCache.invalidate(getProject(), dir);
+            FileAttributesCache.invalidate(getProject(), dir);
             if (!result) {
                 if (dir.exists()) {
                     log("A different process or task has already created dir "
@@ -19,6 +19,9 @@ package org.apache.tools.ant.taskdefs;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.tools.ant.BuildException;
@@ -27,6 +30,7 @@ import org.apache.tools.ant.Project;
 import org.apache.tools.ant.taskdefs.condition.Os;
 import org.apache.tools.ant.types.FileSet;
 import org.apache.tools.ant.types.FilterSetCollection;
+import org.apache.tools.ant.util.ResourceUtils;
 
 /**
  * Moves a file or directory to a new file or directory.
@@ -78,6 +82,32 @@ public class Move extends Copy {
         performGc = b;
     }
 
+    /**
+     * Not supported by move, files are renamed whenever possible.
+     *
+     * @param linkMode ignored
+     * @throws BuildException always
+     * @since Ant 1.10.11
+     */
+    @Override
+    public void setLinkMode(final ResourceUtils.LinkMode linkMode) {
+        throw new BuildException("The linkmode attribute is not supported by "
+                                 + getTaskName());
+    }
+
+    /**
+     * Not supported by move, files are renamed whenever possible.
+     *
+     * @param fingerprintFile ignored
+     * @throws BuildException always
+     * @since Ant 1.10.11
+     */
+    @Override
+    public void setFingerprintFile(final File fingerprintFile) {
+        throw new BuildException("The fingerprintfile attribute is not supported by "
+                                 + getTaskName());
+    }
+
     /** {@inheritDoc}. */
     @Override
     protected void validateAttributes() throws BuildException {
@@ -134,34 +164,17 @@ public class Move extends Copy {
             log("Moving " + moveCount + " file" + ((moveCount == 1) ? "" : "s")
                     + " to " + destDir.getAbsolutePath());
 
+            List<FileOperation> moves = new ArrayList<>();
             for (Map.Entry<String, String[]> entry : fileCopyMap.entrySet()) {
                 String fromFile = entry.getKey();
-                File f = new File(fromFile);
-                boolean selfMove = false;
-                if (f.exists()) { //Is this file still available to be moved?
-                    String[] toFiles = entry.getValue();
-                    for (int i = 0; i < toFiles.length; i++) {
-                        String toFile = toFiles[i];
-
-                        if (fromFile.equals(toFile)) {
-                            log("Skipping self-move of " + fromFile, verbosity);
-                            selfMove = true;
-
-                            // if this is the last time through the loop then
-                            // move will not occur, but that's what we want
-                            continue;
-                        }
-                        File d = new File(toFile);
-                        if ((i + 1) == toFiles.length && !selfMove) {
-                            // Only try to move if this is the last mapped file
-                            // and one of the mappings isn't to itself
-                            moveFile(f, d, filtering, forceOverwrite);
-                        } else {
-                            copyFile(f, d, filtering, forceOverwrite);
-                        }
-                    }
-                }
+                String[] toFiles = entry.getValue();
+                File[] destinations = Arrays.stream(toFiles)
+                    .filter(toFile -> !fromFile.equals(toFile)).map(File::new)
+                    .toArray(File[]::new);
+                moves.add(new FileOperation(new File(fromFile), destinations,
+                                            () -> moveFile(fromFile, toFiles)));
             }
+            performFileOperations(moves);
         }
 
         if (includeEmpty) {
@@ -202,6 +215,37 @@ public class Move extends Copy {
         }
     }
 
+    /**
+     * Move a file to the last of its destinations and copy it to all
+     * other ones.
+     */
+    private void moveFile(String fromFile, String[] toFiles) {
+        File f = new File(fromFile);
+        boolean selfMove = false;
+        if (f.exists()) { //Is this file still available to be moved?
+            for (int i = 0; i < toFiles.length; i++) {
+                String toFile = toFiles[i];
+
+                if (fromFile.equals(toFile)) {
+                    log("Skipping self-move of " + fromFile, verbosity);
+                    selfMove = true;
+
+                    // if this is the last time through the loop then
+                    // move will not occur, but that's what we want
+                    continue;
+                }
+                File d = new File(toFile);
+                if ((i + 1) == toFiles.length && !selfMove) {
+                    // Only try to move if this is the last mapped file
+                    // and one of the mappings isn't to itself
+                    moveFile(f, d, filtering, forceOverwrite);
+                } else {
+                    copyFile(f, d, filtering, forceOverwrite);
+                }
+            }
+        }
+    }
+
     /**
      * Try to move the file via a rename, but if this fails or filtering
      * is enabled, copy the file then delete the sourceFile.
@@ -237,6 +237,16 @@ public class RecorderEntry implements BuildLogger, SubBuildListener {
         }
     }
 
+    /**
+     * @see BuildLogger#getMessageOutputLevel()
+     * {@inheritDoc}.
+     * @since Ant 1.10.11
+     */
+    @Override
+    public int getMessageOutputLevel() {
+        return loglevel;
+    }
+
     /**
      * @see BuildLogger#setOutputPrintStream(PrintStream)
      * {@inheritDoc}.
@@ -31,8 +31,10 @@ import java.io.Writer;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.apache.tools.ant.BuildException;
@@ -44,6 +46,7 @@ import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.FileResource;
 import org.apache.tools.ant.types.resources.Union;
 import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.MultiStringReplacer;
 import org.apache.tools.ant.util.StreamUtils;
 
 /**
@@ -84,6 +87,9 @@ public class Replace extends MatchingTask {
     private boolean preserveLastModified = false;
     private boolean failOnNoReplacements = false;
 
+    private boolean singlePass = false;
+    private SinglePassFilter singlePassFilter = null;
+
     /**
      * An inline string to use as the replacement text.
      */
@@ -344,6 +350,83 @@ public class Replace extends MatchingTask {
         }
     }
 
+    /**
+     * Replaces the tokens of all filters in a single pass, used
+     * instead of the filters if singlePass is true. Compatible with
+     * the Replacefilter.
+     * @since Ant 1.10.11
+     */
+    private class SinglePassFilter {
+        private final MultiStringReplacer replacer;
+        private final StringBuilder replaced = new StringBuilder();
+        private final StringBuffer outputBuffer = new StringBuffer();
+        private StringBuffer inputBuffer;
+        private MultiStringReplacer.Pass pass;
+
+        /**
+         * Compiles the tokens of all filters, they must have been
+         * validated.
+         */
+        SinglePassFilter() {
+            Map<String, String> tokens = new HashMap<>();
+            // the first of several filters with the same token wins
+            // just like it does when the filters are applied in turn
+            replacefilters.forEach(
+                filter -> tokens.putIfAbsent(filter.getToken(), filter.replaceValue));
+            replacer = new MultiStringReplacer(tokens, true);
+        }
+
+        /**
+         * Retrieves the output buffer of this filter. The filter guarantees
+         * that data is only appended to the end of this StringBuffer.
+         * @return The StringBuffer containing the output of this filter.
+         */
+        StringBuffer getOutputBuffer() {
+            return outputBuffer;
+        }
+
+        /**
+         * Sets the input buffer for this filter and starts a new pass.
+         * @param input The input for this filter.
+         */
+        void setInputBuffer(StringBuffer input) {
+            inputBuffer = input;
+            pass = replacer.newPass(replaced, value -> {
+                ++replaceCount;
+                return value;
+            });
+        }
+
+        /**
+         * Processes the buffer as far as possible.
+         * @return true if some data has been made available in the
+         *         output buffer.
+         */
+        boolean process() {
+            pass.append(inputBuffer, 0, inputBuffer.length());
+            inputBuffer.setLength(0);
+            return moveReplaced();
+        }
+
+        /**
+         * Processes the buffer to the end.
+         */
+        void flush() {
+            process();
+            pass.finish();
+            moveReplaced();
+        }
+
+        private boolean moveReplaced() {
+            if (replaced.length() == 0) {
+                return false;
+            }
+            outputBuffer.append(replaced);
+            replaced.setLength(0);
+            return true;
+        }
+    }
+
     /**
      * Class reading a file in small chunks, and presenting these chunks in
      * a StringBuffer. Compatible with the Replacefilter.
@@ -526,6 +609,9 @@ public class Replace extends MatchingTask {
             }
 
             validateReplacefilters();
+            if (singlePass) {
+                singlePassFilter = new SinglePassFilter();
+            }
             fileCount = 0;
             replaceCount = 0;
 
@@ -557,6 +643,7 @@ public class Replace extends MatchingTask {
         } finally {
             replacefilters = savedFilters;
             properties = savedProperties;
+            singlePassFilter = null;
         } // end of finally
 
     }
@@ -691,6 +778,10 @@ public class Replace extends MatchingTask {
      * Flushes all filters.
      */
     private void flushFilterChain() {
+        if (singlePassFilter != null) {
+            singlePassFilter.flush();
+            return;
+        }
         replacefilters.forEach(Replacefilter::flush);
     }
 
@@ -699,6 +790,9 @@ public class Replace extends MatchingTask {
      * @return true if the filter chain produced new output.
      */
     private boolean processFilterChain() {
+        if (singlePassFilter != null) {
+            return singlePassFilter.process();
+        }
         return replacefilters.stream().allMatch(Replacefilter::process);
     }
 
@@ -709,6 +803,10 @@ public class Replace extends MatchingTask {
      * @return <code>StringBuffer</code> containing the output of the last filter.
      */
     private StringBuffer buildFilterChain(StringBuffer inputBuffer) {
+        if (singlePassFilter != null) {
+            singlePassFilter.setInputBuffer(inputBuffer);
+            return singlePassFilter.getOutputBuffer();
+        }
         StringBuffer buf = inputBuffer;
         for (Replacefilter filter : replacefilters) {
             filter.setInputBuffer(buf);
@@ -900,6 +998,23 @@ public class Replace extends MatchingTask {
         failOnNoReplacements = b;
     }
 
+    /**
+     * Whether the tokens of all filters shall be replaced in a single
+     * pass over each file rather than applying one filter after the
+     * other.
+     *
+     * <p>This is a lot faster for many filters but replacement values
+     * are never searched for other tokens. Where tokens overlap, the
+     * one occurring first in the file is replaced, of several tokens
+     * starting at the same position the longest one.</p>
+     *
+     * @param b boolean
+     * @since Ant 1.10.11
+     */
+    public void setSinglePass(boolean b) {
+        singlePass = b;
+    }
+
     /**
      * Adds the token and value as first &lt;replacefilter&gt; element.
      * The token and value are always processed first.
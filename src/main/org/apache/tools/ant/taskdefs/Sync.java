@@ -41,6 +41,7 @@ import org.apache.tools.ant.types.resources.selectors.Exists;
 import org.apache.tools.ant.types.selectors.FileSelector;
 import org.apache.tools.ant.types.selectors.NoneSelector;
 import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.ResourceUtils;
 
 /**
  * Synchronize a local target directory from the files defined
@@ -423,6 +424,35 @@ public class Sync extends Task {
         myCopy.setGranularity(granularity);
     }
 
+    /**
+     * Set the number of threads copying files.
+     * @param threads the number of threads, must be positive.
+     * @since Ant 1.10.11
+     */
+    public void setThreads(int threads) {
+        myCopy.setThreads(threads);
+    }
+
+    /**
+     * Set whether files are copied or created as hard links to or
+     * clones of the source files.
+     * @param linkMode how to create the destination files.
+     * @since Ant 1.10.11
+     */
+    public void setLinkMode(ResourceUtils.LinkMode linkMode) {
+        myCopy.setLinkMode(linkMode);
+    }
+
+    /**
+     * Set the file to store hashes of the copied files in, files
+     * whose destination already has the same content aren't copied.
+     * @param fingerprintFile the file to store the hashes in.
+     * @since Ant 1.10.11
+     */
+    public void setFingerprintFile(File fingerprintFile) {
+        myCopy.setFingerprintFile(fingerprintFile);
+    }
+
     /**
      * A container for patterns and selectors that can be used to
      * specify files that should be kept in the target even if they
@@ -488,13 +488,16 @@ public abstract class DefaultCompilerAdapter
      * @param cmd the command line
      */
     protected void logAndAddFilesToCompile(final Commandline cmd) {
-        attributes.log("Compilation " + cmd.describeArguments(), Project.MSG_VERBOSE);
+        attributes.log(() -> "Compilation " + cmd.describeArguments(),
+                Project.MSG_VERBOSE);
 
-        attributes.log(String.format("%s to be compiled:",
+        attributes.log(() -> String.format("%s to be compiled:",
                 compileList.length == 1 ? "File" : "Files"), Project.MSG_VERBOSE);
 
-        attributes.log(Stream.of(compileList).map(File::getAbsolutePath)
-                        .peek(arg -> cmd.createArgument().setValue(arg))
+        for (File f : compileList) {
+            cmd.createArgument().setValue(f.getAbsolutePath());
+        }
+        attributes.log(() -> Stream.of(compileList).map(File::getAbsolutePath)
                         .map(arg -> String.format("    %s%n", arg))
                         .collect(Collectors.joining("")), Project.MSG_VERBOSE);
     }
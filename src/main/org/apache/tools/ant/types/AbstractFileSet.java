@@ -19,16 +19,21 @@ package org.apache.tools.ant.types;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Stack;
 import java.util.stream.Collectors;
 
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.ContinuousBuild;
 import org.apache.tools.ant.DirectoryScanner;
 import org.apache.tools.ant.FileScanner;
+import org.apache.tools.ant.MagicNames;
 import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Task;
 import org.apache.tools.ant.types.selectors.AndSelector;
 import org.apache.tools.ant.types.selectors.ContainsRegexpSelector;
 import org.apache.tools.ant.types.selectors.ContainsSelector;
@@ -57,6 +62,7 @@ import org.apache.tools.ant.types.selectors.SymlinkSelector;
 import org.apache.tools.ant.types.selectors.TypeSelector;
 import org.apache.tools.ant.types.selectors.WritableSelector;
 import org.apache.tools.ant.types.selectors.modifiedselector.ModifiedSelector;
+import org.apache.tools.ant.util.DirectoryListingCache;
 
 /**
  * Class that holds an implicit patternset and supports nested
@@ -83,6 +89,11 @@ public abstract class AbstractFileSet extends DataType
     /* cached DirectoryScanner instance for our own Project only */
     private DirectoryScanner directoryScanner = null;
 
+    /* the cached DirectoryScanner once it has completed a scan and
+       the task that has been running at that time */
+    private DirectoryScanner completedScan = null;
+    private Task completedScanTask = null;
+
     /**
      * Construct a new <code>AbstractFileSet</code>.
      */
@@ -504,28 +515,122 @@ public abstract class AbstractFileSet extends DataType
             if (directoryScanner != null && p == getProject()) {
                 ds = directoryScanner;
             } else {
-                if (dir == null) {
-                    throw new BuildException("No directory specified for %s.",
-                        getDataTypeName());
-                }
-                if (!dir.exists() && errorOnMissingDir) {
-                    throw new BuildException(dir.getAbsolutePath()
-                                             + DirectoryScanner
-                                             .DOES_NOT_EXIST_POSTFIX);
-                }
-                if (!dir.isDirectory() && dir.exists()) {
-                    throw new BuildException("%s is not a directory.",
-                        dir.getAbsolutePath());
-                }
-                ds = new DirectoryScanner();
-                setupDirectoryScanner(ds, p);
-                ds.setFollowSymlinks(followSymlinks);
-                ds.setErrorOnMissingDir(errorOnMissingDir);
-                ds.setMaxLevelsOfSymlinks(maxLevelsOfSymlinks);
+                ds = createDirectoryScanner(p);
                 directoryScanner = (p == getProject()) ? ds : directoryScanner;
             }
         }
-        ds.scan();
+        ContinuousBuild.recordScan(p, dir);
+        final DirectoryListingCache cache = ds.getListingCache();
+        if (cache == null) {
+            ds.scan();
+        } else {
+            final long hits = cache.getHits();
+            final long misses = cache.getMisses();
+            ds.scan();
+            p.log(() -> String.format(
+                "%s: scanned %s using %d cached directory listings, %d directories read",
+                getDataTypeName(), ds.getBasedir(), cache.getHits() - hits,
+                cache.getMisses() - misses), Project.MSG_VERBOSE);
+        }
+        if (p != null && p == getProject()) {
+            synchronized (this) {
+                if (ds == directoryScanner) {
+                    completedScan = ds;
+                    completedScanTask = p.getThreadTask(Thread.currentThread());
+                }
+            }
+        }
+        return ds;
+    }
+
+    /**
+     * Returns the directory scanner of a scan the task currently
+     * running has already performed, performs a new scan if there is
+     * none.
+     *
+     * <p>Unlike {@link #getDirectoryScanner()} this doesn't scan the
+     * directory again if a task needs the results of a scan several
+     * times, while results of a scan performed by another task are
+     * never used.</p>
+     *
+     * @return a <code>DirectoryScanner</code> instance that has scanned.
+     * @since Ant 1.10.11
+     */
+    protected DirectoryScanner getCurrentDirectoryScanner() {
+        if (isReference()) {
+            return getRef(getProject()).getCurrentDirectoryScanner();
+        }
+        final DirectoryScanner ds = getCompletedScan();
+        return ds == null ? getDirectoryScanner() : ds;
+    }
+
+    /**
+     * The directory scanner of a scan the task currently running has
+     * already performed, or null.
+     */
+    private synchronized DirectoryScanner getCompletedScan() {
+        if (completedScan == null || completedScan != directoryScanner
+            || completedScanTask == null
+            || completedScanTask != getProject().getThreadTask(Thread.currentThread())) {
+            return null;
+        }
+        return completedScan;
+    }
+
+    /**
+     * Returns the names of the included files relative to the
+     * directory of this fileset.
+     *
+     * <p>If the task currently running has already scanned this
+     * fileset the results of that scan are used. Otherwise the names
+     * are read while the iterator is advanced and the other results
+     * of the scan are not stored, see {@link
+     * DirectoryScanner#scanIncludedFiles}.</p>
+     *
+     * @return an iterator over the names of the included files
+     * @since Ant 1.10.11
+     */
+    protected Iterator<String> getIncludedFilesIterator() {
+        if (isReference()) {
+            return getRef(getProject()).getIncludedFilesIterator();
+        }
+        dieOnCircularReference();
+        final DirectoryScanner completed = getCompletedScan();
+        if (completed != null) {
+            return Arrays.asList(completed.getIncludedFiles()).iterator();
+        }
+        final DirectoryScanner ds = createDirectoryScanner(getProject());
+        ContinuousBuild.recordScan(getProject(), dir);
+        return ds.scanIncludedFiles();
+    }
+
+    /**
+     * Creates and configures a directory scanner that hasn't scanned,
+     * yet.
+     */
+    private DirectoryScanner createDirectoryScanner(Project p) {
+        if (dir == null) {
+            throw new BuildException("No directory specified for %s.",
+                getDataTypeName());
+        }
+        if (!dir.exists() && errorOnMissingDir) {
+            throw new BuildException(dir.getAbsolutePath()
+                                     + DirectoryScanner
+                                     .DOES_NOT_EXIST_POSTFIX);
+        }
+        if (!dir.isDirectory() && dir.exists()) {
+            throw new BuildException("%s is not a directory.",
+                dir.getAbsolutePath());
+        }
+        final DirectoryScanner ds = new DirectoryScanner();
+        setupDirectoryScanner(ds, p);
+        ds.setFollowSymlinks(followSymlinks);
+        ds.setErrorOnMissingDir(errorOnMissingDir);
+        ds.setMaxLevelsOfSymlinks(maxLevelsOfSymlinks);
+        ds.setParallel(Project.toBoolean(p.getProperty(MagicNames.PARALLEL_SCAN)));
+        ds.setParallelSelection(Project.toBoolean(
+            p.getProperty(MagicNames.PARALLEL_SELECTION)));
+        ds.setListingCache(DirectoryListingCache.getCache(p));
         return ds;
     }
 
@@ -69,7 +69,7 @@ public class FileSet extends AbstractFileSet implements ResourceCollection {
             return getRef().iterator();
         }
         return new FileResourceIterator(getProject(), getDir(getProject()),
-            getDirectoryScanner().getIncludedFiles());
+            getIncludedFilesIterator());
     }
 
     /**
@@ -82,7 +82,7 @@ public class FileSet extends AbstractFileSet implements ResourceCollection {
         if (isReference()) {
             return getRef().size();
         }
-        return getDirectoryScanner().getIncludedFilesCount();
+        return getCurrentDirectoryScanner().getIncludedFilesCount();
     }
 
     /**
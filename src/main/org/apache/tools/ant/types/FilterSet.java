@@ -20,6 +20,7 @@ package org.apache.tools.ant.types;
 import java.io.File;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Map;
 import java.util.Properties;
@@ -28,6 +29,7 @@ import java.util.Vector;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
+import org.apache.tools.ant.util.MultiStringReplacer;
 import org.apache.tools.ant.util.VectorSet;
 
 /**
@@ -185,6 +187,12 @@ public class FilterSet extends DataType implements Cloneable {
 
     private int recurseDepth = 0;
 
+    /** The tokens compiled for the current filter hash and delimiters. */
+    private MultiStringReplacer replacer = null;
+    private Hashtable<String, String> replacerTokens = null;
+    private String replacerBeginToken = null;
+    private String replacerEndToken = null;
+
     /**
      * List of ordered filters and filter files.
      */
@@ -513,57 +521,49 @@ public class FilterSet extends DataType implements Cloneable {
      * @return      The string with the tokens replaced.
      */
     private synchronized String iReplaceTokens(String line) {
+        if (!line.contains(getBeginToken())) {
+            return line;
+        }
+        final Hashtable<String, String> tokens = getFilterHash();
+        return getReplacer(tokens).replace(line, token -> {
+            String value = tokens.get(token);
+            if (recurse && !value.equals(token)) {
+                // we have another token, let's parse it.
+                value = replaceTokens(value, token);
+            }
+            log("Replacing: " + getBeginToken() + token + getEndToken()
+                + " -> " + value, Project.MSG_VERBOSE);
+            return value;
+        });
+    }
+
+    /**
+     * Compiles the delimited tokens into a replacer that maps them to
+     * their keys, unless this has already been done for the current
+     * tokens and delimiters.
+     *
+     * <p>A token ends at the first end token following its begin
+     * token, keys that contain the end token can never match and are
+     * skipped.</p>
+     */
+    private MultiStringReplacer getReplacer(Hashtable<String, String> tokens) {
         String beginToken = getBeginToken();
         String endToken = getEndToken();
-        int index = line.indexOf(beginToken);
-
-        if (index > -1) {
-            Hashtable<String, String> tokens = getFilterHash();
-            try {
-                StringBuilder b = new StringBuilder();
-                int i = 0;
-
-                while (index > -1) {
-                    //can't have zero-length token
-                    int endIndex = line.indexOf(endToken,
-                        index + beginToken.length() + 1);
-                    if (endIndex == -1) {
-                        break;
-                    }
-                    String token =
-                        line.substring(index + beginToken.length(), endIndex);
-                    b.append(line, i, index);
-                    if (tokens.containsKey(token)) {
-                        String value = tokens.get(token);
-                        if (recurse && !value.equals(token)) {
-                            // we have another token, let's parse it.
-                            value = replaceTokens(value, token);
-                        }
-                        log("Replacing: " + beginToken + token + endToken
-                            + " -> " + value, Project.MSG_VERBOSE);
-                        b.append(value);
-                        i = index + beginToken.length() + token.length()
-                            + endToken.length();
-                    } else {
-                        // just append first character of beginToken
-                        // and search further
-                        // we can't skip the complete beginToken since
-                        // it may contain the start of another
-                        // candidate begin token (Bugzilla 45094)
-                        b.append(beginToken.charAt(0));
-                        i = index + 1;
-                    }
-                    index = line.indexOf(beginToken, i);
+        if (replacer == null || replacerTokens != tokens
+            || !beginToken.equals(replacerBeginToken)
+            || !endToken.equals(replacerEndToken)) {
+            Map<String, String> delimited = new HashMap<>();
+            for (String token : tokens.keySet()) {
+                if ((token + endToken).indexOf(endToken, 1) == token.length()) {
+                    delimited.put(beginToken + token + endToken, token);
                 }
-
-                b.append(line.substring(i));
-                return b.toString();
-            } catch (StringIndexOutOfBoundsException e) {
-                return line;
             }
-        } else {
-           return line;
+            replacer = new MultiStringReplacer(delimited);
+            replacerTokens = tokens;
+            replacerBeginToken = beginToken;
+            replacerEndToken = endToken;
         }
+        return replacer;
     }
 
     /**
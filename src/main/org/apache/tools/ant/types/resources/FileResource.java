@@ -28,6 +28,7 @@ import org.apache.tools.ant.Project;
 import org.apache.tools.ant.types.Reference;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceFactory;
+import org.apache.tools.ant.util.FileAttributesCache;
 import org.apache.tools.ant.util.FileUtils;
 
 /**
@@ -180,7 +181,7 @@ public class FileResource extends Resource implements Touchable, FileProvider,
     @Override
     public boolean isExists() {
         return isReference() ? getRef().isExists()
-            : getNotNullFile().exists();
+            : getAttributes().exists();
     }
 
     /**
@@ -191,7 +192,7 @@ public class FileResource extends Resource implements Touchable, FileProvider,
     public long getLastModified() {
         return isReference()
             ? getRef().getLastModified()
-            : getNotNullFile().lastModified();
+            : getAttributes().getLastModified();
     }
 
     /**
@@ -201,7 +202,7 @@ public class FileResource extends Resource implements Touchable, FileProvider,
     @Override
     public boolean isDirectory() {
         return isReference() ? getRef().isDirectory()
-            : getNotNullFile().isDirectory();
+            : getAttributes().isDirectory();
     }
 
     /**
@@ -211,7 +212,7 @@ public class FileResource extends Resource implements Touchable, FileProvider,
     @Override
     public long getSize() {
         return isReference() ? getRef().getSize()
-            : getNotNullFile().length();
+            : getAttributes().getSize();
     }
 
     /**
@@ -222,7 +223,7 @@ public class FileResource extends Resource implements Touchable, FileProvider,
     @Override
     public InputStream getInputStream() throws IOException {
         return isReference() ? getRef().getInputStream()
-            : Files.newInputStream(getNotNullFile().toPath());
+            : SharedFileContent.getInputStream(getNotNullFile());
     }
 
     /**
@@ -254,6 +255,7 @@ public class FileResource extends Resource implements Touchable, FileProvider,
 
     private OutputStream getOutputStream(boolean append) throws IOException {
         File f = getNotNullFile();
+        FileAttributesCache.invalidate(getProject(), f);
         if (f.exists()) {
             if (Files.isSymbolicLink(f.toPath()) && f.isFile() && !append) {
                 // https://bz.apache.org/bugzilla/show_bug.cgi?id=624
@@ -375,6 +377,17 @@ public class FileResource extends Resource implements Touchable, FileProvider,
         if (!getNotNullFile().setLastModified(modTime)) {
             log("Failed to change file modification time", Project.MSG_WARN);
         }
+        FileAttributesCache.invalidate(getProject(), getNotNullFile());
+    }
+
+    /**
+     * The attributes of the file, shared with all other file
+     * resources and selectors of the project while a task is
+     * running.
+     * @return the attributes
+     */
+    private FileAttributesCache.Attributes getAttributes() {
+        return FileAttributesCache.getAttributes(getProject(), getNotNullFile());
     }
 
     /**
@@ -33,6 +33,7 @@ public class FileResourceIterator implements Iterator<Resource> {
     private File basedir;
     private String[] files;
     private int pos = 0;
+    private Iterator<String> names;
 
     /**
      * Construct a new FileResourceIterator.
@@ -99,6 +100,25 @@ public class FileResourceIterator implements Iterator<Resource> {
         addFiles(filenames);
     }
 
+    /**
+     * Construct a new FileResourceIterator over the filenames
+     * returned by an iterator, relative to the specified base
+     * directory.
+     *
+     * <p>The filenames are only requested from the iterator when the
+     * corresponding resources are, they are returned after any
+     * filenames {@link #addFiles added} as array.</p>
+     * @param project associated Project instance
+     * @param basedir the base directory of this instance.
+     * @param filenames the filenames.
+     * @since Ant 1.10.11
+     */
+    public FileResourceIterator(Project project, File basedir,
+                                Iterator<String> filenames) {
+        this(project, basedir);
+        this.names = filenames;
+    }
+
     /**
      * Add an array of filenames to this FileResourceIterator.
      * @param s the filenames to add.
@@ -119,7 +139,8 @@ public class FileResourceIterator implements Iterator<Resource> {
      */
     @Override
     public boolean hasNext() {
-        return pos < files.length;
+        return (files != null && pos < files.length)
+            || (names != null && names.hasNext());
     }
 
     /**
@@ -147,7 +168,9 @@ public class FileResourceIterator implements Iterator<Resource> {
         if (!hasNext()) {
             throw new NoSuchElementException();
         }
-        FileResource result = new FileResource(basedir, files[pos++]);
+        final String name = files != null && pos < files.length
+            ? files[pos++] : names.next();
+        FileResource result = new FileResource(basedir, name);
         result.setProject(project);
         return result;
     }
@@ -17,10 +17,15 @@
  */
 package org.apache.tools.ant.types.resources;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Supplier;
 
 import org.apache.tools.ant.types.Resource;
@@ -32,6 +37,9 @@ import org.apache.tools.ant.types.Resource;
 public class LazyResourceCollectionWrapper extends
         AbstractResourceCollectionWrapper {
 
+    /** Number of resources filtered ahead per thread of the pool. */
+    private static final int LOOKAHEAD_PER_THREAD = 4;
+
     /** List of cached resources */
     private final List<Resource> cachedResources = new ArrayList<>();
 
@@ -76,6 +84,21 @@ public class LazyResourceCollectionWrapper extends
         return false;
     }
 
+    /**
+     * Whether {@link #filterResource(Resource)} may be invoked for
+     * several resources concurrently. If so the resources following
+     * the current one are filtered ahead by the threads of the common
+     * {@link ForkJoinPool}, the iteration order doesn't change.
+     *
+     * <p>Only asked once the first resource has been filtered.</p>
+     *
+     * @return false by default
+     * @since Ant 1.10.11
+     */
+    protected boolean isFilteringInParallel() {
+        return false;
+    }
+
     private class FilteringIterator implements Iterator<Resource> {
 
         Resource next = null;
@@ -84,6 +107,12 @@ public class LazyResourceCollectionWrapper extends
 
         protected final Iterator<Resource> it;
 
+        /** Whether resources are filtered ahead, null until known. */
+        private Boolean parallel;
+
+        /** Resources filtered ahead, null for filtered out ones. */
+        private final Deque<CompletableFuture<Resource>> ahead = new ArrayDeque<>();
+
         FilteringIterator(final Iterator<Resource> it) {
             this.it = it;
         }
@@ -94,6 +123,15 @@ public class LazyResourceCollectionWrapper extends
                 return false;
             }
             while (next == null) {
+                if (Boolean.TRUE.equals(parallel)) {
+                    filterAhead();
+                    if (ahead.isEmpty()) {
+                        ended = true;
+                        return false;
+                    }
+                    next = join(ahead.poll());
+                    continue;
+                }
                 if (!it.hasNext()) {
                     ended = true;
                     return false;
@@ -102,10 +140,36 @@ public class LazyResourceCollectionWrapper extends
                 if (filterResource(next)) {
                     next = null;
                 }
+                if (parallel == null) {
+                    parallel = isFilteringInParallel();
+                }
             }
             return true;
         }
 
+        private void filterAhead() {
+            final int max = LOOKAHEAD_PER_THREAD * ForkJoinPool.getCommonPoolParallelism();
+            while (ahead.size() < max && it.hasNext()) {
+                final Resource r = it.next();
+                ahead.add(CompletableFuture.supplyAsync(() -> filterResource(r) ? null : r,
+                                                        ForkJoinPool.commonPool()));
+            }
+        }
+
+        private Resource join(final CompletableFuture<Resource> filtered) {
+            try {
+                return filtered.join();
+            } catch (final CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                if (ex.getCause() instanceof Error) {
+                    throw (Error) ex.getCause();
+                }
+                throw ex;
+            }
+        }
+
         @Override
         public Resource next() {
             if (!hasNext()) {
@@ -20,6 +20,7 @@ package org.apache.tools.ant.types.resources;
 import java.util.Iterator;
 import java.util.Stack;
 
+import org.apache.tools.ant.MagicNames;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceCollection;
@@ -41,7 +42,17 @@ public class Restrict
          */
         @Override
         protected boolean filterResource(Resource r) {
-            return getResourceSelectors().stream().anyMatch(rsel -> !rsel.isSelected(r));
+            return !SharedFileContent.select(
+                r.asOptional(FileProvider.class).map(FileProvider::getFile).orElse(null),
+                () -> getResourceSelectors().stream().allMatch(rsel -> rsel.isSelected(r)));
+        }
+
+        @Override
+        protected boolean isFilteringInParallel() {
+            final Project p = Restrict.this.getProject();
+            return p != null
+                && Project.toBoolean(p.getProperty(MagicNames.PARALLEL_SELECTION))
+                && Restrict.this.isThreadSafe();
         }
     };
 
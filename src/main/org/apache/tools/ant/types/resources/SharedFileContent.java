@@ -0,0 +1,199 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.types.resources;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Lets all selectors evaluated for a file share a single read of its
+ * content.
+ *
+ * <p>While {@link #select select} runs for a file, all streams the
+ * current thread obtains for it via {@link #getInputStream
+ * getInputStream} - and thus {@link FileResource#getInputStream} -
+ * are fed from one stream that is opened when the first of them is
+ * requested. What has been read is kept in memory until
+ * <code>select</code> returns, so an <code>&lt;and&gt;</code> of
+ * several content based selectors reads the file once and a selector
+ * that stops reading early doesn't force the whole file to be
+ * read. Files bigger than {@value #MAX_SHARED_SIZE} bytes are not
+ * shared.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public final class SharedFileContent {
+
+    /** Size of the biggest file whose content is kept in memory. */
+    public static final int MAX_SHARED_SIZE = 16 * 1024 * 1024;
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<SharedFileContent> CURRENT = new ThreadLocal<>();
+
+    private final File file;
+    private InputStream source;
+    private byte[] buffer;
+    private int count;
+    private boolean eof;
+    private boolean closed;
+
+    private SharedFileContent(final File file) {
+        this.file = file;
+    }
+
+    /**
+     * Evaluates selectors for a file sharing the reads of its content.
+     *
+     * <p>Nested invocations for the same file use the content of the
+     * outermost one.</p>
+     *
+     * @param file the file selectors are evaluated for
+     * @param selection evaluates the selectors
+     * @return the result of the selection
+     */
+    public static boolean select(final File file, final BooleanSupplier selection) {
+        final SharedFileContent outer = CURRENT.get();
+        if (file == null || outer != null && outer.file.equals(file)) {
+            return selection.getAsBoolean();
+        }
+        final SharedFileContent content = new SharedFileContent(file);
+        CURRENT.set(content);
+        try {
+            return selection.getAsBoolean();
+        } finally {
+            content.close();
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    /**
+     * Provides a stream of a file's content, shared with all other
+     * streams of the same file obtained during the current {@link
+     * #select select} invocation.
+     * @param file the file to read
+     * @return a stream of the file's content
+     * @throws IOException if the file cannot be read
+     */
+    public static InputStream getInputStream(final File file) throws IOException {
+        final SharedFileContent content = CURRENT.get();
+        if (content != null && content.file.equals(file)) {
+            return content.newStream();
+        }
+        return Files.newInputStream(file.toPath());
+    }
+
+    private InputStream newStream() throws IOException {
+        if (closed) {
+            throw new IOException("Content of " + file + " is no longer available");
+        }
+        if (buffer == null) {
+            if (file.length() > MAX_SHARED_SIZE) {
+                return Files.newInputStream(file.toPath());
+            }
+            source = Files.newInputStream(file.toPath());
+            buffer = new byte[INITIAL_BUFFER_SIZE];
+        }
+        return new SharedStream();
+    }
+
+    /**
+     * Reads from the file until at least <code>needed</code> bytes
+     * are available or the end of the file has been reached.
+     */
+    private void fill(final int needed) throws IOException {
+        if (closed) {
+            throw new IOException("Content of " + file + " is no longer available");
+        }
+        while (count < needed && !eof) {
+            if (count == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            final int read = source.read(buffer, count, buffer.length - count);
+            if (read < 0) {
+                eof = true;
+                source.close();
+                source = null;
+            } else {
+                count += read;
+            }
+        }
+    }
+
+    private void close() {
+        closed = true;
+        buffer = null;
+        if (source != null) {
+            try {
+                source.close();
+            } catch (final IOException ex) {
+                // only read from
+            }
+            source = null;
+        }
+    }
+
+    private class SharedStream extends InputStream {
+        private int pos;
+
+        @Override
+        public int read() throws IOException {
+            fill(pos + 1);
+            return pos < count ? buffer[pos++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            fill(pos + len);
+            if (pos >= count) {
+                return -1;
+            }
+            final int n = Math.min(len, count - pos);
+            System.arraycopy(buffer, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            if (n <= 0) {
+                return 0;
+            }
+            fill((int) Math.min(Integer.MAX_VALUE, pos + n));
+            final int skipped = (int) Math.min(n, count - pos);
+            pos += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return closed ? 0 : count - pos;
+        }
+    }
+}
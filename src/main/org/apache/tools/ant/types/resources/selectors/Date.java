@@ -158,4 +158,13 @@ public class Date implements ResourceSelector {
         return when.evaluate(r.getLastModified(), millis, granularity);
     }
 
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
 }
@@ -34,4 +34,13 @@ public class Exists implements ResourceSelector {
         return r.isExists();
     }
 
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
 }
@@ -126,4 +126,13 @@ public class InstanceOf implements ResourceSelector {
         return c.isAssignableFrom(r.getClass());
     }
 
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
 }
@@ -21,6 +21,7 @@ import org.apache.tools.ant.Project;
 import org.apache.tools.ant.types.RegularExpression;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.selectors.SelectorUtils;
+import org.apache.tools.ant.util.regexp.Jdk14RegexpMatcher;
 import org.apache.tools.ant.util.regexp.Regexp;
 import org.apache.tools.ant.util.regexp.RegexpUtil;
 
@@ -147,4 +148,14 @@ public class Name implements ResourceSelector {
         }
         return s.replace('\\', '/');
     }
+
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return pattern != null || expression instanceof Jdk14RegexpMatcher;
+    }
+
 }
@@ -63,4 +63,13 @@ public class Not implements ResourceSelector {
         return !(sel.isSelected(r));
     }
 
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return sel != null && sel.isThreadSafe();
+    }
+
 }
@@ -32,4 +32,19 @@ public interface ResourceSelector {
      */
     boolean isSelected(Resource r);
 
+    /**
+     * Whether {@link #isSelected(Resource)} may be invoked for several
+     * resources concurrently.
+     *
+     * <p>Callers only ask after the selector has been used for at
+     * least one resource, so selectors that initialize themselves
+     * lazily may take that initialization into account.</p>
+     *
+     * @return false unless the selector knows it is thread-safe.
+     * @since Ant 1.10.11
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
 }
@@ -136,6 +136,20 @@ public class ResourceSelectorContainer extends DataType {
         }
     }
 
+    /**
+     * Whether all nested selectors may be invoked for several
+     * resources concurrently.
+     * @return true if all nested selectors are thread-safe.
+     * @since Ant 1.10.11
+     */
+    public boolean isThreadSafe() {
+        if (isReference()) {
+            return getRef().isThreadSafe();
+        }
+        return getResourceSelectors().stream()
+            .allMatch(ResourceSelector::isThreadSafe);
+    }
+
     private ResourceSelectorContainer getRef() {
         return getCheckedRef(ResourceSelectorContainer.class);
     }
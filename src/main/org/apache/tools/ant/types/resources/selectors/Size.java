@@ -70,4 +70,13 @@ public class Size implements ResourceSelector {
         return when.evaluate(diff == 0 ? 0 : (int) (diff / Math.abs(diff)));
     }
 
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
 }
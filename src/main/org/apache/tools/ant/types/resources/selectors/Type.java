@@ -107,4 +107,13 @@ public class Type implements ResourceSelector {
         return i == 2 || (r.isDirectory() ? i == 1 : i == 0);
     }
 
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
 }
@@ -361,4 +361,15 @@ public abstract class BaseSelectorContainer extends BaseSelector
             setChecked(true);
         }
     }
+
+    /**
+     * Containers are thread-safe if all their nested selectors are.
+     * @return whether the selector may be used by several threads.
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return Collections.list(selectorElements()).stream()
+            .allMatch(FileSelector::isThreadSafe);
+    }
 }
@@ -30,6 +30,7 @@ import org.apache.tools.ant.types.RegularExpression;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.resources.FileResource;
 import org.apache.tools.ant.types.resources.selectors.ResourceSelector;
+import org.apache.tools.ant.util.regexp.Jdk14RegexpMatcher;
 import org.apache.tools.ant.util.regexp.Regexp;
 import org.apache.tools.ant.util.regexp.RegexpUtil;
 
@@ -191,4 +192,13 @@ public class ContainsRegexpSelector extends BaseExtendSelector
                 "Could not get InputStream from " + r.toLongString(), e);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return myExpression instanceof Jdk14RegexpMatcher;
+    }
 }
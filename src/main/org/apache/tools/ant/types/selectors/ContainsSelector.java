@@ -196,4 +196,13 @@ public class ContainsSelector extends BaseExtendSelector implements ResourceSele
                 "Could not get InputStream from " + r.toLongString(), e);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
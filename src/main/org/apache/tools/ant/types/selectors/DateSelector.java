@@ -27,6 +27,7 @@ import java.util.Locale;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.types.Parameter;
 import org.apache.tools.ant.types.TimeComparison;
+import org.apache.tools.ant.util.FileAttributesCache;
 import org.apache.tools.ant.util.FileUtils;
 
 /**
@@ -231,8 +232,10 @@ public class DateSelector extends BaseExtendSelector {
      */
     public boolean isSelected(File basedir, String filename, File file) {
         validate();
-        return (file.isDirectory() && !includeDirs)
-            || when.evaluate(file.lastModified(), millis, granularity);
+        FileAttributesCache.Attributes attrs =
+            FileAttributesCache.getAttributes(getProject(), file);
+        return (attrs.isDirectory() && !includeDirs)
+            || when.evaluate(attrs.getLastModified(), millis, granularity);
     }
 
     /**
@@ -241,6 +244,12 @@ public class DateSelector extends BaseExtendSelector {
     public static class TimeComparisons extends TimeComparison {
     }
 
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
-
-
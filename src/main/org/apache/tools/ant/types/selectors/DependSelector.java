@@ -20,6 +20,8 @@ package org.apache.tools.ant.types.selectors;
 
 import java.io.File;
 
+import org.apache.tools.ant.util.FileAttributesCache;
+
 /**
  * Selector that filters files based on whether they are newer than
  * a matching file in another directory tree. It can contain a mapper
@@ -59,7 +61,15 @@ public class DependSelector extends MappingSelector {
      * @return true if destination is out of date
      */
     public boolean selectionTest(File srcfile, File destfile) {
-        return SelectorUtils.isOutOfDate(srcfile, destfile, granularity);
+        FileAttributesCache.Attributes src =
+            FileAttributesCache.getAttributes(getProject(), srcfile);
+        if (!src.exists()) {
+            return false;
+        }
+        FileAttributesCache.Attributes dest =
+            FileAttributesCache.getAttributes(getProject(), destfile);
+        return !dest.exists()
+            || (src.getLastModified() - granularity) > dest.getLastModified();
     }
 
 }
@@ -162,4 +162,13 @@ public class DepthSelector extends BaseExtendSelector {
         }
         return min <= -1 || depth >= min;
     }
+
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
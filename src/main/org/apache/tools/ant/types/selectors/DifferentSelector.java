@@ -22,6 +22,7 @@ import java.io.File;
 import java.io.IOException;
 
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.util.FileAttributesCache;
 import org.apache.tools.ant.util.FileUtils;
 
 /**
@@ -80,12 +81,17 @@ public class DifferentSelector extends MappingSelector {
      */
     protected boolean selectionTest(File srcfile, File destfile) {
 
+        FileAttributesCache.Attributes src =
+            FileAttributesCache.getAttributes(getProject(), srcfile);
+        FileAttributesCache.Attributes dest =
+            FileAttributesCache.getAttributes(getProject(), destfile);
+
         //if either of them is missing, they are different
-        if (srcfile.exists() != destfile.exists()) {
+        if (src.exists() != dest.exists()) {
             return true;
         }
 
-        if (srcfile.length() != destfile.length()) {
+        if (src.getSize() != dest.getSize()) {
             // different size =>different files
             return true;
         }
@@ -93,8 +99,8 @@ public class DifferentSelector extends MappingSelector {
         if (!ignoreFileTimes) {
             //same date if dest timestamp is within granularity of the srcfile
             boolean sameDate;
-            sameDate = destfile.lastModified() >= srcfile.lastModified() - granularity
-                    && destfile.lastModified() <= srcfile.lastModified() + granularity;
+            sameDate = dest.getLastModified() >= src.getLastModified() - granularity
+                    && dest.getLastModified() <= src.getLastModified() + granularity;
 
             // different dates => different files
             if (!sameDate) {
@@ -37,4 +37,12 @@ public class ExecutableSelector implements FileSelector {
         return file != null && Files.isExecutable(file.toPath());
     }
 
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -193,4 +193,12 @@ public class ExtendSelector extends BaseSelector {
         return dynselector.isSelected(basedir, filename, file);
     }
 
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return dynselector != null && dynselector.isThreadSafe();
+    }
 }
@@ -23,6 +23,7 @@ import java.io.File;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.types.Parameter;
 import org.apache.tools.ant.types.RegularExpression;
+import org.apache.tools.ant.util.regexp.Jdk14RegexpMatcher;
 import org.apache.tools.ant.util.regexp.Regexp;
 import org.apache.tools.ant.util.regexp.RegexpUtil;
 
@@ -183,4 +184,12 @@ public class FilenameSelector extends BaseExtendSelector {
         return expression.matches(filename, options) == !negated;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return pattern != null || expression instanceof Jdk14RegexpMatcher;
+    }
 }
@@ -152,4 +152,14 @@ public abstract class MappingSelector extends BaseSelector {
         this.granularity = granularity;
     }
 
+    /**
+     * Mapping selectors are thread-safe if their mapper is one of
+     * Ant's stateless mappers.
+     * @return whether the selector may be used by several threads.
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return SelectorUtils.isThreadSafe(map);
+    }
 }
@@ -0,0 +1,385 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.types.selectors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matches paths against a whole set of patterns at once.
+ *
+ * <p>All patterns are compiled into a single automaton over path
+ * segments that shares common prefixes of the patterns - like the
+ * leading <code>**</code> of most default excludes. Segments without
+ * wildcards are looked up in a hash map so matching a segment costs
+ * the same for one or a hundred such patterns.</p>
+ *
+ * <p>A {@link State} describes the patterns a path has matched so far
+ * and can be advanced one segment at a time. For a given path it
+ * tells whether any pattern matches it ({@link
+ * TokenizedPattern#matchPath}), whether any pattern could match a
+ * path below it and whether one of the patterns matches everything
+ * below it. States are created lazily and remember the transitions
+ * computed for them, so matching all entries of a directory costs a
+ * single step from the state of the directory each.</p>
+ *
+ * <p>Instances are not thread-safe while patterns are added but can
+ * be shared by any number of threads afterwards.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public final class MultiPatternMatcher {
+
+    /** Upper limit of transitions remembered per state. */
+    private static final int MAX_TRANSITIONS = 1024;
+
+    private final boolean caseSensitive;
+    private final Map<NodeSet, State> states = new ConcurrentHashMap<>();
+    private final State empty = new State(new Node[0]);
+    private int nodeCount;
+    private final Node root = new Node(false, false);
+    private volatile State start;
+
+    /**
+     * Creates a matcher without any patterns.
+     * @param caseSensitive whether segments are compared case
+     * sensitively
+     */
+    public MultiPatternMatcher(boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+    }
+
+    /**
+     * Adds a pattern.
+     * @param pattern the pattern
+     */
+    public void add(TokenizedPattern pattern) {
+        add(pattern, true);
+    }
+
+    /**
+     * Adds a pattern that is only taken into account by {@link
+     * State#couldMatchBelow}, it isn't reported as a match by {@link
+     * State#matches}.
+     * @param pattern the pattern
+     */
+    public void addPrefix(TokenizedPattern pattern) {
+        add(pattern, false);
+    }
+
+    private void add(TokenizedPattern pattern, boolean matching) {
+        final String[] tokens = pattern.getTokens();
+        Node n = root;
+        for (int i = 0; i < tokens.length; i++) {
+            if (matching && i == tokens.length - 1
+                && SelectorUtils.DEEP_TREE_MATCH.equals(tokens[i])) {
+                n.matchesEverythingBelow = true;
+            }
+            n = n.child(tokens[i]);
+        }
+        n.matches |= matching;
+        start = null;
+        states.clear();
+    }
+
+    /**
+     * The state of the empty path.
+     * @return State
+     */
+    public State start() {
+        State s = start;
+        if (s == null) {
+            s = start = state(closure(new ArrayList<>(), root));
+        }
+        return s;
+    }
+
+    /**
+     * Whether any of the patterns matches the given path.
+     * @param path the path
+     * @return boolean
+     */
+    public boolean matchPath(TokenizedPath path) {
+        return stateOf(path).matches();
+    }
+
+    /**
+     * Whether any of the patterns could match a path below the given
+     * path.
+     * @param path the path
+     * @return boolean
+     */
+    public boolean couldMatchBelow(TokenizedPath path) {
+        return stateOf(path).couldMatchBelow();
+    }
+
+    /**
+     * Whether one of the patterns matches everything below the given
+     * path.
+     * @param path the path
+     * @return boolean
+     */
+    public boolean matchesEverythingBelow(TokenizedPath path) {
+        return stateOf(path).matchesEverythingBelow();
+    }
+
+    /**
+     * The state reached after matching all segments of a path.
+     * @param path the path
+     * @return State
+     */
+    public State stateOf(TokenizedPath path) {
+        State s = start();
+        for (String segment : path.getTokens()) {
+            if (s == empty) {
+                break;
+            }
+            s = s.next(segment);
+        }
+        return s;
+    }
+
+    private State state(List<Node> nodes) {
+        if (nodes.isEmpty()) {
+            return empty;
+        }
+        final Node[] n = nodes.toArray(new Node[nodes.size()]);
+        Arrays.sort(n, (a, b) -> Integer.compare(a.id, b.id));
+        return states.computeIfAbsent(new NodeSet(n), k -> new State(k.nodes));
+    }
+
+    private String key(String literal) {
+        if (caseSensitive) {
+            return literal;
+        }
+        // SelectorUtils.match compares single characters
+        final char[] chars = literal.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toUpperCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static List<Node> closure(List<Node> nodes, Node n) {
+        for (Node existing : nodes) {
+            if (existing == n) {
+                return nodes;
+            }
+        }
+        nodes.add(n);
+        if (n.deepChild != null) {
+            // ** may match no segment at all
+            closure(nodes, n.deepChild);
+        }
+        return nodes;
+    }
+
+    /**
+     * The set of positions inside the patterns a path leads to.
+     */
+    public final class State {
+        private final Node[] nodes;
+        private final Map<String, State> transitions = new ConcurrentHashMap<>();
+
+        private State(Node[] nodes) {
+            this.nodes = nodes;
+        }
+
+        /**
+         * The state of the path extended by one segment.
+         * @param segment the segment
+         * @return State
+         */
+        public State next(String segment) {
+            if (this == empty) {
+                return this;
+            }
+            State s = transitions.get(segment);
+            if (s == null) {
+                s = computeNext(segment);
+                if (transitions.size() < MAX_TRANSITIONS) {
+                    transitions.put(segment, s);
+                }
+            }
+            return s;
+        }
+
+        private State computeNext(String segment) {
+            final List<Node> next = new ArrayList<>();
+            String key = null;
+            for (Node n : nodes) {
+                if (n.deep) {
+                    closure(next, n);
+                }
+                if (n.literals != null) {
+                    if (key == null) {
+                        key = key(segment);
+                    }
+                    final Node c = n.literals.get(key);
+                    if (c != null) {
+                        closure(next, c);
+                    }
+                }
+                for (int i = 0; i < n.wildcardCount; i++) {
+                    if (SelectorUtils.match(n.wildcards[i], segment, caseSensitive)) {
+                        closure(next, n.wildcardChildren[i]);
+                    }
+                }
+            }
+            return state(next);
+        }
+
+        /**
+         * Whether a pattern matches the path.
+         * @return boolean
+         */
+        public boolean matches() {
+            for (Node n : nodes) {
+                if (n.matches) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Whether a pattern could match a path below this path - this
+         * is the case if the pattern continues with more segments or
+         * if the pattern contains <code>**</code> and has matched the
+         * path up to it.
+         * @return boolean
+         */
+        public boolean couldMatchBelow() {
+            for (Node n : nodes) {
+                if (n.afterDeep || n.hasChildren()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Whether a pattern ending in <code>**</code> matches
+         * everything below this path.
+         * @return boolean
+         */
+        public boolean matchesEverythingBelow() {
+            for (Node n : nodes) {
+                if (n.matchesEverythingBelow) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Whether no pattern can match this path or any path below it.
+         * @return boolean
+         */
+        public boolean isEmpty() {
+            return this == empty;
+        }
+    }
+
+    /**
+     * Key of the interned states.
+     */
+    private static final class NodeSet {
+        private final Node[] nodes;
+        private final int hash;
+
+        NodeSet(Node[] nodes) {
+            this.nodes = nodes;
+            int h = 1;
+            for (Node n : nodes) {
+                h = 31 * h + n.id;
+            }
+            hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof NodeSet
+                && Arrays.equals(nodes, ((NodeSet) other).nodes);
+        }
+    }
+
+    /**
+     * A position inside one or more patterns.
+     */
+    private final class Node {
+        private final int id = nodeCount++;
+        /** Reached via <code>**</code>, consumes any number of segments. */
+        private final boolean deep;
+        /** A <code>**</code> precedes this position. */
+        private final boolean afterDeep;
+        private boolean matches;
+        private boolean matchesEverythingBelow;
+        private Map<String, Node> literals;
+        private String[] wildcards = new String[0];
+        private Node[] wildcardChildren = new Node[0];
+        private int wildcardCount;
+        private Node deepChild;
+
+        Node(boolean deep, boolean afterDeep) {
+            this.deep = deep;
+            this.afterDeep = afterDeep;
+        }
+
+        boolean hasChildren() {
+            return literals != null || wildcardCount > 0 || deepChild != null;
+        }
+
+        Node child(String token) {
+            if (SelectorUtils.DEEP_TREE_MATCH.equals(token)) {
+                if (deepChild == null) {
+                    deepChild = new Node(true, true);
+                }
+                return deepChild;
+            }
+            if (SelectorUtils.hasWildcards(token)) {
+                for (int i = 0; i < wildcardCount; i++) {
+                    if (wildcards[i].equals(token)) {
+                        return wildcardChildren[i];
+                    }
+                }
+                if (wildcardCount == wildcards.length) {
+                    wildcards = Arrays.copyOf(wildcards, wildcardCount + 4);
+                    wildcardChildren = Arrays.copyOf(wildcardChildren, wildcardCount + 4);
+                }
+                final Node c = new Node(false, afterDeep);
+                wildcards[wildcardCount] = token;
+                wildcardChildren[wildcardCount++] = c;
+                return c;
+            }
+            if (literals == null) {
+                literals = new HashMap<>();
+            }
+            return literals.computeIfAbsent(key(token), k -> new Node(false, afterDeep));
+        }
+    }
+}
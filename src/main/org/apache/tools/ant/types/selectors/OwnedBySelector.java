@@ -76,4 +76,12 @@ public class OwnedBySelector implements FileSelector {
         return false;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
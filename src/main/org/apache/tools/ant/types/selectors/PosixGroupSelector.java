@@ -74,4 +74,13 @@ public class PosixGroupSelector implements FileSelector {
         }
         return false;
     }
+
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -84,4 +84,13 @@ public class PosixPermissionsSelector implements FileSelector {
         }
         return false;
     }
+
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -188,4 +188,12 @@ public class PresentSelector extends BaseSelector {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return SelectorUtils.isThreadSafe(map);
+    }
 }
@@ -19,11 +19,20 @@
 package org.apache.tools.ant.types.selectors;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.StringTokenizer;
 import java.util.Vector;
 
 import org.apache.tools.ant.types.Resource;
+import org.apache.tools.ant.util.FileNameMapper;
 import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.FlatFileNameMapper;
+import org.apache.tools.ant.util.GlobPatternMapper;
+import org.apache.tools.ant.util.IdentityMapper;
+import org.apache.tools.ant.util.MergingMapper;
+import org.apache.tools.ant.util.PackageNameMapper;
+import org.apache.tools.ant.util.UnPackageNameMapper;
 
 /**
  * <p>This is a utility class used by selectors and DirectoryScanner. The
@@ -46,6 +55,11 @@ public final class SelectorUtils {
     private static final SelectorUtils instance = new SelectorUtils();
     private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
 
+    private static final Collection<Class<?>> THREAD_SAFE_MAPPERS =
+        Arrays.asList(IdentityMapper.class, FlatFileNameMapper.class,
+                      GlobPatternMapper.class, MergingMapper.class,
+                      PackageNameMapper.class, UnPackageNameMapper.class);
+
     /**
      * Private Constructor
      */
@@ -660,5 +674,15 @@ public final class SelectorUtils {
     public static String rtrimWildcardTokens(String input) {
         return new TokenizedPattern(input).rtrimWildcardTokens().toString();
     }
-}
 
+    /**
+     * Whether a mapper is known to map file names without keeping
+     * any state, so it can be used by several threads concurrently.
+     * @param mapper the mapper, may be null
+     * @return true if the mapper is one of Ant's stateless mappers
+     * @since Ant 1.10.11
+     */
+    static boolean isThreadSafe(FileNameMapper mapper) {
+        return mapper != null && THREAD_SAFE_MAPPERS.contains(mapper.getClass());
+    }
+}
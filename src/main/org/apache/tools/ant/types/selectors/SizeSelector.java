@@ -23,6 +23,7 @@ import java.io.File;
 import org.apache.tools.ant.types.Comparison;
 import org.apache.tools.ant.types.EnumeratedAttribute;
 import org.apache.tools.ant.types.Parameter;
+import org.apache.tools.ant.util.FileAttributesCache;
 
 /**
  * Selector that filters files based on their size.
@@ -218,10 +219,12 @@ public class SizeSelector extends BaseExtendSelector {
         validate();
 
         // Directory size never selected for
-        if (file.isDirectory()) {
+        FileAttributesCache.Attributes attrs =
+            FileAttributesCache.getAttributes(getProject(), file);
+        if (attrs.isDirectory()) {
             return true;
         }
-        long diff = file.length() - sizelimit;
+        long diff = attrs.getSize() - sizelimit;
         return when.evaluate(diff == 0 ? 0 : (int) (diff / Math.abs(diff)));
     }
 
@@ -267,5 +270,12 @@ public class SizeSelector extends BaseExtendSelector {
     public static class SizeComparisons extends Comparison {
     }
 
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
-
@@ -36,4 +36,12 @@ public class SymlinkSelector implements FileSelector {
         return file != null && Files.isSymbolicLink(file.toPath());
     }
 
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
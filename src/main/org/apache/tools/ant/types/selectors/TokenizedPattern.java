@@ -120,6 +120,11 @@ public class TokenizedPattern {
         return tokenizedPattern.length;
     }
 
+    /* package */
+    String[] getTokens() {
+        return tokenizedPattern;
+    }
+
     /**
      * Does the tokenized pattern contain the given string?
      *
@@ -22,6 +22,7 @@ import java.io.File;
 
 import org.apache.tools.ant.types.EnumeratedAttribute;
 import org.apache.tools.ant.types.Parameter;
+import org.apache.tools.ant.util.FileAttributesCache;
 
 /**
  * Selector that selects a certain kind of file: directory or regular.
@@ -100,7 +101,7 @@ public class TypeSelector extends BaseExtendSelector {
         // throw BuildException on error
         validate();
 
-        if (file.isDirectory()) {
+        if (FileAttributesCache.getAttributes(getProject(), file).isDirectory()) {
             return type.equals(FileType.DIR);
         }
         return type.equals(FileType.FILE);
@@ -124,4 +125,12 @@ public class TypeSelector extends BaseExtendSelector {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
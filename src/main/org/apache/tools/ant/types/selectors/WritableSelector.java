@@ -36,4 +36,12 @@ public class WritableSelector implements FileSelector {
         return file != null && file.canWrite();
     }
 
-}
\ No newline at end of file
+    /**
+     * {@inheritDoc}
+     * @since Ant 1.10.11
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.types.selectors.modifiedselector;
+
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+
+/**
+ * Stores the values in a compact binary file.
+ * The use of this Cache-implementation requires the use of the parameter
+ * &lt;param name="cache.cachefile" .../&gt; for defining, where to store the
+ * file.
+ *
+ * <p>Keys are split into the parent directory and the name of the
+ * file, each directory is stored - and held in memory - only once
+ * for all of its files. The file is read in a single operation when
+ * it is loaded and replaced atomically when it is saved.</p>
+ *
+ * Supported &lt;param&gt;s are:
+ * <table>
+ * <caption>Cache parameters</caption>
+ * <tr>
+ *   <th>name</th><th>values</th><th>description</th><th>required</th>
+ * </tr>
+ * <tr>
+ *   <td>cache.cachefile</td>
+ *   <td><i>path to file</i></td>
+ *   <td>the name of the cache file</td>
+ *   <td>yes</td>
+ * </tr>
+ * </table>
+ *
+ * @since  Ant 1.10.11
+ */
+public class BinaryfileCache implements Cache {
+
+    /** "AntC" */
+    private static final int MAGIC = 0x416e7443;
+    private static final int VERSION = 1;
+
+
+    // -----  member variables - configuration  -----
+
+
+    /** Where to store the values? */
+    private File cachefile = null;
+
+    /** Values by file name by directory, directory names end with a separator. */
+    private Map<String, Map<String, String>> cache = new HashMap<>();
+
+    /** Number of entries. */
+    private int size = 0;
+
+
+    // -----  member variables - internal use  -----
+
+
+    /** Is the cache already loaded? Prevents from multiple load operations. */
+    private boolean cacheLoaded = false;
+
+    /** Must the cache be saved? Prevents from multiple save operations. */
+    private boolean cacheDirty  = true;
+
+
+    // -----  Constructors  -----
+
+
+    /** Bean-Constructor. */
+    public BinaryfileCache() {
+    }
+
+    /**
+     * Constructor.
+     * @param cachefile set the cachefile
+     */
+    public BinaryfileCache(File cachefile) {
+        this.cachefile = cachefile;
+    }
+
+
+    // -----  Cache-Configuration  -----
+
+
+    /**
+     * Setter.
+     * @param file new value
+     */
+    public void setCachefile(File file) {
+        cachefile = file;
+    }
+
+    /**
+     * Getter.
+     * @return the cachefile
+     */
+    public File getCachefile() {
+        return cachefile;
+    }
+
+    /**
+     * This cache is valid if the cachefile is set.
+     * @return true if all is ok false otherwise
+     */
+    @Override
+    public boolean isValid() {
+        return cachefile != null;
+    }
+
+
+    // -----  Data Access
+
+
+    /**
+     * Load the cache from the underlying file.
+     * An unreadable or corrupt file is treated like a missing one.
+     */
+    @Override
+    public void load() {
+        if (cachefile != null && cachefile.isFile() && cachefile.canRead()) {
+            try {
+                // read into the heap rather than mapping the file, a
+                // mapping would keep save() from replacing the file on
+                // Windows
+                read(ByteBuffer.wrap(Files.readAllBytes(cachefile.toPath())));
+            } catch (IOException | BufferUnderflowException
+                     | IllegalArgumentException e) {
+                cache = new HashMap<>();
+                size = 0;
+            }
+        }
+        // after loading the cache is up to date with the file
+        cacheLoaded = true;
+        cacheDirty  = false;
+    }
+
+    private void read(ByteBuffer buf) {
+        if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+            throw new IllegalArgumentException("not a cache file");
+        }
+        final Map<String, Map<String, String>> entries = new HashMap<>();
+        int count = 0;
+        for (int dirs = buf.getInt(); dirs > 0; dirs--) {
+            final String dir = readString(buf);
+            // every entry needs at least the lengths of name and value
+            final int n = checkLength(buf.getInt(), buf, 8);
+            final Map<String, String> values = new HashMap<>(n * 4 / 3 + 1);
+            for (int i = 0; i < n; i++) {
+                values.put(readString(buf), readString(buf));
+            }
+            entries.put(dir, values);
+            count += n;
+        }
+        cache = entries;
+        size = count;
+    }
+
+    private static String readString(ByteBuffer buf) {
+        final byte[] b = new byte[checkLength(buf.getInt(), buf, 1)];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Makes sure a count read from the file is not negative and the
+     * rest of the buffer can hold that many items of the given size.
+     */
+    private static int checkLength(int count, ByteBuffer buf, int itemSize) {
+        if (count < 0 || count > buf.remaining() / itemSize) {
+            throw new IllegalArgumentException("corrupt cache file");
+        }
+        return count;
+    }
+
+    /**
+     * Saves modification of the cache.
+     * Cache is only saved if there is one ore more entries.
+     */
+    @Override
+    public void save() {
+        if (!cacheDirty) {
+            return;
+        }
+        if (cachefile != null && size > 0) {
+            final File tmp = new File(cachefile.getAbsoluteFile().getParentFile(),
+                                      cachefile.getName() + ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                         Files.newOutputStream(tmp.toPath())))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeInt(cache.size());
+                    for (Map.Entry<String, Map<String, String>> dir : cache.entrySet()) {
+                        writeString(out, dir.getKey());
+                        out.writeInt(dir.getValue().size());
+                        for (Map.Entry<String, String> e : dir.getValue().entrySet()) {
+                            writeString(out, e.getKey());
+                            writeString(out, e.getValue());
+                        }
+                    }
+                }
+                Files.move(tmp.toPath(), cachefile.toPath(),
+                           StandardCopyOption.REPLACE_EXISTING,
+                           StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                e.printStackTrace(); //NOSONAR
+                tmp.delete();
+            }
+        }
+        cacheDirty = false;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        final byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    /** Deletes the cache and its underlying file. */
+    @Override
+    public void delete() {
+        cache = new HashMap<>();
+        size = 0;
+        cachefile.delete();
+        cacheLoaded = true;
+        cacheDirty = false;
+    }
+
+    /**
+     * Returns a value for a given key from the cache.
+     * @param key the key
+     * @return the stored value
+     */
+    @Override
+    public Object get(Object key) {
+        if (!cacheLoaded) {
+            load();
+        }
+        final String k = String.valueOf(key);
+        final int split = nameStart(k);
+        final Map<String, String> values = cache.get(k.substring(0, split));
+        return values == null ? null : values.get(k.substring(split));
+    }
+
+    /**
+     * Saves a key-value-pair in the cache.
+     * @param key the key
+     * @param value the value
+     */
+    @Override
+    public void put(Object key, Object value) {
+        final String k = String.valueOf(key);
+        final int split = nameStart(k);
+        if (cache.computeIfAbsent(k.substring(0, split), d -> new HashMap<>())
+            .put(k.substring(split), String.valueOf(value)) == null) {
+            size++;
+        }
+        cacheDirty = true;
+    }
+
+    private static int nameStart(String key) {
+        return Math.max(key.lastIndexOf('/'), key.lastIndexOf('\\')) + 1;
+    }
+
+    /**
+     * Returns an iterator over the keys in the cache.
+     * @return An iterator over the keys.
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return cache.entrySet().stream()
+            .flatMap(dir -> dir.getValue().keySet().stream().map(n -> dir.getKey() + n))
+            .iterator();
+    }
+
+
+    // -----  additional  -----
+
+
+    /**
+     * Override Object.toString().
+     * @return information about this cache
+     */
+    @Override
+    public String toString() {
+        return String.format("<BinaryfileCache:cachefile=%s;noOfEntries=%d>",
+                cachefile, size);
+    }
+}
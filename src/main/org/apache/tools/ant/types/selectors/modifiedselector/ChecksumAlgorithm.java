@@ -18,7 +18,6 @@
 
 package org.apache.tools.ant.types.selectors.modifiedselector;
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.nio.file.Files;
 import java.security.NoSuchAlgorithmException;
@@ -29,11 +28,12 @@ import java.util.zip.CheckedInputStream;
 import java.util.zip.Checksum;
 
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.util.XxHash64;
 
 
 /**
  * Computes a 'checksum' for the content of file using
- * java.util.zip.CRC32 and java.util.zip.Adler32.
+ * java.util.zip.CRC32, java.util.zip.Adler32 or xxHash64.
  * Use of this algorithm doesn't require any additional nested &lt;param&gt;s.
  * Supported &lt;param&gt;s are:
  * <table>
@@ -43,7 +43,7 @@ import org.apache.tools.ant.BuildException;
  * </tr>
  * <tr>
  *   <td>algorithm.algorithm</td>
- *   <td>ADLER | CRC (default)</td>
+ *   <td>ADLER | CRC (default) | XXH64</td>
  *   <td>name of the algorithm the checksum should use</td>
  *   <td>no, defaults to CRC</td>
  * </tr>
@@ -54,6 +54,8 @@ import org.apache.tools.ant.BuildException;
  */
 public class ChecksumAlgorithm implements Algorithm {
 
+    private static final int BUFFER_SIZE = 8192;
+
 
     // -----  member variables  -----
 
@@ -74,7 +76,8 @@ public class ChecksumAlgorithm implements Algorithm {
 
     /**
      * Specifies the algorithm to be used to compute the checksum.
-     * Defaults to "CRC". Other popular algorithms like "ADLER" may be used as well.
+     * Defaults to "CRC". Other popular algorithms like "ADLER" may be used as well,
+     * "XXH64" is the fastest.
      * @param algorithm the digest algorithm to use
      */
     public void setAlgorithm(String algorithm) {
@@ -88,13 +91,20 @@ public class ChecksumAlgorithm implements Algorithm {
         if (checksum != null) {
             return;
         }
+        checksum = createChecksum();
+    }
+
+    private Checksum createChecksum() {
         if ("CRC".equals(algorithm)) {
-            checksum = new CRC32();
-        } else if ("ADLER".equals(algorithm)) {
-            checksum = new Adler32();
-        } else {
-            throw new BuildException(new NoSuchAlgorithmException());
+            return new CRC32();
+        }
+        if ("ADLER".equals(algorithm)) {
+            return new Adler32();
+        }
+        if (XxHash64.ALGORITHM.equals(algorithm)) {
+            return new XxHash64();
         }
+        throw new BuildException(new NoSuchAlgorithmException());
     }
 
 
@@ -102,30 +112,32 @@ public class ChecksumAlgorithm implements Algorithm {
 
 
     /**
-     * This algorithm supports only CRC and Adler.
+     * This algorithm supports only CRC, Adler and xxHash64.
      * @return <i>true</i> if all is ok, otherwise <i>false</i>.
      */
     @Override
     public boolean isValid() {
-        return "CRC".equals(algorithm) || "ADLER".equals(algorithm);
+        return "CRC".equals(algorithm) || "ADLER".equals(algorithm)
+            || XxHash64.ALGORITHM.equals(algorithm);
     }
 
 
     /**
      * Computes a value for a file content with the specified checksum algorithm.
+     * May be invoked by several threads concurrently.
      * @param file    File object for which the value should be evaluated.
      * @return        The value for that file
      */
     @Override
     public String getValue(File file) {
-        initChecksum();
+        Checksum checksum = createChecksum();
 
         if (file.canRead()) {
-            checksum.reset();
             try (CheckedInputStream check = new CheckedInputStream(
-                new BufferedInputStream(Files.newInputStream(file.toPath())), checksum)) {
+                Files.newInputStream(file.toPath()), checksum)) {
                 // Read the file
-                while (check.read() != -1) {
+                byte[] buf = new byte[BUFFER_SIZE];
+                while (check.read(buf, 0, BUFFER_SIZE) != -1) {
                 }
                 return Long.toString(check.getChecksum().getValue());
             } catch (Exception ignored) {
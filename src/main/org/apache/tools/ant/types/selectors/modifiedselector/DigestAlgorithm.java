@@ -116,19 +116,21 @@ public class DigestAlgorithm implements Algorithm {
         if (messageDigest != null) {
             return;
         }
+        messageDigest = createMessageDigest();
+    }
 
+    private MessageDigest createMessageDigest() {
         if (provider != null && !provider.isEmpty() && !"null".equals(provider)) {
             try {
-                messageDigest = MessageDigest.getInstance(algorithm, provider);
+                return MessageDigest.getInstance(algorithm, provider);
             } catch (NoSuchAlgorithmException | NoSuchProviderException e) {
                 throw new BuildException(e);
             }
-        } else {
-            try {
-                messageDigest = MessageDigest.getInstance(algorithm);
-            } catch (NoSuchAlgorithmException noalgo) {
-                throw new BuildException(noalgo);
-            }
+        }
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException noalgo) {
+            throw new BuildException(noalgo);
         }
     }
 
@@ -147,6 +149,7 @@ public class DigestAlgorithm implements Algorithm {
 
     /**
      * Computes a value for a file content with the specified digest algorithm.
+     * May be invoked by several threads concurrently.
      * @param file    File object for which the value should be evaluated.
      * @return        The value for that file
      */
@@ -156,16 +159,15 @@ public class DigestAlgorithm implements Algorithm {
         if (!file.canRead()) {
             return null;
         }
-        initMessageDigest();
+        MessageDigest digest = createMessageDigest();
         byte[] buf = new byte[readBufferSize];
-        messageDigest.reset();
         try (DigestInputStream dis = new DigestInputStream(Files.newInputStream(file.toPath()),
-                messageDigest)) {
+                digest)) {
             // read the whole stream
             while (dis.read(buf, 0, readBufferSize) != -1) {
             }
             StringBuilder checksumSb = new StringBuilder();
-            for (byte digestByte : messageDigest.digest()) {
+            for (byte digestByte : digest.digest()) {
                 checksumSb.append(String.format("%02x", BYTE_MASK & digestByte));
             }
             return checksumSb.toString();
@@ -24,7 +24,17 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.tools.ant.BuildEvent;
 import org.apache.tools.ant.BuildException;
@@ -150,6 +160,9 @@ public class ModifiedSelector extends BaseExtendSelector
     private static final String ALGORITHM_PREFIX = "algorithm.";
     private static final String COMPARATOR_PREFIX = "comparator.";
 
+    /** Separates size, timestamp and value if quickcheck is enabled. */
+    private static final char STAMP_SEPARATOR = ';';
+
 
     // -----  attributes  -----
 
@@ -187,6 +200,12 @@ public class ModifiedSelector extends BaseExtendSelector
     /** Delay the writing of the cache file */
     private boolean delayUpdate = true;
 
+    /** Only compute values for files whose size or timestamp has changed */
+    private boolean quickcheck = false;
+
+    /** Number of threads computing values */
+    private int threads = 1;
+
 
     // ----- internal member variables -----
 
@@ -228,6 +247,18 @@ public class ModifiedSelector extends BaseExtendSelector
     /** provided classpath for the classloader */
     private Path classpath = null;
 
+    /** Values being computed in the background, keyed by absolute path. */
+    private final Map<String, Future<String>> pendingValues = new ConcurrentHashMap<>();
+
+    /** Directories whose cached files have already been submitted. */
+    private final Set<String> prefetchedDirectories = new HashSet<>();
+
+    /** Keys of the cache grouped by their parent directory. */
+    private Map<String, List<String>> cachedFilesByDirectory = null;
+
+    /** Computes values if more than one thread has been requested. */
+    private ExecutorService executor = null;
+
 
     // -----  constructors  -----
 
@@ -327,6 +358,8 @@ public class ModifiedSelector extends BaseExtendSelector
                 algorithm = new ChecksumAlgorithm();
             } else if ("lastmodified".equals(algoName.getValue())) {
                 algorithm = new LastModifiedAlgorithm();
+            } else if ("xxhash".equals(algoName.getValue())) {
+                algorithm = new XxHashAlgorithm();
             }
         } else if (algorithmClass != null) {
             // use Algorithm specified by classname
@@ -344,6 +377,9 @@ public class ModifiedSelector extends BaseExtendSelector
             // use Cache defined via name
             if ("propertyfile".equals(cacheName.getValue())) {
                 cache = new PropertiesfileCache();
+            } else if ("binaryfile".equals(cacheName.getValue())) {
+                cache = new BinaryfileCache(
+                    new File(cachefile.getParentFile(), "cache.bin"));
             }
         } else if (cacheClass != null) {
             // use Cache specified by classname
@@ -500,14 +536,20 @@ public class ModifiedSelector extends BaseExtendSelector
         }
 
         // Get the values and do the comparison
-        String cachedValue = String.valueOf(cache.get(f.getAbsolutePath()));
-        String newValue = algorithm.getValue(f);
+        String key = f.getAbsolutePath();
+        String cachedValue = String.valueOf(cache.get(key));
+        if (threads > 1) {
+            prefetch(f.getParentFile());
+        }
+        String newValue = getValue(f, cachedValue);
 
-        boolean rv = comparator.compare(cachedValue, newValue) != 0;
+        boolean rv = comparator.compare(stripStamp(cachedValue),
+                                        stripStamp(newValue)) != 0;
 
-        // Maybe update the cache
-        if (update && rv) {
-            cache.put(f.getAbsolutePath(), newValue);
+        // Maybe update the cache - with quickcheck a new timestamp
+        // must be recorded even if the content is the same
+        if (update && (rv || quickcheck && !cachedValue.equals(newValue))) {
+            cache.put(key, newValue);
             setModified(getModified() + 1);
             if (!getDelayUpdate()) {
                 saveCache();
@@ -517,6 +559,114 @@ public class ModifiedSelector extends BaseExtendSelector
     }
 
 
+    /**
+     * Returns the value for a file, waits for it if it is being
+     * computed in the background.
+     * @param f the file
+     * @param cachedValue the value stored in the cache
+     * @return the new value
+     */
+    private String getValue(File f, String cachedValue) {
+        Future<String> pending = pendingValues.remove(f.getAbsolutePath());
+        if (pending == null) {
+            return computeValue(f, cachedValue);
+        }
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BuildException(e);
+        } catch (ExecutionException e) {
+            throw new BuildException(e.getCause());
+        }
+    }
+
+    /**
+     * Computes the value for a file using the algorithm.
+     * With quickcheck the value is prefixed by the file's size and
+     * timestamp and the algorithm is only used if either of them
+     * differs from the ones stored with the cached value.
+     * @param f the file
+     * @param cachedValue the value stored in the cache
+     * @return the new value
+     */
+    private String computeValue(File f, String cachedValue) {
+        if (!quickcheck) {
+            return algorithm.getValue(f);
+        }
+        String stamp = f.length() + "" + STAMP_SEPARATOR + f.lastModified()
+            + STAMP_SEPARATOR;
+        if (cachedValue.startsWith(stamp)) {
+            return cachedValue;
+        }
+        return stamp + algorithm.getValue(f);
+    }
+
+    /**
+     * Removes size and timestamp added by quickcheck.
+     * @param value a value as returned by computeValue
+     * @return the value computed by the algorithm
+     */
+    private String stripStamp(String value) {
+        if (!quickcheck || value == null) {
+            return value;
+        }
+        int first = value.indexOf(STAMP_SEPARATOR);
+        int second = first < 0 ? -1 : value.indexOf(STAMP_SEPARATOR, first + 1);
+        return second < 0 ? value : value.substring(second + 1);
+    }
+
+    /**
+     * Starts computing the values of all cached files of a
+     * directory in the background, files are usually selected
+     * directory by directory.
+     * @param dir the directory
+     */
+    private void prefetch(File dir) {
+        if (dir == null || !prefetchedDirectories.add(dir.getAbsolutePath())) {
+            return;
+        }
+        if (cachedFilesByDirectory == null) {
+            cachedFilesByDirectory = new HashMap<>();
+            for (Iterator<String> it = cache.iterator(); it.hasNext();) {
+                String key = it.next();
+                String parent = new File(key).getParent();
+                if (parent != null) {
+                    cachedFilesByDirectory.computeIfAbsent(parent, d -> new ArrayList<>())
+                        .add(key);
+                }
+            }
+        }
+        List<String> keys = cachedFilesByDirectory.get(dir.getAbsolutePath());
+        if (keys == null) {
+            return;
+        }
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "modified-selector");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        for (String key : keys) {
+            final File file = new File(key);
+            final String cachedValue = String.valueOf(cache.get(key));
+            pendingValues.computeIfAbsent(key,
+                k -> executor.submit(() -> computeValue(file, cachedValue)));
+        }
+    }
+
+    /**
+     * Forgets about values computed in the background, files may be
+     * modified by the next task.
+     */
+    private void discardPendingValues() {
+        pendingValues.values().forEach(f -> f.cancel(false));
+        pendingValues.clear();
+        prefetchedDirectories.clear();
+        cachedFilesByDirectory = null;
+    }
+
    /**
     * save the cache file
     */
@@ -621,6 +771,30 @@ public class ModifiedSelector extends BaseExtendSelector
     }
 
 
+    /**
+     * Support for <i>quickcheck</i> attribute.
+     * @param quickcheck whether values should only be computed for
+     * files whose size or timestamp has changed
+     * @since Ant 1.10.11
+     */
+    public void setQuickcheck(boolean quickcheck) {
+        this.quickcheck = quickcheck;
+    }
+
+
+    /**
+     * Support for <i>threads</i> attribute.
+     * @param threads number of threads computing values
+     * @since Ant 1.10.11
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new BuildException("threads must be a positive number");
+        }
+        this.threads = threads;
+    }
+
+
     /**
      * Add the classpath.
      * @param path the classpath
@@ -734,6 +908,10 @@ public class ModifiedSelector extends BaseExtendSelector
             setDelayUpdate("true".equalsIgnoreCase(value));
         } else if ("seldirs".equals(key)) {
             setSeldirs("true".equalsIgnoreCase(value));
+        } else if ("quickcheck".equals(key)) {
+            setQuickcheck("true".equalsIgnoreCase(value));
+        } else if ("threads".equals(key)) {
+            setThreads(Integer.parseInt(value));
         } else if (key.startsWith(CACHE_PREFIX)) {
             String name = key.substring(CACHE_PREFIX.length());
             tryToSetAParameter(cache, name, value);
@@ -794,6 +972,11 @@ public class ModifiedSelector extends BaseExtendSelector
         if (getDelayUpdate()) {
             saveCache();
         }
+        discardPendingValues();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
     }
 
 
@@ -806,6 +989,7 @@ public class ModifiedSelector extends BaseExtendSelector
         if (getDelayUpdate()) {
             saveCache();
         }
+        discardPendingValues();
     }
 
 
@@ -818,6 +1002,7 @@ public class ModifiedSelector extends BaseExtendSelector
         if (getDelayUpdate()) {
             saveCache();
         }
+        discardPendingValues();
     }
 
 
@@ -884,7 +1069,7 @@ public class ModifiedSelector extends BaseExtendSelector
 
     /**
      * The enumerated type for cache.
-     * The values are "propertyfile".
+     * The values are "propertyfile" and "binaryfile".
      */
     public static class CacheName extends EnumeratedAttribute {
         /**
@@ -893,7 +1078,7 @@ public class ModifiedSelector extends BaseExtendSelector
          */
         @Override
         public String[] getValues() {
-            return new String[] {"propertyfile"};
+            return new String[] {"propertyfile", "binaryfile"};
         }
     }
 
@@ -915,7 +1100,7 @@ public class ModifiedSelector extends BaseExtendSelector
 
     /**
      * The enumerated type for algorithm.
-     * The values are "hashValue", "digest", "checksum" and "lastmodified".
+     * The values are "hashValue", "digest", "checksum", "lastmodified" and "xxhash".
      */
     public static class AlgorithmName extends EnumeratedAttribute {
         /**
@@ -924,7 +1109,8 @@ public class ModifiedSelector extends BaseExtendSelector
          */
         @Override
         public String[] getValues() {
-            return new String[] {"hashvalue", "digest", "checksum", "lastmodified"};
+            return new String[] {"hashvalue", "digest", "checksum", "lastmodified",
+                                 "xxhash"};
         }
     }
 
@@ -0,0 +1,70 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.types.selectors.modifiedselector;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.tools.ant.util.XxHash64;
+
+/**
+ * Computes a value for the content of a file using the xxHash64
+ * algorithm which is considerably faster than the digest and checksum
+ * algorithms but - like them - not suitable for security purposes.
+ *
+ * @since  Ant 1.10.11
+ */
+public class XxHashAlgorithm implements Algorithm {
+
+    /**
+     * This algorithm doesn't need any configuration.
+     * Therefore it's always valid.
+     * @return always true
+     */
+    @Override
+    public boolean isValid() {
+        return true;
+    }
+
+    /**
+     * Computes the xxHash64 value of a file's content.
+     * May be invoked by several threads concurrently.
+     * @param file  The file for which the value should be computed
+     * @return the value or <i>null</i> if the file couldn't be read
+     */
+    @Override
+    public String getValue(File file) {
+        if (!file.canRead()) {
+            return null;
+        }
+        try {
+            return String.format("%016x", XxHash64.hash(file.toPath()));
+        } catch (IOException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Override Object.toString().
+     * @return information about this algorithm
+     */
+    @Override
+    public String toString() {
+        return "XxHashAlgorithm";
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Subclass of Hashtable that wraps a ConcurrentHashMap so that reads
+ * don't need to acquire a lock.
+ *
+ * <p>This is not a general purpose class but has been written because
+ * the protected members of {@link org.apache.tools.ant.PropertyHelper
+ * PropertyHelper} expose Hashtables.</p>
+ *
+ * <p>Modifications are serialized and invalidate an immutable
+ * {@link #snapshot snapshot} of the content that is shared by all
+ * readers until the next modification. The collection views are
+ * read-only.</p>
+ *
+ * <p>A table can be {@link #layerOver layered over} an immutable map
+ * whose entries are visible unless the table contains an entry for the
+ * same key. The entries of that map are only copied once an operation
+ * needs the combined content of both.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public class ConcurrentHashtable<K, V> extends Hashtable<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    private final ConcurrentHashMap<K, V> map;
+    private final Map<K, V> view;
+    private transient volatile Map<K, V> snapshot;
+    private transient volatile Map<K, V> base = Collections.emptyMap();
+
+    public ConcurrentHashtable() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    public ConcurrentHashtable(Map<? extends K, ? extends V> m) {
+        this(new ConcurrentHashMap<>(m));
+    }
+
+    private ConcurrentHashtable(ConcurrentHashMap<K, V> map) {
+        super(1);
+        this.map = map;
+        view = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Makes the entries of the given map visible in this table unless
+     * the table contains an entry for the same key, without copying
+     * them.
+     *
+     * <p>Entries of a map this table has been layered over before are
+     * copied into the table first.</p>
+     *
+     * @param m the map, must not be modified afterwards
+     */
+    public synchronized void layerOver(Map<K, V> m) {
+        materialize();
+        base = m.isEmpty() ? Collections.emptyMap() : m;
+        snapshot = null;
+    }
+
+    /**
+     * Copies the entries of the map this table has been layered over
+     * into the table itself.
+     */
+    private void materialize() {
+        if (!base.isEmpty()) {
+            synchronized (this) {
+                // readers look at base before map so they never miss an entry
+                base.forEach(map::putIfAbsent);
+                base = Collections.emptyMap();
+            }
+        }
+    }
+
+    /**
+     * An immutable copy of the current content.
+     *
+     * <p>The copy is only created once per modification of this
+     * table.</p>
+     *
+     * @return an unmodifiable map
+     */
+    public Map<K, V> snapshot() {
+        Map<K, V> s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                s = snapshot;
+                if (s == null) {
+                    HashMap<K, V> copy = new HashMap<>(base);
+                    copy.putAll(map);
+                    s = Collections.unmodifiableMap(copy);
+                    snapshot = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    @Override
+    public synchronized void clear() {
+        map.clear();
+        base = Collections.emptyMap();
+        snapshot = null;
+    }
+
+    @Override
+    public Object clone() {
+        materialize();
+        return new ConcurrentHashtable<>(new ConcurrentHashMap<>(map));
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        materialize();
+        return map.contains(value);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        Map<K, V> b = base;
+        return map.containsKey(key) || b.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        materialize();
+        return map.containsValue(value);
+    }
+
+    @Override
+    public Enumeration<V> elements() {
+        materialize();
+        return map.elements();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        materialize();
+        return view.entrySet();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        materialize();
+        return map.equals(o);
+    }
+
+    @Override
+    public V get(Object key) {
+        Map<K, V> b = base;
+        V v = map.get(key);
+        return v != null ? v : b.get(key);
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        V v = get(key);
+        return v != null ? v : defaultValue;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        materialize();
+        map.forEach(action);
+    }
+
+    @Override
+    public int hashCode() {
+        materialize();
+        return map.hashCode();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        materialize();
+        return map.isEmpty();
+    }
+
+    @Override
+    public Enumeration<K> keys() {
+        materialize();
+        return map.keys();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        materialize();
+        return view.keySet();
+    }
+
+    @Override
+    public synchronized V put(K key, V value) {
+        V old = map.put(key, value);
+        snapshot = null;
+        return old != null ? old : base.get(key);
+    }
+
+    @Override
+    public synchronized void putAll(Map<? extends K, ? extends V> m) {
+        map.putAll(m);
+        snapshot = null;
+    }
+
+    @Override
+    public synchronized V putIfAbsent(K key, V value) {
+        V old = get(key);
+        if (old == null) {
+            map.put(key, value);
+            snapshot = null;
+        }
+        return old;
+    }
+
+    @Override
+    public synchronized V remove(Object key) {
+        materialize();
+        V old = map.remove(key);
+        snapshot = null;
+        return old;
+    }
+
+    @Override
+    public synchronized boolean remove(Object key, Object value) {
+        materialize();
+        snapshot = null;
+        return map.remove(key, value);
+    }
+
+    @Override
+    public synchronized V replace(K key, V value) {
+        materialize();
+        snapshot = null;
+        return map.replace(key, value);
+    }
+
+    @Override
+    public synchronized boolean replace(K key, V oldValue, V newValue) {
+        materialize();
+        snapshot = null;
+        return map.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public synchronized void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        materialize();
+        snapshot = null;
+        map.replaceAll(function);
+    }
+
+    @Override
+    public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        materialize();
+        snapshot = null;
+        return map.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public synchronized V computeIfPresent(K key,
+        BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        materialize();
+        snapshot = null;
+        return map.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public synchronized V compute(K key,
+        BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        materialize();
+        snapshot = null;
+        return map.compute(key, remappingFunction);
+    }
+
+    @Override
+    public synchronized V merge(K key, V value,
+        BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        materialize();
+        snapshot = null;
+        return map.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public int size() {
+        materialize();
+        return map.size();
+    }
+
+    @Override
+    public String toString() {
+        materialize();
+        return map.toString();
+    }
+
+    @Override
+    public Collection<V> values() {
+        materialize();
+        return view.values();
+    }
+
+    private Object writeReplace() {
+        materialize();
+        return new Hashtable<>(map);
+    }
+}
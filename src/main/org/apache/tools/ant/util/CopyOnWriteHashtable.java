@@ -0,0 +1,242 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Hashtable that shares an immutable map until it is modified for
+ * the first time.
+ *
+ * <p>This is not a general purpose class but has been written
+ * because {@link org.apache.tools.ant.Project#getProperties
+ * Project.getProperties} and friends return modifiable copies of
+ * their content as Hashtables, while most callers only ever read
+ * them.</p>
+ *
+ * <p>Methods are synchronized to keep Hashtable's contract.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public class CopyOnWriteHashtable<K, V> extends Hashtable<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    /** The shared content, null once this instance has been modified. */
+    private transient Map<K, V> shared;
+
+    /**
+     * Creates a table with the content of the given map.
+     * @param content the initial content, must never be modified
+     */
+    public CopyOnWriteHashtable(Map<K, V> content) {
+        super(1);
+        shared = content;
+    }
+
+    private void copy() {
+        if (shared != null) {
+            final Map<K, V> content = shared;
+            shared = null;
+            super.putAll(content);
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        shared = null;
+        super.clear();
+    }
+
+    @Override
+    public synchronized boolean contains(Object value) {
+        return shared != null ? shared.containsValue(value) : super.contains(value);
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return shared != null ? shared.containsKey(key) : super.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return contains(value);
+    }
+
+    @Override
+    public synchronized Enumeration<V> elements() {
+        return shared != null ? Collections.enumeration(shared.values())
+            : super.elements();
+    }
+
+    @Override
+    public synchronized Set<Map.Entry<K, V>> entrySet() {
+        copy();
+        return super.entrySet();
+    }
+
+    @Override
+    public synchronized boolean equals(Object o) {
+        return shared != null ? shared.equals(o) : super.equals(o);
+    }
+
+    @Override
+    public synchronized V get(Object key) {
+        return shared != null ? shared.get(key) : super.get(key);
+    }
+
+    @Override
+    public synchronized V getOrDefault(Object key, V defaultValue) {
+        return shared != null ? shared.getOrDefault(key, defaultValue)
+            : super.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public synchronized void forEach(BiConsumer<? super K, ? super V> action) {
+        if (shared != null) {
+            shared.forEach(action);
+        } else {
+            super.forEach(action);
+        }
+    }
+
+    @Override
+    public synchronized int hashCode() {
+        return shared != null ? shared.hashCode() : super.hashCode();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return shared != null ? shared.isEmpty() : super.isEmpty();
+    }
+
+    @Override
+    public synchronized Enumeration<K> keys() {
+        return shared != null ? Collections.enumeration(shared.keySet())
+            : super.keys();
+    }
+
+    @Override
+    public synchronized Set<K> keySet() {
+        copy();
+        return super.keySet();
+    }
+
+    @Override
+    public synchronized V put(K key, V value) {
+        copy();
+        return super.put(key, value);
+    }
+
+    @Override
+    public synchronized void putAll(Map<? extends K, ? extends V> m) {
+        copy();
+        super.putAll(m);
+    }
+
+    @Override
+    public synchronized V putIfAbsent(K key, V value) {
+        copy();
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public synchronized V remove(Object key) {
+        copy();
+        return super.remove(key);
+    }
+
+    @Override
+    public synchronized boolean remove(Object key, Object value) {
+        copy();
+        return super.remove(key, value);
+    }
+
+    @Override
+    public synchronized V replace(K key, V value) {
+        copy();
+        return super.replace(key, value);
+    }
+
+    @Override
+    public synchronized boolean replace(K key, V oldValue, V newValue) {
+        copy();
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public synchronized void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        copy();
+        super.replaceAll(function);
+    }
+
+    @Override
+    public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        copy();
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public synchronized V computeIfPresent(K key,
+        BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        copy();
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public synchronized V compute(K key,
+        BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        copy();
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public synchronized V merge(K key, V value,
+        BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        copy();
+        return super.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public synchronized int size() {
+        return shared != null ? shared.size() : super.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return shared != null ? shared.toString() : super.toString();
+    }
+
+    @Override
+    public synchronized Collection<V> values() {
+        copy();
+        return super.values();
+    }
+
+    private synchronized Object writeReplace() {
+        copy();
+        return this;
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+
+/**
+ * Directory listings shared by all {@link
+ * org.apache.tools.ant.DirectoryScanner DirectoryScanner}s of a
+ * project.
+ *
+ * <p>Builds often define many filesets over the same directory tree,
+ * with this cache only the first scan has to list the directories and
+ * determine the types of their entries. Later scans only check the
+ * timestamp of each directory, which changes whenever an entry is
+ * added, removed or renamed. Listings of directories that have been
+ * modified less than two seconds before they have been read are not
+ * cached as a later modification may not change the timestamp.</p>
+ *
+ * <p>Tasks that create or remove files should call {@link
+ * #invalidate(Project, File)} or {@link #invalidateTree} for the
+ * files and directories they have modified.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public final class DirectoryListingCache {
+
+    /**
+     * Timestamps of directories modified less than this many
+     * milliseconds before they have been read are not trusted.
+     */
+    private static final long TIMESTAMP_GRANULARITY = 2000;
+
+    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+
+    private final Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private DirectoryListingCache() {
+    }
+
+    /**
+     * Get the cache of the given project, creating it if necessary.
+     * @param project the project
+     * @return the cache or null if the cache has been disabled via
+     * the ant.scanner.cache property
+     */
+    public static synchronized DirectoryListingCache getCache(Project project) {
+        DirectoryListingCache cache =
+            project.getReference(MagicNames.REFID_DIRECTORY_LISTING_CACHE);
+        if (cache == null) {
+            final String enabled = project.getProperty(MagicNames.SCANNER_CACHE);
+            if (enabled != null && !Project.toBoolean(enabled)) {
+                return null;
+            }
+            cache = new DirectoryListingCache();
+            project.addReference(MagicNames.REFID_DIRECTORY_LISTING_CACHE, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Discards the listings of a file or directory and all of its
+     * parent directories if the project uses a cache.
+     * @param project the project
+     * @param file a file or directory that has been created or removed
+     */
+    public static void invalidate(Project project, File file) {
+        final DirectoryListingCache cache = getExistingCache(project);
+        if (cache != null && file != null) {
+            cache.invalidate(file);
+        }
+    }
+
+    /**
+     * Discards the listings of a directory tree and all of its parent
+     * directories if the project uses a cache.
+     * @param project the project
+     * @param dir the root of a tree that files have been added to or
+     * removed from
+     */
+    public static void invalidateTree(Project project, File dir) {
+        final DirectoryListingCache cache = getExistingCache(project);
+        if (cache != null && dir != null) {
+            cache.invalidateTree(dir);
+        }
+    }
+
+    private static DirectoryListingCache getExistingCache(Project project) {
+        return project == null ? null
+            : project.getReference(MagicNames.REFID_DIRECTORY_LISTING_CACHE);
+    }
+
+    /**
+     * Discards the listings of a file or directory and all of its
+     * parent directories.
+     * @param file a file or directory that has been created or removed
+     */
+    public void invalidate(File file) {
+        if (!entries.isEmpty()) {
+            for (File f = new File(key(file)); f != null; f = f.getParentFile()) {
+                entries.remove(f.getPath());
+            }
+        }
+    }
+
+    /**
+     * Discards the listings of a directory tree and all of its parent
+     * directories.
+     * @param dir the root of the tree
+     */
+    public void invalidateTree(File dir) {
+        if (!entries.isEmpty()) {
+            final String root = key(dir);
+            final String prefix = root.endsWith(File.separator) ? root
+                : root + File.separator;
+            entries.keySet().removeIf(k -> k.startsWith(prefix));
+            invalidate(dir);
+        }
+    }
+
+    /**
+     * Lists a directory, using the cached listing if the directory
+     * hasn't been modified since it has been read.
+     * @param dir the directory
+     * @return the listing or null if dir isn't a directory that can
+     * be read
+     */
+    public Listing list(File dir) {
+        final String key = key(dir);
+        final long lastModified;
+        try {
+            final BasicFileAttributes attrs =
+                Files.readAttributes(dir.toPath(), BasicFileAttributes.class);
+            if (!attrs.isDirectory()) {
+                entries.remove(key);
+                return null;
+            }
+            lastModified = attrs.lastModifiedTime().toMillis();
+        } catch (IOException ex) {
+            entries.remove(key);
+            return null;
+        }
+        final CacheEntry e = entries.get(key);
+        if (e != null && e.lastModified == lastModified) {
+            hits.increment();
+            return e.listing;
+        }
+        misses.increment();
+        final Listing listing = Listing.read(dir);
+        if (listing != null
+            && System.currentTimeMillis() - lastModified >= TIMESTAMP_GRANULARITY) {
+            entries.put(key, new CacheEntry(lastModified, listing));
+        } else {
+            entries.remove(key);
+        }
+        return listing;
+    }
+
+    /**
+     * Number of listings that have been taken from the cache.
+     * @return number of cache hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of listings that had to be read from disk.
+     * @return number of cache misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * The number of directories currently cached.
+     * @return number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static String key(File dir) {
+        return FILE_UTILS.normalize(dir.getAbsolutePath()).getPath();
+    }
+
+    private static class CacheEntry {
+        private final long lastModified;
+        private final Listing listing;
+
+        CacheEntry(long lastModified, Listing listing) {
+            this.lastModified = lastModified;
+            this.listing = listing;
+        }
+    }
+
+    /**
+     * The names of a directory's entries and - once they are needed -
+     * their types.
+     *
+     * <p>Each entry is stat'ed once, twice if it is a symbolic
+     * link. Types are those of the link targets, like {@link
+     * File#isFile} and {@link File#isDirectory} report them.</p>
+     */
+    public static final class Listing {
+        private static final int FILE = 1;
+        private static final int DIRECTORY = 2;
+        private static final int SYMLINK = 4;
+
+        private final File dir;
+        private final String[] names;
+        private volatile byte[] types;
+
+        private Listing(File dir, String[] names) {
+            this.dir = dir;
+            this.names = names;
+        }
+
+        /**
+         * Reads the names of all entries of a directory.
+         * @param dir the directory
+         * @return the listing or null if dir isn't a directory that
+         * can be read
+         */
+        public static Listing read(File dir) {
+            final List<String> names = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir.toPath())) {
+                for (final Path entry : entries) {
+                    names.add(entry.getFileName().toString());
+                }
+            } catch (IOException | DirectoryIteratorException ex) {
+                return null;
+            }
+            return new Listing(dir, names.toArray(new String[names.size()]));
+        }
+
+        /**
+         * The directory that has been listed.
+         * @return the directory
+         */
+        public File getDirectory() {
+            return dir;
+        }
+
+        /**
+         * The names of all entries.
+         * @return the names
+         */
+        public String[] getNames() {
+            return names;
+        }
+
+        /**
+         * Whether the given entry is a symbolic link.
+         * @param i index of the entry
+         * @return boolean
+         */
+        public boolean isSymbolicLink(int i) {
+            return (getTypes()[i] & SYMLINK) != 0;
+        }
+
+        /**
+         * Whether the given entry is - or links to - a file.
+         * @param i index of the entry
+         * @return boolean
+         */
+        public boolean isFile(int i) {
+            return (getTypes()[i] & FILE) != 0;
+        }
+
+        /**
+         * Whether the given entry is - or links to - a directory.
+         * @param i index of the entry
+         * @return boolean
+         */
+        public boolean isDirectory(int i) {
+            return (getTypes()[i] & DIRECTORY) != 0;
+        }
+
+        private byte[] getTypes() {
+            byte[] t = types;
+            if (t == null) {
+                t = readTypes();
+                types = t;
+            }
+            return t;
+        }
+
+        private byte[] readTypes() {
+            final byte[] t = new byte[names.length];
+            final Path dirPath = dir.toPath();
+            for (int i = 0; i < names.length; i++) {
+                final Path entry = dirPath.resolve(names[i]);
+                int type = 0;
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(entry,
+                        BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    if (attrs.isSymbolicLink()) {
+                        type = SYMLINK;
+                        attrs = Files.readAttributes(entry, BasicFileAttributes.class);
+                    }
+                    if (attrs.isRegularFile()) {
+                        type |= FILE;
+                    } else if (attrs.isDirectory()) {
+                        type |= DIRECTORY;
+                    }
+                } catch (IOException ex) {
+                    // dangling link or entry has been removed
+                }
+                t[i] = (byte) type;
+            }
+            return t;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+
+/**
+ * Snapshots of file attributes shared by the file resources and
+ * selectors of a project while a task is running.
+ *
+ * <p>Up-to-date checks, selectors and resource comparators often ask
+ * for the existence, type, timestamp and size of the same file over
+ * and over again, each of them a separate system call. With this
+ * cache all of them are read by a single call to {@link
+ * Files#readAttributes(java.nio.file.Path, Class,
+ * java.nio.file.LinkOption...)} per file and task.</p>
+ *
+ * <p>The cache is cleared whenever a task starts or finishes and is
+ * only used while a task is running. Tasks that modify files and
+ * look at their attributes again before they finish should call
+ * {@link #invalidate(Project, File)} or {@link #invalidateTree} for
+ * the files and directories they have modified.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public final class FileAttributesCache {
+
+    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+
+    /** The cache returned by the last call to getCache. */
+    private static volatile FileAttributesCache lastUsed;
+
+    private final Map<String, Attributes> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger runningTasks = new AtomicInteger();
+    /** Weak so lastUsed doesn't keep a finished build alive. */
+    private final WeakReference<Project> project;
+
+    private FileAttributesCache(Project project) {
+        this.project = new WeakReference<>(project);
+    }
+
+    /**
+     * Get the cache of the given project, creating it if necessary.
+     * @param project the project, may be null
+     * @return the cache or null if project is null or the cache has
+     * been disabled via the ant.fileattributes.cache property
+     */
+    public static FileAttributesCache getCache(Project project) {
+        if (project == null) {
+            return null;
+        }
+        // this is called for every file attribute lookup, take the
+        // class lock only when the cache needs to be created
+        final FileAttributesCache last = lastUsed;
+        if (last != null && last.project.get() == project) {
+            return last;
+        }
+        FileAttributesCache cache =
+            project.getReference(MagicNames.REFID_FILE_ATTRIBUTES_CACHE);
+        if (cache == null) {
+            final String enabled = project.getProperty(MagicNames.FILE_ATTRIBUTES_CACHE);
+            if (enabled != null && !Project.toBoolean(enabled)) {
+                return null;
+            }
+            cache = createCache(project);
+        }
+        lastUsed = cache;
+        return cache;
+    }
+
+    private static synchronized FileAttributesCache createCache(Project project) {
+        FileAttributesCache cache =
+            project.getReference(MagicNames.REFID_FILE_ATTRIBUTES_CACHE);
+        if (cache == null) {
+            cache = new FileAttributesCache(project);
+            if (project.getThreadTask(Thread.currentThread()) != null) {
+                // created by the task that is currently running
+                cache.runningTasks.set(1);
+            }
+            project.addBuildListener(cache.new TaskTracker());
+            project.addReference(MagicNames.REFID_FILE_ATTRIBUTES_CACHE, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Get the attributes of a file, using the project's cache if
+     * there is one.
+     * @param project the project, may be null
+     * @param file the file
+     * @return the attributes
+     */
+    public static Attributes getAttributes(Project project, File file) {
+        final FileAttributesCache cache = getCache(project);
+        return cache == null ? Attributes.read(file) : cache.get(file);
+    }
+
+    /**
+     * Discards the attributes of a file if the project uses a cache.
+     * @param project the project
+     * @param file a file or directory that has been modified
+     */
+    public static void invalidate(Project project, File file) {
+        final FileAttributesCache cache = getExistingCache(project);
+        if (cache != null && file != null) {
+            cache.invalidate(file);
+        }
+    }
+
+    /**
+     * Discards the attributes of a directory tree if the project uses
+     * a cache.
+     * @param project the project
+     * @param dir the root of a tree whose files have been modified
+     */
+    public static void invalidateTree(Project project, File dir) {
+        final FileAttributesCache cache = getExistingCache(project);
+        if (cache != null && dir != null) {
+            cache.invalidateTree(dir);
+        }
+    }
+
+    private static FileAttributesCache getExistingCache(Project project) {
+        return project == null ? null
+            : project.getReference(MagicNames.REFID_FILE_ATTRIBUTES_CACHE);
+    }
+
+    /**
+     * Get the attributes of a file, reading them unless they have
+     * already been read while the current task has been running.
+     * @param file the file
+     * @return the attributes
+     */
+    public Attributes get(File file) {
+        if (runningTasks.get() <= 0) {
+            return Attributes.read(file);
+        }
+        return entries.computeIfAbsent(key(file), k -> Attributes.read(file));
+    }
+
+    /**
+     * Discards the attributes of a file.
+     * @param file a file or directory that has been modified
+     */
+    public void invalidate(File file) {
+        if (!entries.isEmpty()) {
+            entries.remove(key(file));
+        }
+    }
+
+    /**
+     * Discards the attributes of a directory and all files below it.
+     * @param dir the root of the tree
+     */
+    public void invalidateTree(File dir) {
+        if (!entries.isEmpty()) {
+            final String root = key(dir);
+            final String prefix = root.endsWith(File.separator) ? root
+                : root + File.separator;
+            entries.keySet().removeIf(k -> k.equals(root) || k.startsWith(prefix));
+        }
+    }
+
+    /**
+     * Discards all attributes.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * The number of files currently cached.
+     * @return number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static String key(File file) {
+        return FILE_UTILS.normalize(file.getAbsolutePath()).getPath();
+    }
+
+    /**
+     * Clears the cache whenever a task starts or finishes.
+     */
+    private class TaskTracker implements BuildListener {
+        @Override
+        public void buildStarted(BuildEvent event) {
+        }
+
+        @Override
+        public void buildFinished(BuildEvent event) {
+            clear();
+        }
+
+        @Override
+        public void targetStarted(BuildEvent event) {
+        }
+
+        @Override
+        public void targetFinished(BuildEvent event) {
+        }
+
+        @Override
+        public void taskStarted(BuildEvent event) {
+            runningTasks.incrementAndGet();
+            clear();
+        }
+
+        @Override
+        public void taskFinished(BuildEvent event) {
+            runningTasks.updateAndGet(n -> Math.max(0, n - 1));
+            clear();
+        }
+
+        @Override
+        public void messageLogged(BuildEvent event) {
+        }
+
+        /**
+         * Not interested in any message, so it doesn't make log
+         * messages get created that nobody else wants.
+         */
+        @Override
+        public int getMessageOutputLevel() {
+            return -1;
+        }
+    }
+
+    /**
+     * The attributes of a file as seen by {@link File#exists}, {@link
+     * File#isFile}, {@link File#isDirectory}, {@link
+     * File#lastModified} and {@link File#length} - links are
+     * followed.
+     */
+    public static final class Attributes {
+        private static final Attributes MISSING = new Attributes(false, false, false, 0, 0);
+
+        private final boolean exists;
+        private final boolean file;
+        private final boolean directory;
+        private final long lastModified;
+        private final long size;
+
+        private Attributes(boolean exists, boolean file, boolean directory,
+                           long lastModified, long size) {
+            this.exists = exists;
+            this.file = file;
+            this.directory = directory;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        /**
+         * Reads the attributes of a file.
+         * @param f the file
+         * @return the attributes, a file that cannot be read is
+         * treated as missing
+         */
+        public static Attributes read(File f) {
+            if (f.getPath().isEmpty()) {
+                return MISSING;
+            }
+            try {
+                final BasicFileAttributes attrs =
+                    Files.readAttributes(f.toPath(), BasicFileAttributes.class);
+                return new Attributes(true, attrs.isRegularFile(), attrs.isDirectory(),
+                                      attrs.lastModifiedTime().toMillis(), attrs.size());
+            } catch (IOException | RuntimeException ex) {
+                // missing, dangling link or invalid path
+                return MISSING;
+            }
+        }
+
+        /**
+         * Whether the file exists.
+         * @return boolean
+         */
+        public boolean exists() {
+            return exists;
+        }
+
+        /**
+         * Whether the file is a normal file.
+         * @return boolean
+         */
+        public boolean isFile() {
+            return file;
+        }
+
+        /**
+         * Whether the file is a directory.
+         * @return boolean
+         */
+        public boolean isDirectory() {
+            return directory;
+        }
+
+        /**
+         * The timestamp of the file.
+         * @return milliseconds since the epoch, 0 if the file doesn't exist
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * The size of the file.
+         * @return the size in bytes, 0 if the file doesn't exist
+         */
+        public long getSize() {
+            return size;
+        }
+    }
+}
@@ -58,6 +58,7 @@ import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.MagicNames;
 import org.apache.tools.ant.PathTokenizer;
 import org.apache.tools.ant.Project;
+import org.apache.tools.ant.ProjectComponent;
 import org.apache.tools.ant.launch.Locator;
 import org.apache.tools.ant.taskdefs.condition.Os;
 import org.apache.tools.ant.types.FilterChain;
@@ -590,6 +591,56 @@ public class FileUtils {
                                    outputEncoding, project, force);
     }
 
+    /**
+     * Convenience method to copy a file from a source to a
+     * destination specifying if token
+     * filtering must be used, if filter chains must be used, if
+     * source files may overwrite newer destination files and the
+     * last modified time of <code>destFile</code> file should be made
+     * equal to the last modified time of <code>sourceFile</code>.
+     *
+     * @param sourceFile the file to copy from.
+     *                   Must not be <code>null</code>.
+     * @param destFile the file to copy to.
+     *                 Must not be <code>null</code>.
+     * @param filters the collection of filters to apply to this copy.
+     * @param filterChains filterChains to apply during the copy.
+     * @param overwrite Whether or not the destination file should be
+     *                  overwritten if it already exists.
+     * @param preserveLastModified Whether or not the last modified time of
+     *                             the resulting file should be set to that
+     *                             of the source file.
+     * @param append whether to append to the destination file.
+     * @param inputEncoding the encoding used to read the files.
+     * @param outputEncoding the encoding used to write the files.
+     * @param logTo the component to log messages to, its project is
+     * used as project instance.
+     * @param force whether to overwrite read-only destination files.
+     * @param linkMode how to create the destination if its content
+     * would be a plain copy of the source.
+     * @return the way the destination has been created,
+     * {@link ResourceUtils.LinkMode#none} if the content has been
+     * copied or nothing had to be done.
+     *
+     * @throws IOException if the copying fails.
+     *
+     * @since Ant 1.10.11
+     */
+    public ResourceUtils.LinkMode copyFile(File sourceFile, File destFile,
+                         FilterSetCollection filters, Vector<FilterChain> filterChains,
+                         boolean overwrite, boolean preserveLastModified,
+                         boolean append,
+                         String inputEncoding, String outputEncoding,
+                         ProjectComponent logTo, boolean force,
+                         ResourceUtils.LinkMode linkMode) throws IOException {
+        return ResourceUtils.copyResource(new FileResource(sourceFile),
+                                          new FileResource(destFile),
+                                          filters, filterChains, overwrite,
+                                          preserveLastModified, append,
+                                          inputEncoding, outputEncoding,
+                                          logTo, force, linkMode);
+    }
+
     // CheckStyle:ParameterNumberCheck ON
 
     /**
@@ -0,0 +1,497 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Replaces any number of strings in a single pass over a text.
+ *
+ * <p>The strings to look for are compiled into an <a
+ * href="https://en.wikipedia.org/wiki/Aho%E2%80%93Corasick_algorithm">Aho-Corasick</a>
+ * automaton, so the time it takes to scan a text doesn't depend on
+ * the number of strings.</p>
+ *
+ * <p>If matches overlap, the one starting first is replaced. Of
+ * several matches starting at the same position either the shortest
+ * or the longest one is used. Replacement text is never scanned
+ * again. Empty strings never match.</p>
+ *
+ * <p>Instances are immutable and may be shared between threads,
+ * {@link Pass}es and the readers returned by {@link #filter} must
+ * not.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public final class MultiStringReplacer {
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+    private static final int CHUNK_SIZE = 8192;
+    /** Largest range of characters covered by a transition table. */
+    private static final int MAX_TABLE_SIZE = 128;
+    private static final char[] NO_LABELS = new char[0];
+    private static final int[] NO_TARGETS = new int[0];
+
+    private final boolean longestMatch;
+
+    /** Value of the string ending in a node, null if no string ends there. */
+    private final String[] values;
+    /** Length of the prefix a node represents. */
+    private final int[] depth;
+    /** Node of the longest proper suffix that is a prefix as well. */
+    private final int[] fail;
+    /** Node of the longest proper suffix that is a complete string. */
+    private final int[] output;
+    /** Sorted characters leading to the children of a node. */
+    private final char[][] labels;
+    /** Children of a node in the order of labels. */
+    private final int[][] targets;
+    /** Smallest label of a node. */
+    private final char[] lowestLabel;
+    /**
+     * Children of a node indexed by label - lowest label, null if
+     * the labels span too many characters.
+     */
+    private final int[][] tables;
+
+    /**
+     * Compiles strings into a replacer that prefers the shortest
+     * match starting at a position.
+     *
+     * @param replacements maps strings to their replacements
+     */
+    public MultiStringReplacer(Map<String, String> replacements) {
+        this(replacements, false);
+    }
+
+    /**
+     * Compiles strings into a replacer.
+     *
+     * @param replacements maps strings to their replacements
+     * @param longestMatch whether the longest or the shortest of
+     * several matches starting at the same position is replaced
+     */
+    public MultiStringReplacer(Map<String, String> replacements,
+                               boolean longestMatch) {
+        this.longestMatch = longestMatch;
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<String> nodeValues = new ArrayList<>();
+        List<Integer> nodeDepths = new ArrayList<>();
+        children.add(new TreeMap<>());
+        nodeValues.add(null);
+        nodeDepths.add(0);
+        for (Map.Entry<String, String> e : replacements.entrySet()) {
+            String s = e.getKey();
+            if (s.isEmpty()) {
+                continue;
+            }
+            int node = ROOT;
+            for (int i = 0; i < s.length(); i++) {
+                Integer child = children.get(node).get(s.charAt(i));
+                if (child == null) {
+                    child = children.size();
+                    children.get(node).put(s.charAt(i), child);
+                    children.add(new TreeMap<>());
+                    nodeValues.add(null);
+                    nodeDepths.add(i + 1);
+                }
+                node = child;
+            }
+            nodeValues.set(node, e.getValue());
+        }
+
+        int size = children.size();
+        values = nodeValues.toArray(new String[size]);
+        depth = new int[size];
+        labels = new char[size][];
+        targets = new int[size][];
+        lowestLabel = new char[size];
+        tables = new int[size][];
+        for (int node = 0; node < size; node++) {
+            depth[node] = nodeDepths.get(node);
+            TreeMap<Character, Integer> c = children.get(node);
+            if (c.isEmpty()) {
+                labels[node] = NO_LABELS;
+                targets[node] = NO_TARGETS;
+                tables[node] = NO_TARGETS;
+                continue;
+            }
+            labels[node] = new char[c.size()];
+            targets[node] = new int[c.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> e : c.entrySet()) {
+                labels[node][i] = e.getKey();
+                targets[node][i++] = e.getValue();
+            }
+            lowestLabel[node] = c.firstKey();
+            int range = c.lastKey() - c.firstKey() + 1;
+            if (range <= MAX_TABLE_SIZE) {
+                tables[node] = new int[range];
+                Arrays.fill(tables[node], NONE);
+                for (Map.Entry<Character, Integer> e : c.entrySet()) {
+                    tables[node][e.getKey() - lowestLabel[node]] = e.getValue();
+                }
+            }
+        }
+
+        // breadth first so the failure links of all shorter prefixes
+        // are known when a node is visited
+        fail = new int[size];
+        output = new int[size];
+        output[ROOT] = NONE;
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = ROOT;
+        while (head < tail) {
+            int node = queue[head++];
+            for (int i = 0; i < labels[node].length; i++) {
+                int child = targets[node][i];
+                fail[child] = node == ROOT ? ROOT
+                    : step(fail[node], labels[node][i]);
+                int f = fail[child];
+                output[child] = values[f] != null ? f : output[f];
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    /**
+     * Whether there is nothing to replace at all.
+     *
+     * @return true if no non-empty string has been compiled
+     */
+    public boolean isEmpty() {
+        return labels[ROOT].length == 0;
+    }
+
+    /**
+     * Replaces all matches inside a string.
+     *
+     * @param text the text to replace matches in
+     * @return the text with all matches replaced
+     */
+    public String replace(String text) {
+        return replace(text, Function.identity());
+    }
+
+    /**
+     * Replaces all matches inside a string.
+     *
+     * @param text the text to replace matches in
+     * @param replacement computes the text to insert from the value
+     * a matching string has been compiled with
+     * @return the text with all matches replaced
+     */
+    public String replace(String text, Function<String, String> replacement) {
+        if (isEmpty()) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        Pass pass = newPass(sb, replacement);
+        pass.append(text, 0, text.length());
+        pass.finish();
+        return sb.toString();
+    }
+
+    /**
+     * Creates a reader that replaces all matches while reading from
+     * another reader.
+     *
+     * @param in the reader to read from
+     * @param replacement computes the text to insert from the value
+     * a matching string has been compiled with
+     * @return a reader providing the text with all matches replaced,
+     * closing it doesn't close <code>in</code>
+     */
+    public Reader filter(Reader in, Function<String, String> replacement) {
+        return new ReplacingReader(in, replacement);
+    }
+
+    /**
+     * Starts a pass over a text that is provided in chunks.
+     *
+     * @param out receives the text with all matches replaced
+     * @param replacement computes the text to insert from the value
+     * a matching string has been compiled with
+     * @return the pass
+     */
+    public Pass newPass(StringBuilder out, Function<String, String> replacement) {
+        return new Pass(out, replacement);
+    }
+
+    private int next(int node, char c) {
+        int[] table = tables[node];
+        if (table != null) {
+            int i = c - lowestLabel[node];
+            return i >= 0 && i < table.length ? table[i] : NONE;
+        }
+        int i = Arrays.binarySearch(labels[node], c);
+        return i >= 0 ? targets[node][i] : NONE;
+    }
+
+    private int step(int node, char c) {
+        while (true) {
+            int t = next(node, c);
+            if (t != NONE) {
+                return t;
+            }
+            if (node == ROOT) {
+                return ROOT;
+            }
+            node = fail[node];
+        }
+    }
+
+    /**
+     * A single scan over a text.
+     *
+     * <p>Text is only written to the output once it is known it
+     * can't be part of a match, so up to the length of the longest
+     * string compiled may be held back until {@link #finish} is
+     * called.</p>
+     */
+    public final class Pass {
+        private final StringBuilder out;
+        private final Function<String, String> replacement;
+        /** Text that may still be part of a match. */
+        private final StringBuilder pending = new StringBuilder();
+        /** Text following a replaced match that must be scanned again. */
+        private final StringBuilder rescan = new StringBuilder();
+        private int node = ROOT;
+        /** Node of the best match found so far that hasn't been replaced. */
+        private int candidate = NONE;
+        /** Start of the candidate inside of pending. */
+        private int candidateStart;
+
+        private Pass(StringBuilder out, Function<String, String> replacement) {
+            this.out = out;
+            this.replacement = replacement;
+        }
+
+        /**
+         * Scans the next chunk of text.
+         *
+         * @param text the text
+         * @param start index of the first character to scan
+         * @param end index after the last character to scan
+         */
+        public void append(CharSequence text, int start, int end) {
+            int i = start;
+            while (i < end) {
+                if (isIdle()) {
+                    // copy characters that can't start a match in bulk
+                    int run = i;
+                    if (text instanceof String && labels[ROOT].length == 1) {
+                        // all strings start with the same character
+                        i = ((String) text).indexOf(labels[ROOT][0], i);
+                        i = i < 0 || i > end ? end : i;
+                    } else {
+                        while (i < end && next(ROOT, text.charAt(i)) == NONE) {
+                            i++;
+                        }
+                    }
+                    out.append(text, run, i);
+                    if (i == end) {
+                        break;
+                    }
+                }
+                append(text.charAt(i++));
+            }
+        }
+
+        /**
+         * Scans the next chunk of text.
+         *
+         * @param text the text
+         * @param off index of the first character to scan
+         * @param len number of characters to scan
+         */
+        public void append(char[] text, int off, int len) {
+            int i = off;
+            int end = off + len;
+            while (i < end) {
+                if (isIdle()) {
+                    // copy characters that can't start a match in bulk
+                    int run = i;
+                    while (i < end && next(ROOT, text[i]) == NONE) {
+                        i++;
+                    }
+                    out.append(text, run, i - run);
+                    if (i == end) {
+                        break;
+                    }
+                }
+                append(text[i++]);
+            }
+        }
+
+        /**
+         * Scans the next character.
+         *
+         * @param c the character
+         */
+        public void append(char c) {
+            scan(c);
+            drain();
+        }
+
+        /**
+         * Signals the end of the text and writes everything that has
+         * been held back to the output.
+         */
+        public void finish() {
+            while (candidate != NONE) {
+                replaceCandidate();
+                drain();
+            }
+            out.append(pending);
+            pending.setLength(0);
+            node = ROOT;
+        }
+
+        /**
+         * Whether nothing is held back.
+         */
+        private boolean isIdle() {
+            return node == ROOT && candidate == NONE && rescan.length() == 0;
+        }
+
+        private void drain() {
+            while (rescan.length() > 0) {
+                char c = rescan.charAt(0);
+                rescan.deleteCharAt(0);
+                scan(c);
+            }
+        }
+
+        private void scan(char c) {
+            if (node == ROOT && candidate == NONE && next(ROOT, c) == NONE) {
+                // fast path for text outside of any match
+                out.append(c);
+                return;
+            }
+            pending.append(c);
+            node = step(node, c);
+            int start = pending.length() - depth[node];
+            if (candidate != NONE && (start > candidateStart
+                                      || !longestMatch && start == candidateStart)) {
+                // no match starting before the candidate is possible anymore
+                replaceCandidate();
+                return;
+            }
+            int match = values[node] != null ? node : output[node];
+            if (match != NONE) {
+                int matchStart = pending.length() - depth[match];
+                // a later match starting at the same position is longer
+                if (candidate == NONE || matchStart < candidateStart
+                    || longestMatch && matchStart == candidateStart) {
+                    candidate = match;
+                    candidateStart = matchStart;
+                }
+            }
+            if (candidate != NONE && candidateStart == start
+                && (!longestMatch || labels[node].length == 0)) {
+                replaceCandidate();
+                return;
+            }
+            int keep = candidate == NONE ? start : Math.min(start, candidateStart);
+            if (keep > 0) {
+                out.append(pending, 0, keep);
+                pending.delete(0, keep);
+                candidateStart -= keep;
+            }
+        }
+
+        private void replaceCandidate() {
+            int end = candidateStart + depth[candidate];
+            out.append(pending, 0, candidateStart);
+            out.append(replacement.apply(values[candidate]));
+            rescan.insert(0, pending, end, pending.length());
+            pending.setLength(0);
+            node = ROOT;
+            candidate = NONE;
+        }
+    }
+
+    /**
+     * Performs a pass while reading chunks from another reader.
+     */
+    private final class ReplacingReader extends Reader {
+        private final Reader in;
+        private final Pass pass;
+        private final StringBuilder buffer = new StringBuilder();
+        private final char[] chunk = new char[CHUNK_SIZE];
+        private int pos = 0;
+        private boolean eof = false;
+
+        ReplacingReader(Reader in, Function<String, String> replacement) {
+            this.in = in;
+            pass = new Pass(buffer, replacement);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? buffer.charAt(pos++) : -1;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.length() - pos);
+            buffer.getChars(pos, pos + n, cbuf, off);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private boolean fill() throws IOException {
+            while (pos == buffer.length()) {
+                if (eof) {
+                    return false;
+                }
+                buffer.setLength(0);
+                pos = 0;
+                int n = in.read(chunk);
+                if (n < 0) {
+                    eof = true;
+                    pass.finish();
+                } else {
+                    pass.append(chunk, 0, n);
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -29,6 +29,9 @@ import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Vector;
@@ -187,11 +190,11 @@ public class ResourceUtils {
             try {
                 targetnames = mapper.mapFileName(srName);
             } catch (final Exception e) {
-                logTo.log("Caught " + e + " mapping resource " + sr,
+                logTo.log(() -> "Caught " + e + " mapping resource " + sr,
                     Project.MSG_VERBOSE);
             }
             if (targetnames == null || targetnames.length == 0) {
-                logTo.log(sr + " skipped - don't know how to handle it",
+                logTo.log(() -> sr + " skipped - don't know how to handle it",
                       Project.MSG_VERBOSE);
                 continue;
             }
@@ -210,13 +213,13 @@ public class ResourceUtils {
             if (r.size() > 0) {
                 result.add(sr);
                 final Resource t = r.iterator().next();
-                logTo.log(sr.getName() + " added as " + t.getName()
+                logTo.log(() -> sr.getName() + " added as " + t.getName()
                     + (t.isExists() ? " is outdated." : " doesn't exist."),
                     Project.MSG_VERBOSE);
                 continue;
             }
             //log uptodateness of all targets:
-            logTo.log(sr.getName()
+            logTo.log(() -> sr.getName()
                   + " omitted as " + targetColl.toString()
                   + (targetColl.size() == 1 ? " is" : " are ")
                   + " up to date.", Project.MSG_VERBOSE);
@@ -372,9 +375,86 @@ public class ResourceUtils {
                                     final String inputEncoding, final String outputEncoding,
                                     final Project project, final boolean force)
         throws IOException {
+        copyResource(source, dest, filters, filterChains, overwrite,
+                     preserveLastModified, append, inputEncoding,
+                     outputEncoding, project, null, force, LinkMode.none);
+    }
+
+    /**
+     * Convenience method to copy content from one Resource to another
+     * specifying whether token filtering must be used, whether filter chains
+     * must be used, whether newer destination files may be overwritten and
+     * whether the last modified time of <code>dest</code> file should be made
+     * equal to the last modified time of <code>source</code>.
+     *
+     * <p>If both Resources are files and their content is copied
+     * without any filtering or transcoding the destination may be
+     * created as a hard link to or a clone of the source as
+     * specified by <code>linkMode</code>. If that isn't possible the
+     * content is copied instead.</p>
+     *
+     * @param source the Resource to copy from.
+     *                   Must not be <code>null</code>.
+     * @param dest   the Resource to copy to.
+     *                 Must not be <code>null</code>.
+     * @param filters the collection of filters to apply to this copy.
+     * @param filterChains filterChains to apply during the copy.
+     * @param overwrite Whether or not the destination Resource should be
+     *                  overwritten if it already exists.
+     * @param preserveLastModified Whether or not the last modified time of
+     *                             the destination Resource should be set to that
+     *                             of the source.
+     * @param append Whether to append to an Appendable Resource.
+     * @param inputEncoding the encoding used to read the files.
+     * @param outputEncoding the encoding used to write the files.
+     * @param logTo the component to log messages to, its project is
+     * used as project instance.
+     * @param force whether read-only target files will be overwritten
+     * @param linkMode how to create the destination if its content
+     * would be a plain copy of the source.
+     * @return the way the destination has been created,
+     * {@link LinkMode#none} if the content has been copied or nothing
+     * had to be done.
+     *
+     * @throws IOException if the copying fails.
+     *
+     * @since Ant 1.10.11
+     */
+    public static LinkMode copyResource(final Resource source, final Resource dest,
+                                        final FilterSetCollection filters,
+                                        final Vector<FilterChain> filterChains,
+                                        final boolean overwrite,
+                                        final boolean preserveLastModified,
+                                        final boolean append,
+                                        final String inputEncoding,
+                                        final String outputEncoding,
+                                        final ProjectComponent logTo,
+                                        final boolean force,
+                                        final LinkMode linkMode)
+        throws IOException {
+        return copyResource(source, dest, filters, filterChains, overwrite,
+                            preserveLastModified, append, inputEncoding,
+                            outputEncoding, logTo.getProject(), logTo, force,
+                            linkMode);
+    }
+
+    private static LinkMode copyResource(final Resource source, final Resource dest,
+                                         final FilterSetCollection filters,
+                                         final Vector<FilterChain> filterChains,
+                                         final boolean overwrite,
+                                         final boolean preserveLastModified,
+                                         final boolean append,
+                                         final String inputEncoding,
+                                         final String outputEncoding,
+                                         final Project project,
+                                         final ProjectComponent logTo,
+                                         final boolean force,
+                                         final LinkMode linkMode)
+        throws IOException {
+        LinkMode used = LinkMode.none;
         if (!overwrite && !SelectorUtils.isOutOfDate(source, dest,
                 FileUtils.getFileUtils().getFileTimestampGranularity())) {
-            return;
+            return used;
         }
         final boolean filterSetsAvailable = (filters != null
                                              && filters.hasFilters());
@@ -418,18 +498,26 @@ public class ResourceUtils {
                 && destFile != null && !append) {
                 final File sourceFile =
                     source.as(FileProvider.class).getFile();
-                try {
-                    copyUsingFileChannels(sourceFile, destFile, project);
+                if (linkMode != null && linkMode != LinkMode.none
+                    && link(sourceFile, destFile, linkMode, project, logTo)) {
+                    used = linkMode;
                     copied = true;
-                } catch (final IOException ex) {
-                    String msg = "Attempt to copy " + sourceFile
-                        + " to " + destFile + " using NIO Channels"
-                        + " failed due to '" + ex.getMessage()
-                        + "'.  Falling back to streams.";
-                    if (project != null) {
-                        project.log(msg, Project.MSG_WARN);
-                    } else {
-                        System.err.println(msg);
+                } else {
+                    try {
+                        copyUsingFileChannels(sourceFile, destFile, project);
+                        copied = true;
+                    } catch (final IOException ex) {
+                        String msg = "Attempt to copy " + sourceFile
+                            + " to " + destFile + " using NIO Channels"
+                            + " failed due to '" + ex.getMessage()
+                            + "'.  Falling back to streams.";
+                        if (logTo != null) {
+                            logTo.log(msg, Project.MSG_WARN);
+                        } else if (project != null) {
+                            project.log(msg, Project.MSG_WARN);
+                        } else {
+                            System.err.println(msg);
+                        }
                     }
                 }
             }
@@ -443,6 +531,7 @@ public class ResourceUtils {
                 setLastModified(t, source.getLastModified());
             }
         }
+        return used;
     }
     // CheckStyle:ParameterNumberCheck ON
 
@@ -754,6 +843,66 @@ public class ResourceUtils {
         }
     }
 
+    /**
+     * Creates the destination as a hard link to or a clone of the source.
+     * @return false if the file system doesn't support it, the
+     * content has to be copied then.
+     */
+    private static boolean link(final File sourceFile, final File destFile,
+                                final LinkMode linkMode, final Project project,
+                                final ProjectComponent logTo)
+        throws IOException {
+        if (FileUtils.getFileUtils().areSame(sourceFile, destFile)) {
+            // let copyUsingFileChannels deal with it
+            return false;
+        }
+        final File parent = destFile.getParentFile();
+        if (parent != null && !parent.isDirectory()
+            && !(parent.mkdirs() || parent.isDirectory())) {
+            throw new IOException("failed to create the parent directory"
+                                  + " for " + destFile);
+        }
+        final Path source = sourceFile.toPath();
+        final Path dest = destFile.toPath();
+        try {
+            if (linkMode == LinkMode.hard) {
+                if (Files.exists(dest) && Files.isSameFile(source, dest)) {
+                    return true;
+                }
+                Files.deleteIfExists(dest);
+                Files.createLink(dest, source);
+                logLink(project, logTo, "Created hard link " + destFile + " to "
+                        + sourceFile, Project.MSG_DEBUG);
+            } else {
+                Files.copy(source, dest, StandardCopyOption.REPLACE_EXISTING);
+                logLink(project, logTo, "Cloned " + sourceFile + " to " + destFile,
+                        Project.MSG_DEBUG);
+            }
+            return true;
+        } catch (final IOException | UnsupportedOperationException
+                 | SecurityException ex) {
+            logLink(project, logTo, "Could not " + (linkMode == LinkMode.hard
+                                                    ? "create a hard link to " : "clone ")
+                    + sourceFile + " as " + destFile + " due to '"
+                    + ex.getMessage() + "', copying it instead.",
+                    Project.MSG_VERBOSE);
+            return false;
+        }
+    }
+
+    /**
+     * Logs a message of {@link #link} to the calling component if
+     * there is one so it can keep the order of its messages.
+     */
+    private static void logLink(final Project project, final ProjectComponent logTo,
+                                final String message, final int level) {
+        if (logTo != null) {
+            logTo.log(message, level);
+        } else if (project != null) {
+            project.log(message, level);
+        }
+    }
+
     private static void copyUsingStreams(final Resource source, final Resource dest,
                                          final boolean append, final Project project)
         throws IOException {
@@ -819,6 +968,31 @@ public class ResourceUtils {
         ResourceSelector getTargetSelectorForSource(Resource source);
     }
 
+    /**
+     * Ways of creating a destination file whose content would be an
+     * exact copy of the source file.
+     *
+     * @since Ant 1.10.11
+     */
+    public enum LinkMode {
+        /** Copy the content. */
+        none,
+        /**
+         * Create a hard link. Source and destination share their
+         * content afterwards, modifying one of them modifies the other
+         * as well.
+         */
+        hard,
+        /**
+         * Let the operating system copy the file using {@link
+         * Files#copy(Path, Path, java.nio.file.CopyOption...)}. On
+         * file systems that support it, recent Java versions create a
+         * copy-on-write clone that shares the content with the source
+         * until one of them is modified.
+         */
+        clone
+    }
+
     /**
      * @since Ant 1.9.4
      */
@@ -0,0 +1,273 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.zip.Checksum;
+
+/**
+ * Pure Java implementation of the 64 bit variant of the xxHash
+ * non-cryptographic hash algorithm.
+ *
+ * <p>xxHash is much faster than the digests provided by {@link
+ * MessageDigest} and produces the same values as the reference
+ * implementation at <a
+ * href="https://github.com/Cyan4973/xxHash">https://github.com/Cyan4973/xxHash</a>.
+ * It is suitable for detecting modifications but must not be used
+ * where a cryptographic hash is required.</p>
+ *
+ * <p>Instances are not thread-safe.</p>
+ *
+ * @since Ant 1.10.11
+ */
+public final class XxHash64 implements Checksum {
+
+    /** Name of the algorithm when used as a {@link MessageDigest}. */
+    public static final String ALGORITHM = "XXH64";
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    private static final int STRIPE = 32;
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> FILE_BUFFER =
+        ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(FILE_BUFFER_SIZE)
+                                .order(ByteOrder.LITTLE_ENDIAN));
+
+    private final long seed;
+    private final ByteBuffer pending =
+        ByteBuffer.allocate(STRIPE).order(ByteOrder.LITTLE_ENDIAN);
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+    private long length;
+
+    /** Creates an instance using a seed of 0. */
+    public XxHash64() {
+        this(0);
+    }
+
+    /**
+     * Creates an instance using the given seed.
+     * @param seed the seed
+     */
+    public XxHash64(long seed) {
+        this.seed = seed;
+        reset();
+    }
+
+    /**
+     * Computes the hash of a file's content.
+     *
+     * <p>The file is read through a channel into a direct buffer
+     * that is reused for all files hashed by the same thread.</p>
+     *
+     * @param file the file
+     * @return the hash
+     * @throws IOException if the file cannot be read
+     */
+    public static long hash(Path file) throws IOException {
+        final XxHash64 h = new XxHash64();
+        final ByteBuffer buf = FILE_BUFFER.get();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buf.clear();
+            while (channel.read(buf) != -1) {
+                buf.flip();
+                h.update(buf);
+                buf.clear();
+            }
+        }
+        return h.getValue();
+    }
+
+    /**
+     * Creates a MessageDigest computing this hash, the digest is the
+     * big endian representation of the hash.
+     * @return a new MessageDigest
+     */
+    public static MessageDigest newMessageDigest() {
+        return new Digest();
+    }
+
+    @Override
+    public void reset() {
+        v1 = seed + PRIME1 + PRIME2;
+        v2 = seed + PRIME2;
+        v3 = seed;
+        v4 = seed - PRIME1;
+        length = 0;
+        pending.clear();
+    }
+
+    @Override
+    public void update(int b) {
+        pending.put((byte) b);
+        length++;
+        if (!pending.hasRemaining()) {
+            pending.flip();
+            consumeStripe(pending);
+            pending.clear();
+        }
+    }
+
+    @Override
+    public void update(byte[] b, int off, int len) {
+        update(ByteBuffer.wrap(b, off, len));
+    }
+
+    /**
+     * Updates the hash with the remaining bytes of the buffer.
+     * @param buffer the bytes to hash, consumed completely
+     */
+    public void update(ByteBuffer buffer) {
+        final ByteBuffer buf = buffer.order() == ByteOrder.LITTLE_ENDIAN
+            ? buffer : buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        length += buf.remaining();
+        if (pending.position() > 0) {
+            while (pending.hasRemaining() && buf.hasRemaining()) {
+                pending.put(buf.get());
+            }
+            if (pending.hasRemaining()) {
+                advance(buffer, buf);
+                return;
+            }
+            pending.flip();
+            consumeStripe(pending);
+            pending.clear();
+        }
+        while (buf.remaining() >= STRIPE) {
+            consumeStripe(buf);
+        }
+        pending.put(buf);
+        advance(buffer, buf);
+    }
+
+    private static void advance(ByteBuffer original, ByteBuffer consumed) {
+        if (original != consumed) {
+            original.position(consumed.position());
+        }
+    }
+
+    private void consumeStripe(ByteBuffer buf) {
+        v1 = round(v1, buf.getLong());
+        v2 = round(v2, buf.getLong());
+        v3 = round(v3, buf.getLong());
+        v4 = round(v4, buf.getLong());
+    }
+
+    @Override
+    public long getValue() {
+        long h;
+        if (length >= STRIPE) {
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+                + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = mergeRound(h, v1);
+            h = mergeRound(h, v2);
+            h = mergeRound(h, v3);
+            h = mergeRound(h, v4);
+        } else {
+            h = seed + PRIME5;
+        }
+        h += length;
+
+        final ByteBuffer rest = pending.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        rest.flip();
+        while (rest.remaining() >= 8) {
+            h ^= round(0, rest.getLong());
+            h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+        }
+        if (rest.remaining() >= 4) {
+            h ^= (rest.getInt() & 0xFFFFFFFFL) * PRIME1;
+            h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+        }
+        while (rest.hasRemaining()) {
+            h ^= (rest.get() & 0xFF) * PRIME5;
+            h = Long.rotateLeft(h, 11) * PRIME1;
+        }
+
+        h ^= h >>> 33;
+        h *= PRIME2;
+        h ^= h >>> 29;
+        h *= PRIME3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long round(long acc, long input) {
+        return Long.rotateLeft(acc + input * PRIME2, 31) * PRIME1;
+    }
+
+    private static long mergeRound(long acc, long val) {
+        return (acc ^ round(0, val)) * PRIME1 + PRIME4;
+    }
+
+    /**
+     * Adapts the hash to the MessageDigest API.
+     */
+    private static final class Digest extends MessageDigest {
+        private final XxHash64 hash = new XxHash64();
+
+        Digest() {
+            super(ALGORITHM);
+        }
+
+        @Override
+        protected int engineGetDigestLength() {
+            return Long.BYTES;
+        }
+
+        @Override
+        protected void engineUpdate(byte input) {
+            hash.update(input);
+        }
+
+        @Override
+        protected void engineUpdate(byte[] input, int offset, int len) {
+            hash.update(input, offset, len);
+        }
+
+        @Override
+        protected void engineUpdate(ByteBuffer input) {
+            hash.update(input);
+        }
+
+        @Override
+        protected byte[] engineDigest() {
+            final byte[] digest = ByteBuffer.allocate(Long.BYTES)
+                .putLong(hash.getValue()).array();
+            hash.reset();
+            return digest;
+        }
+
+        @Override
+        protected void engineReset() {
+            hash.reset();
+        }
+    }
+}
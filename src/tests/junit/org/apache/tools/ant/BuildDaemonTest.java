@@ -0,0 +1,160 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Properties;
+
+import org.apache.tools.ant.launch.DaemonClient;
+import org.apache.tools.ant.launch.LaunchException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Runs builds through an in-process {@link BuildDaemon}.
+ */
+public class BuildDaemonTest {
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private File daemonFile;
+    private Thread daemonThread;
+    private String buildFile;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @Before
+    public void setUp() throws Exception {
+        daemonFile = new File(testFolder.getRoot(), "daemon.properties");
+        final BuildDaemon daemon = new BuildDaemon();
+        daemon.listen(daemonFile, 2);
+        daemonThread = new Thread(() -> {
+            try {
+                daemon.serve(null);
+            } catch (final Exception ex) {
+                ex.printStackTrace(); //NOSONAR
+            }
+        });
+        daemonThread.start();
+        String root = System.getProperty(MagicTestNames.TEST_ROOT_DIRECTORY, ".");
+        buildFile = new File(root, "src/etc/testcases/core/executor.xml")
+            .getAbsolutePath();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        daemonThread.join();
+    }
+
+    private int run(String... args) throws Exception {
+        out.reset();
+        err.reset();
+        return new DaemonClient(daemonFile, new PrintStream(out, true),
+                                new PrintStream(err, true)).run(args, null);
+    }
+
+    @Test
+    public void testSuccessfulBuild() throws Exception {
+        assertEquals(0, run("-f", buildFile, "a"));
+        assertThat(out.toString(), containsString("[echo] a"));
+        assertThat(out.toString(), containsString("BUILD SUCCESSFUL"));
+    }
+
+    @Test
+    public void testFailingBuild() throws Exception {
+        assertEquals(1, run("-f", buildFile, "-Dfailfoo=true", "a"));
+        assertThat(err.toString(), containsString("failfoo"));
+    }
+
+    @Test
+    public void testBuildsAreIsolated() throws Exception {
+        assertEquals(1, run("-f", buildFile, "-Dfailfoo=true", "a"));
+        // the property of the first build mustn't leak into the second one
+        assertEquals(0, run("-f", buildFile, "a"));
+        assertFalse(out.toString().contains("failfoo"));
+    }
+
+    @Test
+    public void testShutsDownWhenIdle() throws Exception {
+        daemonThread.join(10000);
+        assertFalse(daemonThread.isAlive());
+        assertFalse(daemonFile.exists());
+    }
+
+    @Test
+    public void testDaemonFileIsOwnerOnly() throws Exception {
+        assumeTrue(daemonFile.toPath().getFileSystem()
+                   .supportedFileAttributeViews().contains("posix"));
+        assertEquals(PosixFilePermissions.fromString("rw-------"),
+                     Files.getPosixFilePermissions(daemonFile.toPath()));
+        assertEquals(0, run("-f", buildFile, "a"));
+    }
+
+    @Test
+    public void testIdleTimeoutOutOfRange() throws Exception {
+        for (int timeout : new int[] {0, -1, Integer.MAX_VALUE}) {
+            try {
+                new BuildDaemon().listen(new File(testFolder.getRoot(), "other.properties"),
+                                         timeout);
+                fail("accepted idle timeout " + timeout);
+            } catch (BuildException ex) {
+                assertThat(ex.getMessage(), containsString(BuildDaemon.IDLE_TIMEOUT_PROPERTY));
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidToken() throws Exception {
+        assertTrue(daemonFile.isFile());
+        File forged = testFolder.newFile("forged.properties");
+        Properties props = new Properties();
+        try (InputStream is = Files.newInputStream(daemonFile.toPath())) {
+            props.load(is);
+        }
+        props.setProperty(DaemonClient.TOKEN_KEY, "invalid");
+        try (OutputStream os = Files.newOutputStream(forged.toPath())) {
+            props.store(os, null);
+        }
+        try {
+            new DaemonClient(forged, new PrintStream(out), new PrintStream(err))
+                .run(new String[] {"-f", buildFile}, null);
+            fail("expected the connection to be closed");
+        } catch (LaunchException ex) {
+            assertThat(ex.getMessage(), containsString("Lost connection"));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ContinuousBuildTest {
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private File in;
+    private File out;
+    private Project project;
+    private ContinuousBuild continuousBuild;
+    private Thread thread;
+    private final Map<String, AtomicInteger> executed = new ConcurrentHashMap<>();
+    private final AtomicInteger finished = new AtomicInteger();
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        in = testFolder.newFolder("in");
+        out = new File(testFolder.getRoot(), "out");
+        File buildFile = testFolder.newFile("build.xml");
+        write(buildFile, "<project>\n"
+              + "  <target name=\"copy\">\n"
+              + "    <copy todir=\"out\"><fileset dir=\"in\"/></copy>\n"
+              + "  </target>\n"
+              + "  <target name=\"package\" depends=\"copy\"/>\n"
+              + "  <target name=\"other\"><echo>other</echo></target>\n"
+              + "</project>\n");
+        write(new File(in, "a.txt"), "a");
+        project = new Project();
+        project.init();
+        ProjectHelper.configureProject(project, buildFile);
+        project.addBuildListener(new BuildListener() {
+            public void buildStarted(BuildEvent event) {
+            }
+
+            public void buildFinished(BuildEvent event) {
+                finished.incrementAndGet();
+            }
+
+            public void targetStarted(BuildEvent event) {
+                executed.computeIfAbsent(event.getTarget().getName(),
+                                         k -> new AtomicInteger()).incrementAndGet();
+            }
+
+            public void targetFinished(BuildEvent event) {
+            }
+
+            public void taskStarted(BuildEvent event) {
+            }
+
+            public void taskFinished(BuildEvent event) {
+            }
+
+            public void messageLogged(BuildEvent event) {
+                messages.add(event.getMessage());
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (continuousBuild != null) {
+            continuousBuild.stop();
+            thread.join(10000);
+            assertFalse(thread.isAlive());
+        }
+    }
+
+    private static void write(File f, String content) throws IOException {
+        Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void start(String... targets) {
+        Vector<String> v = new Vector<>();
+        for (String t : targets) {
+            v.add(t);
+        }
+        continuousBuild = new ContinuousBuild(project, v);
+        thread = new Thread(continuousBuild::run);
+        thread.start();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 200 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private int count(String target) {
+        AtomicInteger i = executed.get(target);
+        return i == null ? 0 : i.get();
+    }
+
+    @Test
+    public void testExecutesAffectedTargetsAgain() throws Exception {
+        start("package", "other");
+        waitFor(() -> finished.get() == 1);
+        assertTrue(new File(out, "a.txt").isFile());
+        write(new File(in, "b.txt"), "b");
+        waitFor(() -> finished.get() == 2);
+        assertTrue(new File(out, "b.txt").isFile());
+        assertEquals(2, count("package"));
+        assertEquals(2, count("copy"));
+        assertEquals(1, count("other"));
+    }
+
+    @Test
+    public void testIgnoresDefaultExcludes() throws Exception {
+        start("copy");
+        waitFor(() -> finished.get() == 1);
+        write(new File(in, "a.txt~"), "a");
+        Thread.sleep(1000);
+        assertEquals(1, count("copy"));
+    }
+
+    @Test
+    public void testReportsWatchedDirectories() throws Exception {
+        new File(in, "sub").mkdir();
+        start("copy");
+        waitFor(() -> finished.get() == 1);
+        assertTrue(messages.contains("Watching 2 directories for changes."));
+    }
+
+    @Test
+    public void testDoesNotWantMessages() {
+        assertTrue(new ContinuousBuild(project, new Vector<>()).getMessageOutputLevel()
+                   < Project.MSG_ERR);
+    }
+
+    @Test
+    public void testReturnsIfNothingIsWatched() {
+        new ContinuousBuild(project, new Vector<>()).run();
+        assertEquals(0, finished.get());
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.tools.ant;
 
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
@@ -29,17 +30,24 @@ import static org.junit.Assume.assumeTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.tools.ant.taskdefs.condition.Os;
+import org.apache.tools.ant.types.selectors.ContainsSelector;
+import org.apache.tools.ant.types.selectors.FileSelector;
 import org.apache.tools.ant.types.selectors.TokenizedPath;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * JUnit testcases for org.apache.tools.ant.DirectoryScanner
@@ -50,6 +58,9 @@ public class DirectoryScannerTest {
     @Rule
     public BuildFileRule buildRule = new BuildFileRule();
 
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
     // keep track of what operating systems are supported here.
     private boolean supportsSymlinks = Os.isFamily("unix");
 
@@ -520,4 +531,191 @@ public class DirectoryScannerTest {
         TokenizedPath p = new TokenizedPath(f.getAbsolutePath());
         assertTrue(ds.contentsExcluded(p));
     }
+
+    @Test
+    public void testParallelScanMatchesSequentialScan() throws IOException {
+        File base = createTree();
+        String[] includes = {"**/*.txt", "a/**"};
+        String[] excludes = {"**/skip/**", "b/*/f1.txt"};
+        assertSameResults(scan(base, includes, excludes, true, false),
+                          scan(base, includes, excludes, true, true));
+        assertSameResults(scan(base, null, null, true, false),
+                          scan(base, null, null, true, true));
+    }
+
+    @Test
+    public void testParallelScanMatchesSequentialScanWithSymlinks() throws IOException {
+        assumeTrue("Current system does not support Symlinks", supportsSymlinks);
+        File base = createTree();
+        Files.createSymbolicLink(new File(base, "linkToB").toPath(),
+                                 new File(base, "b").toPath());
+        Files.createSymbolicLink(new File(base, "a/loop").toPath(),
+                                 new File(base, "a").toPath());
+        Files.createSymbolicLink(new File(base, "dangling").toPath(),
+                                 new File(base, "missing").toPath());
+        for (boolean follow : new boolean[] {true, false}) {
+            assertSameResults(scan(base, null, null, follow, false),
+                              scan(base, null, null, follow, true));
+        }
+    }
+
+    @Test
+    public void testScanIncludedFilesMatchesScan() throws IOException {
+        File base = createTree();
+        // names sorting before and after "a" + separator
+        for (String name : new String[] {"a.txt", "a0.txt", "a-b/f.txt", "a0/f.txt"}) {
+            File f = new File(base, name);
+            f.getParentFile().mkdirs();
+            assertTrue(f.createNewFile());
+        }
+        String[][][] patterns = {
+            {null, null},
+            {{"**/*.txt", "a/**"}, {"**/skip/**", "b/*/f1.txt"}},
+            {{"a/d1/f0.txt", "c/d2/e/**", "a.txt"}, null},
+            {{"**/e/**"}, {"**/f/**"}},
+            {{"**/*.bin"}, {"b/**"}},
+        };
+        for (String[][] p : patterns) {
+            assertScanIncludedFiles(base, p[0], p[1], true);
+        }
+    }
+
+    @Test
+    public void testScanIncludedFilesWithSymlinks() throws IOException {
+        assumeTrue("Current system does not support Symlinks", supportsSymlinks);
+        File base = createTree();
+        Files.createSymbolicLink(new File(base, "linkToB").toPath(),
+                                 new File(base, "b").toPath());
+        Files.createSymbolicLink(new File(base, "a/loop").toPath(),
+                                 new File(base, "a").toPath());
+        Files.createSymbolicLink(new File(base, "dangling").toPath(),
+                                 new File(base, "missing").toPath());
+        for (boolean follow : new boolean[] {true, false}) {
+            assertScanIncludedFiles(base, null, null, follow);
+        }
+    }
+
+    @Test
+    public void testParallelSelectionMatchesSerialSelection() throws IOException {
+        File base = createTree();
+        for (String name : new String[] {"a/d0/f1.txt", "b/d1/e/f/f2.txt", "c/d2/f0.txt"}) {
+            Files.write(new File(base, name).toPath(), "some text".getBytes());
+        }
+        ContainsSelector contains = new ContainsSelector();
+        contains.setText("text");
+        RecordingSelector recording = new RecordingSelector(true);
+        FileSelector[] selectors = {recording, contains};
+        DirectoryScanner serial = scan(base, selectors, false);
+        assertEquals(3, serial.getIncludedFilesCount());
+        recording.threads.clear();
+
+        DirectoryScanner parallel = scan(base, selectors, true);
+        assertSameResults(serial, parallel);
+        assertArrayEquals(serial.getDeselectedFiles(), parallel.getDeselectedFiles());
+        assertThat(recording.threads, hasItem(not(Thread.currentThread())));
+    }
+
+    @Test
+    public void testParallelSelectionRequiresThreadSafeSelectors() throws IOException {
+        File base = createTree();
+        RecordingSelector recording = new RecordingSelector(false);
+        DirectoryScanner scanner = scan(base, new FileSelector[] {recording}, true);
+        assertEquals(81, scanner.getIncludedFilesCount());
+        assertEquals(Collections.singleton(Thread.currentThread()), recording.threads);
+    }
+
+    private DirectoryScanner scan(File base, FileSelector[] selectors,
+                                  boolean parallelSelection) {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir(base);
+        scanner.setSelectors(selectors);
+        scanner.setParallelSelection(parallelSelection);
+        scanner.scan();
+        return scanner;
+    }
+
+    /**
+     * Selects files ending with .txt and records the threads it has
+     * been invoked by.
+     */
+    private static class RecordingSelector implements FileSelector {
+        private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        private final boolean threadSafe;
+
+        RecordingSelector(boolean threadSafe) {
+            this.threadSafe = threadSafe;
+        }
+
+        @Override
+        public boolean isSelected(File basedir, String filename, File file) {
+            threads.add(Thread.currentThread());
+            return file.isDirectory() || filename.endsWith(".txt");
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return threadSafe;
+        }
+    }
+
+    private void assertScanIncludedFiles(File base, String[] includes, String[] excludes,
+                                         boolean followSymlinks) {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir(base);
+        scanner.setIncludes(includes);
+        scanner.setExcludes(excludes);
+        scanner.setFollowSymlinks(followSymlinks);
+        scanner.setMaxLevelsOfSymlinks(1);
+        List<String> streamed = new ArrayList<>();
+        scanner.scanIncludedFiles().forEachRemaining(streamed::add);
+        assertArrayEquals(scan(base, includes, excludes, followSymlinks, false)
+                          .getIncludedFiles(), streamed.toArray());
+    }
+
+    private File createTree() throws IOException {
+        File base = testFolder.newFolder("tree");
+        for (String dir : new String[] {"a", "b", "c"}) {
+            for (int i = 0; i < 3; i++) {
+                for (String sub : new String[] {"d" + i, "d" + i + "/skip",
+                                                "d" + i + "/e/f"}) {
+                    File d = new File(base, dir + "/" + sub);
+                    assertTrue(d.mkdirs());
+                    for (int j = 0; j < 3; j++) {
+                        assertTrue(new File(d, "f" + j + ".txt").createNewFile());
+                        assertTrue(new File(d, "g" + j + ".bin").createNewFile());
+                    }
+                }
+            }
+        }
+        return base;
+    }
+
+    private DirectoryScanner scan(File base, String[] includes, String[] excludes,
+                                  boolean followSymlinks, boolean parallel) {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir(base);
+        scanner.setIncludes(includes);
+        scanner.setExcludes(excludes);
+        scanner.setFollowSymlinks(followSymlinks);
+        scanner.setMaxLevelsOfSymlinks(1);
+        scanner.setParallel(parallel);
+        scanner.scan();
+        return scanner;
+    }
+
+    private void assertSameResults(DirectoryScanner expected, DirectoryScanner actual) {
+        // the order has to be the same as well
+        assertArrayEquals(expected.getIncludedFiles(), actual.getIncludedFiles());
+        assertArrayEquals(expected.getIncludedDirectories(),
+                          actual.getIncludedDirectories());
+        assertArrayEquals(expected.getExcludedFiles(), actual.getExcludedFiles());
+        assertArrayEquals(expected.getExcludedDirectories(),
+                          actual.getExcludedDirectories());
+        assertArrayEquals(expected.getNotIncludedFiles(), actual.getNotIncludedFiles());
+        assertArrayEquals(expected.getNotIncludedDirectories(),
+                          actual.getNotIncludedDirectories());
+        assertArrayEquals(expected.getNotFollowedSymlinks(),
+                          actual.getNotFollowedSymlinks());
+        assertEquals(expected.isEverythingIncluded(), actual.isEverythingIncluded());
+    }
 }
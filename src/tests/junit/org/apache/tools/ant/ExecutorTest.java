@@ -19,7 +19,12 @@
 package org.apache.tools.ant;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Vector;
 
 import org.junit.Before;
@@ -42,6 +47,8 @@ public class ExecutorTest implements BuildListener  {
             = "org.apache.tools.ant.helper.SingleCheckExecutor";
     private static final String IGNORE_DEPS
             = "org.apache.tools.ant.helper.IgnoreDependenciesExecutor";
+    private static final String PARALLEL
+            = "org.apache.tools.ant.helper.ParallelExecutor";
 
     private static final Vector<String> TARGET_NAMES;
     static {
@@ -52,9 +59,12 @@ public class ExecutorTest implements BuildListener  {
 
     private int targetCount;
 
+    private final List<String> startedTargets = new ArrayList<>();
+
     /* BuildListener stuff */
-    public void targetStarted(BuildEvent event) {
+    public synchronized void targetStarted(BuildEvent event) {
         targetCount++;
+        startedTargets.add(event.getTarget().getName());
     }
 
     public void buildStarted(BuildEvent event) {
@@ -79,6 +89,7 @@ public class ExecutorTest implements BuildListener  {
     public void setUp() {
         buildRule.configureProject("src/etc/testcases/core/executor.xml");
         targetCount = 0;
+        startedTargets.clear();
         buildRule.getProject().addBuildListener(this);
     }
 
@@ -118,6 +129,39 @@ public class ExecutorTest implements BuildListener  {
         assertEquals(2, targetCount);
     }
 
+    @Test
+    public void testParallelExecutor() {
+        getProject(PARALLEL).executeTargets(TARGET_NAMES);
+        assertEquals(3, targetCount);
+        assertEquals("foo", startedTargets.get(0));
+    }
+
+    @Test
+    public void testParallelExecutorSingleThread() {
+        Project p = getProject(PARALLEL);
+        p.setNewProperty(MagicNames.ANT_EXECUTOR_THREADS, "1");
+        p.executeTargets(TARGET_NAMES);
+        assertEquals(Arrays.asList("foo", "a", "b"), startedTargets);
+    }
+
+    @Test
+    public void testParallelExecutorRunsConcurrently() {
+        Project p = getProject(PARALLEL);
+        p.setNewProperty(MagicNames.ANT_EXECUTOR_THREADS, "2");
+        p.executeTargets(new Vector<>(Collections.singletonList("p")));
+        assertEquals(3, targetCount);
+        assertEquals("p", startedTargets.get(2));
+    }
+
+    @Test
+    public void testParallelExecutorInvalidThreads() {
+        thrown.expect(BuildException.class);
+        thrown.expectMessage(MagicNames.ANT_EXECUTOR_THREADS);
+        Project p = getProject(PARALLEL);
+        p.setNewProperty(MagicNames.ANT_EXECUTOR_THREADS, "none");
+        p.executeTargets(TARGET_NAMES);
+    }
+
     @Test
     public void testDefaultFailure() {
         thrown.expect(BuildException.class);
@@ -140,6 +184,36 @@ public class ExecutorTest implements BuildListener  {
         }
     }
 
+    @Test
+    public void testParallelFailure() {
+        thrown.expect(BuildException.class);
+        thrown.expectMessage("failfoo");
+        try {
+            getProject(PARALLEL, true).executeTargets(TARGET_NAMES);
+        } finally {
+            assertEquals(1, targetCount);
+        }
+    }
+
+    @Test
+    public void testParallelRuntimeExceptionIsNotWrapped() {
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("boom");
+        Project p = getProject(PARALLEL);
+        p.setNewProperty(MagicNames.ANT_EXECUTOR_THREADS, "2");
+        Target t = new Target() {
+            @Override
+            public void execute() {
+                throw new IllegalStateException("boom");
+            }
+        };
+        t.setName("boom");
+        p.addTarget(t);
+        Vector<String> targets = new Vector<>(TARGET_NAMES);
+        targets.add("boom");
+        p.executeTargets(targets);
+    }
+
     @Test
     public void testIgnoreDependenciesFailure() {
         //no foo failure; foo is never executed as dependencies are ignored!
@@ -168,6 +242,24 @@ public class ExecutorTest implements BuildListener  {
         }
     }
 
+    @Test
+    public void testKeepGoingParallel() {
+        thrown.expect(BuildException.class);
+        thrown.expectMessage("failfoo");
+        Vector<String> targetNames = new Vector<>(TARGET_NAMES);
+        // p doesn't depend on foo and must still be executed
+        targetNames.add("p");
+        try {
+            Project p = getProject(PARALLEL, true, true);
+            p.setNewProperty(MagicNames.ANT_EXECUTOR_THREADS, "3");
+            p.executeTargets(targetNames);
+        } finally {
+            assertEquals(4, targetCount);
+            assertFalse(startedTargets.contains("a"));
+            assertFalse(startedTargets.contains("b"));
+        }
+    }
+
     @Test
     public void testKeepGoingIgnoreDependencies() {
         thrown.expect(BuildException.class);
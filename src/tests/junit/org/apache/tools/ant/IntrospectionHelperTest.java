@@ -407,6 +407,69 @@ public class IntrospectionHelperTest {
         // TODO we should be asserting a value in here
     }
 
+    @Test
+    public void testAttributeSetterRepeatedConversion() {
+        Holder h = new Holder();
+        IntrospectionHelper helper = IntrospectionHelper.getHelper(Holder.class);
+        helper.setAttribute(p, h, "count", "42");
+        assertEquals(42, h.count);
+        helper.setAttribute(p, h, "count", "42");
+        assertEquals(42, h.count);
+        helper.setAttribute(p, h, "number", "7");
+        assertEquals(Integer.valueOf(7), h.number);
+        helper.setAttribute(p, h, "number", "8");
+        assertEquals(Integer.valueOf(8), h.number);
+        helper.setAttribute(p, h, "buffer", "a");
+        StringBuffer first = h.buffer;
+        helper.setAttribute(p, h, "buffer", "a");
+        // mutable values must not be shared
+        assertFalse(first == h.buffer);
+    }
+
+    /**
+     * Setters of classes that aren't public are invoked via reflection.
+     */
+    @Test
+    public void testNonPublicClass() {
+        Holder h = new Holder();
+        IntrospectionHelper helper = IntrospectionHelper.getHelper(Holder.class);
+        helper.setAttribute(p, h, "name", "foo");
+        assertEquals("foo", h.name);
+        helper.addText(p, h, "bar");
+        assertEquals("bar", h.text);
+        thrown.expect(BuildException.class);
+        thrown.expectMessage("NumberFormatException");
+        helper.setAttribute(p, h, "number", "x");
+    }
+
+    static class Holder {
+        private int count;
+        private Integer number;
+        private StringBuffer buffer;
+        private String name;
+        private String text;
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public void setNumber(Integer number) {
+            this.number = number;
+        }
+
+        public void setBuffer(StringBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public void addText(String text) {
+            this.text = text;
+        }
+    }
+
     /**
      * Fail: 2 shouldn't be equal to three
      */
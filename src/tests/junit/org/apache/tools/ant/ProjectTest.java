@@ -39,6 +39,7 @@ import static org.hamcrest.Matchers.hasValue;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
@@ -337,6 +338,56 @@ public class ProjectTest {
         // be content if no exception has been thrown
     }
 
+    @Test
+    public void testLogEnabledFollowsListenerLevels() {
+        assertFalse(p.isLogEnabled(Project.MSG_ERR));
+        DefaultLogger logger = new DefaultLogger();
+        logger.setMessageOutputLevel(Project.MSG_INFO);
+        p.addBuildListener(logger);
+        assertTrue(p.isLogEnabled(Project.MSG_INFO));
+        assertFalse(p.isLogEnabled(Project.MSG_VERBOSE));
+        // levels may change after the logger has been added
+        logger.setMessageOutputLevel(Project.MSG_VERBOSE);
+        assertTrue(p.isLogEnabled(Project.MSG_VERBOSE));
+        assertFalse(p.isLogEnabled(Project.MSG_DEBUG));
+        // listeners without a level want to see everything
+        p.addBuildListener(mbl);
+        assertTrue(p.isLogEnabled(Project.MSG_DEBUG));
+    }
+
+    @Test
+    public void testSupplierIsOnlyInvokedIfMessageIsLogged() {
+        final StringBuilder logged = new StringBuilder();
+        DefaultLogger logger = new DefaultLogger() {
+                @Override
+                public void messageLogged(BuildEvent event) {
+                    logged.append(event.getMessage());
+                }
+            };
+        logger.setMessageOutputLevel(Project.MSG_INFO);
+        p.addBuildListener(logger);
+        Task task = new Task() {
+            };
+        task.setProject(p);
+        final int[] calls = new int[1];
+        task.log(() -> {
+                calls[0]++;
+                return "debug";
+            }, Project.MSG_DEBUG);
+        p.log(() -> {
+                calls[0]++;
+                return "verbose";
+            }, Project.MSG_VERBOSE);
+        assertEquals(0, calls[0]);
+        assertEquals("", logged.toString());
+        task.log(() -> {
+                calls[0]++;
+                return "info";
+            }, Project.MSG_INFO);
+        assertEquals(1, calls[0]);
+        assertEquals("info", logged.toString());
+    }
+
     private class DummyTaskPrivate extends Task {
         @SuppressWarnings("unused")
         public DummyTaskPrivate() {
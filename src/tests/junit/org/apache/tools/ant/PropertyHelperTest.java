@@ -18,10 +18,21 @@
 
 package org.apache.tools.ant;
 
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import org.apache.tools.ant.property.LocalProperties;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class PropertyHelperTest {
@@ -52,4 +63,89 @@ public class PropertyHelperTest {
         assertTrue(p.getPropertyNames().contains("foo"));
         assertFalse(p.getPropertyNames().contains("baz"));
     }
+
+    @Test
+    public void firstWriterWinsWhenSetConcurrently() throws Exception {
+        Project p = new Project();
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                final String value = "v" + i;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < 100; j++) {
+                        p.setNewProperty("p" + j, value);
+                        String seen = p.getProperty("p" + j);
+                        // whoever has won, the value mustn't change anymore
+                        assertEquals(seen, p.getProperty("p" + j));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : results) {
+                f.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        for (int j = 0; j < 100; j++) {
+            String value = p.getProperty("p" + j);
+            p.setNewProperty("p" + j, "other");
+            assertEquals(value, p.getProperty("p" + j));
+        }
+    }
+
+    @Test
+    public void getPropertiesReturnsIndependentCopies() {
+        Project p = new Project();
+        p.setNewProperty("foo", "bar");
+        Hashtable<String, Object> first = p.getProperties();
+        Hashtable<String, Object> second = p.getProperties();
+        first.put("baz", "qux");
+        assertNull(second.get("baz"));
+        assertNull(p.getProperty("baz"));
+        p.setNewProperty("xyzzy", "1");
+        assertNull(second.get("xyzzy"));
+        assertEquals("1", p.getProperties().get("xyzzy"));
+        assertEquals("bar", first.get("foo"));
+    }
+
+    @Test
+    public void userPropertiesCannotBeOverridden() {
+        Project p = new Project();
+        p.setUserProperty("foo", "bar");
+        p.setProperty("foo", "baz");
+        p.setNewProperty("foo", "baz");
+        assertEquals("bar", p.getProperty("foo"));
+        assertEquals("bar", p.getUserProperties().get("foo"));
+    }
+
+    @Test
+    public void copyPropertiesSharesPlainProperties() {
+        Project parent = new Project();
+        parent.setNewProperty("foo", "bar");
+        parent.setNewProperty("baz", "parent");
+        parent.setNewProperty(MagicNames.PROJECT_BASEDIR, "/parent");
+        PropertyHelper.getPropertyHelper(parent).setNewProperty("number", 42);
+        Project child = new Project();
+        child.setUserProperty("baz", "child");
+        PropertyHelper.getPropertyHelper(parent).copyProperties(child);
+        assertEquals("bar", child.getProperty("foo"));
+        assertEquals("child", child.getProperty("baz"));
+        assertEquals("42", PropertyHelper.getPropertyHelper(child).getProperty("number"));
+        assertNull(child.getProperty(MagicNames.PROJECT_BASEDIR));
+        // inherited properties are immutable in the child as well
+        child.setNewProperty("foo", "other");
+        assertEquals("bar", child.getProperty("foo"));
+        assertEquals("bar", child.getProperties().get("foo"));
+        // but the projects are independent afterwards
+        parent.setNewProperty("late", "1");
+        child.setProperty("foo", "changed");
+        assertNull(child.getProperty("late"));
+        assertEquals("bar", parent.getProperty("foo"));
+    }
 }
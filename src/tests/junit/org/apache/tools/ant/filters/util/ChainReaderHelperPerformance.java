@@ -0,0 +1,110 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.filters.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.filters.ChainableReader;
+import org.apache.tools.ant.filters.EscapeUnicode;
+import org.apache.tools.ant.filters.PrefixLines;
+import org.apache.tools.ant.filters.ReplaceTokens;
+import org.apache.tools.ant.filters.StripJavaComments;
+import org.apache.tools.ant.filters.TabsToSpaces;
+import org.apache.tools.ant.types.FilterChain;
+import org.junit.Test;
+
+/**
+ * Used to verify the throughput of filter chains - run it before
+ * and after changing filters and compare the numbers reported.
+ */
+public class ChainReaderHelperPerformance {
+
+    private static final int SIZE = 20 * 1024 * 1024;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void testThroughput() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < SIZE; i++) {
+            sb.append("\tkey.").append(i)
+                .append(" = @TOKEN@ value /* comment */ some text \u00e4\n");
+        }
+        byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        run("prefixlines", data, prefixLines());
+        run("tabstospaces", data, filterChain(new TabsToSpaces()));
+        run("escapeunicode", data, filterChain(new EscapeUnicode()));
+        run("stripjavacomments", data, filterChain(new StripJavaComments()));
+        run("replacetokens", data, replaceTokens());
+        FilterChain all = prefixLines();
+        all.addTabsToSpaces(new TabsToSpaces());
+        all.addEscapeUnicode(new EscapeUnicode());
+        all.addStripJavaComments(new StripJavaComments());
+        all.addReplaceTokens((ReplaceTokens) replaceTokens().getFilterReaders().get(0));
+        run("all of them", data, all);
+    }
+
+    private static FilterChain filterChain(Object filter) {
+        FilterChain fc = new FilterChain();
+        fc.add((ChainableReader) filter);
+        return fc;
+    }
+
+    private static FilterChain prefixLines() {
+        PrefixLines p = new PrefixLines();
+        p.setPrefix("> ");
+        return filterChain(p);
+    }
+
+    private static FilterChain replaceTokens() {
+        ReplaceTokens r = new ReplaceTokens();
+        ReplaceTokens.Token t = new ReplaceTokens.Token();
+        t.setKey("TOKEN");
+        t.setValue("replaced");
+        r.addConfiguredToken(t);
+        return filterChain(r);
+    }
+
+    private static void run(String name, byte[] data, FilterChain fc)
+        throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            ChainReaderHelper helper =
+                new ChainReaderHelper(new Project(),
+                                      new InputStreamReader(new ByteArrayInputStream(data),
+                                                            StandardCharsets.UTF_8),
+                                      Collections.singletonList(fc));
+            long start = System.nanoTime();
+            try (Reader r = helper.getAssembledReader()) {
+                char[] buf = new char[8192];
+                while (r.read(buf, 0, buf.length) != -1) {
+                    // just consume it
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-20s %8.1f MB/s%n", name, data.length / (best / 1e3));
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.filters.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Supplier;
+
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.filters.ChainableReader;
+import org.apache.tools.ant.filters.EscapeUnicode;
+import org.apache.tools.ant.filters.LineContains;
+import org.apache.tools.ant.filters.PrefixLines;
+import org.apache.tools.ant.filters.ReplaceTokens;
+import org.apache.tools.ant.filters.StripLineComments;
+import org.apache.tools.ant.filters.SuffixLines;
+import org.apache.tools.ant.filters.TabsToSpaces;
+import org.apache.tools.ant.types.FilterChain;
+import org.junit.Test;
+
+public class ChainReaderHelperTest {
+
+    private static final String INPUT = "# a comment\r\n"
+        + "\tkey = @TOKEN@ value\n"
+        + "\u00fcml\u00e4ut @OTHER@ @TOK\n"
+        + "@@TOKEN@@\n"
+        + "\n"
+        + "# another comment\n"
+        + "no newline @TOKEN@";
+
+    private static final Supplier<?>[] FILTERS = {
+        () -> {
+            PrefixLines f = new PrefixLines();
+            f.setPrefix("> ");
+            return f;
+        },
+        () -> {
+            SuffixLines f = new SuffixLines();
+            f.setSuffix(" <");
+            return f;
+        },
+        () -> {
+            LineContains f = new LineContains();
+            LineContains.Contains c = new LineContains.Contains();
+            c.setValue("e");
+            f.addConfiguredContains(c);
+            return f;
+        },
+        () -> {
+            StripLineComments f = new StripLineComments();
+            StripLineComments.Comment c = new StripLineComments.Comment();
+            c.setValue("#");
+            f.addConfiguredComment(c);
+            return f;
+        },
+        () -> {
+            ReplaceTokens f = new ReplaceTokens();
+            ReplaceTokens.Token t = new ReplaceTokens.Token();
+            t.setKey("TOKEN");
+            t.setValue("replaced");
+            f.addConfiguredToken(t);
+            return f;
+        },
+        EscapeUnicode::new,
+        TabsToSpaces::new
+    };
+
+    @Test
+    public void testBlockReadsMatchSingleCharacterReads() throws IOException {
+        for (Supplier<?> filter : FILTERS) {
+            String expected = readSingleChars(((ChainableReader) filter.get())
+                                              .chain(new StringReader(INPUT)));
+            for (int size : new int[] {1, 3, 7, 8192}) {
+                assertEquals(filter.get().getClass().getSimpleName() + ", " + size,
+                             expected, readBlocks(chain(filter.get()), size));
+            }
+        }
+    }
+
+    @Test
+    public void testMixedReadsMatchSingleCharacterReads() throws IOException {
+        for (Supplier<?> filter : FILTERS) {
+            String expected = readSingleChars(((ChainableReader) filter.get())
+                                              .chain(new StringReader(INPUT)));
+            Reader r = chain(filter.get());
+            StringBuilder sb = new StringBuilder();
+            char[] buf = new char[5];
+            for (boolean single = true;; single = !single) {
+                if (single) {
+                    int ch = r.read();
+                    if (ch == -1) {
+                        break;
+                    }
+                    sb.append((char) ch);
+                } else {
+                    int n = r.read(buf, 0, buf.length);
+                    if (n == -1) {
+                        break;
+                    }
+                    sb.append(buf, 0, n);
+                }
+            }
+            assertEquals(filter.get().getClass().getSimpleName(), expected, sb.toString());
+        }
+    }
+
+    @Test
+    public void testChainOfFilters() throws IOException {
+        FilterChain fc = new FilterChain();
+        for (Supplier<?> filter : FILTERS) {
+            fc.add((ChainableReader) filter.get());
+        }
+        Reader expected = new StringReader(INPUT);
+        for (Supplier<?> filter : FILTERS) {
+            expected = ((ChainableReader) filter.get()).chain(expected);
+        }
+        ChainReaderHelper helper =
+            new ChainReaderHelper(new Project(), new StringReader(INPUT),
+                                  Collections.singletonList(fc))
+            .withBufferSize(4);
+        assertEquals(readSingleChars(expected),
+                     readBlocks(helper.getAssembledReader(), 3));
+    }
+
+    private static Reader chain(Object filter) {
+        FilterChain fc = new FilterChain();
+        fc.add((ChainableReader) filter);
+        return new ChainReaderHelper(new Project(), new StringReader(INPUT),
+                                     Arrays.asList(fc))
+            .getAssembledReader();
+    }
+
+    private static String readSingleChars(Reader r) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int ch = r.read(); ch != -1; ch = r.read()) {
+            sb.append((char) ch);
+        }
+        return sb.toString();
+    }
+
+    private static String readBlocks(Reader r, int size) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buf = new char[size];
+        for (int n = r.read(buf, 0, size); n != -1; n = r.read(buf, 0, size)) {
+            sb.append(buf, 0, n);
+        }
+        return sb.toString();
+    }
+}
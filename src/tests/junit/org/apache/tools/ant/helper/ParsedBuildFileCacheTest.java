@@ -0,0 +1,156 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.ProjectHelper;
+import org.apache.tools.ant.Target;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ParsedBuildFileCacheTest {
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private File buildFile;
+    private File importedFile;
+
+    @Before
+    public void setUp() throws IOException {
+        ParsedBuildFileCache.getInstance().clear();
+        buildFile = testFolder.newFile("build.xml");
+        importedFile = testFolder.newFile("imported.xml");
+        write(buildFile, "<project name=\"main\" default=\"a\">\n"
+              + "  <import file=\"imported.xml\"/>\n"
+              + "  <target name=\"a\" depends=\"b\">\n"
+              + "    <echo>a</echo>\n"
+              + "  </target>\n"
+              + "</project>\n");
+        write(importedFile, "<project name=\"imported\">\n"
+              + "  <target name=\"b\"/>\n"
+              + "</project>\n");
+    }
+
+    private static void write(File f, String content) throws IOException {
+        Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Project configure() {
+        return configure(null);
+    }
+
+    private Project configure(String cacheSetting) {
+        Project p = new Project();
+        p.init();
+        if (cacheSetting != null) {
+            p.setUserProperty(MagicNames.PARSER_CACHE, cacheSetting);
+        }
+        ProjectHelper.configureProject(p, buildFile);
+        return p;
+    }
+
+    @Test
+    public void testReusesParsedFiles() {
+        Project first = configure();
+        int cached = ParsedBuildFileCache.getInstance().size();
+        // at least the build file and the imported file
+        assertTrue(cached >= 2);
+        Project second = configure();
+        assertEquals(cached, ParsedBuildFileCache.getInstance().size());
+
+        assertEquals(first.getTargets().keySet(), second.getTargets().keySet());
+        Target a1 = first.getTargets().get("a");
+        Target a2 = second.getTargets().get("a");
+        assertEquals(a1.getLocation().toString(), a2.getLocation().toString());
+        assertEquals(a1.getTasks()[0].getLocation().toString(),
+                     a2.getTasks()[0].getLocation().toString());
+        assertEquals("b", a2.getDependencies().nextElement());
+        assertTrue(second.getTargets().containsKey("imported.b"));
+    }
+
+    @Test
+    public void testModifiedImportIsParsedAgain() throws IOException {
+        configure();
+        write(importedFile, "<project name=\"imported\">\n"
+              + "  <target name=\"b\"/>\n"
+              + "  <target name=\"c\"/>\n"
+              + "</project>\n");
+        Project p = configure();
+        assertTrue(p.getTargets().containsKey("c"));
+    }
+
+    @Test
+    public void testCacheCanBeDisabled() {
+        configure("false");
+        assertEquals(0, ParsedBuildFileCache.getInstance().size());
+    }
+
+    @Test
+    public void testFilesUsingEntitiesAreNotCached() throws IOException {
+        configure();
+        int cached = ParsedBuildFileCache.getInstance().size();
+        ParsedBuildFileCache.getInstance().clear();
+        File entity = testFolder.newFile("entity.xml");
+        write(entity, "<target name=\"e\"/>\n");
+        write(importedFile, "<!DOCTYPE project [\n"
+              + "  <!ENTITY e SYSTEM \"entity.xml\">\n"
+              + "]>\n"
+              + "<project name=\"imported\">\n"
+              + "  &e;\n"
+              + "</project>\n");
+        configure();
+        assertEquals(cached - 1, ParsedBuildFileCache.getInstance().size());
+        write(entity, "<target name=\"f\"/>\n");
+        Project p = configure();
+        assertTrue(p.getTargets().containsKey("f"));
+        assertFalse(p.getTargets().containsKey("e"));
+    }
+
+    @Test
+    public void testUnchangedTimestampAndSizeSkipReading() throws IOException {
+        long old = System.currentTimeMillis() - 60000;
+        assertTrue(importedFile.setLastModified(old));
+        configure();
+        // a modification that keeps size and timestamp isn't detected
+        write(importedFile, "<project name=\"imported\">\n"
+              + "  <target name=\"x\"/>\n"
+              + "</project>\n");
+        assertTrue(importedFile.setLastModified(old));
+        Project p = configure();
+        assertTrue(p.getTargets().containsKey("b"));
+        assertFalse(p.getTargets().containsKey("x"));
+        // unless the timestamp changes
+        assertTrue(importedFile.setLastModified(old + 2000));
+        p = configure();
+        assertTrue(p.getTargets().containsKey("x"));
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Project;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncBuildListenerTest {
+
+    private Project project;
+    private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+    private final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() {
+        project = new Project();
+    }
+
+    private BuildListener recorder(CountDownLatch gate) {
+        return new BuildListener() {
+            private void record(String s) {
+                if (gate != null) {
+                    try {
+                        gate.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+                received.add(s);
+                threads.add(Thread.currentThread());
+            }
+
+            public void buildStarted(BuildEvent event) {
+                record("buildStarted");
+            }
+
+            public void buildFinished(BuildEvent event) {
+                record("buildFinished");
+            }
+
+            public void targetStarted(BuildEvent event) {
+                record("targetStarted");
+            }
+
+            public void targetFinished(BuildEvent event) {
+                record("targetFinished");
+            }
+
+            public void taskStarted(BuildEvent event) {
+                record("taskStarted");
+            }
+
+            public void taskFinished(BuildEvent event) {
+                record("taskFinished");
+            }
+
+            public void messageLogged(BuildEvent event) {
+                record(event.getMessage());
+            }
+        };
+    }
+
+    @Test
+    public void testEventsAreDeliveredInOrderOnAnotherThread() {
+        AsyncBuildListener async = new AsyncBuildListener();
+        async.addBuildListener(recorder(null));
+        project.addBuildListener(async);
+        project.fireBuildStarted();
+        for (int i = 0; i < 100; i++) {
+            project.log("m" + i);
+        }
+        project.fireBuildFinished(null);
+        assertEquals(102, received.size());
+        assertEquals("buildStarted", received.get(0));
+        for (int i = 0; i < 100; i++) {
+            assertEquals("m" + i, received.get(i + 1));
+        }
+        assertEquals("buildFinished", received.get(101));
+        assertTrue(threads.stream().noneMatch(t -> t == Thread.currentThread()));
+    }
+
+    @Test
+    public void testSlowListenerDoesNotBlockBuild() {
+        CountDownLatch gate = new CountDownLatch(1);
+        AsyncBuildListener async = new AsyncBuildListener(10, false);
+        async.addBuildListener(recorder(gate));
+        project.addBuildListener(async);
+        for (int i = 0; i < 5; i++) {
+            project.log("m" + i);
+        }
+        // the listener hasn't seen anything yet
+        assertTrue(received.isEmpty());
+        gate.countDown();
+        async.flush();
+        assertEquals(5, received.size());
+    }
+
+    @Test
+    public void testDropsVerboseMessagesWhenFull() {
+        CountDownLatch gate = new CountDownLatch(1);
+        AsyncBuildListener async = new AsyncBuildListener(2, true);
+        async.addBuildListener(recorder(gate));
+        project.addBuildListener(async);
+        for (int i = 0; i < 10; i++) {
+            project.log("v" + i, Project.MSG_VERBOSE);
+        }
+        assertTrue(async.getDroppedMessageCount() >= 7);
+        gate.countDown();
+        project.log("info");
+        project.fireBuildFinished(null);
+        assertTrue(received.contains("info"));
+        assertEquals("buildFinished", received.get(received.size() - 1));
+        String warning = received.get(received.size() - 2);
+        assertTrue(warning, warning.contains("messages have been dropped"));
+    }
+
+    @Test
+    public void testListenerFailureIsRethrownAtEndOfBuild() {
+        RuntimeException failure = new RuntimeException("broken listener");
+        AsyncBuildListener async = new AsyncBuildListener();
+        async.addBuildListener(new NullListener() {
+            @Override
+            public void messageLogged(BuildEvent event) {
+                throw failure;
+            }
+        });
+        project.addBuildListener(async);
+        project.log("boom");
+        try {
+            project.fireBuildFinished(null);
+            fail("expected the failure to be rethrown");
+        } catch (RuntimeException ex) {
+            assertSame(failure, ex);
+        }
+    }
+
+    @Test
+    public void testMessagesLoggedByListenersAreSwallowed() {
+        AsyncBuildListener async = new AsyncBuildListener();
+        async.addBuildListener(recorder(null));
+        async.addBuildListener(new NullListener() {
+            @Override
+            public void messageLogged(BuildEvent event) {
+                if (!event.getMessage().startsWith("again")) {
+                    project.log("again " + event.getMessage());
+                }
+            }
+        });
+        project.addBuildListener(async);
+        project.log("once");
+        project.fireBuildFinished(null);
+        assertEquals(2, received.size());
+        assertEquals("once", received.get(0));
+    }
+
+    @Test(expected = BuildException.class)
+    public void testInvalidCapacity() {
+        new AsyncBuildListener(0, false);
+    }
+
+    private static class NullListener implements BuildListener {
+        public void buildStarted(BuildEvent event) {
+        }
+
+        public void buildFinished(BuildEvent event) {
+        }
+
+        public void targetStarted(BuildEvent event) {
+        }
+
+        public void targetFinished(BuildEvent event) {
+        }
+
+        public void taskStarted(BuildEvent event) {
+        }
+
+        public void taskFinished(BuildEvent event) {
+        }
+
+        public void messageLogged(BuildEvent event) {
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.ProjectHelper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+public class StreamingXmlLoggerTest {
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private File buildFile;
+
+    @Before
+    public void setUp() throws IOException {
+        buildFile = testFolder.newFile("build.xml");
+        Files.write(buildFile.toPath(), ("<project name=\"test\">\n"
+            + "  <target name=\"empty\"/>\n"
+            + "  <target name=\"echo\" depends=\"empty\">\n"
+            + "    <echo message=\"hello]]&gt;world\"/>\n"
+            + "  </target>\n"
+            + "  <target name=\"fail\">\n"
+            + "    <fail>failed</fail>\n"
+            + "  </target>\n"
+            + "</project>\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Project createProject(StreamingXmlLogger logger) {
+        Project p = new Project();
+        p.addBuildListener(logger);
+        p.fireBuildStarted();
+        p.init();
+        ProjectHelper.configureProject(p, buildFile);
+        return p;
+    }
+
+    private static void run(Project p, String target) {
+        Throwable error = null;
+        try {
+            p.executeTarget(target);
+        } catch (BuildException ex) {
+            error = ex;
+        }
+        p.fireBuildFinished(error);
+    }
+
+    private static Element parse(byte[] log) throws Exception {
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+            .parse(new ByteArrayInputStream(log));
+        return doc.getDocumentElement();
+    }
+
+    private static Element child(Element parent, String tag, String name) {
+        NodeList nl = parent.getChildNodes();
+        for (int i = 0; i < nl.getLength(); i++) {
+            if (nl.item(i) instanceof Element) {
+                Element e = (Element) nl.item(i);
+                if (e.getTagName().equals(tag)
+                    && (name == null || name.equals(e.getAttribute("name")))) {
+                    return e;
+                }
+            }
+        }
+        fail("no " + tag + " " + name + " inside " + parent.getTagName());
+        return null;
+    }
+
+    private static Element lastChild(Element parent, String tag) {
+        NodeList nl = parent.getChildNodes();
+        for (int i = nl.getLength() - 1; i >= 0; i--) {
+            if (nl.item(i) instanceof Element) {
+                Element e = (Element) nl.item(i);
+                assertEquals(tag, e.getTagName());
+                return e;
+            }
+        }
+        fail("no " + tag + " inside " + parent.getTagName());
+        return null;
+    }
+
+    @Test
+    public void testWritesTargetsTasksAndMessages() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamingXmlLogger logger = new StreamingXmlLogger();
+        logger.setMessageOutputLevel(Project.MSG_INFO);
+        logger.setOutputPrintStream(new PrintStream(out));
+        run(createProject(logger), "echo");
+
+        Element build = parse(out.toByteArray());
+        assertEquals("build", build.getTagName());
+        Element target = child(build, "target", "echo");
+        Element task = child(target, "task", "echo");
+        assertTrue(task.getAttribute("location").contains("build.xml"));
+        Element message = child(task, "message", null);
+        assertEquals("warn", message.getAttribute("priority"));
+        assertEquals("hello]]>world", message.getTextContent());
+        // the time is written the same way with and without content
+        assertTrue(lastChild(child(build, "target", "empty"), "finished").hasAttribute("time"));
+        assertTrue(lastChild(target, "finished").hasAttribute("time"));
+        assertTrue(lastChild(task, "finished").hasAttribute("time"));
+        Element finished = lastChild(build, "finished");
+        assertTrue(finished.hasAttribute("time"));
+        assertFalse(finished.hasAttribute("error"));
+    }
+
+    @Test
+    public void testDropsIllegalCharacters() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamingXmlLogger logger = new StreamingXmlLogger();
+        logger.setOutputPrintStream(new PrintStream(out));
+        Project p = new Project();
+        p.addBuildListener(logger);
+        p.fireBuildStarted();
+        p.log("a\u0001b");
+        p.fireBuildFinished(null);
+
+        Element build = parse(out.toByteArray());
+        assertEquals("ab", child(build, "message", null).getTextContent());
+    }
+
+    @Test
+    public void testFlushesWhileNoEventsArrive() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamingXmlLogger logger = new StreamingXmlLogger();
+        logger.setOutputPrintStream(new PrintStream(out));
+        Project p = new Project();
+        p.addBuildListener(logger);
+        p.fireBuildStarted();
+        p.log("first message");
+        try {
+            for (int i = 0; i < 50 && !out.toString("UTF-8").contains("first message"); i++) {
+                Thread.sleep(100);
+            }
+            assertTrue(out.toString("UTF-8").contains("first message"));
+        } finally {
+            p.fireBuildFinished(null);
+        }
+    }
+
+    @Test
+    public void testWritesStackTraceOfFailedBuild() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamingXmlLogger logger = new StreamingXmlLogger();
+        logger.setOutputPrintStream(new PrintStream(out));
+        run(createProject(logger), "fail");
+
+        Element build = parse(out.toByteArray());
+        assertTrue(child(build, "stacktrace", null).getTextContent().contains("failed"));
+        assertTrue(lastChild(build, "finished").getAttribute("error").contains("failed"));
+    }
+
+    @Test
+    public void testUsesFilePropertyWhenUsedAsListener() throws Exception {
+        File log = new File(testFolder.getRoot(), "out.xml");
+        StreamingXmlLogger logger = new StreamingXmlLogger();
+        Project p = createProject(logger);
+        p.setUserProperty("XmlLogger.file", log.getAbsolutePath());
+        p.setUserProperty("ant.XmlLogger.stylesheet.uri", "");
+        run(p, "echo");
+
+        byte[] content = Files.readAllBytes(log.toPath());
+        assertFalse(new String(content, StandardCharsets.UTF_8).contains("xml-stylesheet"));
+        // messages logged before the first target are included
+        Element build = parse(content);
+        assertTrue(build.getElementsByTagName("message").getLength() > 1);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.property;
+
+import java.text.ParsePosition;
+import java.util.Arrays;
+
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.PropertyHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PropertyTemplateTest {
+
+    private Project project;
+    private PropertyHelper helper;
+
+    @Before
+    public void setUp() {
+        project = new Project();
+        helper = PropertyHelper.getPropertyHelper(project);
+        project.setProperty("a", "A");
+        project.setProperty("b", "B");
+    }
+
+    private PropertyTemplate compile(String value) {
+        return PropertyTemplate.compile(value, helper.getExpanders(),
+            new ParseProperties(project, helper.getExpanders(), helper));
+    }
+
+    @Test
+    public void testSameResultAsParseProperties() {
+        ParseProperties parser = new ParseProperties(project, helper.getExpanders(), helper);
+        for (String value : Arrays.asList("", "x", "${a}", "${a}${b}", "x${a}y${b}z",
+                                          "$$", "$$$", "$${a}", "$}", "${}",
+                                          "${unset}", "a$b", "${a}$")) {
+            PropertyTemplate template = compile(value);
+            assertNotNull(value, template);
+            assertEquals(value, parser.parseProperties(value),
+                         template.expand(project, helper));
+            assertEquals(value, parser.containsProperties(value),
+                         template.containsProperties());
+        }
+    }
+
+    @Test
+    public void testSingleReferenceReturnsObject() {
+        Object o = new Object();
+        project.addReference("o", o);
+        assertSame(o, compile("${ant.refid:o}").expand(project, helper));
+    }
+
+    @Test
+    public void testExpansionSeesNewValues() {
+        PropertyTemplate template = compile("${a}-${c}");
+        assertEquals("A-${c}", template.expand(project, helper));
+        project.setProperty("c", "C");
+        assertEquals("A-C", template.expand(project, helper));
+        assertEquals("A-C", helper.replaceProperties("${a}-${c}"));
+    }
+
+    @Test
+    public void testConstantValue() {
+        PropertyTemplate template = compile("no properties here");
+        assertFalse(template.containsProperties());
+        assertEquals("no properties here", template.expand(project, helper));
+    }
+
+    @Test
+    public void testExpandersLookingUpValuesAreNotCompiled() {
+        // resolves ${${name}}-style nested references
+        PropertyExpander nested = new PropertyExpander() {
+            @Override
+            public String parsePropertyName(String s, ParsePosition pos,
+                                            ParseNextProperty parseNextProperty) {
+                int index = pos.getIndex();
+                if (s.startsWith("${${", index)) {
+                    pos.setIndex(index + 2);
+                    Object inner = parseNextProperty.parseNextProperty(s, pos);
+                    pos.setIndex(pos.getIndex() + 1);
+                    return inner == null ? null : inner.toString();
+                }
+                return null;
+            }
+        };
+        helper.add(nested);
+        project.setProperty("name", "a");
+        assertNull(compile("${${name}}"));
+        assertTrue(compile("${a}").containsProperties());
+        assertEquals("A", helper.replaceProperties("${${name}}"));
+        project.setProperty("name", "b");
+        assertEquals("B", helper.replaceProperties("${${name}}"));
+    }
+
+    @Test
+    public void testTemplatesFollowExpanderChanges() {
+        assertEquals("%a%", helper.replaceProperties("%a%"));
+        int expanders = helper.getExpanders().size();
+        helper.add((PropertyExpander) (s, pos, notUsed) -> {
+            int index = pos.getIndex();
+            if (s.charAt(index) == '%') {
+                int end = s.indexOf('%', index + 1);
+                if (end > index) {
+                    pos.setIndex(end + 1);
+                    return s.substring(index + 1, end);
+                }
+            }
+            return null;
+        });
+        assertEquals("A", helper.replaceProperties("%a%"));
+        assertEquals(expanders + 1, helper.getExpanders().size());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.taskdefs;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileFingerprintsTest {
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private static final long OLD = System.currentTimeMillis() - 60000;
+
+    private File newFile(String name, String content, long lastModified)
+        throws IOException {
+        File f = new File(testFolder.getRoot(), name);
+        Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        assertTrue(f.setLastModified(lastModified));
+        return f;
+    }
+
+    @Test
+    public void testComparesContent() throws IOException {
+        File cache = new File(testFolder.getRoot(), "fingerprints");
+        FileFingerprints fp = new FileFingerprints(cache);
+        File a = newFile("a", "content", OLD);
+        File b = newFile("b", "content", OLD - 10000);
+        File c = newFile("c", "CONTENT", OLD);
+        assertTrue(fp.haveSameContent(a, b));
+        assertFalse(fp.haveSameContent(a, c));
+        assertFalse(fp.haveSameContent(a, new File(testFolder.getRoot(), "d")));
+    }
+
+    @Test
+    public void testStoredHashesAreReused() throws IOException {
+        File cache = new File(testFolder.getRoot(), "fingerprints");
+        File a = newFile("a", "content", OLD);
+        File b = newFile("b", "content", OLD);
+        FileFingerprints fp = new FileFingerprints(cache);
+        assertTrue(fp.haveSameContent(a, b));
+        fp.save();
+        assertTrue(cache.isFile());
+
+        // same size and timestamp, the stored hash is used
+        newFile("b", "CONTENT", OLD);
+        assertTrue(new FileFingerprints(cache).haveSameContent(a, b));
+
+        // a new timestamp makes the hash get computed again
+        newFile("b", "CONTENT", OLD + 2000);
+        assertFalse(new FileFingerprints(cache).haveSameContent(a, b));
+    }
+
+    @Test
+    public void testRecentlyModifiedFilesAreNotStored() throws IOException {
+        File cache = new File(testFolder.getRoot(), "fingerprints");
+        long now = System.currentTimeMillis();
+        File a = newFile("a", "content", now);
+        File b = newFile("b", "content", now);
+        FileFingerprints fp = new FileFingerprints(cache);
+        assertTrue(fp.haveSameContent(a, b));
+        fp.save();
+        newFile("b", "CONTENT", now);
+        assertFalse(new FileFingerprints(cache).haveSameContent(a, b));
+    }
+
+    @Test
+    public void testFreshCopiesAreStored() throws IOException {
+        File cache = new File(testFolder.getRoot(), "fingerprints");
+        long now = System.currentTimeMillis();
+        File source = newFile("source", "content", OLD);
+        File copy = newFile("copy", "content", now);
+        File modified = newFile("modified", "content", now);
+        FileFingerprints fp = new FileFingerprints(cache);
+        fp.copied(source, copy);
+        fp.copied(source, modified);
+        newFile("modified", "CONTENT", now + 1000);
+        fp.save();
+
+        // only the unmodified copy's hash has been stored
+        newFile("copy", "CONTENT", now);
+        newFile("modified", "content", now + 1000);
+        fp = new FileFingerprints(cache);
+        assertTrue(fp.haveSameContent(source, copy));
+        assertTrue(fp.haveSameContent(source, modified));
+    }
+}
@@ -18,10 +18,16 @@
 
 package org.apache.tools.ant.types;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
 import org.apache.tools.ant.BuildFileRule;
+import org.apache.tools.ant.Task;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.assertEquals;
 
@@ -34,6 +40,9 @@ public class FileSetTest extends AbstractFileSetTest {
     @Rule
     public BuildFileRule buildRule = new BuildFileRule();
 
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
     @Before
     public void buildFileRuleSetUp() {
         buildRule.configureProject("src/etc/testcases/types/fileset.xml");
@@ -55,4 +64,55 @@ public class FileSetTest extends AbstractFileSetTest {
         assertEquals("/abc/fileset.xml", buildRule.getLog());
     }
 
+    @Test
+    public void testSizeAndIteratorShareScanWithinTask() throws IOException {
+        testFolder.newFile("a.txt");
+        FileSet fs = new FileSet();
+        fs.setProject(buildRule.getProject());
+        fs.setDir(testFolder.getRoot());
+        inTask(() -> {
+            assertEquals(1, fs.size());
+            newFile("b.txt");
+            assertEquals(1, count(fs.iterator()));
+            assertEquals(1, count(fs.iterator()));
+        });
+        // a scan performed by another task is not used
+        inTask(() -> assertEquals(2, count(fs.iterator())));
+        inTask(() -> assertEquals(2, fs.size()));
+    }
+
+    private void newFile(String name) {
+        try {
+            testFolder.newFile(name);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static int count(Iterator<Resource> iter) {
+        int count = 0;
+        while (iter.hasNext()) {
+            iter.next();
+            count++;
+        }
+        return count;
+    }
+
+    public static class RunnableTask extends Task {
+        private Runnable runnable;
+
+        @Override
+        public void execute() {
+            runnable.run();
+        }
+    }
+
+    private void inTask(Runnable r) {
+        RunnableTask task = new RunnableTask();
+        task.runnable = r;
+        task.setProject(buildRule.getProject());
+        task.setTaskName("test");
+        task.perform();
+    }
+
 }
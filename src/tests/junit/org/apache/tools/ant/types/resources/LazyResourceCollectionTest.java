@@ -21,6 +21,8 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceCollection;
@@ -193,6 +195,39 @@ public class LazyResourceCollectionTest {
         }
     }
 
+    @Test
+    public void testParallelFilteringKeepsOrder() {
+        Union resources = new Union();
+        for (int i = 0; i < 100; i++) {
+            resources.add(new StringResource("r" + i));
+        }
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        LazyResourceCollectionWrapper lazyCollection = new LazyResourceCollectionWrapper() {
+            @Override
+            protected boolean filterResource(Resource r) {
+                threads.add(Thread.currentThread());
+                return r.as(StringResource.class).getValue().endsWith("3");
+            }
+
+            @Override
+            protected boolean isFilteringInParallel() {
+                return true;
+            }
+        };
+        lazyCollection.add(resources);
+
+        List<String> values = new ArrayList<>();
+        lazyCollection.forEach(r -> values.add(r.as(StringResource.class).getValue()));
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            if (i % 10 != 3) {
+                expected.add("r" + i);
+            }
+        }
+        assertEquals(expected, values);
+        assertTrue(threads.size() > 1);
+    }
+
     private void assertStringValue(String expected, Resource r) {
         assertEquals(expected, r.as(StringResource.class).getValue());
     }
@@ -0,0 +1,124 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.types.resources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.tools.ant.util.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SharedFileContentTest {
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = testFolder.newFile("content.txt");
+        write(file, "original");
+    }
+
+    private static void write(File f, String content) throws IOException {
+        Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(FileResource r) throws IOException {
+        try (InputStream in = r.getInputStream()) {
+            return FileUtils.readFully(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testStreamsShareContent() throws IOException {
+        final FileResource r = new FileResource(file);
+        assertTrue(SharedFileContent.select(file, () -> {
+            try {
+                assertEquals("original", read(r));
+                write(file, "modified");
+                // the second stream is served from memory
+                assertEquals("original", read(new FileResource(file)));
+                return true;
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }));
+        assertEquals("modified", read(r));
+    }
+
+    @Test
+    public void testPartialReadsAreShared() throws IOException {
+        assertTrue(SharedFileContent.select(file, () -> {
+            try (InputStream first = SharedFileContent.getInputStream(file)) {
+                assertEquals('o', first.read());
+                try (InputStream second = SharedFileContent.getInputStream(file)) {
+                    byte[] buffer = new byte[20];
+                    assertEquals(8, second.read(buffer));
+                    assertEquals("original",
+                                 new String(buffer, 0, 8, StandardCharsets.UTF_8));
+                    assertEquals(-1, second.read());
+                }
+                assertEquals('r', first.read());
+                assertEquals(6, first.skip(10));
+                assertEquals(-1, first.read());
+                return true;
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }));
+    }
+
+    @Test
+    public void testOtherFilesAreNotShared() throws IOException {
+        final File other = testFolder.newFile("other.txt");
+        write(other, "other");
+        assertTrue(SharedFileContent.select(file, () -> {
+            try {
+                assertEquals("other", read(new FileResource(other)));
+                // nested scopes for other files don't disturb the outer one
+                assertEquals("original", read(new FileResource(file)));
+                assertTrue(SharedFileContent.select(other, () -> {
+                    try {
+                        assertEquals("other", read(new FileResource(other)));
+                        return true;
+                    } catch (IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }));
+                write(file, "modified");
+                assertEquals("original", read(new FileResource(file)));
+                return true;
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }));
+    }
+}
@@ -21,6 +21,9 @@ package org.apache.tools.ant.types.selectors;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.text.RuleBasedCollator;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -35,6 +38,7 @@ import org.apache.tools.ant.Task;
 import org.apache.tools.ant.types.Parameter;
 import org.apache.tools.ant.types.Path;
 import org.apache.tools.ant.types.selectors.modifiedselector.Algorithm;
+import org.apache.tools.ant.types.selectors.modifiedselector.BinaryfileCache;
 import org.apache.tools.ant.types.selectors.modifiedselector.Cache;
 import org.apache.tools.ant.types.selectors.modifiedselector.ChecksumAlgorithm;
 import org.apache.tools.ant.types.selectors.modifiedselector.DigestAlgorithm;
@@ -42,6 +46,7 @@ import org.apache.tools.ant.types.selectors.modifiedselector.EqualComparator;
 import org.apache.tools.ant.types.selectors.modifiedselector.HashvalueAlgorithm;
 import org.apache.tools.ant.types.selectors.modifiedselector.ModifiedSelector;
 import org.apache.tools.ant.types.selectors.modifiedselector.PropertiesfileCache;
+import org.apache.tools.ant.types.selectors.modifiedselector.XxHashAlgorithm;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Rule;
@@ -361,6 +366,92 @@ public class ModifiedSelectorTest {
         assertTrue("Cache file is not created.", cachefile.exists());
     }
 
+    @Test
+    public void testBinaryfileCache() throws IOException {
+        File cachefile = new File(testFolder.getRoot(), "cache.bin");
+        BinaryfileCache cache = new BinaryfileCache(cachefile);
+        doTest(cache);
+        assertFalse("Cache file not deleted.", cachefile.exists());
+
+        String dir = testFolder.getRoot().getAbsolutePath() + File.separator;
+        cache.put(dir + "a.txt", "1");
+        cache.put(dir + "b.txt", "2");
+        cache.put("relative", "3");
+        cache.save();
+        assertTrue("Cachefile not created.", cachefile.exists());
+        byte[] valid = Files.readAllBytes(cachefile.toPath());
+
+        BinaryfileCache loaded = new BinaryfileCache(cachefile);
+        assertEquals("1", loaded.get(dir + "a.txt"));
+        assertEquals("2", loaded.get(dir + "b.txt"));
+        assertEquals("3", loaded.get("relative"));
+        assertEquals(null, loaded.get(dir + "c.txt"));
+        int count = 0;
+        for (Iterator<String> it = loaded.iterator(); it.hasNext(); it.next()) {
+            count++;
+        }
+        assertEquals(3, count);
+
+        // a corrupt file is treated like a missing one
+        Files.write(cachefile.toPath(), "garbage".getBytes(StandardCharsets.UTF_8));
+        assertEquals(null, new BinaryfileCache(cachefile).get("relative"));
+        // so is one with a negative or huge length of the first name
+        for (int length : new int[] {-1, Integer.MAX_VALUE}) {
+            ByteBuffer.wrap(valid).putInt(12, length);
+            Files.write(cachefile.toPath(), valid);
+            assertEquals(null, new BinaryfileCache(cachefile).get("relative"));
+        }
+    }
+
+    /**
+     * With quickcheck only the timestamp and size are compared unless
+     * they change, a new timestamp alone doesn't select a file.
+     */
+    @Test
+    public void testQuickcheckWithThreads() throws IOException {
+        File dir = testFolder.newFolder("quick");
+        File[] files = new File[5];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = new File(dir, "file" + i);
+            Files.write(files[i].toPath(), ("content" + i).getBytes(StandardCharsets.UTF_8));
+            assertTrue(files[i].setLastModified(100000L * (i + 1)));
+        }
+        File cachefile = new File(testFolder.getRoot(), "cache.bin");
+
+        ModifiedSelector s = newQuickcheckSelector(cachefile);
+        assertEquals("TTTTT", select(s, files));
+        assertEquals("FFFFF", select(s, files));
+
+        // the same content with a new timestamp
+        assertTrue(files[1].setLastModified(900000L));
+        // new content with the old timestamp and size
+        Files.write(files[2].toPath(), "Content2".getBytes(StandardCharsets.UTF_8));
+        assertTrue(files[2].setLastModified(300000L));
+        // new content and a new timestamp
+        Files.write(files[3].toPath(), "new content".getBytes(StandardCharsets.UTF_8));
+
+        s = newQuickcheckSelector(cachefile);
+        assertEquals("FFFTF", select(s, files));
+        assertEquals("FFFFF", select(s, files));
+    }
+
+    private ModifiedSelector newQuickcheckSelector(File cachefile) {
+        ModifiedSelector s = new ModifiedSelector();
+        s.addParam("cache", "binaryfile");
+        s.addParam("cache.cachefile", cachefile);
+        s.setQuickcheck(true);
+        s.setThreads(4);
+        return s;
+    }
+
+    private String select(ModifiedSelector s, File[] files) {
+        StringBuilder sb = new StringBuilder();
+        for (File f : files) {
+            sb.append(s.isSelected(f.getParentFile(), f.getName(), f) ? 'T' : 'F');
+        }
+        return sb.toString();
+    }
+
     @Test
     @Ignore("same logic as on algorithm, no testcases created")
     public void testCustomCache() {
@@ -452,6 +543,19 @@ public class ModifiedSelectorTest {
         doTest(algo);
     }
 
+    @Test
+    public void testChecksumAlgorithmXxHash() {
+        ChecksumAlgorithm algo = new ChecksumAlgorithm();
+        algo.setAlgorithm("xxh64");
+        doTest(algo);
+    }
+
+    @Test
+    public void testXxHashAlgorithm() {
+        XxHashAlgorithm algo = new XxHashAlgorithm();
+        doTest(algo);
+    }
+
     /**
      * Test the interface semantic of Algorithms.
      * This method does some common test for algorithm implementations.
@@ -0,0 +1,139 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.types.selectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.tools.ant.DirectoryScanner;
+import org.junit.Test;
+
+public class MultiPatternMatcherTest {
+
+    private static final String[] SEGMENTS = {
+        "a", "b", "A", "src", "Foo.java", "foo.java", ".svn", "CVS", "x.orig"
+    };
+
+    private static final String[] TOKENS = {
+        "a", "b", "src", "*.java", "f*", "?", "**", "**", "*", ".svn", "x*g"
+    };
+
+    private static String path(String... segments) {
+        return String.join(File.separator, segments);
+    }
+
+    @Test
+    public void testSimplePatterns() {
+        MultiPatternMatcher m = new MultiPatternMatcher(true);
+        m.add(new TokenizedPattern(path("**", "*.java")));
+        m.add(new TokenizedPattern(path("src", "**")));
+        assertTrue(m.matchPath(new TokenizedPath(path("a", "b", "Foo.java"))));
+        assertTrue(m.matchPath(new TokenizedPath("Foo.java")));
+        assertFalse(m.matchPath(new TokenizedPath(path("a", "Foo.txt"))));
+        assertTrue(m.matchPath(new TokenizedPath("src")));
+        assertTrue(m.matchesEverythingBelow(new TokenizedPath("src")));
+        assertFalse(m.matchesEverythingBelow(new TokenizedPath("a")));
+        assertTrue(m.couldMatchBelow(new TokenizedPath("a")));
+    }
+
+    @Test
+    public void testPrefixesDontMatch() {
+        MultiPatternMatcher m = new MultiPatternMatcher(true);
+        m.addPrefix(new TokenizedPath(path("a", "b")).toPattern());
+        assertTrue(m.couldMatchBelow(new TokenizedPath("a")));
+        assertFalse(m.couldMatchBelow(new TokenizedPath(path("a", "b"))));
+        assertFalse(m.matchPath(new TokenizedPath(path("a", "b"))));
+    }
+
+    @Test
+    public void testCaseInsensitive() {
+        MultiPatternMatcher m = new MultiPatternMatcher(false);
+        m.add(new TokenizedPattern(path("**", "cvs", "**")));
+        assertTrue(m.matchPath(new TokenizedPath(path("a", "CVS", "Root"))));
+        assertTrue(m.matchesEverythingBelow(new TokenizedPath(path("a", "Cvs"))));
+    }
+
+    @Test
+    public void testDefaultExcludes() {
+        MultiPatternMatcher m = new MultiPatternMatcher(true);
+        List<TokenizedPattern> patterns = new ArrayList<>();
+        for (String s : DirectoryScanner.getDefaultExcludes()) {
+            TokenizedPattern p = new TokenizedPattern(s.replace('/', File.separatorChar));
+            patterns.add(p);
+            m.add(p);
+        }
+        for (String[] segments : new String[][] {
+                {"a", ".svn"}, {"a", ".svn", "entries"}, {"x.orig"}, {"src", "Foo.java"},
+                {"a", "#foo#"}, {"CVS"}, {".git", "config"}, {".gitignore"}}) {
+            assertSame(m, patterns, true, segments);
+        }
+    }
+
+    @Test
+    public void testAgreesWithTokenizedPattern() {
+        Random r = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            boolean caseSensitive = r.nextBoolean();
+            MultiPatternMatcher m = new MultiPatternMatcher(caseSensitive);
+            List<TokenizedPattern> patterns = new ArrayList<>();
+            int count = 1 + r.nextInt(5);
+            for (int i = 0; i < count; i++) {
+                String[] tokens = new String[1 + r.nextInt(4)];
+                for (int j = 0; j < tokens.length; j++) {
+                    tokens[j] = TOKENS[r.nextInt(TOKENS.length)];
+                }
+                TokenizedPattern p = new TokenizedPattern(path(tokens));
+                patterns.add(p);
+                m.add(p);
+            }
+            for (int i = 0; i < 50; i++) {
+                String[] segments = new String[r.nextInt(5)];
+                for (int j = 0; j < segments.length; j++) {
+                    segments[j] = SEGMENTS[r.nextInt(SEGMENTS.length)];
+                }
+                assertSame(m, patterns, caseSensitive, segments);
+            }
+        }
+    }
+
+    private static void assertSame(MultiPatternMatcher m, List<TokenizedPattern> patterns,
+                                   boolean caseSensitive, String... segments) {
+        TokenizedPath path = new TokenizedPath(path(segments));
+        String msg = patterns + " vs " + Arrays.toString(segments);
+        assertEquals(msg, patterns.stream().anyMatch(p -> p.matchPath(path, caseSensitive)),
+                     m.matchPath(path));
+        assertEquals(msg, patterns.stream()
+                     .anyMatch(p -> p.matchStartOf(path, caseSensitive)
+                               && (p.containsPattern(SelectorUtils.DEEP_TREE_MATCH)
+                                   || p.depth() > path.depth())),
+                     m.couldMatchBelow(path));
+        assertEquals(msg, patterns.stream()
+                     .filter(p -> p.endsWith(SelectorUtils.DEEP_TREE_MATCH))
+                     .map(TokenizedPattern::withoutLastToken)
+                     .anyMatch(p -> p.matchPath(path, caseSensitive)),
+                     m.matchesEverythingBelow(path));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentHashtableTest {
+
+    private static final Object K1 = new Object();
+    private static final Object K2 = new Object();
+    private static final Object V1 = new Object();
+    private static final Object V2 = new Object();
+    private ConcurrentHashtable<Object, Object> h = new ConcurrentHashtable<>();
+
+    @Test
+    public void testPutAndGet() {
+        assertNull(h.put(K1, V1));
+        assertSame(V1, h.put(K1, V2));
+        assertSame(V2, h.get(K1));
+        assertTrue(h.containsKey(K1));
+        assertTrue(h.contains(V2));
+        assertEquals(1, h.size());
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        assertNull(h.putIfAbsent(K1, V1));
+        assertSame(V1, h.putIfAbsent(K1, V2));
+        assertSame(V1, h.get(K1));
+    }
+
+    @Test
+    public void testSnapshotIsSharedUntilModified() {
+        h.put(K1, V1);
+        Map<Object, Object> s = h.snapshot();
+        assertSame(s, h.snapshot());
+        h.put(K2, V2);
+        assertThat(s, not(hasKey(K2)));
+        Map<Object, Object> s2 = h.snapshot();
+        assertThat(s2, hasKey(K2));
+        h.remove(K1);
+        assertThat(s2, hasKey(K1));
+        assertThat(h.snapshot(), not(hasKey(K1)));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotIsImmutable() {
+        h.snapshot().put(K1, V1);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testViewsAreReadOnly() {
+        h.put(K1, V1);
+        h.keySet().remove(K1);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testClone() {
+        h.put(K1, V1);
+        Hashtable<Object, Object> h2 = (Hashtable<Object, Object>) h.clone();
+        assertThat(h2, instanceOf(ConcurrentHashtable.class));
+        h2.put(K2, V2);
+        assertThat(h, not(hasKey(K2)));
+        assertThat(h2, hasKey(K1));
+    }
+
+    @Test
+    public void testEnumerations() {
+        h.put(K1, V1);
+        assertEquals(Collections.singletonList(K1), Collections.list(h.keys()));
+        assertEquals(Collections.singletonList(V1), Collections.list(h.elements()));
+    }
+
+    @Test
+    public void testClear() {
+        h.put(K1, V1);
+        h.snapshot();
+        h.clear();
+        assertTrue(h.isEmpty());
+        assertTrue(h.snapshot().isEmpty());
+        assertFalse(h.containsKey(K1));
+    }
+
+    @Test
+    public void testLayerOver() {
+        Map<Object, Object> base = new HashMap<>();
+        base.put(K1, V1);
+        base.put(K2, V1);
+        h.put(K2, V2);
+        h.layerOver(Collections.unmodifiableMap(base));
+        assertSame(V1, h.get(K1));
+        assertTrue(h.containsKey(K1));
+        // the table's own entries win
+        assertSame(V2, h.get(K2));
+        assertSame(V1, h.putIfAbsent(K1, V2));
+        assertSame(V1, h.get(K1));
+        assertEquals(2, h.snapshot().size());
+        assertSame(V2, h.snapshot().get(K2));
+        assertSame(V1, h.put(K1, V2));
+        assertSame(V2, h.get(K1));
+    }
+
+    @Test
+    public void testLayerOverCopiesOnDemand() {
+        h.layerOver(Collections.singletonMap(K1, V1));
+        assertEquals(1, h.size());
+        assertSame(V1, h.remove(K1));
+        assertNull(h.get(K1));
+        assertTrue(h.isEmpty());
+        h.layerOver(Collections.singletonMap(K1, V1));
+        h.clear();
+        assertNull(h.get(K1));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class CopyOnWriteHashtableTest {
+
+    private static final Object K1 = new Object();
+    private static final Object K2 = new Object();
+    private static final Object V1 = new Object();
+    private static final Object V2 = new Object();
+    private Map<Object, Object> content;
+    private Hashtable<Object, Object> h;
+
+    @Before
+    public void setUp() {
+        Map<Object, Object> m = new HashMap<>();
+        m.put(K1, V1);
+        content = Collections.unmodifiableMap(m);
+        h = new CopyOnWriteHashtable<>(content);
+    }
+
+    @Test
+    public void testReadsSharedContent() {
+        assertSame(V1, h.get(K1));
+        assertTrue(h.containsKey(K1));
+        assertTrue(h.contains(V1));
+        assertEquals(1, h.size());
+        assertEquals(content, h);
+        assertEquals(content.hashCode(), h.hashCode());
+        assertEquals(Collections.singletonList(K1), Collections.list(h.keys()));
+        Map<Object, Object> seen = new HashMap<>();
+        h.forEach(seen::put);
+        assertEquals(content, seen);
+    }
+
+    @Test
+    public void testPutCopies() {
+        assertNull(h.put(K2, V2));
+        assertThat(content, not(hasKey(K2)));
+        assertSame(V1, h.get(K1));
+        assertSame(V2, h.get(K2));
+        assertEquals(2, h.size());
+    }
+
+    @Test
+    public void testRemoveThroughView() {
+        h.keySet().remove(K1);
+        assertTrue(h.isEmpty());
+        assertThat(content, hasKey(K1));
+    }
+
+    @Test
+    public void testClear() {
+        h.clear();
+        assertTrue(h.isEmpty());
+        assertEquals(1, content.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testClone() {
+        Hashtable<Object, Object> h2 = (Hashtable<Object, Object>) h.clone();
+        h2.put(K2, V2);
+        assertThat(h, not(hasKey(K2)));
+        assertSame(V1, h2.get(K1));
+    }
+}
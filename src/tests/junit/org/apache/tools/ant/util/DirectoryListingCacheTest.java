@@ -0,0 +1,146 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.tools.ant.DirectoryScanner;
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.FileSet;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DirectoryListingCacheTest {
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private Project project;
+    private File root;
+    private long old;
+
+    @Before
+    public void setUp() throws IOException {
+        project = new Project();
+        project.init();
+        root = testFolder.newFolder("root");
+        File sub = new File(root, "sub");
+        assertTrue(sub.mkdir());
+        assertTrue(new File(root, "a.txt").createNewFile());
+        assertTrue(new File(sub, "b.txt").createNewFile());
+        old = System.currentTimeMillis() - 60000;
+        makeOld(root);
+        makeOld(sub);
+    }
+
+    private void makeOld(File dir) {
+        assertTrue(dir.setLastModified(old));
+    }
+
+    @Test
+    public void testReusesListingOfUnmodifiedDirectory() {
+        DirectoryListingCache cache = DirectoryListingCache.getCache(project);
+        assertSame(cache, DirectoryListingCache.getCache(project));
+        DirectoryListingCache.Listing first = cache.list(root);
+        assertSame(first, cache.list(root));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testModifiedDirectoryIsReadAgain() throws IOException {
+        DirectoryListingCache cache = DirectoryListingCache.getCache(project);
+        DirectoryListingCache.Listing first = cache.list(root);
+        assertTrue(new File(root, "c.txt").createNewFile());
+        DirectoryListingCache.Listing second = cache.list(root);
+        assertNotSame(first, second);
+        assertEquals(3, second.getNames().length);
+        // recently modified directories are not cached
+        assertNotSame(second, cache.list(root));
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void testInvalidate() {
+        DirectoryListingCache cache = DirectoryListingCache.getCache(project);
+        File sub = new File(root, "sub");
+        cache.list(root);
+        cache.list(sub);
+        assertEquals(2, cache.size());
+        DirectoryListingCache.invalidate(project, new File(sub, "b.txt"));
+        assertEquals(0, cache.size());
+        cache.list(root);
+        cache.list(sub);
+        DirectoryListingCache.invalidateTree(project, sub);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testNoListingForFiles() {
+        DirectoryListingCache cache = DirectoryListingCache.getCache(project);
+        assertNull(cache.list(new File(root, "a.txt")));
+        assertNull(cache.list(new File(root, "missing")));
+    }
+
+    @Test
+    public void testCanBeDisabled() {
+        project.setProperty(MagicNames.SCANNER_CACHE, "false");
+        assertNull(DirectoryListingCache.getCache(project));
+        FileSet fs = new FileSet();
+        fs.setProject(project);
+        fs.setDir(root);
+        assertNull(fs.getDirectoryScanner().getListingCache());
+    }
+
+    @Test
+    public void testFileSetsShareListings() {
+        FileSet fs1 = new FileSet();
+        fs1.setProject(project);
+        fs1.setDir(root);
+        FileSet fs2 = new FileSet();
+        fs2.setProject(project);
+        fs2.setDir(root);
+        fs2.setIncludes("**/*.txt");
+
+        DirectoryScanner first = fs1.getDirectoryScanner();
+        DirectoryListingCache cache = DirectoryListingCache.getCache(project);
+        assertEquals(0, cache.getHits());
+        DirectoryScanner second = fs2.getDirectoryScanner();
+        assertEquals(2, cache.getHits());
+        assertArrayEquals(first.getIncludedFiles(), second.getIncludedFiles());
+
+        DirectoryScanner uncached = new DirectoryScanner();
+        uncached.setBasedir(root);
+        uncached.scan();
+        assertArrayEquals(uncached.getIncludedFiles(), second.getIncludedFiles());
+        assertArrayEquals(uncached.getIncludedDirectories(),
+                          first.getIncludedDirectories());
+    }
+}
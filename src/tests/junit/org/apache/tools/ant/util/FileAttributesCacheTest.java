@@ -0,0 +1,176 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.tools.ant.DefaultLogger;
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.taskdefs.Delete;
+import org.apache.tools.ant.types.resources.FileResource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileAttributesCacheTest {
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private Project project;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        project = new Project();
+        project.init();
+        file = testFolder.newFile("a.txt");
+        write("abc");
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes());
+    }
+
+    public static class RunnableTask extends Task {
+        private Runnable runnable;
+
+        @Override
+        public void execute() {
+            runnable.run();
+        }
+    }
+
+    private void inTask(Runnable r) {
+        RunnableTask task = new RunnableTask();
+        task.runnable = r;
+        task.setProject(project);
+        task.setTaskName("test");
+        task.perform();
+    }
+
+    private interface IORunnable {
+        void run() throws IOException;
+    }
+
+    private static Runnable io(IORunnable r) {
+        return () -> {
+            try {
+                r.run();
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    @Test
+    public void testAttributes() {
+        FileAttributesCache.Attributes attrs = FileAttributesCache.Attributes.read(file);
+        assertTrue(attrs.exists());
+        assertTrue(attrs.isFile());
+        assertFalse(attrs.isDirectory());
+        assertEquals(3, attrs.getSize());
+        assertEquals(file.lastModified(), attrs.getLastModified());
+
+        attrs = FileAttributesCache.Attributes.read(testFolder.getRoot());
+        assertTrue(attrs.isDirectory());
+        assertFalse(attrs.isFile());
+
+        attrs = FileAttributesCache.Attributes.read(new File(testFolder.getRoot(), "missing"));
+        assertFalse(attrs.exists());
+        assertEquals(0, attrs.getSize());
+        assertEquals(0, attrs.getLastModified());
+    }
+
+    @Test
+    public void testNotCachedOutsideOfTasks() throws IOException {
+        FileResource r = new FileResource(project, file);
+        assertEquals(3, r.getSize());
+        write("abcdef");
+        assertEquals(6, r.getSize());
+        assertEquals(0, FileAttributesCache.getCache(project).size());
+    }
+
+    @Test
+    public void testCachedWhileTaskIsRunning() {
+        FileResource r = new FileResource(project, file);
+        inTask(io(() -> {
+            assertEquals(3, r.getSize());
+            FileAttributesCache cache = FileAttributesCache.getCache(project);
+            assertSame(cache, FileAttributesCache.getCache(project));
+            assertEquals(1, cache.size());
+            write("abcdef");
+            // a different resource for the same file shares the snapshot
+            assertEquals(3, new FileResource(project, file).getSize());
+            FileAttributesCache.invalidate(project, file);
+            assertEquals(6, r.getSize());
+            write("abcdefghi");
+            FileAttributesCache.invalidateTree(project, testFolder.getRoot());
+            assertEquals(9, r.getSize());
+        }));
+        assertEquals(0, FileAttributesCache.getCache(project).size());
+        inTask(() -> assertEquals(9, r.getSize()));
+    }
+
+    @Test
+    public void testWritingTasksInvalidate() {
+        FileResource r = new FileResource(project, file);
+        inTask(() -> {
+            assertTrue(r.isExists());
+            Delete d = new Delete();
+            d.setProject(project);
+            d.setFile(file);
+            d.execute();
+            assertFalse(r.isExists());
+        });
+    }
+
+    @Test
+    public void testCanBeDisabled() {
+        project.setProperty(MagicNames.FILE_ATTRIBUTES_CACHE, "false");
+        assertNull(FileAttributesCache.getCache(project));
+        FileResource r = new FileResource(project, file);
+        inTask(io(() -> {
+            assertEquals(3, r.getSize());
+            write("abcdef");
+            assertEquals(6, r.getSize());
+        }));
+    }
+
+    @Test
+    public void testDoesNotEnableDebugMessages() {
+        DefaultLogger logger = new DefaultLogger();
+        logger.setMessageOutputLevel(Project.MSG_INFO);
+        project.addBuildListener(logger);
+        assertFalse(project.isLogEnabled(Project.MSG_DEBUG));
+        assertTrue(new FileResource(project, file).isExists());
+        assertFalse(project.isLogEnabled(Project.MSG_DEBUG));
+    }
+}
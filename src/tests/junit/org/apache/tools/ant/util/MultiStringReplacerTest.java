@@ -0,0 +1,185 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+public class MultiStringReplacerTest {
+
+    private static Map<String, String> map(String... keysAndValues) {
+        Map<String, String> m = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            m.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return m;
+    }
+
+    /** Tries every position in turn. */
+    private static String naiveReplace(Map<String, String> m, String text,
+                                       boolean longestMatch) {
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            String best = null;
+            for (String key : m.keySet()) {
+                if (!key.isEmpty() && text.startsWith(key, i)
+                    && (best == null || (longestMatch ? key.length() > best.length()
+                                         : key.length() < best.length()))) {
+                    best = key;
+                }
+            }
+            if (best == null) {
+                sb.append(text.charAt(i++));
+            } else {
+                sb.append(m.get(best));
+                i += best.length();
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(3)));
+        }
+        return sb.toString();
+    }
+
+    private static String readFully(Reader r) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buf = new char[3];
+        int n;
+        while ((n = r.read(buf, 0, buf.length)) != -1) {
+            sb.append(buf, 0, n);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testReplacesAllTokens() {
+        MultiStringReplacer r =
+            new MultiStringReplacer(map("@foo@", "1", "@bar@", "2", "", "x"));
+        assertEquals("1 and 2 and @baz@ and 1",
+                     r.replace("@foo@ and @bar@ and @baz@ and @foo@"));
+        assertEquals("", r.replace(""));
+        assertEquals("no tokens", r.replace("no tokens"));
+    }
+
+    @Test
+    public void testReplacementIsNotScannedAgain() {
+        MultiStringReplacer r = new MultiStringReplacer(map("a", "b", "b", "c"));
+        assertEquals("bcc", r.replace("abb"));
+    }
+
+    @Test
+    public void testLeftmostMatchWins() {
+        MultiStringReplacer r = new MultiStringReplacer(map("abcd", "1", "bc", "2"));
+        assertEquals("1", r.replace("abcd"));
+        assertEquals("a2e", r.replace("abce"));
+    }
+
+    @Test
+    public void testShortestOrLongestMatch() {
+        Map<String, String> m = map("ab", "1", "abc", "2");
+        assertEquals("1cd", new MultiStringReplacer(m, false).replace("abcd"));
+        assertEquals("2d", new MultiStringReplacer(m, true).replace("abcd"));
+        assertEquals("1x", new MultiStringReplacer(m, true).replace("abx"));
+    }
+
+    @Test
+    public void testReplacementFunction() {
+        MultiStringReplacer r = new MultiStringReplacer(map("@a@", "a", "@b@", "b"));
+        assertEquals("[a]-[b]",
+                     r.replace("@a@-@b@", v -> "[" + v + "]"));
+    }
+
+    @Test
+    public void testFilter() throws IOException {
+        MultiStringReplacer r = new MultiStringReplacer(map("@foo@", "1", "@bar@", "2"));
+        assertEquals("1 and 2 and @ba",
+                     readFully(r.filter(new StringReader("@foo@ and @bar@ and @ba"),
+                                        Function.identity())));
+        Reader filtered = r.filter(new StringReader("x@foo@"), Function.identity());
+        assertEquals('x', filtered.read());
+        assertEquals('1', filtered.read());
+        assertEquals(-1, filtered.read());
+    }
+
+    @Test
+    public void testPassAcrossChunks() {
+        MultiStringReplacer r = new MultiStringReplacer(map("@foo@", "1"));
+        StringBuilder out = new StringBuilder();
+        MultiStringReplacer.Pass p = r.newPass(out, Function.identity());
+        p.append("a@f", 0, 3);
+        assertEquals("a", out.toString());
+        p.append("oo@b@", 0, 5);
+        assertEquals("a1b", out.toString());
+        p.finish();
+        assertEquals("a1b@", out.toString());
+    }
+
+    @Test
+    public void testManyTokens() {
+        Map<String, String> m = new HashMap<>();
+        StringBuilder text = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            m.put("@TOKEN" + i + "@", "value" + i);
+            text.append("@TOKEN").append(i).append("@ ");
+            expected.append("value").append(i).append(' ');
+        }
+        assertEquals(expected.toString(), new MultiStringReplacer(m).replace(text.toString()));
+    }
+
+    @Test
+    public void testAgainstNaiveImplementation() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            Map<String, String> m = new HashMap<>();
+            int keys = 1 + random.nextInt(6);
+            for (int i = 0; i < keys; i++) {
+                m.put(randomString(random, 1 + random.nextInt(4)), "<" + i + ">");
+            }
+            String text = randomString(random, random.nextInt(40));
+            for (boolean longest : new boolean[] {false, true}) {
+                MultiStringReplacer r = new MultiStringReplacer(m, longest);
+                assertEquals(m + " in " + text + (longest ? " longest" : " shortest"),
+                             naiveReplace(m, text, longest), r.replace(text));
+            }
+        }
+    }
+
+    @Test
+    public void testIsEmpty() {
+        assertTrue(new MultiStringReplacer(map("", "x")).isEmpty());
+        assertEquals("abc", new MultiStringReplacer(map()).replace("abc"));
+    }
+}
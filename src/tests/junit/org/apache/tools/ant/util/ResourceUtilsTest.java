@@ -18,20 +18,40 @@
 
 package org.apache.tools.ant.util;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+
 import org.apache.tools.ant.Project;
+import org.apache.tools.ant.ProjectComponent;
 import org.apache.tools.ant.taskdefs.Echo;
+import org.apache.tools.ant.types.FilterChain;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceFactory;
+import org.apache.tools.ant.types.resources.FileResource;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 /**
  * Tests for org.apache.tools.ant.util.ResourceUtils.
  */
 public class ResourceUtilsTest implements ResourceFactory, FileNameMapper {
 
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
     private Echo taskINeedForLogging = new Echo();
 
     @Before
@@ -49,6 +69,86 @@ public class ResourceUtilsTest implements ResourceFactory, FileNameMapper {
         assertEquals(1, toNew.length);
     }
 
+    @Test
+    public void testCopyAsHardLink() throws IOException {
+        File source = newFile("source", "content");
+        File dest = new File(testFolder.getRoot(), "sub/dest");
+        ResourceUtils.LinkMode used = copy(source, dest, null, ResourceUtils.LinkMode.hard);
+        assumeTrue("file system supports hard links", used == ResourceUtils.LinkMode.hard);
+        assertTrue(Files.isSameFile(source.toPath(), dest.toPath()));
+    }
+
+    @Test
+    public void testHardLinkReplacesExistingLink() throws IOException {
+        File source = newFile("source", "content");
+        File other = newFile("other", "other content");
+        File dest = new File(testFolder.getRoot(), "dest");
+        ResourceUtils.LinkMode used = copy(other, dest, null, ResourceUtils.LinkMode.hard);
+        assumeTrue("file system supports hard links", used == ResourceUtils.LinkMode.hard);
+        copy(source, dest, null, ResourceUtils.LinkMode.hard);
+        assertTrue(Files.isSameFile(source.toPath(), dest.toPath()));
+        // the file dest has been linked to before must not be modified
+        assertArrayEquals("other content".getBytes(StandardCharsets.UTF_8),
+                          Files.readAllBytes(other.toPath()));
+    }
+
+    @Test
+    public void testCopyAsClone() throws IOException {
+        File source = newFile("source", "content");
+        File dest = new File(testFolder.getRoot(), "dest");
+        assertEquals(ResourceUtils.LinkMode.clone,
+                     copy(source, dest, null, ResourceUtils.LinkMode.clone));
+        assertFalse(Files.isSameFile(source.toPath(), dest.toPath()));
+        assertArrayEquals(Files.readAllBytes(source.toPath()),
+                          Files.readAllBytes(dest.toPath()));
+    }
+
+    @Test
+    public void testLinkMessagesAreLoggedByCaller() throws IOException {
+        File source = newFile("source", "content");
+        File dest = new File(testFolder.getRoot(), "dest");
+        List<String> messages = new ArrayList<>();
+        ProjectComponent caller = new ProjectComponent() {
+            @Override
+            public void log(String msg, int msgLevel) {
+                messages.add(msg);
+            }
+        };
+        caller.setProject(new Project());
+        ResourceUtils.copyResource(new FileResource(source), new FileResource(dest),
+                                   null, null, true, false, false, null, null,
+                                   caller, false, ResourceUtils.LinkMode.clone);
+        assertEquals(1, messages.size());
+        assertTrue(messages.get(0).startsWith("Cloned "));
+    }
+
+    @Test
+    public void testFilteredCopyIsNeverLinked() throws IOException {
+        File source = newFile("source", "content");
+        File dest = new File(testFolder.getRoot(), "dest");
+        Vector<FilterChain> filterChains = new Vector<>();
+        filterChains.add(new FilterChain());
+        assertEquals(ResourceUtils.LinkMode.none,
+                     copy(source, dest, filterChains, ResourceUtils.LinkMode.hard));
+        assertFalse(Files.isSameFile(source.toPath(), dest.toPath()));
+    }
+
+    private File newFile(String name, String content) throws IOException {
+        File f = testFolder.newFile(name);
+        Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return f;
+    }
+
+    private ResourceUtils.LinkMode copy(File source, File dest,
+                                        Vector<FilterChain> filterChains,
+                                        ResourceUtils.LinkMode linkMode)
+        throws IOException {
+        return ResourceUtils.copyResource(new FileResource(source), new FileResource(dest),
+                                          null, filterChains, true, false, false, null,
+                                          null, taskINeedForLogging, false,
+                                          linkMode);
+    }
+
     /* ============ ResourceFactory interface ====================== */
     public Resource getResource(String name) {
         return new Resource(name); // implies lastModified == 0
@@ -0,0 +1,123 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class XxHash64Test {
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private static long hash(byte[] data) {
+        XxHash64 h = new XxHash64();
+        h.update(data, 0, data.length);
+        return h.getValue();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** A kilobyte of counting bytes followed by "xyz". */
+    private static byte[] longInput() {
+        byte[] data = new byte[1027];
+        for (int i = 0; i < 1024; i++) {
+            data[i] = (byte) i;
+        }
+        System.arraycopy(bytes("xyz"), 0, data, 1024, 3);
+        return data;
+    }
+
+    @Test
+    public void testReferenceValues() {
+        assertEquals(0xef46db3751d8e999L, hash(new byte[0]));
+        assertEquals(0xd24ec4f1a98c6e5bL, hash(bytes("a")));
+        assertEquals(0x44bc2cf5ad770999L, hash(bytes("abc")));
+        assertEquals(0xfbcea83c8a378bf1L,
+                     hash(bytes("Nobody inspects the spammish repetition")));
+        assertEquals(0xe146cb31b65bc21aL, hash(longInput()));
+    }
+
+    @Test
+    public void testChunkingDoesNotMatter() {
+        byte[] data = longInput();
+        long expected = hash(data);
+        for (int chunk = 1; chunk < 70; chunk++) {
+            XxHash64 h = new XxHash64();
+            for (int off = 0; off < data.length; off += chunk) {
+                int len = Math.min(chunk, data.length - off);
+                if (chunk % 3 == 0) {
+                    ByteBuffer buf = ByteBuffer.allocateDirect(len).put(data, off, len);
+                    buf.flip();
+                    h.update(buf);
+                } else if (len == 1) {
+                    h.update(data[off]);
+                } else {
+                    h.update(data, off, len);
+                }
+            }
+            assertEquals("chunk size " + chunk, expected, h.getValue());
+        }
+    }
+
+    @Test
+    public void testReset() {
+        XxHash64 h = new XxHash64();
+        h.update(bytes("something"), 0, 9);
+        h.reset();
+        h.update(bytes("abc"), 0, 3);
+        assertEquals(0x44bc2cf5ad770999L, h.getValue());
+    }
+
+    @Test
+    public void testMessageDigest() {
+        MessageDigest md = XxHash64.newMessageDigest();
+        assertEquals(XxHash64.ALGORITHM, md.getAlgorithm());
+        md.update(bytes("abc"));
+        assertArrayEquals(new byte[] {0x44, (byte) 0xbc, 0x2c, (byte) 0xf5,
+                                      (byte) 0xad, 0x77, 0x09, (byte) 0x99},
+                          md.digest());
+        // digest resets
+        assertEquals(0xd24ec4f1a98c6e5bL, ByteBuffer.wrap(md.digest(bytes("a"))).getLong());
+    }
+
+    @Test
+    public void testHashFile() throws IOException {
+        File f = testFolder.newFile("data");
+        byte[] data = new byte[200000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        Files.write(f.toPath(), data);
+        assertEquals(hash(data), XxHash64.hash(f.toPath()));
+    }
+}